@@ -22,4 +22,14 @@ public interface SourceMethod extends Method {
     boolean shouldRunOnPrimaryNodeOnly();
 
     SourceThreadingModel getThreadingModel();
+
+    int getThreads();
+
+    long getStopTimeout();
+
+    int getBatchSize();
+
+    long getBatchTimeout();
+
+    int getMaxInFlight();
 }
@@ -32,12 +32,31 @@ import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.ElementFilter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public abstract class AbstractAnnotationProcessor extends AbstractProcessor {
 
-    private Context context;
+    /**
+     * Processor option that builds the code, schema and studio models concurrently
+     */
+    public static final String PARALLEL_GENERATION_OPTION = "enableParallelGeneration";
+
+    /**
+     * Processor option that skips generation when the annotated types did not change since the last
+     * generation, and leaves byte-identical files untouched. The output directory must be compiled
+     * afterwards, as the skipped files are not handed to the filer.
+     */
+    public static final String INCREMENTAL_GENERATION_OPTION = "enableIncrementalGeneration";
+
+    private AnnotationProcessorContext context;
 
     /**
      * Retrieve a list of validators for the specified object type
@@ -57,12 +76,24 @@ public abstract class AbstractAnnotationProcessor extends AbstractProcessor {
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
         createContext();
 
+        GenerationManifest manifest = null;
+        if (isIncrementalGenerationEnabled()) {
+            manifest = createGenerationManifest(annotations, env);
+            if (manifest != null && manifest.isUpToDate()) {
+                context.note("Generated code is up to date, skipping generation");
+                return true;
+            }
+        }
+
         for (TypeElement annotation : annotations) {
             context.note("Searching for classes annotated with @" + annotation.getSimpleName().toString());
             Set<? extends Element> elements = env.getElementsAnnotatedWith(annotation);
             Set<TypeElement> typeElements = ElementFilter.typesIn(elements);
+            List<Type> types = new ArrayList<Type>(typeElements.size());
             for (TypeElement e : typeElements) {
-                Type type = new AnnotationProcessorType(e, processingEnv.getTypeUtils(), processingEnv.getElementUtils(), Trees.instance(processingEnv));
+                types.add(new AnnotationProcessorType(e, processingEnv.getTypeUtils(), processingEnv.getElementUtils(), Trees.instance(processingEnv)));
+            }
+            for (Type type : types) {
                 context.note("Validating " + type.getSimpleName().toString() + " class");
                 for (AnnotationVerifier annotationVerifier : getAnnotationVerifiers()) {
                     try {
@@ -75,8 +106,7 @@ public abstract class AbstractAnnotationProcessor extends AbstractProcessor {
                     }
                 }
             }
-            for (TypeElement e : typeElements) {
-                Type type = new AnnotationProcessorType(e, processingEnv.getTypeUtils(), processingEnv.getElementUtils(), Trees.instance(processingEnv));
+            for (Type type : types) {
                 context.note("Generating code for " + type.getSimpleName().toString() + " class");
                 for (Generator generator : getGenerators()) {
                     try {
@@ -92,7 +122,46 @@ public abstract class AbstractAnnotationProcessor extends AbstractProcessor {
             }
         }
 
+        boolean built;
+        if (isParallelGenerationEnabled()) {
+            built = buildModelsInParallel();
+        } else {
+            built = buildModels();
+        }
+
+        if (built && manifest != null) {
+            try {
+                manifest.store();
+            } catch (IOException e) {
+                context.error(e.getMessage());
+                return false;
+            }
+        }
+
+        return built;
+    }
+
+    /**
+     * Every type in the round takes part in the manifest, since the schema and spring files are shared by
+     * all of them and can only be generated as a whole.
+     *
+     * @return The manifest for this round, or null if there are no annotated types in it
+     */
+    private GenerationManifest createGenerationManifest(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+        Set<TypeElement> typeElements = new LinkedHashSet<TypeElement>();
+        for (TypeElement annotation : annotations) {
+            typeElements.addAll(ElementFilter.typesIn(env.getElementsAnnotatedWith(annotation)));
+        }
+        if (typeElements.isEmpty()) {
+            return null;
+        }
 
+        List<Object> components = new ArrayList<Object>(getGenerators());
+        components.addAll(getAnnotationVerifiers());
+        return new GenerationManifest(processingEnv, typeElements, components);
+    }
+
+    private boolean buildModels() {
         try {
             context.getCodeModel().build();
         } catch (IOException e) {
@@ -117,8 +186,60 @@ public abstract class AbstractAnnotationProcessor extends AbstractProcessor {
         return true;
     }
 
+    /**
+     * Builds the code, schema and studio models concurrently. Every model writes to memory, and
+     * the output is handed to the filer from this thread once all of them are done since the
+     * filer is not thread safe.
+     */
+    private boolean buildModelsInParallel() {
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            Future<Void> schemaModel = executorService.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    context.getSchemaModel().build();
+                    return null;
+                }
+            });
+            Future<Void> studioModel = executorService.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    context.getStudioModel().build();
+                    return null;
+                }
+            });
+            context.getCodeModel().build(executorService);
+            schemaModel.get();
+            studioModel.get();
+
+            context.commit();
+        } catch (IOException e) {
+            context.error(e.getMessage());
+            return false;
+        } catch (ExecutionException e) {
+            context.error(e.getCause().getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            context.error(e.getMessage());
+            return false;
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        return true;
+    }
+
+    private boolean isParallelGenerationEnabled() {
+        return "true".equals(processingEnv.getOptions().get(PARALLEL_GENERATION_OPTION));
+    }
+
+    private boolean isIncrementalGenerationEnabled() {
+        return "true".equals(processingEnv.getOptions().get(INCREMENTAL_GENERATION_OPTION));
+    }
+
     private void createContext() {
-        context = new AnnotationProcessorContext(processingEnv);
+        context = new AnnotationProcessorContext(processingEnv, isParallelGenerationEnabled(), isIncrementalGenerationEnabled());
     }
 
     protected Context getContext() {
@@ -20,7 +20,9 @@ package org.mule.devkit.apt;
 import org.mule.devkit.generation.api.Context;
 import org.mule.devkit.model.Identifiable;
 import org.mule.devkit.model.code.CodeModel;
+import org.mule.devkit.model.code.CodeWriter;
 import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.writer.BufferedCodeWriter;
 import org.mule.devkit.model.code.writer.FilerCodeWriter;
 import org.mule.devkit.model.schema.SchemaModel;
 import org.mule.devkit.model.studio.StudioModel;
@@ -30,6 +32,7 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -45,18 +48,50 @@ public class AnnotationProcessorContext implements Context {
     private Types types;
     private Set<TypeMirror> registeredEnums;
     private Set<TypeMirror> registeredJaxbElements;
+    private List<BufferedCodeWriter> bufferedCodeWriters;
 
     public AnnotationProcessorContext(ProcessingEnvironment env) {
+        this(env, false, false);
+    }
+
+    /**
+     * @param env                Processing environment
+     * @param bufferedOutput     Whether the models write to memory instead of the filer. Buffered output
+     *                           allows the models to be built concurrently, and is written to the filer
+     *                           when {@link #commit()} is called.
+     * @param skipUnchangedFiles Whether files identical to the ones already generated should not be written
+     */
+    public AnnotationProcessorContext(ProcessingEnvironment env, boolean bufferedOutput, boolean skipUnchangedFiles) {
         registerAtBoot = new ArrayList<DefinedClass>();
-        codeModel = new CodeModel(new FilerCodeWriter(env.getFiler()));
-        schemaModel = new SchemaModel(new FilerCodeWriter(env.getFiler()));
+        bufferedCodeWriters = new ArrayList<BufferedCodeWriter>();
+        codeModel = new CodeModel(createCodeWriter(env, bufferedOutput, skipUnchangedFiles));
+        schemaModel = new SchemaModel(createCodeWriter(env, bufferedOutput, skipUnchangedFiles));
         types = env.getTypeUtils();
-        studioModel = new StudioModel(new FilerCodeWriter(env.getFiler()));
+        studioModel = new StudioModel(createCodeWriter(env, bufferedOutput, skipUnchangedFiles));
         registeredEnums = new HashSet<TypeMirror>();
         registeredJaxbElements = new HashSet<TypeMirror>();
         messager = env.getMessager();
     }
 
+    private CodeWriter createCodeWriter(ProcessingEnvironment env, boolean bufferedOutput, boolean skipUnchangedFiles) {
+        CodeWriter codeWriter = new FilerCodeWriter(env.getFiler(), skipUnchangedFiles);
+        if (bufferedOutput) {
+            BufferedCodeWriter bufferedCodeWriter = new BufferedCodeWriter(codeWriter);
+            bufferedCodeWriters.add(bufferedCodeWriter);
+            return bufferedCodeWriter;
+        }
+        return codeWriter;
+    }
+
+    /**
+     * Writes the buffered output of the models to the filer. Does nothing if the output is not buffered.
+     */
+    public void commit() throws IOException {
+        for (BufferedCodeWriter bufferedCodeWriter : bufferedCodeWriters) {
+            bufferedCodeWriter.commit();
+        }
+    }
+
     @Override
     public CodeModel getCodeModel() {
         return codeModel;
@@ -0,0 +1,240 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.apt;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static javax.tools.StandardLocation.SOURCE_OUTPUT;
+
+/**
+ * Keeps track of the fingerprint of every annotated type from the last successful generation.
+ * <p/>
+ * A fingerprint covers the signature model of the type (annotations, fields, methods, parameters and their
+ * javadoc), the same model of every type reachable from it through superclasses, interfaces, nested types and
+ * member signatures, the processor options and the version of the DevKit generators. JDK and Mule API types are
+ * not followed since they only change along with the DevKit version. If none of them changed, the output from
+ * the last generation is still valid.
+ */
+public class GenerationManifest {
+    private static final String MANIFEST_FILE_NAME = "devkit-generation.properties";
+    private static final String DEVKIT_VERSION_KEY = "devkit.version";
+    private static final String OPTIONS_KEY = "devkit.options";
+
+    private ProcessingEnvironment processingEnv;
+    private Properties fingerprints;
+
+    /**
+     * @param processingEnv Processing environment
+     * @param types         Annotated types in this round
+     * @param components    Generators and verifiers in use, which identify the version of the DevKit
+     */
+    public GenerationManifest(ProcessingEnvironment processingEnv, Collection<TypeElement> types, Collection<?> components) {
+        this.processingEnv = processingEnv;
+        this.fingerprints = new Properties();
+
+        fingerprints.setProperty(DEVKIT_VERSION_KEY, getDevKitVersion(components));
+        fingerprints.setProperty(OPTIONS_KEY, digest(new TreeMap<String, String>(processingEnv.getOptions()).toString()));
+        for (TypeElement type : types) {
+            fingerprints.setProperty(type.getQualifiedName().toString(), fingerprint(type));
+        }
+    }
+
+    /**
+     * Whether the manifest stored by the last generation has exactly the same fingerprints
+     */
+    public boolean isUpToDate() {
+        InputStream in = null;
+        try {
+            in = processingEnv.getFiler().getResource(SOURCE_OUTPUT, "", MANIFEST_FILE_NAME).openInputStream();
+            Properties previous = new Properties();
+            previous.load(in);
+            return previous.equals(fingerprints);
+        } catch (IOException e) {
+            // nothing was generated before
+            return false;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    public void store() throws IOException {
+        OutputStream out = processingEnv.getFiler().createResource(SOURCE_OUTPUT, "", MANIFEST_FILE_NAME).openOutputStream();
+        try {
+            fingerprints.store(out, "Generated by the Mule DevKit, do not edit");
+        } finally {
+            out.close();
+        }
+    }
+
+    private String fingerprint(TypeElement type) {
+        StringBuilder model = new StringBuilder();
+
+        // generated transformers and schema types depend on nested pojos and enums and on inherited members too
+        Set<String> visited = new HashSet<String>();
+        LinkedList<TypeElement> pending = new LinkedList<TypeElement>();
+        visited.add(type.getQualifiedName().toString());
+        pending.add(type);
+        while (!pending.isEmpty()) {
+            TypeElement current = pending.removeFirst();
+            Set<String> referencedTypes = new TreeSet<String>();
+            appendType(model, current, referencedTypes);
+            for (String referencedType : referencedTypes) {
+                if (visited.add(referencedType)) {
+                    TypeElement referencedElement = processingEnv.getElementUtils().getTypeElement(referencedType);
+                    if (referencedElement != null) {
+                        pending.add(referencedElement);
+                    }
+                }
+            }
+        }
+
+        return digest(model.toString());
+    }
+
+    private void appendType(StringBuilder model, TypeElement type, Set<String> referencedTypes) {
+        appendElement(model, type);
+        model.append(type.getSuperclass()).append('\n');
+        model.append(type.getInterfaces()).append('\n');
+        collectReferencedTypes(type.getSuperclass(), referencedTypes);
+        for (TypeMirror superInterface : type.getInterfaces()) {
+            collectReferencedTypes(superInterface, referencedTypes);
+        }
+
+        for (Element member : type.getEnclosedElements()) {
+            appendElement(model, member);
+            if (member instanceof ExecutableElement) {
+                ExecutableElement method = (ExecutableElement) member;
+                for (VariableElement parameter : method.getParameters()) {
+                    appendElement(model, parameter);
+                    collectReferencedTypes(parameter.asType(), referencedTypes);
+                }
+                model.append(method.getThrownTypes()).append('\n');
+                collectReferencedTypes(method.getReturnType(), referencedTypes);
+            } else {
+                collectReferencedTypes(member.asType(), referencedTypes);
+            }
+        }
+    }
+
+    private void appendElement(StringBuilder model, Element element) {
+        model.append(element.getKind()).append(' ');
+        model.append(element.getModifiers()).append(' ');
+        model.append(element.asType()).append(' ');
+        model.append(element.getSimpleName()).append('\n');
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            model.append(annotation).append('\n');
+        }
+        String docComment = processingEnv.getElementUtils().getDocComment(element);
+        if (docComment != null) {
+            model.append(docComment).append('\n');
+        }
+    }
+
+    private void collectReferencedTypes(TypeMirror type, Set<String> referencedTypes) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            collectReferencedTypes(((ArrayType) type).getComponentType(), referencedTypes);
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declaredType = (DeclaredType) type;
+            String name = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+            if (!name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("org.mule.api.")) {
+                referencedTypes.add(name);
+            }
+            for (TypeMirror typeArgument : declaredType.getTypeArguments()) {
+                collectReferencedTypes(typeArgument, referencedTypes);
+            }
+        }
+    }
+
+    /**
+     * The implementation version is not reliable for snapshots, so the location and timestamp of every
+     * jar that contributes generators is part of the version too.
+     */
+    private static String getDevKitVersion(Collection<?> components) {
+        Map<String, Long> locations = new TreeMap<String, Long>();
+        Set<Class<?>> classes = new HashSet<Class<?>>();
+        classes.add(GenerationManifest.class);
+        for (Object component : components) {
+            classes.add(component.getClass());
+        }
+
+        for (Class<?> clazz : classes) {
+            try {
+                CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+                if (codeSource != null && codeSource.getLocation() != null) {
+                    File location = new File(codeSource.getLocation().toURI());
+                    locations.put(location.getPath(), location.lastModified());
+                }
+            } catch (URISyntaxException e) {
+                locations.put(clazz.getName(), 0L);
+            } catch (IllegalArgumentException e) {
+                locations.put(clazz.getName(), 0L);
+            }
+        }
+
+        return GenerationManifest.class.getPackage().getImplementationVersion() + " " + digest(locations.toString());
+    }
+
+    private static String digest(String value) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = messageDigest.digest(value.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -29,18 +29,28 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class AnnotationProcessorMethod extends AnnotationProcessorIdentifiable<ExecutableElement, Type> implements Method {
+    private List<Parameter> parameters;
+
     public AnnotationProcessorMethod(ExecutableElement element, Type parent, Types types, Elements elements, Trees trees) {
         super(element, parent, types, elements, trees);
     }
 
     @Override
     public List<Parameter> getParameters() {
-        List<Parameter> parameters = new ArrayList<Parameter>();
-        for(VariableElement variableElement : innerElement.getParameters() ) {
-            parameters.add(new AnnotationProcessorParameter(variableElement, this, types, elements, trees));
+        return new ArrayList<Parameter>(parameters());
+    }
+
+    private synchronized List<Parameter> parameters() {
+        if (parameters == null) {
+            List<Parameter> result = new ArrayList<Parameter>();
+            for(VariableElement variableElement : innerElement.getParameters() ) {
+                result.add(new AnnotationProcessorParameter(variableElement, this, types, elements, trees));
+            }
+            parameters = Collections.unmodifiableList(result);
         }
 
         return parameters;
@@ -64,7 +74,7 @@ public class AnnotationProcessorMethod extends AnnotationProcessorIdentifiable<E
     @Override
     public boolean hasOnlyOneChildElement() {
         int requiredChildElements = 0;
-        for (Parameter variable : getParameters()) {
+        for (Parameter variable : parameters()) {
             if (variable.shouldBeIgnored()) {
                 continue;
             }
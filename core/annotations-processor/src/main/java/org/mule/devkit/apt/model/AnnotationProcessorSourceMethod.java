@@ -41,4 +41,29 @@ public class AnnotationProcessorSourceMethod extends AnnotationProcessorMethod i
     public SourceThreadingModel getThreadingModel() {
         return getAnnotation(Source.class).threadingModel();
     }
+
+    @Override
+    public int getThreads() {
+        return getAnnotation(Source.class).threads();
+    }
+
+    @Override
+    public long getStopTimeout() {
+        return getAnnotation(Source.class).stopTimeout();
+    }
+
+    @Override
+    public int getBatchSize() {
+        return getAnnotation(Source.class).batchSize();
+    }
+
+    @Override
+    public long getBatchTimeout() {
+        return getAnnotation(Source.class).batchTimeout();
+    }
+
+    @Override
+    public int getMaxInFlight() {
+        return getAnnotation(Source.class).maxInFlight();
+    }
 }
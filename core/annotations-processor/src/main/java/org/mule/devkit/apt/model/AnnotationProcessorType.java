@@ -49,29 +49,35 @@ import javax.lang.model.util.Types;
 import javax.tools.JavaFileObject;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class AnnotationProcessorType extends AnnotationProcessorIdentifiable<TypeElement, Type> implements Type {
     private static final String XSD_EXTENSION = ".xsd";
 
+    /**
+     * The model of a type does not change during a round, so the wrappers around its
+     * enclosed elements are built once and shared by every verifier and generator. The
+     * public getters hand out copies since callers are free to sort or modify them.
+     */
+    private List<Field> fields;
+    private List<Method> methods;
+    private List<SourceMethod> sourceMethods;
+    private final ConcurrentMap<Class<? extends Annotation>, List<Method>> methodsByAnnotation = new ConcurrentHashMap<Class<? extends Annotation>, List<Method>>();
+    private final ConcurrentMap<Class<? extends Annotation>, List<Method>> methodsByParameterAnnotation = new ConcurrentHashMap<Class<? extends Annotation>, List<Method>>();
+    private final ConcurrentMap<Class<? extends Annotation>, List<Field>> fieldsByAnnotation = new ConcurrentHashMap<Class<? extends Annotation>, List<Field>>();
+
     public AnnotationProcessorType(TypeElement innerElement, Types types, Elements elements, Trees trees) {
         super(innerElement, null, types, elements, trees);
     }
 
     @Override
     public boolean needsConfig() {
-        boolean needsConfig = false;
-
-        for (Field variable : getFieldsAnnotatedWith(Configurable.class)) {
-            needsConfig = true;
-        }
-
-        if (innerElement.getAnnotation(OAuth.class) != null ||
-                innerElement.getAnnotation(OAuth2.class) != null) {
-            needsConfig = true;
-        }
-
-        return needsConfig;
+        return hasFieldAnnotatedWith(Configurable.class) ||
+                innerElement.getAnnotation(OAuth.class) != null ||
+                innerElement.getAnnotation(OAuth2.class) != null;
     }
 
     @Override
@@ -81,7 +87,7 @@ public class AnnotationProcessorType extends AnnotationProcessorIdentifiable<Typ
 
     @Override
     public boolean hasProcessorMethodWithParameter(Class<?> parameterType) {
-        for (Method method : getMethodsAnnotatedWith(Processor.class)) {
+        for (Method method : methodsAnnotatedWith(Processor.class)) {
             for (Parameter parameter : method.getParameters()) {
                 if (parameter.asType().toString().startsWith(parameterType.getName())) {
                     return true;
@@ -93,7 +99,7 @@ public class AnnotationProcessorType extends AnnotationProcessorIdentifiable<Typ
 
     @Override
     public boolean hasConfigurableWithType(Class<?> parameterType) {
-        for (Field field : getFieldsAnnotatedWith(Configurable.class)) {
+        for (Field field : fieldsAnnotatedWith(Configurable.class)) {
             if (field.asType().toString().startsWith(parameterType.getName())) {
                 return true;
             }
@@ -103,7 +109,7 @@ public class AnnotationProcessorType extends AnnotationProcessorIdentifiable<Typ
 
     @Override
     public boolean hasProcessorMethodWithParameterListOf(Class<?> listGenericType) {
-        for (Method method : getMethodsAnnotatedWith(Processor.class)) {
+        for (Method method : methodsAnnotatedWith(Processor.class)) {
             for (Parameter parameter : method.getParameters()) {
                 if (parameter.asType().toString().startsWith(List.class.getName())) {
                     List<? extends TypeMirror> typeArguments = ((DeclaredType) parameter.asType()).getTypeArguments();
@@ -123,79 +129,109 @@ public class AnnotationProcessorType extends AnnotationProcessorIdentifiable<Typ
 
     @Override
     public List<Method> getMethodsAnnotatedWith(Class<? extends Annotation> annotation) {
-        List<Method> result = new ArrayList<Method>();
-        for (Method method : getMethods()) {
-            if (method.getAnnotation(annotation) != null) {
-                result.add(method);
+        return new ArrayList<Method>(methodsAnnotatedWith(annotation));
+    }
+
+    private List<Method> methodsAnnotatedWith(Class<? extends Annotation> annotation) {
+        List<Method> result = methodsByAnnotation.get(annotation);
+        if (result == null) {
+            List<Method> annotatedMethods = new ArrayList<Method>();
+            for (Method method : methods()) {
+                if (method.getAnnotation(annotation) != null) {
+                    annotatedMethods.add(method);
+                }
             }
+            result = cache(methodsByAnnotation, annotation, annotatedMethods);
         }
         return result;
     }
 
     @Override
     public List<Method> getMethodsWhoseParametersAreAnnotatedWith(Class<? extends Annotation> annotation) {
-        List<Method> result = new ArrayList<Method>();
-        for (Method method : getMethods()) {
-            for (Parameter parameter : method.getParameters()) {
-                if (parameter.getAnnotation(annotation) != null) {
-                    result.add(method);
+        List<Method> result = methodsByParameterAnnotation.get(annotation);
+        if (result == null) {
+            List<Method> annotatedMethods = new ArrayList<Method>();
+            for (Method method : methods()) {
+                for (Parameter parameter : method.getParameters()) {
+                    if (parameter.getAnnotation(annotation) != null) {
+                        annotatedMethods.add(method);
+                    }
                 }
             }
+            result = cache(methodsByParameterAnnotation, annotation, annotatedMethods);
         }
-        return result;
+        return new ArrayList<Method>(result);
     }
 
     @Override
     public List<Field> getFieldsAnnotatedWith(Class<? extends Annotation> annotation) {
-        List<Field> result = new ArrayList<Field>();
-        for (Field field : getFields()) {
-            if (field.getAnnotation(annotation) != null) {
-                result.add(field);
+        return new ArrayList<Field>(fieldsAnnotatedWith(annotation));
+    }
+
+    private List<Field> fieldsAnnotatedWith(Class<? extends Annotation> annotation) {
+        List<Field> result = fieldsByAnnotation.get(annotation);
+        if (result == null) {
+            List<Field> annotatedFields = new ArrayList<Field>();
+            for (Field field : fields()) {
+                if (field.getAnnotation(annotation) != null) {
+                    annotatedFields.add(field);
+                }
             }
+            result = cache(fieldsByAnnotation, annotation, annotatedFields);
         }
         return result;
     }
 
     @Override
     public boolean hasMethodsAnnotatedWith(Class<? extends Annotation> annotation) {
-        for (Method method : getMethods()) {
-            if (method.getAnnotation(annotation) != null) {
-                return true;
-            }
-        }
-        return false;
+        return !methodsAnnotatedWith(annotation).isEmpty();
     }
 
     @Override
     public boolean hasFieldAnnotatedWith(Class<? extends Annotation> annotation) {
-        for (Field field : getFields()) {
-            if (field.getAnnotation(annotation) != null) {
-                return true;
-            }
-        }
-        return false;
+        return !fieldsAnnotatedWith(annotation).isEmpty();
     }
 
     @Override
     public List<Field> getFields() {
-        List<Field> fields = new ArrayList<Field>();
-        for(VariableElement variableElement : ElementFilter.fieldsIn(innerElement.getEnclosedElements()) ) {
-            fields.add(new AnnotationProcessorField(variableElement, this, types, elements, trees));
+        return new ArrayList<Field>(fields());
+    }
+
+    @Override
+    public List<Method> getMethods() {
+        return new ArrayList<Method>(methods());
+    }
+
+    private synchronized List<Field> fields() {
+        if (fields == null) {
+            List<Field> result = new ArrayList<Field>();
+            for(VariableElement variableElement : ElementFilter.fieldsIn(innerElement.getEnclosedElements()) ) {
+                result.add(new AnnotationProcessorField(variableElement, this, types, elements, trees));
+            }
+            fields = Collections.unmodifiableList(result);
         }
 
         return fields;
     }
 
-    @Override
-    public List<Method> getMethods() {
-        List<Method> methods = new ArrayList<Method>();
-        for(ExecutableElement executableElement : ElementFilter.methodsIn(innerElement.getEnclosedElements()) ) {
-            methods.add(new AnnotationProcessorMethod(executableElement, this, types, elements, trees));
+    private synchronized List<Method> methods() {
+        if (methods == null) {
+            List<Method> result = new ArrayList<Method>();
+            for(ExecutableElement executableElement : ElementFilter.methodsIn(innerElement.getEnclosedElements()) ) {
+                result.add(new AnnotationProcessorMethod(executableElement, this, types, elements, trees));
+            }
+            methods = Collections.unmodifiableList(result);
         }
 
         return methods;
     }
 
+    private static <T> List<T> cache(ConcurrentMap<Class<? extends Annotation>, List<T>> cache, Class<? extends Annotation> annotation, List<T> value) {
+        List<T> result = Collections.unmodifiableList(value);
+        List<T> existing = cache.putIfAbsent(annotation, result);
+        return existing != null ? existing : result;
+    }
+
     @Override
     public boolean isInterface() {
         return innerElement.getKind() == ElementKind.INTERFACE;
@@ -355,15 +391,21 @@ public class AnnotationProcessorType extends AnnotationProcessorIdentifiable<Typ
 
     @Override
     public List<SourceMethod> getSourceMethods() {
-        List<SourceMethod> methods = new ArrayList<SourceMethod>();
-        for(ExecutableElement executableElement : ElementFilter.methodsIn(innerElement.getEnclosedElements()) ) {
-            if(executableElement.getAnnotation(Source.class) != null ) {
-                methods.add(new AnnotationProcessorSourceMethod(executableElement, this, types, elements, trees));
+        return new ArrayList<SourceMethod>(sourceMethods());
+    }
+
+    private synchronized List<SourceMethod> sourceMethods() {
+        if (sourceMethods == null) {
+            List<SourceMethod> result = new ArrayList<SourceMethod>();
+            for(ExecutableElement executableElement : ElementFilter.methodsIn(innerElement.getEnclosedElements()) ) {
+                if(executableElement.getAnnotation(Source.class) != null ) {
+                    result.add(new AnnotationProcessorSourceMethod(executableElement, this, types, elements, trees));
+                }
             }
+            sourceMethods = Collections.unmodifiableList(result);
         }
 
-        return methods;
-
+        return sourceMethods;
     }
 
 }
\ No newline at end of file
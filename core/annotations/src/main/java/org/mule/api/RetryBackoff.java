@@ -0,0 +1,81 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.api;
+
+import java.util.Random;
+
+/**
+ * Enumeration of the strategies that a connection managed message processor can use to
+ * space out the retries of an operation after its connection has been invalidated.
+ */
+public enum RetryBackoff {
+
+    /**
+     * Wait the same interval before every retry
+     */
+    FIXED {
+        @Override
+        public long getDelay(long interval, int retryCount) {
+            return interval;
+        }
+    },
+
+    /**
+     * Double the interval on each subsequent retry
+     */
+    EXPONENTIAL {
+        @Override
+        public long getDelay(long interval, int retryCount) {
+            return exponential(interval, retryCount);
+        }
+    },
+
+    /**
+     * Wait a random amount of time between zero and the exponential interval, so that
+     * threads that failed at the same time do not retry at the same time
+     */
+    JITTERED {
+        @Override
+        public long getDelay(long interval, int retryCount) {
+            long ceiling = exponential(interval, retryCount);
+            if (ceiling <= 0) {
+                return 0;
+            }
+            return (long) (RANDOM.nextDouble() * (ceiling + 1));
+        }
+    };
+
+    private static final int MAX_EXPONENT = 16;
+    private static final Random RANDOM = new Random();
+
+    /**
+     * Computes how long to wait before attempting the given retry
+     *
+     * @param interval   base interval in milliseconds
+     * @param retryCount number of the retry about to be attempted, starting at 1
+     * @return delay in milliseconds
+     */
+    public abstract long getDelay(long interval, int retryCount);
+
+    private static long exponential(long interval, int retryCount) {
+        if (interval <= 0 || retryCount <= 0) {
+            return 0;
+        }
+        return interval * (1L << Math.min(retryCount - 1, MAX_EXPONENT));
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mule.api.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation marks a method inside a {@link org.mule.api.annotations.ExpressionLanguage} as the responsible
+ * for compiling expressions. The method receives the expression as a String and returns its compiled form, which is
+ * handed to the {@link org.mule.api.annotations.ExpressionEvaluator} and {@link org.mule.api.annotations.ExpressionEnricher}
+ * methods in place of the expression String. Compiled expressions are cached per expression String.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ExpressionCompiler {
+
+    /**
+     * Maximum number of compiled expressions to keep. The least recently used ones are discarded first.
+     */
+    int maxEntries() default 1000;
+}
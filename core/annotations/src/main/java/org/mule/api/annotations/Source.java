@@ -57,6 +57,38 @@ public @interface Source {
      */
     SourceThreadingModel threadingModel() default SourceThreadingModel.SINGLE_THREAD;
 
+    /**
+     * Number of consumer or worker threads used by the {@link SourceThreadingModel#MULTI_THREAD},
+     * {@link SourceThreadingModel#WORKER_POOL} and {@link SourceThreadingModel#VIRTUAL_THREAD} threading models
+     */
+    int threads() default 4;
+
+    /**
+     * Maximum time in milliseconds to wait for running threads to finish when the message source is stopped. Consumers
+     * of the {@link SourceThreadingModel#MULTI_THREAD} and {@link SourceThreadingModel#VIRTUAL_THREAD} threading models
+     * are only interrupted once it elapses, so sources that return only when interrupted delay stopping by this long.
+     */
+    long stopTimeout() default 30000;
+
+    /**
+     * Number of payloads passed to {@link org.mule.api.callback.SourceCallback#process(Object)} that are accumulated
+     * and dispatched together as a single message with a {@link java.util.List} payload. A value of 1 disables batching.
+     */
+    int batchSize() default 1;
+
+    /**
+     * Maximum time in milliseconds a partial batch waits before being dispatched. When 0 partial batches are only
+     * dispatched when the message source is stopped.
+     */
+    long batchTimeout() default 0;
+
+    /**
+     * Maximum number of events dispatched by this source that have not completed yet. Once reached
+     * {@link org.mule.api.callback.SourceCallback#process(Object)} blocks and
+     * {@link org.mule.api.callback.SourceCallback#offer(Object)} returns false. A value of 0 means no limit.
+     */
+    int maxInFlight() default 0;
+
     /**
      * Message exchange pattern
      */
@@ -17,6 +17,28 @@
 package org.mule.api.annotations;
 
 public enum SourceThreadingModel {
+    /**
+     * The source method is invoked from the thread starting the message source
+     */
     NONE,
-    SINGLE_THREAD;
+    /**
+     * The source method is invoked from a dedicated receiving thread
+     */
+    SINGLE_THREAD,
+    /**
+     * The source method is invoked concurrently from {@link Source#threads()} consumer threads of a named pool. All of
+     * them call the method on the same module instance, so it must be safe to run concurrently with itself. When the
+     * message source is stopped consumers get {@link Source#stopTimeout()} to return before being interrupted.
+     */
+    MULTI_THREAD,
+    /**
+     * The source method is invoked from a dedicated receiving thread and every event it produces is handed to a bounded
+     * pool of {@link Source#threads()} workers. When all workers are busy the receiving thread processes the event itself.
+     */
+    WORKER_POOL,
+    /**
+     * Same as {@link #MULTI_THREAD} but consumers run on virtual threads when the JVM supports them, falling back to
+     * platform threads otherwise
+     */
+    VIRTUAL_THREAD;
 }
@@ -61,6 +61,14 @@ public @interface OAuth2 {
      */
     String expirationRegex() default "\"expires_in\":([^&]+?),";
 
+    /**
+     * A Java regular expression used to extract the Refresh Token from the Service Provider response. When both
+     * this and the expiration regular expression match, the Access Token is refreshed shortly before it expires
+     * instead of asking the user to authorize again. Refreshing is disabled unless this is set, for example
+     * to {@code "refresh_token":"([^&]+?)"}.
+     */
+    String refreshTokenRegex() default "";
+
     /**
      * In case the Service Provider only accepts a known redirect URL, assign this parameter to the path inside
      * your domain (denoted by the 'fullDomain' environment variable) that will be registered with Service Provider
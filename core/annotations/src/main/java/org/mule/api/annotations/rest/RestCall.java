@@ -33,4 +33,10 @@ public @interface RestCall {
     String contentType() default MimeTypes.ANY;
 
     HttpMethod method() default HttpMethod.GET;
+
+    /**
+     * Unescape HTML entities in the response body before it is returned or transformed. Ignored when the
+     * method returns an {@link java.io.InputStream} or a byte array.
+     */
+    boolean unescapeHtml() default false;
 }
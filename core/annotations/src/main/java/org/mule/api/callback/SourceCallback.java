@@ -17,6 +17,7 @@
 
 package org.mule.api.callback;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -47,4 +48,25 @@ public interface SourceCallback {
      */
     Object process(Object payload, Map<String, Object> properties) throws Exception;
 
+    /**
+     * Dispatch several payloads to the flow at once, as a single message whose payload is the list of payloads
+     *
+     * @param payloads The payloads to dispatch
+     * @return The response of the flow
+     */
+    Object processBatch(List<?> payloads) throws Exception;
+
+    /**
+     * Dispatch message to the flow unless the maximum number of in-flight events has been reached
+     *
+     * @param payload The payload of the message
+     * @return true if the message was dispatched, false if the source should slow down and offer it again later
+     */
+    boolean offer(Object payload) throws Exception;
+
+    /**
+     * @return The number of events dispatched to the flow that have not completed yet
+     */
+    int getInFlightEvents();
+
 }
@@ -55,6 +55,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 
 /**
@@ -99,17 +105,17 @@ public final class CodeModel {
     /**
      * The packages that this JCodeWriter contains.
      */
-    private HashMap<String, Package> packages = new HashMap<String, Package>();
+    private final ConcurrentMap<String, Package> packages = new ConcurrentHashMap<String, Package>();
 
     /**
      * All JReferencedClasses are pooled here.
      */
-    private final HashMap<Class<?>, ReferencedClass> refClasses = new HashMap<Class<?>, ReferencedClass>();
+    private final ConcurrentMap<Class<?>, ReferencedClass> refClasses = new ConcurrentHashMap<Class<?>, ReferencedClass>();
 
     /**
      * Created classes by its role
      */
-    private Map<Tuple<DefinedClassRoles, Type, String>, DefinedClass> classesByRole = new HashMap<Tuple<DefinedClassRoles, Type, String>, DefinedClass>();
+    private final Map<Tuple<DefinedClassRoles, Type, String>, DefinedClass> classesByRole = new ConcurrentHashMap<Tuple<DefinedClassRoles, Type, String>, DefinedClass>();
 
     private CodeWriter codeWriter;
 
@@ -165,7 +171,10 @@ public final class CodeModel {
         Package p = packages.get(name);
         if (p == null) {
             p = new Package(name, this);
-            packages.put(name, p);
+            Package existing = packages.putIfAbsent(name, p);
+            if (existing != null) {
+                p = existing;
+            }
         }
         return p;
     }
@@ -344,6 +353,44 @@ public final class CodeModel {
         build(this.codeWriter);
     }
 
+    /**
+     * Generates Java source code, rendering every package in its own task.
+     * <p/>
+     * The code writer of this model must accept files being opened from several
+     * threads at once, such as {@link org.mule.devkit.model.code.writer.BufferedCodeWriter}.
+     *
+     * @param executorService Executor that renders the packages
+     */
+    public void build(ExecutorService executorService) throws IOException {
+        Package[] pkgs = packages.values().toArray(new Package[packages.size()]);
+        List<Future<Void>> builds = new ArrayList<Future<Void>>(pkgs.length);
+        for (final Package pkg : pkgs) {
+            builds.add(executorService.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    pkg.build(codeWriter, codeWriter);
+                    return null;
+                }
+            }));
+        }
+
+        try {
+            for (Future<Void> build : builds) {
+                build.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        closeRegistryBootstrapStream();
+        codeWriter.close();
+    }
+
     /**
      * A convenience method for <code>build(out,out)</code>.
      */
@@ -360,6 +407,7 @@ public final class CodeModel {
         for (Package pkg : pkgs) {
             pkg.build(source, resource);
         }
+        closeRegistryBootstrapStream();
         source.close();
         resource.close();
     }
@@ -400,7 +448,10 @@ public final class CodeModel {
                 return new ArrayClass(this, _ref(clazz.getComponentType()));
             } else {
                 jrc = new ReferencedClass(clazz);
-                refClasses.put(clazz, jrc);
+                ReferencedClass existing = refClasses.putIfAbsent(clazz, jrc);
+                if (existing != null) {
+                    jrc = existing;
+                }
             }
         }
         return jrc;
@@ -616,6 +667,16 @@ public final class CodeModel {
         return registryBootstrapStream;
     }
 
+    /**
+     * The registry bootstrap is written by several generators, so it is only closed once the model is built
+     */
+    private void closeRegistryBootstrapStream() throws IOException {
+        if (registryBootstrapStream != null) {
+            registryBootstrapStream.close();
+            registryBootstrapStream = null;
+        }
+    }
+
     /**
      * References to existing classes.
      * <p/>
@@ -3,14 +3,18 @@ package org.mule.devkit.model.code;
 public enum DefinedClassRoles {
     ABSTRACT_BEAN_DEFINITION_PARSER,
     ABSTRACT_EXPRESSION_EVALUATOR,
+    TRANSFORMER_CACHE,
     PARSER_DELEGATE,
     CONFIG_BEAN_DEFINITION_PARSER,
     MODULE_OBJECT,
     DEFAULT_HTTP_CALLBACK,
+    HTTP_CALLBACK_REGISTRY,
+    HTTP_CALLBACK_WORKER_POOL,
     DEFAULT_RESTORE_ACCESS_TOKEN_CALLBACK,
     DEFAULT_RESTORE_ACCESS_TOKEN_CALLBACK_FACTORY,
     DEFAULT_SAVE_ACCESS_TOKEN_CALLBACK,
     DEFAULT_SAVE_ACCESS_TOKEN_FACTORY,
+    OAUTH_ACCESS_TOKEN_STORE,
     AUTHORIZE_MESSAGE_PROCESSOR,
     AUTHORIZE_BEAN_DEFINITION_PARSER,
     POJO_FACTORY,
@@ -19,6 +23,7 @@ public enum DefinedClassRoles {
     NESTED_PROCESSOR_CHAIN,
     CONNECTOR_OBJECT,
     CONNECTION_PARAMETERS,
+    CONNECTION_POOL_METRICS,
     NAMESPACE_HANDLER,
     MESSAGE_SOURCE,
     MESSAGE_PROCESSOR,
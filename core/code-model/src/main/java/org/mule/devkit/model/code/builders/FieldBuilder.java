@@ -120,6 +120,11 @@ public class FieldBuilder {
         return this;
     }
 
+    public FieldBuilder volatileField() {
+        modifiers = modifiers | Modifier.VOLATILE;
+        return this;
+    }
+
     public FieldBuilder initialValue(Expression initialValue) {
         this.initialValue = initialValue;
         return this;
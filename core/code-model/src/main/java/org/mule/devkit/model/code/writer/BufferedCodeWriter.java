@@ -0,0 +1,120 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.model.code.writer;
+
+import org.mule.devkit.model.code.CodeWriter;
+import org.mule.devkit.model.code.Package;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CodeWriter} that keeps every generated file in memory until {@link #commit()} is called.
+ * <p/>
+ * Files can be opened concurrently from several threads, which allows the models to be rendered
+ * in parallel while the actual writes to the underlying writer happen on a single thread.
+ */
+public class BufferedCodeWriter extends FilterCodeWriter {
+
+    private final List<BufferedFile> files = new ArrayList<BufferedFile>();
+
+    public BufferedCodeWriter(CodeWriter core) {
+        super(core);
+    }
+
+    @Override
+    public OutputStream openBinary(Package pkg, String fileName) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        add(new BufferedFile(pkg, fileName, content, null));
+        return content;
+    }
+
+    @Override
+    public Writer openSource(Package pkg, String fileName) throws IOException {
+        StringWriter content = new StringWriter();
+        add(new BufferedFile(pkg, fileName, null, content));
+        return content;
+    }
+
+    /**
+     * The files are only written when the writer is committed
+     */
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * Writes every buffered file to the underlying writer, in the order they were opened, and
+     * closes it. Must be called from the thread that owns the underlying writer.
+     */
+    public void commit() throws IOException {
+        List<BufferedFile> pending;
+        synchronized (files) {
+            pending = new ArrayList<BufferedFile>(files);
+            files.clear();
+        }
+
+        for (BufferedFile file : pending) {
+            file.writeTo(core);
+        }
+        core.close();
+    }
+
+    private void add(BufferedFile file) {
+        synchronized (files) {
+            files.add(file);
+        }
+    }
+
+    private static final class BufferedFile {
+        private final Package pkg;
+        private final String fileName;
+        private final ByteArrayOutputStream binary;
+        private final StringWriter source;
+
+        private BufferedFile(Package pkg, String fileName, ByteArrayOutputStream binary, StringWriter source) {
+            this.pkg = pkg;
+            this.fileName = fileName;
+            this.binary = binary;
+            this.source = source;
+        }
+
+        private void writeTo(CodeWriter writer) throws IOException {
+            if (source != null) {
+                Writer out = writer.openSource(pkg, fileName);
+                try {
+                    out.write(source.toString());
+                } finally {
+                    out.close();
+                }
+            } else {
+                OutputStream out = writer.openBinary(pkg, fileName);
+                try {
+                    binary.writeTo(out);
+                } finally {
+                    out.close();
+                }
+            }
+        }
+    }
+}
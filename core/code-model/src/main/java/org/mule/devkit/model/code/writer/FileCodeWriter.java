@@ -43,10 +43,14 @@ package org.mule.devkit.model.code.writer;
 import org.mule.devkit.model.code.CodeWriter;
 import org.mule.devkit.model.code.Package;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -72,21 +76,87 @@ public class FileCodeWriter extends CodeWriter {
      */
     private final Set<File> readonlyFiles = new HashSet<File>();
 
+    /**
+     * specify whether or not to leave byte-identical files alone
+     */
+    private final boolean skipUnchangedFiles;
+
     public FileCodeWriter(File target) throws IOException {
         this(target, false);
     }
 
     public FileCodeWriter(File target, boolean readOnly) throws IOException {
+        this(target, readOnly, false);
+    }
+
+    /**
+     * Creates a writer that can leave unchanged files alone, so that they keep their timestamp and
+     * incremental compilers do not rebuild them.
+     *
+     * @param target             Directory to put source code in
+     * @param readOnly           Whether the generated files are marked read-only
+     * @param skipUnchangedFiles Whether byte-identical files should not be written again
+     */
+    public FileCodeWriter(File target, boolean readOnly, boolean skipUnchangedFiles) throws IOException {
         this.target = target;
         this.readOnly = readOnly;
+        this.skipUnchangedFiles = skipUnchangedFiles;
         if (!target.exists() || !target.isDirectory()) {
             throw new IOException(target + ": non-existent directory");
         }
     }
 
 
+    /**
+     * When skipping unchanged files, the content is kept in memory and only written if it differs from
+     * the previous version of the file.
+     */
     public OutputStream openBinary(Package pkg, String fileName) throws IOException {
-        return new FileOutputStream(getFile(pkg, fileName));
+        final File file = getFile(pkg, fileName);
+        if (!skipUnchangedFiles) {
+            return new FileOutputStream(file);
+        }
+
+        return new ByteArrayOutputStream() {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+
+                byte[] content = toByteArray();
+                if (isUnchanged(file, content)) {
+                    return;
+                }
+                if (file.exists() && !file.delete()) {
+                    throw new IOException(file + ": Can't delete previous version");
+                }
+                OutputStream out = new FileOutputStream(file);
+                try {
+                    out.write(content);
+                } finally {
+                    out.close();
+                }
+            }
+        };
+    }
+
+    private static boolean isUnchanged(File file, byte[] content) throws IOException {
+        if (!file.isFile() || file.length() != content.length) {
+            return false;
+        }
+
+        byte[] existing = new byte[content.length];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(existing);
+        } finally {
+            in.close();
+        }
+        return Arrays.equals(existing, content);
     }
 
     protected File getFile(Package pkg, String fileName) throws IOException {
@@ -103,13 +173,6 @@ public class FileCodeWriter extends CodeWriter {
 
         File fn = new File(dir, fileName);
 
-        if (fn.exists()) {
-            if (!fn.delete()) {
-                throw new IOException(fn + ": Can't delete previous version");
-            }
-        }
-
-
         if (readOnly) {
             readonlyFiles.add(fn);
         }
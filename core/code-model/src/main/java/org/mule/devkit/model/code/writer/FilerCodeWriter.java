@@ -21,9 +21,13 @@ import org.mule.devkit.model.code.CodeWriter;
 import org.mule.devkit.model.code.Package;
 
 import javax.annotation.processing.Filer;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Arrays;
 
 import static javax.tools.StandardLocation.SOURCE_OUTPUT;
 
@@ -31,21 +35,60 @@ public final class FilerCodeWriter extends CodeWriter {
 
     private final Filer filer;
 
+    /**
+     * Whether files whose content matches the one already in the output directory should be left untouched
+     */
+    private final boolean skipUnchangedFiles;
+
     public FilerCodeWriter(Filer filer) {
+        this(filer, false);
+    }
+
+    /**
+     * Creates a writer that can leave unchanged files alone. Leaving the previous file in place keeps its
+     * timestamp, so incremental compilers do not rebuild it. Only use it when the output directory is part
+     * of the sources compiled later on, since the filer will not know about the files that were skipped.
+     *
+     * @param filer              Filer used to create the files
+     * @param skipUnchangedFiles Whether byte-identical files should not be written again
+     */
+    public FilerCodeWriter(Filer filer, boolean skipUnchangedFiles) {
         this.filer = filer;
+        this.skipUnchangedFiles = skipUnchangedFiles;
     }
 
     @Override
-    public OutputStream openBinary(Package pkg, String fileName) throws IOException {
-        if (pkg != null) {
-            return filer.createResource(SOURCE_OUTPUT, pkg.name(), fileName).openOutputStream();
-        } else {
-            return filer.createResource(SOURCE_OUTPUT, "", fileName).openOutputStream();
+    public OutputStream openBinary(Package pkg, final String fileName) throws IOException {
+        final String packageName = pkg != null ? pkg.name() : "";
+        if (!skipUnchangedFiles) {
+            return filer.createResource(SOURCE_OUTPUT, packageName, fileName).openOutputStream();
         }
+
+        return new ByteArrayOutputStream() {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+
+                if (!isUnchanged(packageName, fileName, toByteArray())) {
+                    OutputStream out = filer.createResource(SOURCE_OUTPUT, packageName, fileName).openOutputStream();
+                    try {
+                        writeTo(out);
+                    } finally {
+                        out.close();
+                    }
+                }
+            }
+        };
     }
 
     @Override
-    public Writer openSource(org.mule.devkit.model.code.Package pkg, String fileName) throws IOException {
+    public Writer openSource(Package pkg, final String fileName) throws IOException {
+        final String packageName = pkg.isUnnamed() ? "" : pkg.name();
         String name;
         if (pkg.isUnnamed()) {
             name = fileName;
@@ -53,12 +96,78 @@ public final class FilerCodeWriter extends CodeWriter {
             name = pkg.name() + '.' + fileName;
         }
 
-        name = name.substring(0, name.length() - 5);   // strip ".java"
+        final String typeName = name.substring(0, name.length() - 5);   // strip ".java"
+
+        if (!skipUnchangedFiles) {
+            return filer.createSourceFile(typeName).openWriter();
+        }
+
+        return new StringWriter() {
+            private boolean closed;
 
-        return filer.createSourceFile(name).openWriter();
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+
+                String content = toString();
+                if (!isUnchanged(packageName, fileName, content)) {
+                    Writer out = filer.createSourceFile(typeName).openWriter();
+                    try {
+                        out.write(content);
+                    } finally {
+                        out.close();
+                    }
+                }
+            }
+        };
+    }
+
+    private boolean isUnchanged(String packageName, String fileName, byte[] content) {
+        InputStream in = null;
+        try {
+            in = filer.getResource(SOURCE_OUTPUT, packageName, fileName).openInputStream();
+            ByteArrayOutputStream existing = new ByteArrayOutputStream(content.length);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                existing.write(buffer, 0, read);
+                if (existing.size() > content.length) {
+                    return false;
+                }
+            }
+            return Arrays.equals(existing.toByteArray(), content);
+        } catch (IOException e) {
+            // there is no previous version
+            return false;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    private boolean isUnchanged(String packageName, String fileName, String content) {
+        try {
+            CharSequence existing = filer.getResource(SOURCE_OUTPUT, packageName, fileName).getCharContent(true);
+            return existing != null && content.contentEquals(existing);
+        } catch (IOException e) {
+            // there is no previous version
+            return false;
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
     }
 
     @Override
     public void close() {
     }
-}
\ No newline at end of file
+}
@@ -28,6 +28,7 @@ import org.mule.api.MuleEvent;
 import org.mule.api.MuleException;
 import org.mule.api.MuleMessage;
 import org.mule.api.MuleSession;
+import org.mule.api.RetryBackoff;
 import org.mule.api.callback.HttpCallback;
 import org.mule.api.callback.SourceCallback;
 import org.mule.api.construct.FlowConstruct;
@@ -45,6 +46,7 @@ import org.mule.api.transformer.Transformer;
 import org.mule.config.i18n.CoreMessages;
 import org.mule.config.i18n.MessageFactory;
 import org.mule.construct.Flow;
+import org.mule.devkit.generation.adapter.HttpCallbackAdapterGenerator;
 import org.mule.devkit.generation.callback.DefaultHttpCallbackGenerator;
 import org.mule.devkit.model.Method;
 import org.mule.devkit.model.Parameter;
@@ -72,7 +74,8 @@ import javax.lang.model.type.TypeMirror;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class AbstractMessageGenerator extends AbstractModuleGenerator {
 
@@ -163,6 +166,51 @@ public abstract class AbstractMessageGenerator extends AbstractModuleGenerator {
         return fields;
     }
 
+    protected Map<String, FieldVariable> generateGenericTypeFieldForEachParameter(DefinedClass messageProcessorClass, Map<String, FieldVariableElement> fields) {
+        Map<String, FieldVariable> genericTypes = new HashMap<String, FieldVariable>();
+        for (String fieldName : fields.keySet()) {
+            FieldVariableElement variableElement = fields.get(fieldName);
+            if (variableElement.getVariable().isNestedProcessor() ||
+                    variableElement.getVariable().asType().toString().startsWith(HttpCallback.class.getName())) {
+                continue;
+            }
+
+            // the field name must not end with "Type" or it will be taken for a parameter by the dynamic loader
+            FieldVariable genericType = new FieldBuilder(messageProcessorClass).
+                    privateVisibility().
+                    type(java.lang.reflect.Type.class).
+                    name("_" + fieldName + "GenericTypeRef").
+                    javadoc("Generic type of {@link #" + variableElement.getFieldType().name() + "}, resolved once at initialisation").
+                    build();
+            genericTypes.put(fieldName, genericType);
+        }
+        return genericTypes;
+    }
+
+    protected void generateGenericTypeResolution(org.mule.devkit.model.code.Method initialise, DefinedClass messageProcessorClass, Map<String, FieldVariableElement> fields, Map<String, FieldVariable> genericTypes) {
+        if (genericTypes.isEmpty()) {
+            return;
+        }
+
+        TryStatement tryToResolve = initialise.body()._try();
+        for (String fieldName : genericTypes.keySet()) {
+            Invocation getGenericType = messageProcessorClass.dotclass().invoke("getDeclaredField").arg(
+                    ExpressionFactory.lit(fields.get(fieldName).getFieldType().name())
+            ).invoke("getGenericType");
+            tryToResolve.body().assign(genericTypes.get(fieldName), getGenericType);
+        }
+
+        CatchBlock catchBlock = tryToResolve._catch(ref(NoSuchFieldException.class));
+        org.mule.devkit.model.code.Variable exception = catchBlock.param("e");
+        Invocation initialisationFailure = ref(CoreMessages.class).staticInvoke("initialisationFailure");
+        initialisationFailure.arg(messageProcessorClass.fullName());
+        Invocation initialisationException = ExpressionFactory._new(ref(InitialisationException.class));
+        initialisationException.arg(initialisationFailure);
+        initialisationException.arg(exception);
+        initialisationException.arg(ExpressionFactory._this());
+        catchBlock.body()._throw(initialisationException);
+    }
+
     protected Map<String, FieldVariableElement> generateStandardFieldForEachParameter(DefinedClass messageProcessorClass, Method processorMethod) {
         return generateStandardFieldForEachParameter(messageProcessorClass, processorMethod, null);
     }
@@ -188,7 +236,7 @@ public abstract class AbstractMessageGenerator extends AbstractModuleGenerator {
         return fields;
     }
 
-    protected org.mule.devkit.model.code.Method generateInitialiseMethod(DefinedClass messageProcessorClass, Map<String, FieldVariableElement> fields, Type type, FieldVariable muleContext, FieldVariable object, FieldVariable retryCount, boolean shouldAutoCreate) {
+    protected org.mule.devkit.model.code.Method generateInitialiseMethod(DefinedClass messageProcessorClass, Map<String, FieldVariableElement> fields, Type type, FieldVariable muleContext, FieldVariable object, boolean shouldAutoCreate) {
         DefinedClass pojoClass = ctx().getCodeModel()._class(DefinedClassRoles.MODULE_OBJECT, ref(type));
 
         org.mule.devkit.model.code.Method initialise = messageProcessorClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "initialise");
@@ -197,10 +245,6 @@ public abstract class AbstractMessageGenerator extends AbstractModuleGenerator {
         initialise.javadoc().addThrows(ref(InitialisationException.class));
         initialise._throws(InitialisationException.class);
 
-        if (retryCount != null) {
-            initialise.body().assign(retryCount, ExpressionFactory._new(ref(AtomicInteger.class)));
-        }
-
         if (object != null) {
             Conditional ifNoObject = initialise.body()._if(Op.eq(object, ExpressionFactory._null()));
             TryStatement tryLookUp = ifNoObject._then()._try();
@@ -261,8 +305,14 @@ public abstract class AbstractMessageGenerator extends AbstractModuleGenerator {
                     Invocation localPort = castedModuleObject.invoke("get" + StringUtils.capitalize(DefaultHttpCallbackGenerator.LOCAL_PORT_FIELD_NAME));
                     Invocation remotePort = castedModuleObject.invoke("get" + StringUtils.capitalize(DefaultHttpCallbackGenerator.REMOTE_PORT_FIELD_NAME));
                     Invocation async = castedModuleObject.invoke("get" + StringUtils.capitalize(DefaultHttpCallbackGenerator.ASYNC_FIELD_NAME));
-                    ifCallbackFlowNameIsNull.assign(variableElement.getFieldType(), ExpressionFactory._new(ctx().getCodeModel()._class(DefinedClassRoles.DEFAULT_HTTP_CALLBACK)).
+                    DefinedClass defaultHttpCallbackClass = ctx().getCodeModel()._class(DefinedClassRoles.DEFAULT_HTTP_CALLBACK);
+                    org.mule.devkit.model.code.Variable defaultHttpCallback = ifCallbackFlowNameIsNull.decl(defaultHttpCallbackClass, fieldName + "DefaultHttpCallback", ExpressionFactory._new(defaultHttpCallbackClass).
                             arg(callbackFlowName).arg(muleContext).arg(domain).arg(localPort).arg(remotePort).arg(async));
+                    ifCallbackFlowNameIsNull.invoke(defaultHttpCallback, "set" + StringUtils.capitalize(DefaultHttpCallbackGenerator.WORKER_POOL_FIELD_NAME)).
+                            arg(castedModuleObject.invoke("get" + StringUtils.capitalize(HttpCallbackAdapterGenerator.WORKER_POOL_FIELD_NAME)));
+                    ifCallbackFlowNameIsNull.invoke(defaultHttpCallback, "set" + StringUtils.capitalize(DefaultHttpCallbackGenerator.TIME_TO_LIVE_FIELD_NAME)).
+                            arg(castedModuleObject.invoke("get" + StringUtils.capitalize(HttpCallbackAdapterGenerator.CALLBACK_TIME_TO_LIVE_FIELD_NAME)));
+                    ifCallbackFlowNameIsNull.assign(variableElement.getFieldType(), defaultHttpCallback);
                 }
             }
         }
@@ -376,18 +426,24 @@ public abstract class AbstractMessageGenerator extends AbstractModuleGenerator {
         return flowConstruct;
     }
 
-    protected FieldVariable generateRetryCountField(DefinedClass messageSourceClass) {
-        FieldVariable retryCount = messageSourceClass.field(Modifier.PRIVATE, ref(AtomicInteger.class), "retryCount");
-        retryCount.javadoc().add("Variable used to track how many retries we have attempted on this message processor");
-        return retryCount;
-    }
-
     protected FieldVariable generateRetryMaxField(DefinedClass messageSourceClass) {
         FieldVariable retryMax = messageSourceClass.field(Modifier.PRIVATE, ctx().getCodeModel().INT, "retryMax");
         retryMax.javadoc().add("Maximum number of retries that can be attempted.");
         return retryMax;
     }
 
+    protected FieldVariable generateRetryIntervalField(DefinedClass messageSourceClass) {
+        FieldVariable retryInterval = messageSourceClass.field(Modifier.PRIVATE, ctx().getCodeModel().LONG, "retryInterval");
+        retryInterval.javadoc().add("Base interval in milliseconds to wait before retrying.");
+        return retryInterval;
+    }
+
+    protected FieldVariable generateRetryBackoffField(DefinedClass messageSourceClass) {
+        FieldVariable retryBackoff = messageSourceClass.field(Modifier.PRIVATE, ref(RetryBackoff.class), "retryBackoff", ref(RetryBackoff.class).staticRef("FIXED"));
+        retryBackoff.javadoc().add("Strategy used to compute the interval to wait before each retry.");
+        return retryBackoff;
+    }
+
 
     protected org.mule.devkit.model.code.Method generateSetModuleObjectMethod(DefinedClass messageProcessorClass, FieldVariable object) {
         org.mule.devkit.model.code.Method setObject = messageProcessorClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "setModuleObject");
@@ -518,120 +574,300 @@ public abstract class AbstractMessageGenerator extends AbstractModuleGenerator {
     }
 
     protected void generateSourceCallbackProcessMethod(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct) {
+        generateSourceCallbackProcessMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct, null, null);
+    }
+
+    /**
+     * @param workerPool {@link java.util.concurrent.Executor} the event is handed to, or null to process it in the calling thread
+     * @param inFlight {@link java.util.concurrent.Semaphore} bounding the events being processed, or null if unbounded
+     */
+    protected void generateSourceCallbackProcessMethod(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct, FieldVariable workerPool, FieldVariable inFlight) {
         org.mule.devkit.model.code.Method process = messageSourceClass.method(Modifier.PUBLIC, ref(Object.class), "process");
         process.javadoc().add("Implements {@link SourceCallback#process(org.mule.api.MuleEvent)}. This message source will be passed on to ");
         process.javadoc().add("the actual pojo's method as a callback mechanism.");
         process._throws(ref(Exception.class));
         org.mule.devkit.model.code.Variable message = process.param(ref(Object.class), "message");
 
-        org.mule.devkit.model.code.Variable muleMessage = process.body().decl(ref(MuleMessage.class), "muleMessage");
+        generateSourceCallbackPayloadDispatch(process.body(), message, messageProcessor, muleContext, flowConstruct, workerPool, inFlight, false);
+    }
+
+    protected void generateSourceCallbackOfferMethod(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct) {
+        generateSourceCallbackOfferMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct, null, null);
+    }
+
+    /**
+     * @param workerPool {@link java.util.concurrent.Executor} the event is handed to, or null to process it in the calling thread
+     * @param inFlight {@link java.util.concurrent.Semaphore} bounding the events being processed, or null if unbounded
+     */
+    protected void generateSourceCallbackOfferMethod(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct, FieldVariable workerPool, FieldVariable inFlight) {
+        org.mule.devkit.model.code.Method offer = messageSourceClass.method(Modifier.PUBLIC, ctx().getCodeModel().BOOLEAN, "offer");
+        offer.javadoc().add("Implements {@link SourceCallback#offer(Object)}. The message is only dispatched if the maximum number of ");
+        offer.javadoc().add("in-flight events has not been reached.");
+        offer._throws(ref(Exception.class));
+        org.mule.devkit.model.code.Variable message = offer.param(ref(Object.class), "message");
+
+        generateSourceCallbackPayloadDispatch(offer.body(), message, messageProcessor, muleContext, flowConstruct, workerPool, inFlight, true);
+    }
+
+    private void generateSourceCallbackPayloadDispatch(Block methodBody, org.mule.devkit.model.code.Variable message, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct, FieldVariable workerPool, FieldVariable inFlight, boolean offer) {
+        InFlightGuard guard = generateAcquireInFlight(methodBody, inFlight, workerPool, offer);
+        Block body = guard.getBody();
+
+        org.mule.devkit.model.code.Variable muleMessage = body.decl(ref(MuleMessage.class), "muleMessage");
         Invocation newMuleMessage = ExpressionFactory._new(ref(DefaultMuleMessage.class));
         newMuleMessage.arg(message);
         newMuleMessage.arg(muleContext);
-        process.body().assign(muleMessage, newMuleMessage);
+        body.assign(muleMessage, newMuleMessage);
 
-        org.mule.devkit.model.code.Variable muleSession = process.body().decl(ref(MuleSession.class), "muleSession");
+        org.mule.devkit.model.code.Variable muleSession = body.decl(ref(MuleSession.class), "muleSession");
         Invocation newMuleSession = ExpressionFactory._new(ref(DefaultMuleSession.class));
         newMuleSession.arg(flowConstruct);
         newMuleSession.arg(muleContext);
-        process.body().assign(muleSession, newMuleSession);
+        body.assign(muleSession, newMuleSession);
 
-        org.mule.devkit.model.code.Variable muleEvent = process.body().decl(ref(MuleEvent.class), "muleEvent");
         Invocation newMuleEvent = ExpressionFactory._new(ref(DefaultMuleEvent.class));
         newMuleEvent.arg(muleMessage);
         newMuleEvent.arg(ref(MessageExchangePattern.class).staticRef("ONE_WAY"));
         newMuleEvent.arg(muleSession);
-        process.body().assign(muleEvent, newMuleEvent);
-
-        TryStatement tryBlock = process.body()._try();
-        org.mule.devkit.model.code.Variable responseEvent = tryBlock.body().decl(ref(MuleEvent.class), "responseEvent");
-        Invocation messageProcess = messageProcessor.invoke("process");
-        messageProcess.arg(muleEvent);
-        tryBlock.body().assign(responseEvent, messageProcess);
-        Conditional ifResponse = tryBlock.body()._if(
-                Op.cand(Op.ne(responseEvent, ExpressionFactory._null()),
-                        Op.ne(responseEvent.invoke("getMessage"), ExpressionFactory._null()))
-        );
-        ifResponse._then()._return(responseEvent.invoke("getMessage").invoke("getPayload"));
 
-        CatchBlock catchException = tryBlock._catch(ref(Exception.class));
-        org.mule.devkit.model.code.Variable exception = catchException.param("e");
-        catchException.body()._throw(exception);
-
-        process.body()._return(ExpressionFactory._null());
+        generateSourceCallbackDispatch(guard, newMuleEvent, messageProcessor, muleContext, flowConstruct, workerPool, inFlight, offer);
     }
 
     protected void generateSourceCallbackProcessMethodWithNoPayload(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct) {
+        generateSourceCallbackProcessMethodWithNoPayload(messageSourceClass, messageProcessor, muleContext, flowConstruct, null, null);
+    }
+
+    /**
+     * @param workerPool {@link java.util.concurrent.Executor} the event is handed to, or null to process it in the calling thread
+     * @param inFlight {@link java.util.concurrent.Semaphore} bounding the events being processed, or null if unbounded
+     */
+    protected void generateSourceCallbackProcessMethodWithNoPayload(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct, FieldVariable workerPool, FieldVariable inFlight) {
         org.mule.devkit.model.code.Method process = messageSourceClass.method(Modifier.PUBLIC, ref(Object.class), "process");
         process.javadoc().add("Implements {@link SourceCallback#process()}. This message source will be passed on to ");
         process.javadoc().add("the actual pojo's method as a callback mechanism.");
         process._throws(ref(Exception.class));
 
-        TryStatement tryBlock = process.body()._try();
-        org.mule.devkit.model.code.Variable responseEvent = tryBlock.body().decl(ref(MuleEvent.class), "responseEvent");
-        Invocation messageProcess = messageProcessor.invoke("process");
-        messageProcess.arg(ref(RequestContext.class).staticInvoke("getEvent"));
-        tryBlock.body().assign(responseEvent, messageProcess);
-        Conditional ifResponse = tryBlock.body()._if(
-                Op.cand(Op.ne(responseEvent, ExpressionFactory._null()),
-                        Op.ne(responseEvent.invoke("getMessage"), ExpressionFactory._null()))
-        );
-        ifResponse._then()._return(responseEvent.invoke("getMessage").invoke("getPayload"));
-
-        CatchBlock catchException = tryBlock._catch(ref(Exception.class));
-        org.mule.devkit.model.code.Variable exception = catchException.param("e");
-        catchException.body()._throw(exception);
-
-        process.body()._return(ExpressionFactory._null());
+        InFlightGuard guard = generateAcquireInFlight(process.body(), inFlight, workerPool, false);
+        generateSourceCallbackDispatch(guard, ref(RequestContext.class).staticInvoke("getEvent"), messageProcessor, muleContext, flowConstruct, workerPool, inFlight, false);
     }
 
-
     protected void generateSourceCallbackProcessWithPropertiesMethod(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct) {
+        generateSourceCallbackProcessWithPropertiesMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct, null, null);
+    }
+
+    /**
+     * @param workerPool {@link java.util.concurrent.Executor} the event is handed to, or null to process it in the calling thread
+     * @param inFlight {@link java.util.concurrent.Semaphore} bounding the events being processed, or null if unbounded
+     */
+    protected void generateSourceCallbackProcessWithPropertiesMethod(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct, FieldVariable workerPool, FieldVariable inFlight) {
         org.mule.devkit.model.code.Method process = messageSourceClass.method(Modifier.PUBLIC, ref(Object.class), "process");
         process.javadoc().add("Implements {@link SourceCallback#process(org.mule.api.MuleEvent)}. This message source will be passed on to ");
         process.javadoc().add("the actual pojo's method as a callback mechanism.");
         process._throws(ref(Exception.class));
         org.mule.devkit.model.code.Variable message = process.param(ref(Object.class), "message");
         org.mule.devkit.model.code.Variable properties = process.param(ref(Map.class).narrow(String.class).narrow(Object.class), "properties");
+        InFlightGuard guard = generateAcquireInFlight(process.body(), inFlight, workerPool, false);
+        Block body = guard.getBody();
 
-        org.mule.devkit.model.code.Variable muleMessage = process.body().decl(ref(MuleMessage.class), "muleMessage");
+        org.mule.devkit.model.code.Variable muleMessage = body.decl(ref(MuleMessage.class), "muleMessage");
         Invocation newMuleMessage = ExpressionFactory._new(ref(DefaultMuleMessage.class));
         newMuleMessage.arg(message);
         newMuleMessage.arg(properties);
         newMuleMessage.arg(ExpressionFactory._null());
         newMuleMessage.arg(ExpressionFactory._null());
         newMuleMessage.arg(muleContext);
-        process.body().assign(muleMessage, newMuleMessage);
+        body.assign(muleMessage, newMuleMessage);
 
-        org.mule.devkit.model.code.Variable muleSession = process.body().decl(ref(MuleSession.class), "muleSession");
+        org.mule.devkit.model.code.Variable muleSession = body.decl(ref(MuleSession.class), "muleSession");
         Invocation newMuleSession = ExpressionFactory._new(ref(DefaultMuleSession.class));
         newMuleSession.arg(flowConstruct);
         newMuleSession.arg(muleContext);
-        process.body().assign(muleSession, newMuleSession);
+        body.assign(muleSession, newMuleSession);
 
-        org.mule.devkit.model.code.Variable muleEvent = process.body().decl(ref(MuleEvent.class), "muleEvent");
         Invocation newMuleEvent = ExpressionFactory._new(ref(DefaultMuleEvent.class));
         newMuleEvent.arg(muleMessage);
         newMuleEvent.arg(ref(MessageExchangePattern.class).staticRef("ONE_WAY"));
         newMuleEvent.arg(muleSession);
-        process.body().assign(muleEvent, newMuleEvent);
-
-        TryStatement tryBlock = process.body()._try();
-        org.mule.devkit.model.code.Variable responseEvent = tryBlock.body().decl(ref(MuleEvent.class), "responseEvent");
-        Invocation messageProcess = messageProcessor.invoke("process");
-        messageProcess.arg(muleEvent);
-        tryBlock.body().assign(responseEvent, messageProcess);
-        Conditional ifResponse = tryBlock.body()._if(
-                Op.cand(Op.ne(responseEvent, ExpressionFactory._null()),
-                        Op.ne(responseEvent.invoke("getMessage"), ExpressionFactory._null()))
-        );
-        ifResponse._then()._return(responseEvent.invoke("getMessage").invoke("getPayload"));
-
-        CatchBlock catchException = tryBlock._catch(ref(Exception.class));
-        org.mule.devkit.model.code.Variable exception = catchException.param("e");
-        catchException.body()._throw(exception);
-
-        process.body()._return(ExpressionFactory._null());
+
+        generateSourceCallbackDispatch(guard, newMuleEvent, messageProcessor, muleContext, flowConstruct, workerPool, inFlight, false);
+    }
+
+    protected org.mule.devkit.model.code.Method generateSourceCallbackProcessBatchMethod(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct) {
+        return generateSourceCallbackProcessBatchMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct, null, null);
+    }
+
+    /**
+     * @param workerPool {@link java.util.concurrent.Executor} the event is handed to, or null to process it in the calling thread
+     * @param inFlight {@link java.util.concurrent.Semaphore} bounding the events being processed, or null if unbounded
+     */
+    protected org.mule.devkit.model.code.Method generateSourceCallbackProcessBatchMethod(DefinedClass messageSourceClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct, FieldVariable workerPool, FieldVariable inFlight) {
+        org.mule.devkit.model.code.Method processBatch = messageSourceClass.method(Modifier.PUBLIC, ref(Object.class), "processBatch");
+        processBatch.javadoc().add("Implements {@link SourceCallback#processBatch(java.util.List)}. All payloads are dispatched as a single ");
+        processBatch.javadoc().add("event sharing one message and session.");
+        processBatch._throws(ref(Exception.class));
+        org.mule.devkit.model.code.Variable payloads = processBatch.param(ref(List.class).narrow(ref(Object.class).wildcard()), "payloads");
+
+        generateSourceCallbackPayloadDispatch(processBatch.body(), payloads, messageProcessor, muleContext, flowConstruct, workerPool, inFlight, false);
+
+        return processBatch;
+    }
+
+    protected void generateSourceCallbackGetInFlightEventsMethod(DefinedClass messageSourceClass) {
+        generateSourceCallbackGetInFlightEventsMethod(messageSourceClass, null, null);
+    }
+
+    /**
+     * @param inFlight {@link java.util.concurrent.Semaphore} bounding the events being processed, or null if unbounded
+     * @param maxInFlight number of permits inFlight was created with
+     */
+    protected void generateSourceCallbackGetInFlightEventsMethod(DefinedClass messageSourceClass, FieldVariable inFlight, FieldVariable maxInFlight) {
+        org.mule.devkit.model.code.Method getInFlightEvents = messageSourceClass.method(Modifier.PUBLIC, ctx().getCodeModel().INT, "getInFlightEvents");
+        getInFlightEvents.javadoc().add("Implements {@link SourceCallback#getInFlightEvents()}.");
+
+        if (inFlight != null) {
+            getInFlightEvents.body()._return(Op.minus(maxInFlight, inFlight.invoke("availablePermits")));
+        } else {
+            getInFlightEvents.body()._return(ExpressionFactory.lit(0));
+        }
+    }
+
+    /**
+     * Block the event is created and dispatched in, along with the variables tracking the in-flight permit it holds.
+     */
+    private static class InFlightGuard {
+        private final Block body;
+        private final org.mule.devkit.model.code.Variable pool;
+        private final org.mule.devkit.model.code.Variable dispatched;
+        private final org.mule.devkit.model.code.Variable permitHeld;
+
+        public InFlightGuard(Block body, org.mule.devkit.model.code.Variable pool, org.mule.devkit.model.code.Variable dispatched, org.mule.devkit.model.code.Variable permitHeld) {
+            this.body = body;
+            this.pool = pool;
+            this.dispatched = dispatched;
+            this.permitHeld = permitHeld;
+        }
+
+        public Block getBody() {
+            return body;
+        }
+
+        /**
+         * @return worker pool read once before dispatching, or null without a worker pool
+         */
+        public org.mule.devkit.model.code.Variable getPool() {
+            return pool;
+        }
+
+        /**
+         * @return flag set once the worker pool accepted the event, or null without a worker pool or in-flight bound
+         */
+        public org.mule.devkit.model.code.Variable getDispatched() {
+            return dispatched;
+        }
+
+        /**
+         * @return {@link AtomicBoolean} cleared by whoever releases the permit first, or null without a worker pool or
+         * in-flight bound
+         */
+        public org.mule.devkit.model.code.Variable getPermitHeld() {
+            return permitHeld;
+        }
+    }
+
+    /**
+     * Acquires an in-flight permit and opens the block the event has to be created and dispatched in. Without a worker
+     * pool the permit is released when that block completes. Otherwise the worker releases it once the flow completes,
+     * and the block only releases it when the event was not handed over. That includes the pool having been shut down,
+     * since its CallerRunsPolicy then silently discards the event. Whichever side gets there first releases the permit,
+     * so it is released exactly once.
+     *
+     * @return the guarded block, or the given one if the events in flight are unbounded
+     */
+    private InFlightGuard generateAcquireInFlight(Block body, FieldVariable inFlight, FieldVariable workerPool, boolean offer) {
+        org.mule.devkit.model.code.Variable pool = null;
+        if (workerPool != null) {
+            pool = body.decl(ref(ExecutorService.class), "pool", workerPool);
+        }
+        if (inFlight == null) {
+            return new InFlightGuard(body, pool, null, null);
+        }
+
+        if (offer) {
+            body._if(Op.not(inFlight.invoke("tryAcquire")))._then()._return(ExpressionFactory.FALSE);
+        } else {
+            body.add(inFlight.invoke("acquire"));
+        }
+
+        if (workerPool == null) {
+            TryStatement guard = body._try();
+            guard._finally().add(inFlight.invoke("release"));
+            return new InFlightGuard(guard.body(), null, null, null);
+        }
+
+        org.mule.devkit.model.code.Variable permitHeld = body.decl(Modifier.FINAL, ref(AtomicBoolean.class), "permitHeld",
+                ExpressionFactory._new(ref(AtomicBoolean.class)).arg(ExpressionFactory.TRUE));
+        org.mule.devkit.model.code.Variable dispatched = body.decl(ctx().getCodeModel().BOOLEAN, "dispatched", ExpressionFactory.FALSE);
+        TryStatement guard = body._try();
+        guard._finally()._if(Op.cand(Op.cor(Op.not(dispatched), pool.invoke("isShutdown")),
+                permitHeld.invoke("compareAndSet").arg(ExpressionFactory.TRUE).arg(ExpressionFactory.FALSE)))._then().add(inFlight.invoke("release"));
+
+        return new InFlightGuard(guard.body(), pool, dispatched, permitHeld);
+    }
+
+    /**
+     * Hands the event over to the listener. Without a worker pool the flow runs in the calling thread and its response
+     * payload is returned, otherwise the flow runs in a worker and null is returned right away. Must be generated in
+     * the guard returned by {@link #generateAcquireInFlight}.
+     */
+    private void generateSourceCallbackDispatch(InFlightGuard guard, Expression event, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable flowConstruct, FieldVariable workerPool, FieldVariable inFlight, boolean offer) {
+        Block body = guard.getBody();
+        if (workerPool == null) {
+            org.mule.devkit.model.code.Variable muleEvent = body.decl(ref(MuleEvent.class), "muleEvent", event);
+
+            TryStatement tryBlock = body._try();
+            Invocation messageProcess = messageProcessor.invoke("process");
+            messageProcess.arg(muleEvent);
+            if (offer) {
+                tryBlock.body().add(messageProcess);
+            } else {
+                org.mule.devkit.model.code.Variable responseEvent = tryBlock.body().decl(ref(MuleEvent.class), "responseEvent");
+                tryBlock.body().assign(responseEvent, messageProcess);
+                Conditional ifResponse = tryBlock.body()._if(
+                        Op.cand(Op.ne(responseEvent, ExpressionFactory._null()),
+                                Op.ne(responseEvent.invoke("getMessage"), ExpressionFactory._null()))
+                );
+                ifResponse._then()._return(responseEvent.invoke("getMessage").invoke("getPayload"));
+            }
+
+            CatchBlock catchException = tryBlock._catch(ref(Exception.class));
+            org.mule.devkit.model.code.Variable exception = catchException.param("e");
+            catchException.body()._throw(exception);
+        } else {
+            org.mule.devkit.model.code.Variable muleEvent = body.decl(Modifier.FINAL, ref(MuleEvent.class), "muleEvent", event);
+
+            DefinedClass worker = ctx().getCodeModel().anonymousClass(Runnable.class);
+            org.mule.devkit.model.code.Method run = worker.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "run");
+            TryStatement tryBlock = run.body()._try();
+            tryBlock.body().add(messageProcessor.invoke("process").arg(muleEvent));
+
+            CatchBlock catchMessagingException = tryBlock._catch(ref(MessagingException.class));
+            org.mule.devkit.model.code.Variable messagingException = catchMessagingException.param("e");
+            catchMessagingException.body().add(flowConstruct.invoke("getExceptionListener").invoke("handleException").arg(messagingException).arg(messagingException.invoke("getEvent")));
+
+            CatchBlock catchException = tryBlock._catch(ref(Exception.class));
+            org.mule.devkit.model.code.Variable exception = catchException.param("e");
+            catchException.body().add(muleContext.invoke("getExceptionListener").invoke("handleException").arg(exception));
+
+            if (inFlight != null) {
+                tryBlock._finally()._if(guard.getPermitHeld().invoke("compareAndSet").arg(ExpressionFactory.TRUE).arg(ExpressionFactory.FALSE))._then().add(inFlight.invoke("release"));
+            }
+            body.add(guard.getPool().invoke("execute").arg(ExpressionFactory._new(worker)));
+            if (inFlight != null) {
+                body.assign(guard.getDispatched(), ExpressionFactory.TRUE);
+            }
+        }
+
+        body._return(offer ? ExpressionFactory.TRUE : ExpressionFactory._null());
     }
 
 
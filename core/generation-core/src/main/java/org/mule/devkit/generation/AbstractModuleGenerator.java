@@ -26,6 +26,7 @@ import org.mule.api.annotations.Disconnect;
 import org.mule.api.annotations.ValidateConnection;
 import org.mule.api.annotations.oauth.OAuth;
 import org.mule.api.annotations.oauth.OAuth2;
+import org.mule.api.annotations.rest.RestCall;
 import org.mule.devkit.model.Field;
 import org.mule.devkit.model.Method;
 import org.mule.devkit.model.Type;
@@ -39,16 +40,29 @@ import org.mule.devkit.model.code.Modifier;
 import org.mule.devkit.model.code.Op;
 import org.mule.devkit.model.code.TypeReference;
 import org.mule.devkit.model.code.Variable;
+import org.mule.devkit.model.schema.SchemaConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.lang.model.type.TypeMirror;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public abstract class AbstractModuleGenerator extends AbstractGenerator {
 
     protected static final String MULE_CONTEXT_FIELD_NAME = "muleContext";
+    private static final Map<String, String> REST_HTTP_CLIENT_PROPERTIES = new LinkedHashMap<String, String>();
+
+    static {
+        REST_HTTP_CLIENT_PROPERTIES.put(SchemaConstants.ATTRIBUTE_HTTP_MAX_CONNECTIONS_PER_HOST, SchemaConstants.ATTRIBUTE_HTTP_MAX_CONNECTIONS_PER_HOST_DEFAULT);
+        REST_HTTP_CLIENT_PROPERTIES.put(SchemaConstants.ATTRIBUTE_HTTP_MAX_TOTAL_CONNECTIONS, SchemaConstants.ATTRIBUTE_HTTP_MAX_TOTAL_CONNECTIONS_DEFAULT);
+        REST_HTTP_CLIENT_PROPERTIES.put(SchemaConstants.ATTRIBUTE_HTTP_CONNECTION_TIMEOUT, SchemaConstants.ATTRIBUTE_HTTP_CONNECTION_TIMEOUT_DEFAULT);
+        REST_HTTP_CLIENT_PROPERTIES.put(SchemaConstants.ATTRIBUTE_HTTP_IDLE_CONNECTION_TIMEOUT, SchemaConstants.ATTRIBUTE_HTTP_IDLE_CONNECTION_TIMEOUT_DEFAULT);
+    }
 
     public org.mule.devkit.model.code.Type ref(Type type) {
         return ctx().getCodeModel().ref(type.asType());
@@ -89,6 +103,41 @@ public abstract class AbstractModuleGenerator extends AbstractGenerator {
         return setter;
     }
 
+    /**
+     * Names of the HTTP client settings exposed on the config element of modules with {@link RestCall} methods
+     *
+     * @param type Module
+     * @return The property names, empty if the module does not make REST calls
+     */
+    protected List<String> getRestHttpClientProperties(Type type) {
+        if (!type.hasMethodsAnnotatedWith(RestCall.class)) {
+            return Collections.emptyList();
+        }
+
+        return new ArrayList<String>(REST_HTTP_CLIENT_PROPERTIES.keySet());
+    }
+
+    /**
+     * Generates a field, setter and getter for each HTTP client setting of a module with {@link RestCall} methods.
+     * Each field is initialised with the same default advertised in the schema.
+     *
+     * @param type  Module
+     * @param clazz Class where the fields will be generated
+     * @return The generated fields keyed by property name
+     */
+    protected Map<String, FieldVariable> generateRestHttpClientFields(Type type, DefinedClass clazz) {
+        Map<String, FieldVariable> fields = new LinkedHashMap<String, FieldVariable>();
+        for (String property : getRestHttpClientProperties(type)) {
+            FieldVariable field = clazz.field(Modifier.PRIVATE, ctx().getCodeModel().INT, property,
+                    ExpressionFactory.lit(Integer.parseInt(REST_HTTP_CLIENT_PROPERTIES.get(property))));
+            generateSetter(clazz, field);
+            generateGetter(clazz, field);
+            fields.put(property, field);
+        }
+
+        return fields;
+    }
+
     protected FieldVariable generateFieldForMuleContext(DefinedClass messageProcessorClass) {
         FieldVariable muleContext = messageProcessorClass.field(Modifier.PRIVATE, ref(MuleContext.class), MULE_CONTEXT_FIELD_NAME);
         muleContext.javadoc().add("Mule Context");
@@ -100,6 +149,24 @@ public abstract class AbstractModuleGenerator extends AbstractGenerator {
         return Op.eq(expression, ExpressionFactory._null());
     }
 
+    /**
+     * Generate a synchronized, access ordered map that evicts its least recently used entry once it holds more than
+     * <code>maxSize</code> entries. Even a get reorders an access ordered map, so it is only ever used through the
+     * synchronized wrapper.
+     *
+     * @param maxSize expression evaluated on every insertion, a local variable has to be final
+     */
+    protected Expression newLeastRecentlyUsedMap(TypeReference keyType, TypeReference valueType, Expression maxSize) {
+        DefinedClass lruMap = ctx().getCodeModel().anonymousClass(ref(LinkedHashMap.class).narrow(keyType, valueType));
+        org.mule.devkit.model.code.Method removeEldestEntry = lruMap.method(Modifier.PROTECTED, ctx().getCodeModel().BOOLEAN, "removeEldestEntry");
+        removeEldestEntry.annotate(ref(Override.class));
+        removeEldestEntry.param(ref(Map.Entry.class).narrow(keyType, valueType), "eldest");
+        removeEldestEntry.body()._return(Op.gt(ExpressionFactory.invoke("size"), maxSize));
+
+        return ref(Collections.class).staticInvoke("synchronizedMap").arg(
+                ExpressionFactory._new(lruMap).arg(ExpressionFactory.lit(16)).arg(ExpressionFactory.lit(0.75f)).arg(ExpressionFactory.TRUE));
+    }
+
     protected String getterMethodForFieldAnnotatedWith(Type type, Class<? extends Annotation> annotation) {
         return methodForFieldAnnotatedWith(type, annotation, "get");
     }
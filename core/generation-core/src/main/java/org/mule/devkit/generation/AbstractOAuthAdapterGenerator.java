@@ -17,6 +17,7 @@
 package org.mule.devkit.generation;
 
 import org.apache.commons.lang.StringUtils;
+import org.mule.RequestContext;
 import org.mule.api.MessagingException;
 import org.mule.api.MuleContext;
 import org.mule.api.MuleEvent;
@@ -25,16 +26,21 @@ import org.mule.api.annotations.oauth.OAuthAccessToken;
 import org.mule.api.annotations.oauth.OAuthAccessTokenSecret;
 import org.mule.api.callback.HttpCallback;
 import org.mule.api.context.MuleContextAware;
+import org.mule.api.expression.ExpressionManager;
 import org.mule.api.lifecycle.Initialisable;
 import org.mule.api.lifecycle.Startable;
 import org.mule.api.lifecycle.Stoppable;
 import org.mule.api.oauth.NotAuthorizedException;
 import org.mule.api.oauth.RestoreAccessTokenCallback;
 import org.mule.api.oauth.SaveAccessTokenCallback;
+import org.mule.api.oauth.UnableToAcquireAccessTokenException;
 import org.mule.api.processor.MessageProcessor;
+import org.mule.api.store.ObjectStore;
 import org.mule.config.i18n.MessageFactory;
 import org.mule.devkit.generation.api.GenerationException;
+import org.mule.devkit.generation.adapter.HttpCallbackAdapterGenerator;
 import org.mule.devkit.generation.callback.DefaultHttpCallbackGenerator;
+import org.mule.devkit.generation.mule.oauth.AccessTokenStoreGenerator;
 import org.mule.devkit.model.Method;
 import org.mule.devkit.model.Parameter;
 import org.mule.devkit.model.Type;
@@ -44,6 +50,7 @@ import org.mule.devkit.model.code.ClassAlreadyExistsException;
 import org.mule.devkit.model.code.Conditional;
 import org.mule.devkit.model.code.DefinedClass;
 import org.mule.devkit.model.code.DefinedClassRoles;
+import org.mule.devkit.model.code.Expression;
 import org.mule.devkit.model.code.ExpressionFactory;
 import org.mule.devkit.model.code.FieldVariable;
 import org.mule.devkit.model.code.Invocation;
@@ -56,7 +63,10 @@ import org.mule.devkit.model.code.builders.FieldBuilder;
 import javax.lang.model.type.TypeMirror;
 import java.net.URLDecoder;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -81,6 +91,19 @@ public abstract class AbstractOAuthAdapterGenerator extends AbstractModuleGenera
     protected static final String EXPIRATION_FIELD_NAME = "expiration";
     public static final String OAUTH_SAVE_ACCESS_TOKEN_CALLBACK_FIELD_NAME = "oauthSaveAccessToken";
     public static final String OAUTH_RESTORE_ACCESS_TOKEN_CALLBACK_FIELD_NAME = "oauthRestoreAccessToken";
+    public static final String ACCESS_TOKEN_ID_FIELD_NAME = "accessTokenId";
+    public static final String ACCESS_TOKEN_STORE_MAX_ENTRIES_FIELD_NAME = "accessTokenStoreMaxEntries";
+    public static final String ACCESS_TOKEN_OBJECT_STORE_FIELD_NAME = "accessTokenObjectStore";
+    protected static final String ACCESS_TOKEN_STORE_FIELD_NAME = "accessTokenStore";
+    public static final String GET_CURRENT_ACCESS_TOKEN_ID_METHOD_NAME = "getCurrentAccessTokenId";
+    protected static final String ACQUIRE_STORED_ACCESS_TOKEN_METHOD_NAME = "acquireStoredAccessToken";
+    protected static final String ADD_PENDING_AUTHORIZATION_METHOD_NAME = "addPendingAuthorization";
+    protected static final String PENDING_AUTHORIZATIONS_FIELD_NAME = "pendingAuthorizations";
+    protected static final String CURRENT_AUTHORIZATION_FIELD_NAME = "currentAuthorization";
+    protected static final String AUTHORIZATION_KEY_PATTERN_FIELD_NAME = "AUTHORIZATION_KEY_PATTERN";
+    private static final String PENDING_AUTHORIZATION_CLASS_NAME = "PendingAuthorization";
+    private static final String PENDING_AUTHORIZATION_TIMEOUT_FIELD_NAME = "PENDING_AUTHORIZATION_TIMEOUT";
+    private static final long PENDING_AUTHORIZATION_TIMEOUT = 600000L;
 
     protected DefinedClass getOAuthAdapterClass(Type type, String classSuffix, Class<?> interf) {
         org.mule.devkit.model.code.Package pkg = ctx().getCodeModel()._package(type.getPackageName() + NamingConstants.ADAPTERS_NAMESPACE);
@@ -123,26 +146,245 @@ public abstract class AbstractOAuthAdapterGenerator extends AbstractModuleGenera
     }
 
     protected FieldVariable accessTokenField(DefinedClass oauthAdapter) {
-        return new FieldBuilder(oauthAdapter).type(String.class).name(ACCESS_TOKEN_FIELD_NAME).getterAndSetter().build();
+        return new FieldBuilder(oauthAdapter).type(String.class).name(ACCESS_TOKEN_FIELD_NAME).volatileField().getterAndSetter().build();
+    }
+
+    /**
+     * Fields backing the multi-tenant mode, in which access tokens are kept in a keyed store instead of in the adapter
+     * itself. The mode is enabled by configuring an access token id, usually an expression evaluated against the
+     * current message.
+     */
+    protected void accessTokenStoreFields(Type type, DefinedClass oauthAdapter) {
+        new FieldBuilder(oauthAdapter).type(String.class).name(ACCESS_TOKEN_ID_FIELD_NAME).getterAndSetter().build();
+        new FieldBuilder(oauthAdapter).type(int.class).name(ACCESS_TOKEN_STORE_MAX_ENTRIES_FIELD_NAME).
+                initialValue(AccessTokenStoreGenerator.DEFAULT_MAX_ENTRIES).getterAndSetter().build();
+        new FieldBuilder(oauthAdapter).type(ObjectStore.class).name(ACCESS_TOKEN_OBJECT_STORE_FIELD_NAME).getterAndSetter().build();
+        new FieldBuilder(oauthAdapter).type(getAccessTokenStoreClass(type)).name(ACCESS_TOKEN_STORE_FIELD_NAME).getter().build();
+    }
+
+    protected DefinedClass getAccessTokenStoreClass(Type type) {
+        return ctx().getCodeModel()._class(DefinedClassRoles.OAUTH_ACCESS_TOKEN_STORE, ref(type));
+    }
+
+    protected DefinedClass getAccessTokenStoreEntryClass(Type type) {
+        return getAccessTokenStoreClass(type)._class(AccessTokenStoreGenerator.ENTRY_CLASS_NAME);
+    }
+
+    /**
+     * Fields keeping the authorizations in progress when running multi-tenant. Each one is registered under a key the
+     * provider echoes back on the callback, matched by the given regex, so the callback completes the authorization of
+     * the tenant which started it instead of relying on adapter wide fields any other tenant may overwrite meanwhile.
+     */
+    protected void pendingAuthorizationFields(DefinedClass oauthAdapter, String authorizationKeyRegex) {
+        new FieldBuilder(oauthAdapter).type(Pattern.class).name(AUTHORIZATION_KEY_PATTERN_FIELD_NAME).staticField().finalField().
+                initialValue(ref(Pattern.class).staticInvoke("compile").arg(authorizationKeyRegex)).build();
+        new FieldBuilder(oauthAdapter).type(ctx().getCodeModel().LONG).name(PENDING_AUTHORIZATION_TIMEOUT_FIELD_NAME).staticField().finalField().
+                javadoc("Time in milliseconds after which an authorization whose callback was never received is discarded").
+                initialValue(ExpressionFactory.lit(PENDING_AUTHORIZATION_TIMEOUT)).build();
+        DefinedClass pendingAuthorizationClass = generatePendingAuthorizationClass(oauthAdapter);
+        new FieldBuilder(oauthAdapter).type(ref(ConcurrentMap.class).narrow(ref(String.class), pendingAuthorizationClass)).name(PENDING_AUTHORIZATIONS_FIELD_NAME).finalField().
+                initialValue(ExpressionFactory._new(ref(ConcurrentHashMap.class).narrow(ref(String.class), pendingAuthorizationClass))).build();
+        new FieldBuilder(oauthAdapter).type(ref(ThreadLocal.class).narrow(pendingAuthorizationClass)).name(CURRENT_AUTHORIZATION_FIELD_NAME).finalField().
+                javadoc("Authorization whose callback is being processed by the current thread").
+                initialValue(ExpressionFactory._new(ref(ThreadLocal.class).narrow(pendingAuthorizationClass))).build();
+    }
+
+    private DefinedClass generatePendingAuthorizationClass(DefinedClass oauthAdapter) {
+        DefinedClass pendingAuthorizationClass;
+        try {
+            pendingAuthorizationClass = oauthAdapter._class(Modifier.PRIVATE | Modifier.STATIC, PENDING_AUTHORIZATION_CLASS_NAME);
+        } catch (ClassAlreadyExistsException e) {
+            return e.getExistingClass();
+        }
+        pendingAuthorizationClass.javadoc().add("Authorization started on behalf of a tenant whose callback has not been received yet");
+
+        FieldVariable accessTokenId = new FieldBuilder(pendingAuthorizationClass).type(String.class).name("accessTokenId").finalField().getter().build();
+        FieldVariable requestToken = new FieldBuilder(pendingAuthorizationClass).type(String.class).name("requestToken").finalField().getter().build();
+        FieldVariable requestTokenSecret = new FieldBuilder(pendingAuthorizationClass).type(String.class).name("requestTokenSecret").finalField().getter().build();
+        FieldVariable startedAt = new FieldBuilder(pendingAuthorizationClass).type(ctx().getCodeModel().LONG).name("startedAt").finalField().build();
+        new FieldBuilder(pendingAuthorizationClass).type(String.class).name(VERIFIER_FIELD_NAME).getterAndSetter().build();
+
+        org.mule.devkit.model.code.Method constructor = pendingAuthorizationClass.constructor(Modifier.PUBLIC);
+        constructor.body().assign(ExpressionFactory._this().ref(accessTokenId), constructor.param(ref(String.class), "accessTokenId"));
+        constructor.body().assign(ExpressionFactory._this().ref(requestToken), constructor.param(ref(String.class), "requestToken"));
+        constructor.body().assign(ExpressionFactory._this().ref(requestTokenSecret), constructor.param(ref(String.class), "requestTokenSecret"));
+        constructor.body().assign(ExpressionFactory._this().ref(startedAt), ref(System.class).staticInvoke("currentTimeMillis"));
+
+        org.mule.devkit.model.code.Method hasExpired = pendingAuthorizationClass.method(Modifier.PUBLIC, ctx().getCodeModel().BOOLEAN, "hasExpired");
+        Variable now = hasExpired.param(ctx().getCodeModel().LONG, "now");
+        hasExpired.body()._return(Op.gt(Op.minus(now, startedAt), oauthAdapter.fields().get(PENDING_AUTHORIZATION_TIMEOUT_FIELD_NAME)));
+
+        return pendingAuthorizationClass;
+    }
+
+    /**
+     * Generates the method registering an authorization in progress under the given key, discarding on the way those
+     * whose callback never came.
+     */
+    protected void generateAddPendingAuthorizationMethod(DefinedClass oauthAdapter) {
+        FieldVariable pendingAuthorizations = oauthAdapter.fields().get(PENDING_AUTHORIZATIONS_FIELD_NAME);
+        DefinedClass pendingAuthorizationClass = generatePendingAuthorizationClass(oauthAdapter);
+
+        org.mule.devkit.model.code.Method addPendingAuthorization = oauthAdapter.method(Modifier.PROTECTED, ctx().getCodeModel().VOID, ADD_PENDING_AUTHORIZATION_METHOD_NAME);
+        Variable key = addPendingAuthorization.param(ref(String.class), "key");
+        Variable accessTokenId = addPendingAuthorization.param(ref(String.class), "accessTokenId");
+        Variable requestToken = addPendingAuthorization.param(ref(String.class), "requestToken");
+        Variable requestTokenSecret = addPendingAuthorization.param(ref(String.class), "requestTokenSecret");
+
+        Block body = addPendingAuthorization.body();
+        Variable now = body.decl(ctx().getCodeModel().LONG, "now", ref(System.class).staticInvoke("currentTimeMillis"));
+        Variable iterator = body.decl(ref(Iterator.class).narrow(pendingAuthorizationClass), "iterator", pendingAuthorizations.invoke("values").invoke("iterator"));
+        body._while(iterator.invoke("hasNext")).body()._if(iterator.invoke("next").invoke("hasExpired").arg(now))._then().add(iterator.invoke("remove"));
+        body.add(pendingAuthorizations.invoke("put").arg(key).arg(ExpressionFactory._new(pendingAuthorizationClass).
+                arg(accessTokenId).arg(requestToken).arg(requestTokenSecret)));
+    }
+
+    /**
+     * Declares the authorization whose callback the current thread is processing, null when not completing the
+     * authorization of a tenant.
+     */
+    protected Variable generateCurrentAuthorization(DefinedClass oauthAdapter, Block block) {
+        return block.decl(generatePendingAuthorizationClass(oauthAdapter), "authorization",
+                oauthAdapter.fields().get(CURRENT_AUTHORIZATION_FIELD_NAME).invoke("get"));
+    }
+
+    /**
+     * Generates the method resolving the access token id of the event being processed, null when running single-tenant.
+     * While completing the authorization of a tenant the id is the one captured when the authorization started, as the
+     * callback event does not carry it.
+     */
+    protected void generateGetCurrentAccessTokenIdMethod(DefinedClass oauthAdapter) {
+        org.mule.devkit.model.code.Method getCurrentAccessTokenId = oauthAdapter.method(Modifier.PUBLIC, ref(String.class), GET_CURRENT_ACCESS_TOKEN_ID_METHOD_NAME);
+        FieldVariable accessTokenId = oauthAdapter.fields().get(ACCESS_TOKEN_ID_FIELD_NAME);
+        FieldVariable muleContext = oauthAdapter.fields().get(MULE_CONTEXT_FIELD_NAME);
+
+        getCurrentAccessTokenId.body()._if(Op.cor(isNull(accessTokenId), isNull(oauthAdapter.fields().get(ACCESS_TOKEN_STORE_FIELD_NAME))))._then()._return(ExpressionFactory._null());
+        if (oauthAdapter.fields().get(CURRENT_AUTHORIZATION_FIELD_NAME) != null) {
+            Variable authorization = generateCurrentAuthorization(oauthAdapter, getCurrentAccessTokenId.body());
+            getCurrentAccessTokenId.body()._if(Op.ne(authorization, ExpressionFactory._null()))._then()._return(authorization.invoke("getAccessTokenId"));
+        }
+        Variable event = getCurrentAccessTokenId.body().decl(ref(MuleEvent.class), "event", ref(RequestContext.class).staticInvoke("getEvent"));
+        getCurrentAccessTokenId.body()._if(isNull(event))._then()._return(ExpressionFactory._null());
+
+        Variable id = getCurrentAccessTokenId.body().decl(ref(Object.class), "id", accessTokenId);
+        Variable expressionManager = getCurrentAccessTokenId.body().decl(ref(ExpressionManager.class), "expressionManager", muleContext.invoke("getExpressionManager"));
+        getCurrentAccessTokenId.body()._if(expressionManager.invoke("isExpression").arg(accessTokenId))._then().assign(id,
+                expressionManager.invoke("evaluate").arg(accessTokenId).arg(event.invoke("getMessage")));
+        getCurrentAccessTokenId.body()._return(Op.cond(Op.ne(id, ExpressionFactory._null()), id.invoke("toString"), ExpressionFactory._null()));
+    }
+
+    /**
+     * Generates the method looking up the access token of a tenant, attempting a restore through the restore callback
+     * when none is cached.
+     */
+    protected void generateAcquireStoredAccessTokenMethod(Type type, DefinedClass oauthAdapter) {
+        DefinedClass entryClass = getAccessTokenStoreEntryClass(type);
+        FieldVariable accessTokenStore = oauthAdapter.fields().get(ACCESS_TOKEN_STORE_FIELD_NAME);
+
+        org.mule.devkit.model.code.Method acquireStoredAccessToken = oauthAdapter.method(Modifier.PROTECTED, entryClass, ACQUIRE_STORED_ACCESS_TOKEN_METHOD_NAME);
+        acquireStoredAccessToken._throws(ref(NotAuthorizedException.class));
+        Variable accessTokenId = acquireStoredAccessToken.param(ref(String.class), "accessTokenId");
+
+        Variable entry = acquireStoredAccessToken.body().decl(entryClass, "entry", accessTokenStore.invoke("get").arg(accessTokenId));
+        Block ifNotStored = acquireStoredAccessToken.body()._if(isNull(entry))._then();
+        ifNotStored.invoke("restoreAccessToken");
+        ifNotStored.assign(entry, accessTokenStore.invoke("get").arg(accessTokenId));
+
+        Invocation newNotAuthorizedException = ExpressionFactory._new(ref(NotAuthorizedException.class));
+        newNotAuthorizedException.arg(ExpressionFactory.lit("This connector has not yet been authorized for \"").plus(accessTokenId).plus(
+                ExpressionFactory.lit("\", please authorize by calling \"authorize\".")));
+        ifNotStored._if(isNull(entry))._then()._throw(newNotAuthorizedException);
+
+        acquireStoredAccessToken.body()._return(entry);
+    }
+
+    /**
+     * Declares the access token id of the current event, throwing if running multi-tenant and the id cannot be
+     * resolved, as the access token would then end up shared by every tenant.
+     *
+     * @param unableToAcquire whether to wrap the exception in a {@link UnableToAcquireAccessTokenException}
+     */
+    protected Variable generateRequireCurrentAccessTokenId(DefinedClass oauthAdapter, Block block, String name, boolean unableToAcquire) {
+        FieldVariable accessTokenStore = oauthAdapter.fields().get(ACCESS_TOKEN_STORE_FIELD_NAME);
+        Variable currentAccessTokenId = block.decl(ref(String.class), name, ExpressionFactory.invoke(GET_CURRENT_ACCESS_TOKEN_ID_METHOD_NAME));
+
+        Invocation newNotAuthorizedException = ExpressionFactory._new(ref(NotAuthorizedException.class));
+        newNotAuthorizedException.arg(ExpressionFactory.lit("The access token id \"").plus(oauthAdapter.fields().get(ACCESS_TOKEN_ID_FIELD_NAME)).plus(
+                ExpressionFactory.lit("\" resolved to null, cannot tell which tenant to act on behalf of.")));
+        block._if(Op.cand(Op.ne(accessTokenStore, ExpressionFactory._null()), isNull(currentAccessTokenId)))._then()._throw(
+                unableToAcquire ? ExpressionFactory._new(ref(UnableToAcquireAccessTokenException.class)).arg(newNotAuthorizedException) : newNotAuthorizedException);
+        return currentAccessTokenId;
+    }
+
+    /**
+     * Puts the given access token in the store under the id of the current event, if running multi-tenant.
+     *
+     * @return the variable holding the id of the current event
+     */
+    protected Variable generateStoreAccessToken(DefinedClass oauthAdapter, Block block, Expression accessToken, Expression accessTokenSecret, Expression expiration) {
+        FieldVariable accessTokenStore = oauthAdapter.fields().get(ACCESS_TOKEN_STORE_FIELD_NAME);
+        Variable currentAccessTokenId = block.decl(ref(String.class), "currentAccessTokenId", ExpressionFactory.invoke(GET_CURRENT_ACCESS_TOKEN_ID_METHOD_NAME));
+        block._if(Op.cand(Op.ne(currentAccessTokenId, ExpressionFactory._null()), Op.cand(Op.ne(accessTokenStore, ExpressionFactory._null()), Op.ne(accessToken, ExpressionFactory._null()))))._then().add(
+                accessTokenStore.invoke("put").arg(currentAccessTokenId).arg(accessToken).arg(accessTokenSecret).arg(expiration)
+        );
+        return currentAccessTokenId;
     }
 
     protected FieldVariable oauthCallbackField(DefinedClass oauthAdapter) {
         return new FieldBuilder(oauthAdapter).type(HttpCallback.class).name(CALLBACK_FIELD_NAME).build();
     }
 
-    protected void generateStartMethod(DefinedClass oauthAdapter) {
+    protected org.mule.devkit.model.code.Method generateStartMethod(DefinedClass oauthAdapter) {
         org.mule.devkit.model.code.Method start = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, Startable.PHASE_NAME);
         start._throws(MuleException.class);
         start.body().invoke(ExpressionFactory._super(), Startable.PHASE_NAME);
         start.body().invoke(oauthAdapter.fields().get(CALLBACK_FIELD_NAME), Startable.PHASE_NAME);
         start.body().assign(oauthAdapter.fields().get(REDIRECT_URL_FIELD_NAME), oauthAdapter.fields().get(CALLBACK_FIELD_NAME).invoke("getUrl"));
+        generateStartAccessTokenCallback(oauthAdapter, start.body(), OAUTH_SAVE_ACCESS_TOKEN_CALLBACK_FIELD_NAME);
+        generateStartAccessTokenCallback(oauthAdapter, start.body(), OAUTH_RESTORE_ACCESS_TOKEN_CALLBACK_FIELD_NAME);
+        return start;
+    }
+
+    /**
+     * Wires and starts an access token callback along with the adapter so its message processor chain is not set up
+     * on the first request. The adapter belongs to no flow, so the callback wires a flow of its own into a chain that
+     * needs one.
+     */
+    private void generateStartAccessTokenCallback(DefinedClass oauthAdapter, Block block, String callbackFieldName) {
+        FieldVariable callback = oauthAdapter.fields().get(callbackFieldName);
+        if (callback == null) {
+            return;
+        }
+        FieldVariable muleContext = oauthAdapter.fields().get(MULE_CONTEXT_FIELD_NAME);
+        Block ifCallbackNotNull = block._if(Op.ne(callback, ExpressionFactory._null()))._then();
+        if (muleContext != null) {
+            ifCallbackNotNull._if(Op._instanceof(callback, ref(MuleContextAware.class)))._then().add(
+                    ExpressionFactory.cast(ref(MuleContextAware.class), callback).invoke("setMuleContext").arg(muleContext)
+            );
+        }
+        ifCallbackNotNull._if(Op._instanceof(callback, ref(Startable.class)))._then().add(
+                ExpressionFactory.cast(ref(Startable.class), callback).invoke(Startable.PHASE_NAME)
+        );
     }
 
-    protected void generateStopMethod(DefinedClass oauthAdapter) {
+    private void generateStopAccessTokenCallback(DefinedClass oauthAdapter, Block block, String callbackFieldName) {
+        FieldVariable callback = oauthAdapter.fields().get(callbackFieldName);
+        if (callback == null) {
+            return;
+        }
+        block._if(Op._instanceof(callback, ref(Stoppable.class)))._then().add(
+                ExpressionFactory.cast(ref(Stoppable.class), callback).invoke(Stoppable.PHASE_NAME)
+        );
+    }
+
+    protected org.mule.devkit.model.code.Method generateStopMethod(DefinedClass oauthAdapter) {
         org.mule.devkit.model.code.Method start = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, Stoppable.PHASE_NAME);
         start._throws(MuleException.class);
         start.body().invoke(ExpressionFactory._super(), (Stoppable.PHASE_NAME));
         start.body().invoke(oauthAdapter.fields().get(CALLBACK_FIELD_NAME), Stoppable.PHASE_NAME);
+        generateStopAccessTokenCallback(oauthAdapter, start.body(), OAUTH_SAVE_ACCESS_TOKEN_CALLBACK_FIELD_NAME);
+        generateStopAccessTokenCallback(oauthAdapter, start.body(), OAUTH_RESTORE_ACCESS_TOKEN_CALLBACK_FIELD_NAME);
+        return start;
     }
 
     protected org.mule.devkit.model.code.Method generateInitialiseMethod(DefinedClass oauthAdapter, DefinedClass messageProcessor, String callbackPath) {
@@ -157,13 +399,27 @@ public abstract class AbstractOAuthAdapterGenerator extends AbstractModuleGenera
         Invocation connector = ExpressionFactory.invoke("get" + StringUtils.capitalize(DefaultHttpCallbackGenerator.CONNECTOR_FIELD_NAME));
         FieldVariable callback = oauthAdapter.fields().get(CALLBACK_FIELD_NAME);
         FieldVariable muleContext = oauthAdapter.fields().get(MULE_CONTEXT_FIELD_NAME);
+        DefinedClass defaultHttpCallbackClass = ctx().getCodeModel()._class(DefinedClassRoles.DEFAULT_HTTP_CALLBACK);
+        Variable defaultHttpCallback;
         if (StringUtils.isEmpty(callbackPath)) {
-            initialise.body().assign(callback, ExpressionFactory._new(ctx().getCodeModel()._class(DefinedClassRoles.DEFAULT_HTTP_CALLBACK)).
+            defaultHttpCallback = initialise.body().decl(defaultHttpCallbackClass, "defaultHttpCallback", ExpressionFactory._new(defaultHttpCallbackClass).
                     arg(ExpressionFactory._new(messageProcessor)).arg(muleContext).arg(domain).arg(localPort).arg(remotePort).arg(async).arg(connector));
         } else {
-            initialise.body().assign(callback, ExpressionFactory._new(ctx().getCodeModel()._class(DefinedClassRoles.DEFAULT_HTTP_CALLBACK)).
+            defaultHttpCallback = initialise.body().decl(defaultHttpCallbackClass, "defaultHttpCallback", ExpressionFactory._new(defaultHttpCallbackClass).
                     arg(ExpressionFactory._new(messageProcessor)).arg(muleContext).arg(domain).arg(localPort).arg(remotePort).arg(callbackPath).arg(async));
         }
+        initialise.body().invoke(defaultHttpCallback, "set" + StringUtils.capitalize(DefaultHttpCallbackGenerator.WORKER_POOL_FIELD_NAME)).
+                arg(ExpressionFactory.invoke("get" + StringUtils.capitalize(HttpCallbackAdapterGenerator.WORKER_POOL_FIELD_NAME)));
+        initialise.body().invoke(defaultHttpCallback, "set" + StringUtils.capitalize(DefaultHttpCallbackGenerator.TIME_TO_LIVE_FIELD_NAME)).
+                arg(ExpressionFactory.invoke("get" + StringUtils.capitalize(HttpCallbackAdapterGenerator.CALLBACK_TIME_TO_LIVE_FIELD_NAME)));
+        initialise.body().assign(callback, defaultHttpCallback);
+        FieldVariable accessTokenStore = oauthAdapter.fields().get(ACCESS_TOKEN_STORE_FIELD_NAME);
+        if (accessTokenStore != null) {
+            initialise.body()._if(Op.ne(oauthAdapter.fields().get(ACCESS_TOKEN_ID_FIELD_NAME), ExpressionFactory._null()))._then().assign(accessTokenStore,
+                    ExpressionFactory._new(accessTokenStore.type()).
+                            arg(oauthAdapter.fields().get(ACCESS_TOKEN_STORE_MAX_ENTRIES_FIELD_NAME)).
+                            arg(oauthAdapter.fields().get(ACCESS_TOKEN_OBJECT_STORE_FIELD_NAME)));
+        }
         return initialise;
     }
 
@@ -179,8 +435,20 @@ public abstract class AbstractOAuthAdapterGenerator extends AbstractModuleGenera
         Variable event = processMethod.param(ref(MuleEvent.class), "event");
 
         TryStatement tryToExtractVerifier = processMethod.body()._try();
-        tryToExtractVerifier.body().assign(oauthAdapter.fields().get(VERIFIER_FIELD_NAME), ExpressionFactory.invoke("extractAuthorizationCode").arg(event.invoke("getMessageAsString")));
-        tryToExtractVerifier.body().add(ExpressionFactory.invoke("fetchAccessToken"));
+        Variable message = tryToExtractVerifier.body().decl(ref(String.class), "message", event.invoke("getMessageAsString"));
+        Variable verifier = tryToExtractVerifier.body().decl(ref(String.class), "verifier", ExpressionFactory.invoke("extractAuthorizationCode").arg(message));
+        Variable authorizationKey = tryToExtractVerifier.body().decl(ref(String.class), "authorizationKey", ExpressionFactory.invoke("extractAuthorizationKey").arg(message));
+        DefinedClass pendingAuthorizationClass = generatePendingAuthorizationClass(oauthAdapter);
+        Variable authorization = tryToExtractVerifier.body().decl(pendingAuthorizationClass, "authorization", Op.cond(Op.ne(authorizationKey, ExpressionFactory._null()),
+                oauthAdapter.fields().get(PENDING_AUTHORIZATIONS_FIELD_NAME).invoke("remove").arg(authorizationKey), ExpressionFactory._null()));
+        Conditional ifTenantAuthorization = tryToExtractVerifier.body()._if(Op.ne(authorization, ExpressionFactory._null()));
+        ifTenantAuthorization._then().invoke(authorization, "set" + StringUtils.capitalize(VERIFIER_FIELD_NAME)).arg(verifier);
+        ifTenantAuthorization._then().invoke(oauthAdapter.fields().get(CURRENT_AUTHORIZATION_FIELD_NAME), "set").arg(authorization);
+        TryStatement tryToFetch = ifTenantAuthorization._then()._try();
+        tryToFetch.body().add(ExpressionFactory.invoke("fetchAccessToken"));
+        tryToFetch._finally().invoke(oauthAdapter.fields().get(CURRENT_AUTHORIZATION_FIELD_NAME), "remove");
+        ifTenantAuthorization._else().assign(oauthAdapter.fields().get(VERIFIER_FIELD_NAME), verifier);
+        ifTenantAuthorization._else().add(ExpressionFactory.invoke("fetchAccessToken"));
 
         CatchBlock catchBlock = tryToExtractVerifier._catch(ref(Exception.class));
         Variable exceptionCaught = catchBlock.param("e");
@@ -198,6 +466,13 @@ public abstract class AbstractOAuthAdapterGenerator extends AbstractModuleGenera
         ifVerifierFound._then()._return(ref(URLDecoder.class).staticInvoke("decode").arg(group).arg(ENCODING));
         ifVerifierFound._else()._throw(ExpressionFactory._new(
                 ref(Exception.class)).arg(ref(String.class).staticInvoke("format").arg("OAuth authorization code could not be extracted from: %s").arg(response)));
+
+        org.mule.devkit.model.code.Method extractKeyMethod = messageProcessor.method(Modifier.PRIVATE, ref(String.class), "extractAuthorizationKey")._throws(ref(Exception.class));
+        response = extractKeyMethod.param(String.class, "response");
+        matcher = extractKeyMethod.body().decl(ref(Matcher.class), "matcher", oauthAdapter.fields().get(AUTHORIZATION_KEY_PATTERN_FIELD_NAME).invoke("matcher").arg(response));
+        Conditional ifKeyFound = extractKeyMethod.body()._if(Op.cand(matcher.invoke("find"), Op.gte(matcher.invoke("groupCount"), ExpressionFactory.lit(1))));
+        ifKeyFound._then()._return(ref(URLDecoder.class).staticInvoke("decode").arg(matcher.invoke("group").arg(ExpressionFactory.lit(1))).arg(ENCODING));
+        extractKeyMethod.body()._return(ExpressionFactory._null());
         return messageProcessor;
     }
 
@@ -206,7 +481,7 @@ public abstract class AbstractOAuthAdapterGenerator extends AbstractModuleGenera
     }
 
 
-    protected void generateOverrides(Type type, DefinedClass oauthAdapter, FieldVariable oauthAccessToken, FieldVariable oauthAccessTokenSecret) {
+    protected void generateOverrides(Type type, DefinedClass oauthAdapter, Expression oauthAccessToken, Expression oauthAccessTokenSecret) {
         Map<String, Variable> variables = new HashMap<String, Variable>();
         for (Method executableElement : type.getMethodsWhoseParametersAreAnnotatedWith(OAuthAccessToken.class)) {
             org.mule.devkit.model.code.Method override = oauthAdapter.method(Modifier.PUBLIC, ref(executableElement.getReturnType()), executableElement.getSimpleName().toString());
@@ -216,8 +491,6 @@ public abstract class AbstractOAuthAdapterGenerator extends AbstractModuleGenera
                 override._throws(ref(thrownType).boxify());
             }
 
-            override.body().invoke("hasBeenAuthorized");
-
             for (Parameter parameter : executableElement.getParameters()) {
                 if (parameter.getAnnotation(OAuthAccessToken.class) != null ||
                         parameter.getAnnotation(OAuthAccessTokenSecret.class) != null) {
@@ -230,28 +503,57 @@ public abstract class AbstractOAuthAdapterGenerator extends AbstractModuleGenera
                 );
             }
 
-            Invocation callSuper = ExpressionFactory._super().invoke(executableElement.getSimpleName().toString());
-            for (Parameter parameter : executableElement.getParameters()) {
-                if (parameter.getAnnotation(OAuthAccessToken.class) != null) {
-                    callSuper.arg(oauthAccessToken);
-                } else if (parameter.getAnnotation(OAuthAccessTokenSecret.class) != null) {
-                    callSuper.arg(oauthAccessTokenSecret);
-                } else {
-                    callSuper.arg(variables.get(parameter.getSimpleName().toString()));
+            FieldVariable accessTokenStore = oauthAdapter.fields().get(ACCESS_TOKEN_STORE_FIELD_NAME);
+            if (accessTokenStore != null) {
+                // never fall back to the adapter's own access token when multi-tenant, it is not the tenant's
+                Variable accessTokenId = generateRequireCurrentAccessTokenId(oauthAdapter, override.body(), "_accessTokenId", false);
+                Block ifMultiTenant = override.body()._if(Op.ne(accessTokenId, ExpressionFactory._null()))._then();
+                Variable storedAccessToken = ifMultiTenant.decl(getAccessTokenStoreEntryClass(type), "_storedAccessToken",
+                        ExpressionFactory.invoke(ACQUIRE_STORED_ACCESS_TOKEN_METHOD_NAME).arg(accessTokenId));
+                generateCallSuper(executableElement, ifMultiTenant, variables, storedAccessToken.invoke("getAccessToken"), storedAccessToken.invoke("getAccessTokenSecret"));
+                if (ref(executableElement.getReturnType()) == ctx().getCodeModel().VOID) {
+                    ifMultiTenant._return();
                 }
             }
 
-            if (ref(executableElement.getReturnType()) != ctx().getCodeModel().VOID) {
-                override.body()._return(callSuper);
+            override.body().invoke("hasBeenAuthorized");
+
+            generateCallSuper(executableElement, override.body(), variables, oauthAccessToken, oauthAccessTokenSecret);
+        }
+    }
+
+    private void generateCallSuper(Method executableElement, Block block, Map<String, Variable> variables, Expression accessToken, Expression accessTokenSecret) {
+        Invocation callSuper = ExpressionFactory._super().invoke(executableElement.getSimpleName().toString());
+        for (Parameter parameter : executableElement.getParameters()) {
+            if (parameter.getAnnotation(OAuthAccessToken.class) != null) {
+                callSuper.arg(accessToken);
+            } else if (parameter.getAnnotation(OAuthAccessTokenSecret.class) != null) {
+                callSuper.arg(accessTokenSecret);
             } else {
-                override.body().add(callSuper);
+                callSuper.arg(variables.get(parameter.getSimpleName().toString()));
             }
         }
+
+        if (ref(executableElement.getReturnType()) != ctx().getCodeModel().VOID) {
+            block._return(callSuper);
+        } else {
+            block.add(callSuper);
+        }
     }
 
-    protected void generateHasBeenAuthorizedMethod(DefinedClass oauthAdapter, FieldVariable oauthAccessToken) {
+    protected void generateHasBeenAuthorizedMethod(DefinedClass oauthAdapter, Expression oauthAccessToken) {
+        generateHasBeenAuthorizedMethod(oauthAdapter, oauthAccessToken, null);
+    }
+
+    /**
+     * @param beforeCheck method invoked before checking for an access token, may be null
+     */
+    protected void generateHasBeenAuthorizedMethod(DefinedClass oauthAdapter, Expression oauthAccessToken, Invocation beforeCheck) {
         org.mule.devkit.model.code.Method hasBeenAuthorized = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "hasBeenAuthorized");
         hasBeenAuthorized._throws(ref(NotAuthorizedException.class));
+        if (beforeCheck != null) {
+            hasBeenAuthorized.body().add(beforeCheck);
+        }
         Block ifAccessTokenIsNull = hasBeenAuthorized.body()._if(isNull(oauthAccessToken))._then();
 
         ifAccessTokenIsNull.invoke("restoreAccessToken");
@@ -2,6 +2,7 @@ package org.mule.devkit.generation;
 
 import org.mule.devkit.generation.adapter.CapabilitiesAdapterGenerator;
 import org.mule.devkit.generation.adapter.ConnectionManagerGenerator;
+import org.mule.devkit.generation.adapter.ConnectionPoolMetricsGenerator;
 import org.mule.devkit.generation.adapter.HttpCallbackAdapterGenerator;
 import org.mule.devkit.generation.adapter.InjectAdapterGenerator;
 import org.mule.devkit.generation.adapter.LifecycleAdapterFactoryGenerator;
@@ -14,6 +15,8 @@ import org.mule.devkit.generation.api.AnnotationVerifier;
 import org.mule.devkit.generation.api.Generator;
 import org.mule.devkit.generation.api.Plugin;
 import org.mule.devkit.generation.callback.DefaultHttpCallbackGenerator;
+import org.mule.devkit.generation.callback.HttpCallbackRegistryGenerator;
+import org.mule.devkit.generation.callback.HttpCallbackWorkerPoolGenerator;
 import org.mule.devkit.generation.mule.AbstractExpressionEvaluatorGenerator;
 import org.mule.devkit.generation.mule.MessageProcessorGenerator;
 import org.mule.devkit.generation.mule.MessageSourceGenerator;
@@ -22,6 +25,7 @@ import org.mule.devkit.generation.mule.NestedProcessorStringGenerator;
 import org.mule.devkit.generation.mule.RegistryBootstrapGenerator;
 import org.mule.devkit.generation.mule.expression.ExpressionEnricherGenerator;
 import org.mule.devkit.generation.mule.expression.ExpressionEvaluatorGenerator;
+import org.mule.devkit.generation.mule.oauth.AccessTokenStoreGenerator;
 import org.mule.devkit.generation.mule.oauth.AuthorizeBeanDefinitionParserGenerator;
 import org.mule.devkit.generation.mule.oauth.AuthorizeMessageProcessorGenerator;
 import org.mule.devkit.generation.mule.oauth.DefaultRestoreAccessTokenCallbackFactoryGenerator;
@@ -53,15 +57,19 @@ public class CorePlugin implements Plugin {
         generators.add(new StringToBigDecimalTransformerGenerator());
         generators.add(new StringToBigIntegerTransformerGenerator());
         generators.add(new StringToClassTransformerGenerator());
+        generators.add(new HttpCallbackRegistryGenerator());
+        generators.add(new HttpCallbackWorkerPoolGenerator());
         generators.add(new DefaultHttpCallbackGenerator());
         generators.add(new CapabilitiesAdapterGenerator());
         generators.add(new LifecycleAdapterGenerator());
         generators.add(new InjectAdapterGenerator());
         generators.add(new RestAdapterGenerator());
         generators.add(new HttpCallbackAdapterGenerator());
+        generators.add(new AccessTokenStoreGenerator());
         generators.add(new OAuth1AdapterGenerator());
         generators.add(new OAuth2AdapterGenerator());
         generators.add(new LifecycleAdapterFactoryGenerator());
+        generators.add(new ConnectionPoolMetricsGenerator());
         generators.add(new ConnectionManagerGenerator()); // this should be the last on the chain of adapters
         generators.add(new PoolAdapterGenerator());
         generators.add(new JaxbTransformerGenerator());
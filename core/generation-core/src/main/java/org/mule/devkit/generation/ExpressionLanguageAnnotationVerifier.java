@@ -16,6 +16,7 @@
  */
 package org.mule.devkit.generation;
 
+import org.mule.api.annotations.ExpressionCompiler;
 import org.mule.api.annotations.ExpressionEnricher;
 import org.mule.api.annotations.ExpressionEvaluator;
 import org.mule.api.annotations.param.CorrelationId;
@@ -50,6 +51,22 @@ public class ExpressionLanguageAnnotationVerifier implements AnnotationVerifier
                 type.getMethodsAnnotatedWith(ExpressionEnricher.class).size() == 0) {
             throw new AnnotationVerificationException(type, "An @ExpressionLanguage must contain one @ExpressionEnricher or one @ExpressionEvaluator or both.");
         }
+        if (type.getMethodsAnnotatedWith(ExpressionCompiler.class).size() > 1) {
+            throw new AnnotationVerificationException(type, "An @ExpressionLanguage can only contain one @ExpressionCompiler.");
+        }
+        Method compiler = null;
+        for (Method executableElement : type.getMethodsAnnotatedWith(ExpressionCompiler.class)) {
+            if (executableElement.getParameters().size() != 1 || !executableElement.getParameters().get(0).asType().toString().equals(String.class.getName())) {
+                throw new AnnotationVerificationException(executableElement, "An @ExpressionCompiler must receive only a String that represents the expression to compile.");
+            }
+
+            String returnType = executableElement.getReturnType().toString();
+            if (returnType.equals("void") || returnType.equals(Object.class.getName())) {
+                throw new AnnotationVerificationException(executableElement, "An @ExpressionCompiler must return the compiled expression as a specific type.");
+            }
+            compiler = executableElement;
+        }
+
         for (Method executableElement : type.getMethodsAnnotatedWith(ExpressionEvaluator.class)) {
             if (executableElement.getParameters().size() == 0) {
                 throw new AnnotationVerificationException(executableElement, "An @ExpressionEvaluator must receive at least a String that represents the expression to evaluate.");
@@ -69,7 +86,7 @@ public class ExpressionLanguageAnnotationVerifier implements AnnotationVerifier
                         parameter.getAnnotation(ExceptionPayload.class) == null &&
                         parameter.getAnnotation(CorrelationId.class) == null &&
                         parameter.getAnnotation(CorrelationSequence.class) == null) {
-                    if (parameter.asType().toString().contains("String")) {
+                    if (isCompiledExpression(compiler, parameter) || parameter.asType().toString().contains("String")) {
                         if (expressionStringFound) {
                             throw new AnnotationVerificationException(executableElement, "An @ExpressionEvaluator can receive only one String and the rest of the arguments must be annotated with either @Payload, @InboundHeaders, @OutboundHeaders, @SessionHeader or @InvocationHeaders.");
                         }
@@ -101,7 +118,7 @@ public class ExpressionLanguageAnnotationVerifier implements AnnotationVerifier
                         parameter.getAnnotation(ExceptionPayload.class) == null &&
                         parameter.getAnnotation(CorrelationId.class) == null &&
                         parameter.getAnnotation(CorrelationSequence.class) == null) {
-                    if (parameter.asType().toString().contains("String")) {
+                    if (isCompiledExpression(compiler, parameter) || parameter.asType().toString().contains("String")) {
                         if (expressionStringFound) {
                             throw new AnnotationVerificationException(executableElement, "An @ExpressionEnricher can receive only one Object and one String and the rest of the arguments must be annotated with either @Payload, @InboundHeaders, @OutboundHeaders, @SessionHeader or @InvocationHeaders.");
                         }
@@ -119,4 +136,8 @@ public class ExpressionLanguageAnnotationVerifier implements AnnotationVerifier
 
         }
     }
+
+    private boolean isCompiledExpression(Method compiler, Parameter parameter) {
+        return compiler != null && parameter.asType().toString().equals(compiler.getReturnType().toString());
+    }
 }
@@ -45,10 +45,12 @@ public class NamingConstants {
     public static final String DEFAULT_RESTORE_ACCESS_TOKEN_CALLBACK_CLASS_NAME = "DefaultRestoreAccessTokenCallback";
     public static final String SAVE_ACCESS_TOKEN_CALLBACK_FACTORY_BEAN_CLASS_NAME = "SaveAccessTokenCallbackFactoryBean";
     public static final String DEFAULT_SAVE_ACCESS_TOKEN_CALLBACK_CLASS_NAME = "DefaultSaveAccessTokenCallback";
+    public static final String OAUTH_ACCESS_TOKEN_STORE_CLASS_NAME = "OAuthAccessTokenStore";
     public static final String DEFINITION_PARSER_CLASS_NAME_SUFFIX = "DefinitionParser";
     public static final String CONFIG_DEFINITION_PARSER_CLASS_NAME_SUFFIX = "ConfigDefinitionParser";
     public static final String ABSTRACT_DEFINITION_PARSER_CLASS_NAME_SUFFIX = "AbstractDefinitionParser";
     public static final String ABSTRACT_EXPRESSION_EVALUATOR_CLASS_NAME_SUFFIX = "AbstractExpressionEvaluator";
+    public static final String TRANSFORMER_CACHE_CLASS_NAME = "TransformerCache";
     public static final String NESTED_PROCESSOR_CHAIN_CLASS_NAME = "NestedProcessorChain";
     public static final String NESTED_PROCESSOR_STRING_CLASS_NAME = "NestedProcessorString";
     public static final String AUTHORIZE_DEFINITION_PARSER_CLASS_NAME = "AuthorizeDefinitionParser";
@@ -56,6 +58,10 @@ public class NamingConstants {
     public static final String REST_CLIENT_ADAPTER_CLASS_NAME_SUFFIX = "RestClientAdapter";
     public static final String CONNECTION_KEY_CLASS_NAME_SUFFIX = "ConnectionKey";
     public static final String CONNECTION_FACTORY_CLASS_NAME_SUFFIX = "ConnectionFactory";
+    public static final String CONNECTION_POOL_METRICS_CLASS_NAME_SUFFIX = "ConnectionPoolMetrics";
+    public static final String MBEAN_CLASS_NAME_SUFFIX = "MBean";
     public static final String DEFAULT_HTTP_CALLBACK_CLASS_NAME = "DefaultHttpCallback";
+    public static final String HTTP_CALLBACK_REGISTRY_CLASS_NAME = "HttpCallbackRegistry";
+    public static final String HTTP_CALLBACK_WORKER_POOL_CLASS_NAME = "HttpCallbackWorkerPool";
 
 }
@@ -57,6 +57,26 @@ public class SourceAnnotationVerifier implements AnnotationVerifier {
                 }
             }
 
+            if (method.getAnnotation(Source.class).threads() < 1) {
+                throw new AnnotationVerificationException(method, "The attribute threads of @Source must be greater than zero");
+            }
+
+            if (method.getAnnotation(Source.class).stopTimeout() < 0) {
+                throw new AnnotationVerificationException(method, "The attribute stopTimeout of @Source cannot be negative");
+            }
+
+            if (method.getAnnotation(Source.class).batchSize() < 1) {
+                throw new AnnotationVerificationException(method, "The attribute batchSize of @Source must be greater than zero");
+            }
+
+            if (method.getAnnotation(Source.class).batchTimeout() < 0) {
+                throw new AnnotationVerificationException(method, "The attribute batchTimeout of @Source cannot be negative");
+            }
+
+            if (method.getAnnotation(Source.class).maxInFlight() < 0) {
+                throw new AnnotationVerificationException(method, "The attribute maxInFlight of @Source cannot be negative");
+            }
+
             if (method.isStatic()) {
                 throw new AnnotationVerificationException(method, "@Source cannot be applied to a static method");
             }
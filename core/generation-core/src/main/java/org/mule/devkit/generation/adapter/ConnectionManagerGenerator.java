@@ -51,12 +51,27 @@ import org.mule.devkit.model.code.Op;
 import org.mule.devkit.model.code.TryStatement;
 import org.mule.devkit.model.code.TypeReference;
 import org.mule.devkit.model.code.Variable;
+import org.mule.devkit.model.code.builders.FieldBuilder;
+import org.springframework.beans.factory.BeanNameAware;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConnectionManagerGenerator extends AbstractMessageGenerator {
 
+    public static final String MIN_IDLE_FIELD_NAME = "connectionPoolMinIdle";
+    public static final String TIME_BETWEEN_EVICTION_RUNS_FIELD_NAME = "connectionPoolTimeBetweenEvictionRunsMillis";
+    public static final String MIN_EVICTABLE_IDLE_TIME_FIELD_NAME = "connectionPoolMinEvictableIdleTimeMillis";
+    public static final String TEST_WHILE_IDLE_FIELD_NAME = "connectionPoolTestWhileIdle";
+    public static final String TEST_ON_BORROW_FIELD_NAME = "connectionPoolTestOnBorrow";
+    public static final long DEFAULT_TIME_BETWEEN_EVICTION_RUNS = 60000L;
+    public static final long DEFAULT_MIN_EVICTABLE_IDLE_TIME = 1800000L;
+
     @Override
     public boolean shouldGenerate(Type type) {
         Method connectMethod = connectMethodForClass(type);
@@ -86,6 +101,9 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
             generateSetter(connectionManagerClass, configField);
             generateGetter(connectionManagerClass, configField);
         }
+
+        // generate fields for the http client settings handed over to each connection
+        generateRestHttpClientFields(type, connectionManagerClass);
         
         // logger field
         FieldVariable logger = generateLoggerField(connectionManagerClass);        
@@ -98,6 +116,21 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
         FieldVariable connectionPool = generateFieldForConnectionPool(connectionManagerClass);
         FieldVariable poolingProfile = connectionManagerClass.field(Modifier.PROTECTED, ref(PoolingProfile.class), "connectionPoolingProfile");
 
+        // generate fields for the connection pool metrics and their management registration
+        DefinedClass connectionPoolMetricsClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTION_POOL_METRICS, ref(type));
+        FieldVariable connectionPoolMetrics = connectionManagerClass.field(Modifier.PRIVATE, connectionPoolMetricsClass, "connectionPoolMetrics");
+        connectionPoolMetrics.javadoc().add("Connection pool metrics");
+        generateGetter(connectionManagerClass, connectionPoolMetrics);
+        FieldVariable connectionPoolObjectName = connectionManagerClass.field(Modifier.PRIVATE, ref(ObjectName.class), "connectionPoolObjectName");
+        connectionPoolObjectName.javadoc().add("Name under which the connection pool metrics are registered");
+        FieldVariable instanceCounter = connectionManagerClass.field(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, ref(AtomicInteger.class), "INSTANCE_COUNTER", ExpressionFactory._new(ref(AtomicInteger.class)));
+        instanceCounter.javadoc().add("Numbers the registered connection pools so that managers sharing a bean name never replace each other's metrics");
+        FieldVariable beanName = connectionManagerClass.field(Modifier.PRIVATE, ref(String.class), "beanName");
+        generateSetter(connectionManagerClass, beanName);
+
+        // generate fields for idle eviction and validation
+        generateEvictionFields(connectionManagerClass);
+
         // generate getter and setter for pooling profile
         generateSetter(connectionManagerClass, poolingProfile);
         generateGetter(connectionManagerClass, poolingProfile);
@@ -114,20 +147,21 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
 
         DefinedClass connectionKeyClass = getConnectionParametersClass(type, connectionManagerClass);
 
-        // generate key fields
-        Map<String, AbstractMessageGenerator.FieldVariableElement> keyFields = generateStandardFieldForEachParameter(connectionKeyClass, connectMethod);
+        // generate key fields, the key is immutable so only getters are generated
+        Map<String, AbstractMessageGenerator.FieldVariableElement> keyFields = generateKeyFields(connectMethod, connectionKeyClass);
+        FieldVariable keyHash = new FieldBuilder(connectionKeyClass).
+                privateVisibility().
+                finalField().
+                type(ctx().getCodeModel().INT).
+                name("hash").
+                javadoc("Hash code of the key, computed once at construction").
+                build();
 
         // generate constructor for key
-        generateKeyConstructor(connectMethod, connectionKeyClass, keyFields);
-
-        // generate setters for all keys
-        for (String fieldName : keyFields.keySet()) {
-            generateSetter(connectionKeyClass, keyFields.get(fieldName).getField());
-            generateGetter(connectionKeyClass, keyFields.get(fieldName).getField());
-        }
+        generateKeyConstructor(connectMethod, connectionKeyClass, keyFields, keyHash);
 
-        generateConnectionKeyHashCodeMethod(connectMethod, connectionKeyClass);
-        generateConnectionKeyEqualsMethod(connectMethod, connectionKeyClass);
+        generateConnectionKeyHashCodeMethod(connectionKeyClass, keyHash);
+        generateConnectionKeyEqualsMethod(connectMethod, connectionKeyClass, keyHash);
 
         DefinedClass connectionFactoryClass = getConnectorFactoryClass(connectionManagerClass);
 
@@ -139,49 +173,55 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
         connectionFactoryConstructor.body().assign(ExpressionFactory._this().ref(connectionManagerInFactory),
                 constructorConnectionManager);
 
-        generateMakeObjectMethod(type, connectMethod, connectionFactoryClass, connectionKeyClass, connectionManagerInFactory);
-        generateDestroyObjectMethod(connectMethod, disconnectMethod, connectionKeyClass, connectionFactoryClass);
-        generateValidateObjectMethod(connectionFactoryClass, logger, validateConnectionMethod);
-        generateActivateObjectMethod(connectionFactoryClass, validateConnectionMethod, connectMethod, keyFields, connectionKeyClass);
+        Invocation factoryConnectionPoolMetrics = connectionManagerInFactory.invoke("getConnectionPoolMetrics");
+        generateMakeObjectMethod(type, connectMethod, connectionFactoryClass, connectionKeyClass, connectionManagerInFactory, keyFields, factoryConnectionPoolMetrics);
+        generateDestroyObjectMethod(connectMethod, disconnectMethod, connectionKeyClass, connectionFactoryClass, factoryConnectionPoolMetrics);
+        generateValidateObjectMethod(connectionFactoryClass, logger, validateConnectionMethod, factoryConnectionPoolMetrics);
+        generateActivateObjectMethod(connectionFactoryClass);
         generatePassivateObjectMethod(connectionFactoryClass);
 
-        generateInitialiseMethod(connectionManagerClass, connectionPool, poolingProfile, connectionFactoryClass);
+        org.mule.devkit.model.code.Method prepareConnectionPool = generatePrepareConnectionPoolMethod(connectMethod, connectionManagerClass, connectionPool, connectionKeyClass, fields, muleContext, logger);
+        generateInitialiseMethod(type, connectionManagerClass, connectionPool, poolingProfile, connectionFactoryClass, connectionPoolMetrics, connectionPoolObjectName, instanceCounter, beanName, muleContext, logger, prepareConnectionPool);
+        generateDisposeMethod(connectionManagerClass, connectionPool, connectionPoolObjectName, logger);
 
-        generateBorrowConnectionMethod(connectMethod, connectionManagerClass, connectionPool, connectionKeyClass);
+        generateBorrowConnectionMethod(connectMethod, connectionManagerClass, connectionPool, connectionKeyClass, connectionPoolMetrics);
         generateReturnConnectionMethod(connectMethod, connectionManagerClass, connectionPool, connectionKeyClass);
         generateDestroyConnectionMethod(connectMethod, connectionManagerClass, connectionPool, connectionKeyClass);
 
         generateIsCapableOf(type, connectionManagerClass);
     }
 
-    private void generateConnectionKeyHashCodeMethod(Method connect, DefinedClass connectionKeyClass) {
-        org.mule.devkit.model.code.Method hashCode = connectionKeyClass.method(Modifier.PUBLIC, ctx().getCodeModel().INT, "hashCode");
-        Variable hash = hashCode.body().decl(ctx().getCodeModel().INT, "hash", ExpressionFactory.lit(1));
-
+    private Map<String, FieldVariableElement> generateKeyFields(Method connect, DefinedClass connectionKeyClass) {
+        Map<String, FieldVariableElement> keyFields = new HashMap<String, FieldVariableElement>();
         for (Parameter variable : connect.getParameters()) {
-            if (variable.getAnnotation(ConnectionKey.class) == null) {
-                continue;
-            }
-
             String fieldName = variable.getSimpleName().toString();
-
-            hashCode.body().assign(hash,
-                    Op.plus(
-                            Op.mul(hash, ExpressionFactory.lit(31)),
-                            ExpressionFactory._this().ref(fieldName).invoke("hashCode")
-                    )
-            );
+            FieldVariable field = new FieldBuilder(connectionKeyClass).
+                    privateVisibility().
+                    finalField().
+                    getter().
+                    type(ref(variable.asType())).
+                    name(fieldName).
+                    build();
+            field.javadoc().add(variable.getJavaDocParameterSummary(fieldName));
+            keyFields.put(fieldName, new FieldVariableElement(field, null, variable));
         }
+        return keyFields;
+    }
 
-        hashCode.body()._return(
-                hash
-        );
+    private void generateConnectionKeyHashCodeMethod(DefinedClass connectionKeyClass, FieldVariable keyHash) {
+        org.mule.devkit.model.code.Method hashCode = connectionKeyClass.method(Modifier.PUBLIC, ctx().getCodeModel().INT, "hashCode");
+        hashCode.body()._return(ExpressionFactory._this().ref(keyHash));
     }
 
-    private void generateConnectionKeyEqualsMethod(Method connect, DefinedClass connectionKey) {
+    private void generateConnectionKeyEqualsMethod(Method connect, DefinedClass connectionKey, FieldVariable keyHash) {
         org.mule.devkit.model.code.Method equals = connectionKey.method(Modifier.PUBLIC, ctx().getCodeModel().BOOLEAN, "equals");
         Variable obj = equals.param(ref(Object.class), "obj");
-        Expression areEqual = Op._instanceof(obj, connectionKey);
+
+        equals.body()._if(Op.eq(ExpressionFactory._this(), obj))._then()._return(ExpressionFactory.TRUE);
+        equals.body()._if(Op.not(Op._instanceof(obj, connectionKey)))._then()._return(ExpressionFactory.FALSE);
+
+        Variable that = equals.body().decl(connectionKey, "that", ExpressionFactory.cast(connectionKey, obj));
+        Expression areEqual = Op.eq(ExpressionFactory._this().ref(keyHash), that.ref(keyHash));
 
         for (Parameter variable : connect.getParameters()) {
             if (variable.getAnnotation(ConnectionKey.class) == null) {
@@ -189,10 +229,15 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
             }
 
             String fieldName = variable.getSimpleName().toString();
-            areEqual = Op.cand(areEqual, Op.eq(
-                    ExpressionFactory._this().ref(fieldName),
-                    ExpressionFactory.cast(connectionKey, obj).ref(fieldName)
-            ));
+            Expression thisField = ExpressionFactory._this().ref(fieldName);
+            Expression thatField = that.ref(fieldName);
+            if (ref(variable.asType()).isPrimitive()) {
+                areEqual = Op.cand(areEqual, Op.eq(thisField, thatField));
+            } else {
+                areEqual = Op.cand(areEqual, Op.cond(Op.eq(thisField, ExpressionFactory._null()),
+                        Op.eq(thatField, ExpressionFactory._null()),
+                        thisField.invoke("equals").arg(thatField)));
+            }
         }
 
         equals.body()._return(
@@ -200,18 +245,26 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
         );
     }
 
-    private void generateBorrowConnectionMethod(Method connect, DefinedClass connectionManagerClass, FieldVariable connectionPool, DefinedClass connectionKeyClass) {
+    private void generateBorrowConnectionMethod(Method connect, DefinedClass connectionManagerClass, FieldVariable connectionPool, DefinedClass connectionKeyClass, FieldVariable connectionPoolMetrics) {
         DefinedClass connectorClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTOR_OBJECT, ref(connect.parent()));
         org.mule.devkit.model.code.Method borrowConnector = connectionManagerClass.method(Modifier.PUBLIC, connectorClass, "acquireConnection");
         Variable key = borrowConnector.param(connectionKeyClass, "key");
         borrowConnector._throws(ref(Exception.class));
 
-        borrowConnector.body()._return(
+        Variable start = borrowConnector.body().decl(ctx().getCodeModel().LONG, "start", ref(System.class).staticInvoke("nanoTime"));
+        TryStatement tryBorrow = borrowConnector.body()._try();
+        Variable connection = tryBorrow.body().decl(connectorClass, "connection",
                 ExpressionFactory.cast(connectorClass,
                         connectionPool.invoke("borrowObject").arg(
                                 key
-                        ))
-        );
+                        )));
+        tryBorrow.body().add(connectionPoolMetrics.invoke(ConnectionPoolMetricsGenerator.RECORD_BORROW_METHOD_NAME).arg(
+                Op.minus(ref(System.class).staticInvoke("nanoTime"), start)));
+        tryBorrow.body()._return(connection);
+        CatchBlock catchBorrow = tryBorrow._catch(ref(Exception.class));
+        Variable e = catchBorrow.param("e");
+        catchBorrow.body().add(connectionPoolMetrics.invoke(ConnectionPoolMetricsGenerator.RECORD_BORROW_FAILURE_METHOD_NAME));
+        catchBorrow.body()._throw(e);
     }
 
     private void generateReturnConnectionMethod(Method connect, DefinedClass connectionManagerClass, FieldVariable connectionPool, DefinedClass connectionKeyClass) {
@@ -240,7 +293,9 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
         );
     }
 
-    private void generateInitialiseMethod(DefinedClass connectionManagerClass, FieldVariable connectionPool, FieldVariable connectionPoolingProfile, DefinedClass connectionFactoryClass) {
+    private void generateInitialiseMethod(Type type, DefinedClass connectionManagerClass, FieldVariable connectionPool, FieldVariable connectionPoolingProfile, DefinedClass connectionFactoryClass,
+                                          FieldVariable connectionPoolMetrics, FieldVariable connectionPoolObjectName, FieldVariable instanceCounter, FieldVariable beanName, FieldVariable muleContext, FieldVariable logger,
+                                          org.mule.devkit.model.code.Method prepareConnectionPool) {
         org.mule.devkit.model.code.Method initialisableMethod = connectionManagerClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "initialise");
 
         Variable config = initialisableMethod.body().decl(ref(GenericKeyedObjectPool.Config.class), "config",
@@ -251,43 +306,116 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
         ifNotNull._then().assign(config.ref("maxActive"), connectionPoolingProfile.invoke("getMaxActive"));
         ifNotNull._then().assign(config.ref("maxWait"), connectionPoolingProfile.invoke("getMaxWait"));
         ifNotNull._then().assign(config.ref("whenExhaustedAction"), ExpressionFactory.cast(ctx().getCodeModel().BYTE, connectionPoolingProfile.invoke("getExhaustedAction")));
+        initialisableMethod.body().assign(config.ref("minIdle"), connectionManagerClass.fields().get(MIN_IDLE_FIELD_NAME));
+        initialisableMethod.body().assign(config.ref("timeBetweenEvictionRunsMillis"), connectionManagerClass.fields().get(TIME_BETWEEN_EVICTION_RUNS_FIELD_NAME));
+        initialisableMethod.body().assign(config.ref("minEvictableIdleTimeMillis"), connectionManagerClass.fields().get(MIN_EVICTABLE_IDLE_TIME_FIELD_NAME));
+        initialisableMethod.body().assign(config.ref("testWhileIdle"), connectionManagerClass.fields().get(TEST_WHILE_IDLE_FIELD_NAME));
+        initialisableMethod.body().assign(config.ref("testOnBorrow"), connectionManagerClass.fields().get(TEST_ON_BORROW_FIELD_NAME));
+        initialisableMethod.body().assign(config.ref("numTestsPerEvictionRun"), ExpressionFactory.lit(-1));
 
         Invocation newObjectFactory = ExpressionFactory._new(connectionFactoryClass);
         newObjectFactory.arg(ExpressionFactory._this());
         initialisableMethod.body().assign(connectionPool, ExpressionFactory._new(ref(GenericKeyedObjectPool.class)).arg(
                 newObjectFactory
         ).arg(config));
+
+        initialisableMethod.body().assign(connectionPoolMetrics, ExpressionFactory._new(connectionPoolMetrics.type()).arg(connectionPool));
+
+        Conditional ifMuleContext = initialisableMethod.body()._if(Op.ne(muleContext, ExpressionFactory._null()));
+        TryStatement tryRegister = ifMuleContext._then()._try();
+        Variable mBeanServer = tryRegister.body().decl(ref(MBeanServer.class), "mBeanServer", ref(ManagementFactory.class).staticInvoke("getPlatformMBeanServer"));
+        Expression name = Op.cond(Op.ne(beanName, ExpressionFactory._null()), beanName, ExpressionFactory.lit(type.getClassName()));
+        tryRegister.body().assign(connectionPoolObjectName, ExpressionFactory._new(ref(ObjectName.class)).arg(
+                Op.plus(Op.plus(Op.plus(Op.plus(Op.plus(ExpressionFactory.lit("Mule."),
+                        muleContext.invoke("getConfiguration").invoke("getId")),
+                        ExpressionFactory.lit(":type=ConnectionPool,name=")),
+                        ref(ObjectName.class).staticInvoke("quote").arg(name)),
+                        ExpressionFactory.lit(",instance=")),
+                        instanceCounter.invoke("incrementAndGet"))));
+        tryRegister.body().add(mBeanServer.invoke("registerMBean").arg(connectionPoolMetrics).arg(connectionPoolObjectName));
+        CatchBlock catchRegister = tryRegister._catch(ref(Exception.class));
+        Variable e = catchRegister.param("e");
+        catchRegister.body().add(logger.invoke("warn").arg("Unable to register connection pool metrics").arg(e));
+        catchRegister.body().assign(connectionPoolObjectName, ExpressionFactory._null());
+
+        initialisableMethod.body().invoke(prepareConnectionPool);
     }
 
-    private void generateActivateObjectMethod(DefinedClass connectionFactoryClass, Method validateConnectionMethod, Method connect, Map<String, FieldVariableElement> keyFields, DefinedClass connectionKeyClass) {
-        DefinedClass connectorClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTOR_OBJECT, ref(validateConnectionMethod.parent()));
-        org.mule.devkit.model.code.Method activateObject = connectionFactoryClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "activateObject");
-        activateObject._throws(ref(Exception.class));
-        Variable key = activateObject.param(Object.class, "key");
-        Variable obj = activateObject.param(Object.class, "obj");
+    private void generateEvictionFields(DefinedClass connectionManagerClass) {
+        new FieldBuilder(connectionManagerClass).type(int.class).name(MIN_IDLE_FIELD_NAME).
+                javadoc("Minimum number of idle connections kept per key, created up front for the configured key").
+                getterAndSetter().build();
+        new FieldBuilder(connectionManagerClass).type(long.class).name(TIME_BETWEEN_EVICTION_RUNS_FIELD_NAME).
+                javadoc("Milliseconds between runs of the idle connection evictor, non positive to disable it").
+                initialValue(ExpressionFactory.lit(DEFAULT_TIME_BETWEEN_EVICTION_RUNS)).getterAndSetter().build();
+        new FieldBuilder(connectionManagerClass).type(long.class).name(MIN_EVICTABLE_IDLE_TIME_FIELD_NAME).
+                javadoc("Milliseconds a connection may sit idle before the evictor destroys it").
+                initialValue(ExpressionFactory.lit(DEFAULT_MIN_EVICTABLE_IDLE_TIME)).getterAndSetter().build();
+        new FieldBuilder(connectionManagerClass).type(boolean.class).name(TEST_WHILE_IDLE_FIELD_NAME).
+                javadoc("Whether the evictor validates idle connections").
+                initialValue(ExpressionFactory.TRUE).getterAndSetter().build();
+        new FieldBuilder(connectionManagerClass).type(boolean.class).name(TEST_ON_BORROW_FIELD_NAME).
+                javadoc("Whether connections are also validated every time they are borrowed").
+                initialValue(ExpressionFactory.FALSE).getterAndSetter().build();
+    }
 
-        Conditional ifNotKey = activateObject.body()._if(Op.not(Op._instanceof(key, connectionKeyClass)));
-        ifNotKey._then()._throw(ExpressionFactory._new(ref(RuntimeException.class)).arg("Invalid key type"));
+    private org.mule.devkit.model.code.Method generatePrepareConnectionPoolMethod(Method connect, DefinedClass connectionManagerClass, FieldVariable connectionPool, DefinedClass connectionKeyClass,
+                                                                               Map<String, FieldVariableElement> fields, FieldVariable muleContext, FieldVariable logger) {
+        org.mule.devkit.model.code.Method prepareConnectionPool = connectionManagerClass.method(Modifier.PRIVATE, ctx().getCodeModel().VOID, "prepareConnectionPool");
+        prepareConnectionPool.javadoc().add("Fills the pool up to its minimum idle size for the connection parameters given at the config level, ");
+        prepareConnectionPool.javadoc().add("so the first operations after start up do not have to connect. Nothing is done when any of them is missing ");
+        prepareConnectionPool.javadoc().add("or is an expression, since the key is then only known per message.");
 
-        Conditional ifNotObj = activateObject.body()._if(Op.not(Op._instanceof(obj, connectorClass)));
-        ifNotObj._then()._throw(ExpressionFactory._new(ref(RuntimeException.class)).arg("Invalid connector type"));
-        
-        Cast casterConnector = ExpressionFactory.cast(connectorClass, obj);
-        TryStatement tryDisconnect = activateObject.body()._try();
-        Conditional ifNotConnected = tryDisconnect.body()._if(Op.not(casterConnector.invoke(validateConnectionMethod.getSimpleName().toString())));
-        Cast castedConnectionKey = ExpressionFactory.cast(connectionKeyClass, key);
-        Invocation connectInvoke = ExpressionFactory.cast(connectorClass, obj).invoke(connect.getSimpleName().toString());
+        Expression missingKey = Op.lte(connectionManagerClass.fields().get(MIN_IDLE_FIELD_NAME), ExpressionFactory.lit(0));
+        Invocation newKey = ExpressionFactory._new(connectionKeyClass);
         for (Parameter variable : connect.getParameters()) {
-            String fieldName = variable.getSimpleName().toString();
-            connectInvoke.arg(castedConnectionKey.invoke("get" + StringUtils.capitalize(keyFields.get(fieldName).getField().name())));
+            FieldVariable field = fields.get(variable.getSimpleName().toString()).getField();
+            newKey.arg(field);
+            if (field.type().isPrimitive()) {
+                continue;
+            }
+            missingKey = Op.cor(missingKey, Op.eq(field, ExpressionFactory._null()));
+            if (field.type().fullName().equals(String.class.getName())) {
+                missingKey = Op.cor(missingKey, Op.cand(Op.ne(muleContext, ExpressionFactory._null()),
+                        muleContext.invoke("getExpressionManager").invoke("isExpression").arg(field)));
+            }
         }
-        ifNotConnected._then().add(connectInvoke);
+        prepareConnectionPool.body()._if(missingKey)._then()._return();
 
-        
-        CatchBlock catchAndRethrow = tryDisconnect._catch(ref(Exception.class));
-        Variable e = catchAndRethrow.param("e");
-        catchAndRethrow.body()._throw(e);
-        
+        TryStatement tryPrepare = prepareConnectionPool.body()._try();
+        tryPrepare.body().add(connectionPool.invoke("preparePool").arg(newKey).arg(ExpressionFactory.TRUE));
+        CatchBlock catchPrepare = tryPrepare._catch(ref(Exception.class));
+        Variable e = catchPrepare.param("e");
+        catchPrepare.body().add(logger.invoke("warn").arg("Unable to warm up the connection pool").arg(e));
+
+        return prepareConnectionPool;
+    }
+
+    private void generateDisposeMethod(DefinedClass connectionManagerClass, FieldVariable connectionPool, FieldVariable connectionPoolObjectName, FieldVariable logger) {
+        org.mule.devkit.model.code.Method dispose = connectionManagerClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "dispose");
+
+        Conditional ifRegistered = dispose.body()._if(Op.ne(connectionPoolObjectName, ExpressionFactory._null()));
+        TryStatement tryUnregister = ifRegistered._then()._try();
+        tryUnregister.body().add(ref(ManagementFactory.class).staticInvoke("getPlatformMBeanServer").invoke("unregisterMBean").arg(connectionPoolObjectName));
+        CatchBlock catchUnregister = tryUnregister._catch(ref(Exception.class));
+        Variable unregisterException = catchUnregister.param("e");
+        catchUnregister.body().add(logger.invoke("warn").arg("Unable to unregister connection pool metrics").arg(unregisterException));
+        ifRegistered._then().assign(connectionPoolObjectName, ExpressionFactory._null());
+
+        Conditional ifPool = dispose.body()._if(Op.ne(connectionPool, ExpressionFactory._null()));
+        TryStatement tryClose = ifPool._then()._try();
+        tryClose.body().add(connectionPool.invoke("close"));
+        CatchBlock catchClose = tryClose._catch(ref(Exception.class));
+        Variable closeException = catchClose.param("e");
+        catchClose.body().add(logger.invoke("warn").arg(closeException.invoke("getMessage")).arg(closeException));
+    }
+
+    private void generateActivateObjectMethod(DefinedClass connectionFactoryClass) {
+        org.mule.devkit.model.code.Method activateObject = connectionFactoryClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "activateObject");
+        activateObject.javadoc().add("Connections are established when they are made and validated while idle, so borrowing one does not reach the remote end.");
+        activateObject._throws(ref(Exception.class));
+        activateObject.param(Object.class, "key");
+        activateObject.param(Object.class, "obj");
     }
 
     private void generatePassivateObjectMethod(DefinedClass connectionFactoryClass) {
@@ -297,7 +425,7 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
         passivateObject.param(Object.class, "obj");
     }
 
-    private void generateValidateObjectMethod(DefinedClass connectionFactoryClass, FieldVariable logger, Method validateConnectionMethod) {
+    private void generateValidateObjectMethod(DefinedClass connectionFactoryClass, FieldVariable logger, Method validateConnectionMethod, Expression connectionPoolMetrics) {
         DefinedClass connectorClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTOR_OBJECT, ref(validateConnectionMethod.parent()));
         org.mule.devkit.model.code.Method validateObject = connectionFactoryClass.method(Modifier.PUBLIC, ctx().getCodeModel().BOOLEAN, "validateObject");
         validateObject.param(Object.class, "key");
@@ -308,14 +436,17 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
 
         Cast casterConnector = ExpressionFactory.cast(connectorClass, obj);
         TryStatement tryDisconnect = validateObject.body()._try();
-        tryDisconnect.body()._return(casterConnector.invoke(validateConnectionMethod.getSimpleName().toString()));
+        Variable valid = tryDisconnect.body().decl(ctx().getCodeModel().BOOLEAN, "valid", casterConnector.invoke(validateConnectionMethod.getSimpleName().toString()));
+        tryDisconnect.body()._if(Op.not(valid))._then().add(connectionPoolMetrics.invoke(ConnectionPoolMetricsGenerator.VALIDATION_FAILED_METHOD_NAME));
+        tryDisconnect.body()._return(valid);
         CatchBlock catchAndRethrow = tryDisconnect._catch(ref(Exception.class));
         Variable e = catchAndRethrow.param("e");
         catchAndRethrow.body().add(logger.invoke("error").arg(e.invoke("getMessage")).arg(e));
+        catchAndRethrow.body().add(connectionPoolMetrics.invoke(ConnectionPoolMetricsGenerator.VALIDATION_FAILED_METHOD_NAME));
         catchAndRethrow.body()._return(ExpressionFactory.FALSE);
     }
 
-    private void generateDestroyObjectMethod(Method connect, Method disconnect, DefinedClass connectionKeyClass, DefinedClass connectionFactoryClass) {
+    private void generateDestroyObjectMethod(Method connect, Method disconnect, DefinedClass connectionKeyClass, DefinedClass connectionFactoryClass, Expression connectionPoolMetrics) {
         DefinedClass connectorClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTOR_OBJECT, ref(connect.parent()));
 
         org.mule.devkit.model.code.Method destroyObject = connectionFactoryClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "destroyObject");
@@ -336,9 +467,10 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
         catchAndRethrow.body()._throw(e);
         tryDisconnect._finally()._if(Op._instanceof(casterConnector, ref(Stoppable.class)))._then().add(casterConnector.invoke("stop"));
         tryDisconnect._finally()._if(Op._instanceof(casterConnector, ref(Disposable.class)))._then().add(casterConnector.invoke("dispose"));
+        tryDisconnect._finally().add(connectionPoolMetrics.invoke(ConnectionPoolMetricsGenerator.CONNECTION_DESTROYED_METHOD_NAME).arg(key));
     }
 
-    private void generateMakeObjectMethod(Type type, Method connect, DefinedClass connectionFactoryClass, DefinedClass connectionKey, FieldVariable connectionManagerInFactory) {
+    private void generateMakeObjectMethod(Type type, Method connect, DefinedClass connectionFactoryClass, DefinedClass connectionKey, FieldVariable connectionManagerInFactory, Map<String, FieldVariableElement> keyFields, Expression connectionPoolMetrics) {
         DefinedClass connectorClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTOR_OBJECT, ref(connect.parent()));
         org.mule.devkit.model.code.Method makeObject = connectionFactoryClass.method(Modifier.PUBLIC, Object.class, "makeObject");
         makeObject._throws(ref(Exception.class));
@@ -352,12 +484,34 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
             makeObject.body().add(connector.invoke("set" + StringUtils.capitalize(field.getSimpleName().toString()))
                     .arg(connectionManagerInFactory.invoke("get" + StringUtils.capitalize(field.getSimpleName().toString()))));
         }
+        for (String property : getRestHttpClientProperties(type)) {
+            makeObject.body().add(connector.invoke("set" + StringUtils.capitalize(property))
+                    .arg(connectionManagerInFactory.invoke("get" + StringUtils.capitalize(property))));
+        }
 
         makeObject.body()._if(Op._instanceof(connector, ref(Initialisable.class)))._then().add(connector.invoke("initialise"));
         makeObject.body()._if(Op._instanceof(connector, ref(Startable.class)))._then().add(connector.invoke("start"));
 
         setMuleContextToConnectorIfNecessary(connectionManagerInFactory, connectorClass, makeObject, connector);
 
+        Cast castedConnectionKey = ExpressionFactory.cast(connectionKey, key);
+        Invocation connectInvoke = connector.invoke(connect.getSimpleName().toString());
+        for (Parameter variable : connect.getParameters()) {
+            String fieldName = variable.getSimpleName().toString();
+            connectInvoke.arg(castedConnectionKey.invoke("get" + StringUtils.capitalize(keyFields.get(fieldName).getField().name())));
+        }
+        Variable start = makeObject.body().decl(ctx().getCodeModel().LONG, "start", ref(System.class).staticInvoke("nanoTime"));
+        TryStatement tryConnect = makeObject.body()._try();
+        tryConnect.body().add(connectInvoke);
+        CatchBlock catchConnect = tryConnect._catch(ref(Exception.class));
+        Variable e = catchConnect.param("e");
+        catchConnect.body()._if(Op._instanceof(connector, ref(Stoppable.class)))._then().add(connector.invoke("stop"));
+        catchConnect.body()._if(Op._instanceof(connector, ref(Disposable.class)))._then().add(connector.invoke("dispose"));
+        catchConnect.body()._throw(e);
+        makeObject.body().add(connectionPoolMetrics.invoke(ConnectionPoolMetricsGenerator.RECORD_CONNECT_METHOD_NAME).arg(
+                Op.minus(ref(System.class).staticInvoke("nanoTime"), start)));
+
+        makeObject.body().add(connectionPoolMetrics.invoke(ConnectionPoolMetricsGenerator.CONNECTION_CREATED_METHOD_NAME).arg(key));
         makeObject.body()._return(connector);
     }
 
@@ -371,13 +525,34 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
         }
     }
 
-    private void generateKeyConstructor(Method connect, DefinedClass connectionKeyClass, Map<String, FieldVariableElement> keyFields) {
+    private void generateKeyConstructor(Method connect, DefinedClass connectionKeyClass, Map<String, FieldVariableElement> keyFields, FieldVariable keyHash) {
         org.mule.devkit.model.code.Method keyConstructor = connectionKeyClass.constructor(Modifier.PUBLIC);
         for (Parameter variable : connect.getParameters()) {
             String fieldName = variable.getSimpleName().toString();
             Variable parameter = keyConstructor.param(ref(variable.asType()), fieldName);
             keyConstructor.body().assign(ExpressionFactory._this().ref(keyFields.get(fieldName).getField()), parameter);
         }
+
+        // only parameters annotated with @ConnectionKey take part in the identity of the key
+        Variable hash = keyConstructor.body().decl(ctx().getCodeModel().INT, "result", ExpressionFactory.lit(1));
+        for (Parameter variable : connect.getParameters()) {
+            if (variable.getAnnotation(ConnectionKey.class) == null) {
+                continue;
+            }
+
+            String fieldName = variable.getSimpleName().toString();
+            org.mule.devkit.model.code.Type fieldType = ref(variable.asType());
+            Expression fieldRef = ExpressionFactory._this().ref(keyFields.get(fieldName).getField());
+            Expression fieldHash;
+            if (fieldType.isPrimitive()) {
+                fieldHash = fieldType.boxify().staticInvoke("valueOf").arg(fieldRef).invoke("hashCode");
+            } else {
+                fieldHash = Op.cond(Op.eq(fieldRef, ExpressionFactory._null()), ExpressionFactory.lit(0), fieldRef.invoke("hashCode"));
+            }
+
+            keyConstructor.body().assign(hash, Op.plus(Op.mul(hash, ExpressionFactory.lit(31)), fieldHash));
+        }
+        keyConstructor.body().assign(ExpressionFactory._this().ref(keyHash), hash);
     }
 
     private FieldVariable generateFieldForConnectionPool(DefinedClass connectionManagerClass) {
@@ -397,6 +572,8 @@ public class ConnectionManagerGenerator extends AbstractMessageGenerator {
         connectionManagerClass._implements(ref(Initialisable.class));
         connectionManagerClass._implements(ref(Capabilities.class));
         connectionManagerClass._implements(ref(MuleContextAware.class));
+        connectionManagerClass._implements(ref(Disposable.class));
+        connectionManagerClass._implements(ref(BeanNameAware.class));
         connectionManagerClass._implements(ref(ConnectionManager.class).narrow(getConnectionParametersClass(type, connectionManagerClass)).narrow(classToExtend));
 
         connectionManagerClass.role(DefinedClassRoles.MODULE_OBJECT, ref(type));
@@ -0,0 +1,216 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.generation.adapter;
+
+import org.apache.commons.pool.impl.GenericKeyedObjectPool;
+import org.mule.devkit.generation.AbstractModuleGenerator;
+import org.mule.devkit.generation.NamingConstants;
+import org.mule.devkit.generation.api.GenerationException;
+import org.mule.devkit.model.Type;
+import org.mule.devkit.model.code.Block;
+import org.mule.devkit.model.code.ClassAlreadyExistsException;
+import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.DefinedClassRoles;
+import org.mule.devkit.model.code.Expression;
+import org.mule.devkit.model.code.ExpressionFactory;
+import org.mule.devkit.model.code.FieldVariable;
+import org.mule.devkit.model.code.ForEach;
+import org.mule.devkit.model.code.Method;
+import org.mule.devkit.model.code.Modifier;
+import org.mule.devkit.model.code.Op;
+import org.mule.devkit.model.code.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates the metrics collected by a connection manager around its connection pool, together with the standard
+ * MBean interface they are exposed through. Besides the pool's own active and idle counts, it keeps creation,
+ * destruction, validation failure and borrow failure counters and latency percentiles for borrowing a connection and
+ * for connecting. Latencies are sampled into a fixed size ring so recording never allocates.
+ */
+public class ConnectionPoolMetricsGenerator extends AbstractModuleGenerator {
+
+    public static final String CONNECTION_CREATED_METHOD_NAME = "connectionCreated";
+    public static final String CONNECTION_DESTROYED_METHOD_NAME = "connectionDestroyed";
+    public static final String VALIDATION_FAILED_METHOD_NAME = "validationFailed";
+    public static final String RECORD_BORROW_METHOD_NAME = "recordBorrow";
+    public static final String RECORD_BORROW_FAILURE_METHOD_NAME = "recordBorrowFailure";
+    public static final String RECORD_CONNECT_METHOD_NAME = "recordConnect";
+    private static final String HISTOGRAM_CLASS_NAME = "Histogram";
+    private static final int SAMPLE_SIZE = 1024;
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    private static final int[] PERCENTILES = new int[]{50, 95, 99};
+
+    @Override
+    public boolean shouldGenerate(Type type) {
+        return connectMethodForClass(type) != null && disconnectMethodForClass(type) != null;
+    }
+
+    @Override
+    public void generate(Type type) throws GenerationException {
+        DefinedClass mbeanInterface = getMetricsMBeanInterface(type);
+        DefinedClass metricsClass = getMetricsClass(type, mbeanInterface);
+        DefinedClass histogramClass = generateHistogramClass(metricsClass);
+
+        FieldVariable connectionPool = metricsClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(GenericKeyedObjectPool.class), "connectionPool");
+        FieldVariable keys = metricsClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(Set.class).narrow(Object.class), "keys",
+                ref(Collections.class).staticInvoke("newSetFromMap").arg(ExpressionFactory._new(ref(ConcurrentHashMap.class).narrow(ref(Object.class), ref(Boolean.class)))));
+        keys.javadoc().add("Keys with at least one connection created and not yet destroyed");
+        FieldVariable created = generateCounterField(metricsClass, "created");
+        FieldVariable destroyed = generateCounterField(metricsClass, "destroyed");
+        FieldVariable validationFailures = generateCounterField(metricsClass, "validationFailures");
+        FieldVariable borrowFailures = generateCounterField(metricsClass, "borrowFailures");
+        FieldVariable borrowLatency = metricsClass.field(Modifier.PRIVATE | Modifier.FINAL, histogramClass, "borrowLatency",
+                ExpressionFactory._new(histogramClass).arg(ExpressionFactory.lit(SAMPLE_SIZE)));
+        FieldVariable connectLatency = metricsClass.field(Modifier.PRIVATE | Modifier.FINAL, histogramClass, "connectLatency",
+                ExpressionFactory._new(histogramClass).arg(ExpressionFactory.lit(SAMPLE_SIZE)));
+
+        Method constructor = metricsClass.constructor(Modifier.PUBLIC);
+        constructor.body().assign(ExpressionFactory._this().ref(connectionPool), constructor.param(ref(GenericKeyedObjectPool.class), "connectionPool"));
+
+        // recording
+        Method connectionCreated = metricsClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, CONNECTION_CREATED_METHOD_NAME);
+        Variable createdKey = connectionCreated.param(ref(Object.class), "key");
+        connectionCreated.body().add(created.invoke("incrementAndGet"));
+        connectionCreated.body().add(keys.invoke("add").arg(createdKey));
+
+        Method connectionDestroyed = metricsClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, CONNECTION_DESTROYED_METHOD_NAME);
+        Variable destroyedKey = connectionDestroyed.param(ref(Object.class), "key");
+        connectionDestroyed.body().add(destroyed.invoke("incrementAndGet"));
+        connectionDestroyed.body()._if(Op.eq(Op.plus(connectionPool.invoke("getNumActive").arg(destroyedKey), connectionPool.invoke("getNumIdle").arg(destroyedKey)), ExpressionFactory.lit(0)))._then().
+                add(keys.invoke("remove").arg(destroyedKey));
+
+        metricsClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, VALIDATION_FAILED_METHOD_NAME).body().add(validationFailures.invoke("incrementAndGet"));
+        metricsClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, RECORD_BORROW_FAILURE_METHOD_NAME).body().add(borrowFailures.invoke("incrementAndGet"));
+
+        Method recordBorrow = metricsClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, RECORD_BORROW_METHOD_NAME);
+        recordBorrow.body().invoke(borrowLatency, "record").arg(recordBorrow.param(ctx().getCodeModel().LONG, "nanos"));
+
+        Method recordConnect = metricsClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, RECORD_CONNECT_METHOD_NAME);
+        recordConnect.body().invoke(connectLatency, "record").arg(recordConnect.param(ctx().getCodeModel().LONG, "nanos"));
+
+        // mbean attributes
+        generateAttribute(mbeanInterface, metricsClass, ctx().getCodeModel().INT, "NumActive", "Number of connections currently borrowed", connectionPool.invoke("getNumActive"));
+        generateAttribute(mbeanInterface, metricsClass, ctx().getCodeModel().INT, "NumIdle", "Number of idle connections in the pool", connectionPool.invoke("getNumIdle"));
+        generateAttribute(mbeanInterface, metricsClass, ctx().getCodeModel().INT, "MaxActive", "Maximum number of connections borrowed at once per key", connectionPool.invoke("getMaxActive"));
+        generateAttribute(mbeanInterface, metricsClass, ctx().getCodeModel().LONG, "CreatedCount", "Number of connections created", created.invoke("get"));
+        generateAttribute(mbeanInterface, metricsClass, ctx().getCodeModel().LONG, "DestroyedCount", "Number of connections destroyed", destroyed.invoke("get"));
+        generateAttribute(mbeanInterface, metricsClass, ctx().getCodeModel().LONG, "ValidationFailureCount", "Number of times a pooled connection failed validation", validationFailures.invoke("get"));
+        generateAttribute(mbeanInterface, metricsClass, ctx().getCodeModel().LONG, "BorrowFailureCount", "Number of times a connection could not be borrowed", borrowFailures.invoke("get"));
+        for (int percentile : PERCENTILES) {
+            generateAttribute(mbeanInterface, metricsClass, ctx().getCodeModel().DOUBLE, "BorrowLatencyMillisP" + percentile,
+                    percentile + "th percentile of the time spent waiting for a connection, in milliseconds",
+                    borrowLatency.invoke("percentile").arg(ExpressionFactory.lit(percentile)));
+        }
+        for (int percentile : PERCENTILES) {
+            generateAttribute(mbeanInterface, metricsClass, ctx().getCodeModel().DOUBLE, "ConnectLatencyMillisP" + percentile,
+                    percentile + "th percentile of the time spent connecting, in milliseconds",
+                    connectLatency.invoke("percentile").arg(ExpressionFactory.lit(percentile)));
+        }
+
+        generateKeyStatistics(mbeanInterface, metricsClass, connectionPool, keys);
+    }
+
+    private void generateKeyStatistics(DefinedClass mbeanInterface, DefinedClass metricsClass, FieldVariable connectionPool, FieldVariable keys) {
+        mbeanInterface.method(Modifier.NONE, ref(String.class).array(), "getKeyStatistics").javadoc().add(
+                "Active and idle connections per connection key. Keys are identified by their hash code so no credentials are exposed.");
+
+        Method getKeyStatistics = metricsClass.method(Modifier.PUBLIC, ref(String.class).array(), "getKeyStatistics");
+        Variable statistics = getKeyStatistics.body().decl(ref(List.class).narrow(String.class), "statistics", ExpressionFactory._new(ref(ArrayList.class).narrow(String.class)));
+        ForEach forEachKey = getKeyStatistics.body().forEach(ref(Object.class), "key", keys);
+        forEachKey.body().add(statistics.invoke("add").arg(ref(String.class).staticInvoke("format").arg("%08x active=%d idle=%d").
+                arg(forEachKey.var().invoke("hashCode")).
+                arg(connectionPool.invoke("getNumActive").arg(forEachKey.var())).
+                arg(connectionPool.invoke("getNumIdle").arg(forEachKey.var()))));
+        getKeyStatistics.body()._return(statistics.invoke("toArray").arg(ExpressionFactory.newArray(ref(String.class), statistics.invoke("size"))));
+    }
+
+    private void generateAttribute(DefinedClass mbeanInterface, DefinedClass metricsClass, org.mule.devkit.model.code.Type type, String name, String description, Expression value) {
+        mbeanInterface.method(Modifier.NONE, type, "get" + name).javadoc().add(description);
+        metricsClass.method(Modifier.PUBLIC, type, "get" + name).body()._return(value);
+    }
+
+    private FieldVariable generateCounterField(DefinedClass metricsClass, String name) {
+        return metricsClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(AtomicLong.class), name, ExpressionFactory._new(ref(AtomicLong.class)));
+    }
+
+    private DefinedClass generateHistogramClass(DefinedClass metricsClass) {
+        DefinedClass histogramClass;
+        try {
+            histogramClass = metricsClass._class(Modifier.PRIVATE | Modifier.STATIC, HISTOGRAM_CLASS_NAME);
+        } catch (ClassAlreadyExistsException e) {
+            return e.getExistingClass();
+        }
+        histogramClass.javadoc().add("Keeps the latest latency samples, in nanoseconds, in a ring");
+
+        FieldVariable samples = histogramClass.field(Modifier.PRIVATE | Modifier.FINAL, ctx().getCodeModel().LONG.array(), "samples");
+        FieldVariable count = histogramClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(AtomicLong.class), "count", ExpressionFactory._new(ref(AtomicLong.class)));
+
+        Method constructor = histogramClass.constructor(Modifier.PUBLIC);
+        Variable size = constructor.param(ctx().getCodeModel().INT, "size");
+        constructor.body().assign(ExpressionFactory._this().ref(samples), ExpressionFactory.newArray(ctx().getCodeModel().LONG, size));
+
+        Method record = histogramClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "record");
+        Variable value = record.param(ctx().getCodeModel().LONG, "value");
+        record.body().assign(ExpressionFactory.component(samples, ExpressionFactory.cast(ctx().getCodeModel().INT,
+                Op.mod(count.invoke("getAndIncrement"), samples.ref("length")))), value);
+
+        Method percentile = histogramClass.method(Modifier.PUBLIC, ctx().getCodeModel().DOUBLE, "percentile");
+        percentile.javadoc().addReturn("The given percentile of the recorded samples in milliseconds, zero if nothing was recorded");
+        Variable p = percentile.param(ctx().getCodeModel().INT, "p");
+        Block body = percentile.body();
+        Variable n = body.decl(ctx().getCodeModel().INT, "n", ExpressionFactory.cast(ctx().getCodeModel().INT,
+                ref(Math.class).staticInvoke("min").arg(count.invoke("get")).arg(ExpressionFactory.cast(ctx().getCodeModel().LONG, samples.ref("length")))));
+        body._if(Op.eq(n, ExpressionFactory.lit(0)))._then()._return(ExpressionFactory.lit(0.0));
+        Variable sorted = body.decl(ctx().getCodeModel().LONG.array(), "sorted", ref(Arrays.class).staticInvoke("copyOf").arg(samples).arg(n));
+        body.add(ref(Arrays.class).staticInvoke("sort").arg(sorted));
+        Variable index = body.decl(ctx().getCodeModel().INT, "index", ref(Math.class).staticInvoke("max").arg(ExpressionFactory.lit(0)).arg(
+                Op.minus(ExpressionFactory.cast(ctx().getCodeModel().INT, ref(Math.class).staticInvoke("ceil").arg(
+                        Op.div(Op.mul(p, n), ExpressionFactory.lit(100.0)))), ExpressionFactory.lit(1))));
+        body._return(Op.div(ExpressionFactory.component(sorted, index), ExpressionFactory.lit(NANOS_PER_MILLI)));
+
+        return histogramClass;
+    }
+
+    private DefinedClass getMetricsMBeanInterface(Type type) throws GenerationException {
+        org.mule.devkit.model.code.Package pkg = ctx().getCodeModel()._package(type.getPackageName() + NamingConstants.ADAPTERS_NAMESPACE);
+        try {
+            DefinedClass mbeanInterface = pkg._interface(type.getClassName() + NamingConstants.CONNECTION_POOL_METRICS_CLASS_NAME_SUFFIX + NamingConstants.MBEAN_CLASS_NAME_SUFFIX);
+            mbeanInterface.javadoc().add("Management interface of the connection pool of {@link " + type.getClassName() + "}");
+            return mbeanInterface;
+        } catch (ClassAlreadyExistsException e) {
+            throw new GenerationException(e);
+        }
+    }
+
+    private DefinedClass getMetricsClass(Type type, DefinedClass mbeanInterface) {
+        org.mule.devkit.model.code.Package pkg = ctx().getCodeModel()._package(type.getPackageName() + NamingConstants.ADAPTERS_NAMESPACE);
+        DefinedClass metricsClass = pkg._class(type.getClassName() + NamingConstants.CONNECTION_POOL_METRICS_CLASS_NAME_SUFFIX);
+        metricsClass._implements(mbeanInterface);
+        metricsClass.role(DefinedClassRoles.CONNECTION_POOL_METRICS, ref(type));
+        metricsClass.javadoc().add("Counters and latencies of the connection pool of {@link " + type.getClassName() + "}");
+
+        return metricsClass;
+    }
+}
@@ -17,9 +17,11 @@
 
 package org.mule.devkit.generation.adapter;
 
+import org.apache.commons.lang.StringUtils;
 import org.mule.api.annotations.oauth.OAuth;
 import org.mule.api.annotations.oauth.OAuth2;
 import org.mule.api.callback.HttpCallback;
+import org.mule.api.lifecycle.Disposable;
 import org.mule.api.lifecycle.Initialisable;
 import org.mule.api.transport.Connector;
 import org.mule.devkit.generation.AbstractModuleGenerator;
@@ -46,9 +48,15 @@ public class HttpCallbackAdapterGenerator extends AbstractModuleGenerator {
     public static final String REMOTE_PORT_FIELD_NAME = SchemaConstants.REMOTE_PORT_ATTRIBUTE_NAME;
     public static final String DOMAIN_FIELD_NAME = SchemaConstants.DOMAIN_ATTRIBUTE_NAME;
     public static final String ASYNC_FIELD_NAME = SchemaConstants.ASYNC_ATTRIBUTE_NAME;
+    public static final String ASYNC_MAX_THREADS_FIELD_NAME = SchemaConstants.ASYNC_MAX_THREADS_ATTRIBUTE_NAME;
+    public static final String ASYNC_MAX_QUEUE_SIZE_FIELD_NAME = SchemaConstants.ASYNC_MAX_QUEUE_SIZE_ATTRIBUTE_NAME;
+    public static final String CALLBACK_TIME_TO_LIVE_FIELD_NAME = SchemaConstants.CALLBACK_TIME_TO_LIVE_ATTRIBUTE_NAME;
     public static final String CONNECTOR_FIELD_NAME = "connector";
+    public static final String WORKER_POOL_FIELD_NAME = "httpCallbackWorkerPool";
     private static final int DEFAULT_LOCAL_PORT = 8080;
     private static final int DEFAULT_REMOTE_PORT = 80;
+    private static final int DEFAULT_ASYNC_MAX_THREADS = 16;
+    private static final int DEFAULT_ASYNC_MAX_QUEUE_SIZE = 1000;
 
     @Override
     public boolean shouldGenerate(Type type) {
@@ -66,7 +74,37 @@ public class HttpCallbackAdapterGenerator extends AbstractModuleGenerator {
         connectorFieldWithGetterAndSetter(httpCallbackAdapter);
         FieldVariable logger = FieldBuilder.newLoggerField(httpCallbackAdapter);
         asyncFieldWithGetterAndSetter(httpCallbackAdapter);
+        FieldVariable asyncMaxThreads = new FieldBuilder(httpCallbackAdapter).type(Integer.class).name(ASYNC_MAX_THREADS_FIELD_NAME).initialValue(DEFAULT_ASYNC_MAX_THREADS).getterAndSetter().build();
+        FieldVariable asyncMaxQueueSize = new FieldBuilder(httpCallbackAdapter).type(Integer.class).name(ASYNC_MAX_QUEUE_SIZE_FIELD_NAME).initialValue(DEFAULT_ASYNC_MAX_QUEUE_SIZE).getterAndSetter().build();
+        new FieldBuilder(httpCallbackAdapter).type(Long.class).name(CALLBACK_TIME_TO_LIVE_FIELD_NAME).javadoc("Milliseconds after which the http callbacks of this config stop being routed to, null to never expire").getterAndSetter().build();
         generateInitialiseMethod(httpCallbackAdapter, localPort, remotePort, domain, logger);
+        generateWorkerPool(httpCallbackAdapter, asyncMaxThreads, asyncMaxQueueSize);
+    }
+
+    /**
+     * Generates the lazily created worker pool shared by the asynchronous callbacks of this config and the dispose
+     * method shutting it down.
+     */
+    private void generateWorkerPool(DefinedClass httpCallbackAdapter, FieldVariable asyncMaxThreads, FieldVariable asyncMaxQueueSize) {
+        DefinedClass workerPoolClass = ctx().getCodeModel()._class(DefinedClassRoles.HTTP_CALLBACK_WORKER_POOL);
+        FieldVariable workerPool = new FieldBuilder(httpCallbackAdapter).type(workerPoolClass).name(WORKER_POOL_FIELD_NAME).build();
+
+        Method getWorkerPool = httpCallbackAdapter.method(Modifier.PUBLIC | Modifier.SYNCHRONIZED, workerPoolClass, "get" + StringUtils.capitalize(WORKER_POOL_FIELD_NAME));
+        getWorkerPool.javadoc().add("Worker pool running the asynchronous http callbacks of this config");
+        getWorkerPool.body()._if(Op.eq(workerPool, ExpressionFactory._null()))._then().assign(workerPool, ExpressionFactory._new(workerPoolClass).
+                arg(Op.plus(ExpressionFactory.invoke("getClass").invoke("getSimpleName"), ExpressionFactory.lit(".callback"))).
+                arg(Op.cond(Op.ne(asyncMaxThreads, ExpressionFactory._null()), asyncMaxThreads, ExpressionFactory.lit(DEFAULT_ASYNC_MAX_THREADS))).
+                arg(Op.cond(Op.ne(asyncMaxQueueSize, ExpressionFactory._null()), asyncMaxQueueSize, ExpressionFactory.lit(DEFAULT_ASYNC_MAX_QUEUE_SIZE))));
+        getWorkerPool.body()._return(workerPool);
+
+        httpCallbackAdapter._implements(ref(Disposable.class));
+        Method dispose = httpCallbackAdapter.method(Modifier.PUBLIC | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, "dispose");
+        Block ifPoolCreated = dispose.body()._if(Op.ne(workerPool, ExpressionFactory._null()))._then();
+        ifPoolCreated.invoke(workerPool, "dispose");
+        ifPoolCreated.assign(workerPool, ExpressionFactory._null());
+        if (ref(Disposable.class).isAssignableFrom(httpCallbackAdapter._extends())) {
+            dispose.body().invoke(ExpressionFactory._super(), "dispose");
+        }
     }
 
     private void generateInitialiseMethod(DefinedClass httpCallbackAdapter, FieldVariable localPort, FieldVariable remotePort, FieldVariable domain, FieldVariable logger) {
@@ -100,6 +100,9 @@ public class LifecycleAdapterFactoryGenerator extends AbstractModuleGenerator {
         for (Field variable : type.getFieldsAnnotatedWith(Configurable.class)) {
             getInstance.body().add(object.invoke("set" + StringUtils.capitalize(variable.getSimpleName().toString())).arg(ExpressionFactory._this().ref(variable.getSimpleName().toString())));
         }
+        for (String property : getRestHttpClientProperties(type)) {
+            getInstance.body().add(object.invoke("set" + StringUtils.capitalize(property)).arg(ExpressionFactory._this().ref(property)));
+        }
 
         getInstance.body()._return(object);
     }
@@ -118,6 +121,7 @@ public class LifecycleAdapterFactoryGenerator extends AbstractModuleGenerator {
             FieldVariable configField = lifecycleAdapterFactory.field(Modifier.PRIVATE, ref(variable.asType()), variable.getSimpleName().toString());
             generateSetter(lifecycleAdapterFactory, configField);
         }
+        generateRestHttpClientFields(type, lifecycleAdapterFactory);
     }
 
     private DefinedClass getLifecycleAdapterFactoryClass(Type type) {
@@ -29,6 +29,7 @@ import oauth.signpost.signature.AuthorizationHeaderSigningStrategy;
 import oauth.signpost.signature.HmacSha1MessageSigner;
 import oauth.signpost.signature.PlainTextMessageSigner;
 import oauth.signpost.signature.QueryStringSigningStrategy;
+import org.apache.commons.lang.StringUtils;
 import org.mule.api.annotations.oauth.OAuth;
 import org.mule.api.annotations.oauth.OAuthConsumerKey;
 import org.mule.api.annotations.oauth.OAuthConsumerSecret;
@@ -45,6 +46,7 @@ import org.mule.devkit.model.code.Block;
 import org.mule.devkit.model.code.CatchBlock;
 import org.mule.devkit.model.code.Conditional;
 import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.Expression;
 import org.mule.devkit.model.code.ExpressionFactory;
 import org.mule.devkit.model.code.FieldVariable;
 import org.mule.devkit.model.code.Invocation;
@@ -63,7 +65,8 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
 
     private static final String REQUEST_TOKEN_FIELD_NAME = "requestToken";
     private static final String REQUEST_TOKEN_SECRET_FIELD_NAME = "requestTokenSecret";
-    private static final String CONSUMER_FIELD_NAME = "consumer";
+    private static final String CREATE_CONSUMER_METHOD_NAME = "createConsumer";
+    private static final String REQUEST_TOKEN_REGEX = "[?&]oauth_token=([^&]+)";
 
     @Override
     public boolean shouldGenerate(Type type) {
@@ -76,6 +79,8 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         OAuth oauth = type.getAnnotation(OAuth.class);
         authorizationCodePatternConstant(oauthAdapter, oauth.verifierRegex());
         muleContextField(oauthAdapter);
+        accessTokenStoreFields(type, oauthAdapter);
+        pendingAuthorizationFields(oauthAdapter, REQUEST_TOKEN_REGEX);
 
         // logger field
         FieldVariable logger = generateLoggerField(oauthAdapter);
@@ -88,22 +93,24 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         FieldVariable redirectUrl = redirectUrlField(oauthAdapter);
         FieldVariable oauthAccessToken = accessTokenField(oauthAdapter);
         FieldVariable oauthAccessTokenSecret = oauthAccessTokenSecretField(oauthAdapter);
-        consumerField(oauthAdapter);
         oauthCallbackField(oauthAdapter);
 
         DefinedClass messageProcessor = generateMessageProcessorInnerClass(oauthAdapter);
 
-        Method createConsumer = generateCreateConsumerMethod(oauthAdapter, oauth, type);
+        generateCreateConsumerMethod(oauthAdapter, oauth, type);
 
         generateStartMethod(oauthAdapter);
         generateStopMethod(oauthAdapter);
-        generateInitialiseMethod(oauthAdapter, messageProcessor, createConsumer, oauth);
+        generateInitialiseMethod(oauthAdapter, messageProcessor, oauth.callbackPath());
 
         generateGetAuthorizationUrlMethod(oauthAdapter, requestToken, requestTokenSecret, redirectUrl, type, oauth, logger);
+        generateAddPendingAuthorizationMethod(oauthAdapter);
         generateRestoreAccessTokenMethod(oauthAdapter, restoreAccessTokenCallback, logger);
         generateFetchAccessTokenMethod(oauthAdapter, requestToken, requestTokenSecret, saveAccessTokenCallback, oauthVerifier, type, oauth, logger);
 
         generateHasBeenAuthorizedMethod(oauthAdapter, oauthAccessToken);
+        generateGetCurrentAccessTokenIdMethod(oauthAdapter);
+        generateAcquireStoredAccessTokenMethod(type, oauthAdapter);
         generateOverrides(type, oauthAdapter, oauthAccessToken, oauthAccessTokenSecret);
     }
 
@@ -119,16 +126,14 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         return new FieldBuilder(oauthAdapter).type(String.class).name(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME).getterAndSetter().build();
     }
 
-    private FieldVariable consumerField(DefinedClass oauthAdapter) {
-        return new FieldBuilder(oauthAdapter).type(OAuthConsumer.class).name(CONSUMER_FIELD_NAME).build();
-    }
-
+    /**
+     * Consumers hold the token of the authorization they take part in, so every authorization gets its own one.
+     */
     private Method generateCreateConsumerMethod(DefinedClass oauthAdapter, OAuth oauth, Type type) {
-        Method createConsumer = oauthAdapter.method(Modifier.PRIVATE, ctx().getCodeModel().VOID, "createConsumer");
+        Method createConsumer = oauthAdapter.method(Modifier.PRIVATE, ref(OAuthConsumer.class), CREATE_CONSUMER_METHOD_NAME);
         Invocation getConsumerKey = ExpressionFactory.invoke(getterMethodForFieldAnnotatedWith(type, OAuthConsumerKey.class));
         Invocation getConsumerSecret = ExpressionFactory.invoke(getterMethodForFieldAnnotatedWith(type, OAuthConsumerSecret.class));
-        FieldVariable consumer = oauthAdapter.fields().get(CONSUMER_FIELD_NAME);
-        createConsumer.body().assign(consumer, ExpressionFactory._new(ref(DefaultOAuthConsumer.class)).arg(getConsumerKey).arg(getConsumerSecret));
+        Variable consumer = createConsumer.body().decl(ref(OAuthConsumer.class), "consumer", ExpressionFactory._new(ref(DefaultOAuthConsumer.class)).arg(getConsumerKey).arg(getConsumerSecret));
         if (oauth.messageSigner().equals(OAuthMessageSigner.HMAC_SHA1)) {
             createConsumer.body().invoke(consumer, "setMessageSigner").arg(ExpressionFactory._new(ref(HmacSha1MessageSigner.class)));
         } else if (oauth.messageSigner().equals(OAuthMessageSigner.PLAIN_TEXT)) {
@@ -139,14 +144,10 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         } else if (oauth.signingStrategy().equals(OAuthSigningStrategy.QUERY_STRING)) {
             createConsumer.body().invoke(consumer, "setSigningStrategy").arg(ExpressionFactory._new(ref(QueryStringSigningStrategy.class)));
         }
+        createConsumer.body()._return(consumer);
         return createConsumer;
     }
 
-    private void generateInitialiseMethod(DefinedClass oauthAdapter, DefinedClass messageProcessor, Method createConsumer, OAuth oauth) {
-        Method initialise = generateInitialiseMethod(oauthAdapter, messageProcessor, oauth.callbackPath());
-        initialise.body().invoke(createConsumer);
-    }
-
     private void generateGetAuthorizationUrlMethod(DefinedClass oauthAdapter, FieldVariable requestToken, FieldVariable requestTokenSecret, FieldVariable redirectUrl, Type type, OAuth oauth, FieldVariable logger) {
         Method getAuthorizationUrl = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, GET_AUTHORIZATION_URL_METHOD_NAME);
         getAuthorizationUrl._throws(ref(UnableToAcquireRequestTokenException.class));
@@ -154,8 +155,8 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         getAuthorizationUrl.type(ref(String.class));
         Variable provider = generateProvider(oauth, getAuthorizationUrl.body(), type);
         Variable authorizationUrl = getAuthorizationUrl.body().decl(ref(String.class), "authorizationUrl");
+        Variable consumer = getAuthorizationUrl.body().decl(ref(OAuthConsumer.class), "consumer", ExpressionFactory.invoke(CREATE_CONSUMER_METHOD_NAME));
         TryStatement tryRetrieveRequestToken = getAuthorizationUrl.body()._try();
-        FieldVariable consumer = oauthAdapter.fields().get(CONSUMER_FIELD_NAME);
         
         Conditional ifDebugEnabled = tryRetrieveRequestToken.body()._if(logger.invoke("isDebugEnabled"));
         Variable messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
@@ -185,8 +186,13 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
         ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
-        getAuthorizationUrl.body().assign(requestToken, consumer.invoke("getToken"));
-        getAuthorizationUrl.body().assign(requestTokenSecret, consumer.invoke("getTokenSecret"));
+        // the request token comes back on the callback and tells which tenant the authorization is for
+        Variable accessTokenId = getAuthorizationUrl.body().decl(ref(String.class), "accessTokenId", ExpressionFactory.invoke(GET_CURRENT_ACCESS_TOKEN_ID_METHOD_NAME));
+        Conditional ifMultiTenant = getAuthorizationUrl.body()._if(Op.ne(accessTokenId, ExpressionFactory._null()));
+        ifMultiTenant._then().invoke(ADD_PENDING_AUTHORIZATION_METHOD_NAME).arg(consumer.invoke("getToken")).arg(accessTokenId).
+                arg(consumer.invoke("getToken")).arg(consumer.invoke("getTokenSecret"));
+        ifMultiTenant._else().assign(requestToken, consumer.invoke("getToken"));
+        ifMultiTenant._else().assign(requestTokenSecret, consumer.invoke("getTokenSecret"));
         getAuthorizationUrl.body()._return(authorizationUrl);
     }
     
@@ -204,9 +210,11 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         TryStatement tryToRestore = ifRestoreCallbackNotNull._then()._try();
         tryToRestore.body().add(restoreAccessTokenCallbackField.invoke("restoreAccessToken"));
 
-        tryToRestore.body().assign(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME), restoreAccessTokenCallbackField.invoke("getAccessToken"));
-        tryToRestore.body().assign(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME), restoreAccessTokenCallbackField.invoke("getAccessTokenSecret"));
-
+        Variable currentAccessTokenId = generateStoreAccessToken(oauthAdapter, tryToRestore.body(), restoreAccessTokenCallbackField.invoke("getAccessToken"),
+                restoreAccessTokenCallbackField.invoke("getAccessTokenSecret"), ExpressionFactory._null());
+        Block ifSingleTenant = tryToRestore.body()._if(isNull(currentAccessTokenId))._then();
+        ifSingleTenant.assign(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME), restoreAccessTokenCallbackField.invoke("getAccessToken"));
+        ifSingleTenant.assign(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME), restoreAccessTokenCallbackField.invoke("getAccessTokenSecret"));
 
         ifDebugEnabled = tryToRestore.body()._if(logger.invoke("isDebugEnabled"));
         messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
@@ -233,14 +241,21 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         Method fetchAccessToken = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, FETCH_ACCESS_TOKEN_METHOD_NAME);
         fetchAccessToken._throws(ref(UnableToAcquireAccessTokenException.class));
 
-        fetchAccessToken.body().invoke("restoreAccessToken");
+        Variable authorization = generateCurrentAuthorization(oauthAdapter, fetchAccessToken.body());
+        Expression isTenantAuthorization = Op.ne(authorization, ExpressionFactory._null());
+
+        Variable currentAccessTokenId = generateRequireCurrentAccessTokenId(oauthAdapter, fetchAccessToken.body(), "currentAccessTokenId", true);
+        fetchAccessToken.body()._if(isNull(currentAccessTokenId))._then().invoke("restoreAccessToken");
 
-        Conditional ifAccessTokenNullOrSecretNull = fetchAccessToken.body()._if(Op.cor(Op.eq(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME), ExpressionFactory._null()),
-                Op.eq(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME), ExpressionFactory._null())));
+        Conditional ifAccessTokenNullOrSecretNull = fetchAccessToken.body()._if(Op.cor(Op.ne(currentAccessTokenId, ExpressionFactory._null()),
+                Op.cor(Op.eq(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME), ExpressionFactory._null()),
+                        Op.eq(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME), ExpressionFactory._null()))));
 
         Variable provider = generateProvider(oauth, ifAccessTokenNullOrSecretNull._then(), type);
-        FieldVariable consumer = oauthAdapter.fields().get(CONSUMER_FIELD_NAME);
-        ifAccessTokenNullOrSecretNull._then().invoke(consumer, "setTokenWithSecret").arg(requestToken).arg(requestTokenSecret);
+        Variable consumer = ifAccessTokenNullOrSecretNull._then().decl(ref(OAuthConsumer.class), "consumer", ExpressionFactory.invoke(CREATE_CONSUMER_METHOD_NAME));
+        ifAccessTokenNullOrSecretNull._then().invoke(consumer, "setTokenWithSecret").
+                arg(Op.cond(isTenantAuthorization, authorization.invoke("getRequestToken"), requestToken)).
+                arg(Op.cond(isTenantAuthorization, authorization.invoke("getRequestTokenSecret"), requestTokenSecret));
         TryStatement tryRetrieveAccessToken = ifAccessTokenNullOrSecretNull._then()._try();
 
         Conditional ifDebugEnabled = tryRetrieveAccessToken.body()._if(logger.invoke("isDebugEnabled"));
@@ -248,38 +263,40 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Retrieving access token..."));
         ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
-        tryRetrieveAccessToken.body().invoke(provider, "retrieveAccessToken").arg(consumer).arg(oauthVerifier);
+        tryRetrieveAccessToken.body().invoke(provider, "retrieveAccessToken").arg(consumer).
+                arg(Op.cond(isTenantAuthorization, authorization.invoke("get" + StringUtils.capitalize(VERIFIER_FIELD_NAME)), oauthVerifier));
         generateReThrow(tryRetrieveAccessToken, OAuthMessageSignerException.class, UnableToAcquireAccessTokenException.class);
         generateReThrow(tryRetrieveAccessToken, OAuthNotAuthorizedException.class, UnableToAcquireAccessTokenException.class);
         generateReThrow(tryRetrieveAccessToken, OAuthExpectationFailedException.class, UnableToAcquireAccessTokenException.class);
         generateReThrow(tryRetrieveAccessToken, OAuthCommunicationException.class, UnableToAcquireAccessTokenException.class);
 
-        ifAccessTokenNullOrSecretNull._then().assign(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME), consumer.invoke("getToken"));
-        ifAccessTokenNullOrSecretNull._then().assign(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME), consumer.invoke("getTokenSecret"));
+        // the access token is only published once complete, straight to the store when it belongs to a tenant
+        Variable fetchedAccessToken = ifAccessTokenNullOrSecretNull._then().decl(ref(String.class), "fetchedAccessToken", consumer.invoke("getToken"));
+        Variable fetchedAccessTokenSecret = ifAccessTokenNullOrSecretNull._then().decl(ref(String.class), "fetchedAccessTokenSecret", consumer.invoke("getTokenSecret"));
 
         ifDebugEnabled = ifAccessTokenNullOrSecretNull._then()._if(logger.invoke("isDebugEnabled"));
         messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Access token retrieved successfully "));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("[accessToken = ")));
-        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME)));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(fetchedAccessToken));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("[accessTokenSecret = ")));
-        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME)));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(fetchedAccessTokenSecret));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
 
         Conditional ifSaveCallbackNotNull = ifAccessTokenNullOrSecretNull._then()._if(Op.ne(saveAccessTokenCallback, ExpressionFactory._null()));
-        Invocation saveAccessToken = saveAccessTokenCallback.invoke("saveAccessToken").arg(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME))
-                .arg(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME));
+        Invocation saveAccessToken = saveAccessTokenCallback.invoke("saveAccessToken").arg(fetchedAccessToken)
+                .arg(fetchedAccessTokenSecret);
         TryStatement tryToSave = ifSaveCallbackNotNull._then()._try();
 
         ifDebugEnabled = ifSaveCallbackNotNull._then()._if(logger.invoke("isDebugEnabled"));
         messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Attempting to save access token..."));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("[accessToken = ")));
-        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME)));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(fetchedAccessToken));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("[accessTokenSecret = ")));
-        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME)));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(fetchedAccessTokenSecret));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
         ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
@@ -287,6 +304,12 @@ public class OAuth1AdapterGenerator extends AbstractOAuthAdapterGenerator {
         CatchBlock logIfCannotSave = tryToSave._catch(ref(Exception.class));
         Variable e2 = logIfCannotSave.param("e");
         logIfCannotSave.body().add(logger.invoke("error").arg("Cannot save access token, an unexpected error occurred").arg(e2));
+
+        Conditional ifTenant = ifAccessTokenNullOrSecretNull._then()._if(Op.ne(currentAccessTokenId, ExpressionFactory._null()));
+        ifTenant._then().add(oauthAdapter.fields().get(ACCESS_TOKEN_STORE_FIELD_NAME).invoke("put").arg(currentAccessTokenId).arg(fetchedAccessToken)
+                .arg(fetchedAccessTokenSecret).arg(ExpressionFactory._null()));
+        ifTenant._else().assign(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME), fetchedAccessToken);
+        ifTenant._else().assign(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_SECRET_FIELD_NAME), fetchedAccessTokenSecret);
     }
 
     private Variable generateProvider(OAuth oauth, Block block, Type type) {
@@ -29,8 +29,10 @@ import org.mule.devkit.generation.api.GenerationException;
 import org.mule.devkit.model.Type;
 import org.mule.devkit.model.code.Block;
 import org.mule.devkit.model.code.CatchBlock;
+import org.mule.devkit.model.code.ClassAlreadyExistsException;
 import org.mule.devkit.model.code.Conditional;
 import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.Expression;
 import org.mule.devkit.model.code.ExpressionFactory;
 import org.mule.devkit.model.code.FieldVariable;
 import org.mule.devkit.model.code.Invocation;
@@ -38,21 +40,51 @@ import org.mule.devkit.model.code.Method;
 import org.mule.devkit.model.code.Modifier;
 import org.mule.devkit.model.code.Op;
 import org.mule.devkit.model.code.TryStatement;
+import org.mule.devkit.model.code.TypeReference;
 import org.mule.devkit.model.code.Variable;
 import org.mule.devkit.model.code.builders.FieldBuilder;
 import org.mule.util.IOUtils;
+import org.mule.util.concurrent.NamedThreadFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
 
+    public static final String REFRESH_ACCESS_TOKEN_METHOD_NAME = "refreshAccessToken";
+    public static final String REFRESH_ACCESS_TOKEN_IF_EXPIRING_METHOD_NAME = "refreshAccessTokenIfExpiring";
+    private static final String REQUEST_ACCESS_TOKEN_METHOD_NAME = "requestAccessToken";
+    private static final String SCHEDULE_ACCESS_TOKEN_REFRESH_METHOD_NAME = "scheduleAccessTokenRefresh";
+    private static final String REFRESH_TOKEN_FIELD_NAME = "refreshToken";
+    private static final String REFRESH_TOKEN_PATTERN_FIELD_NAME = "REFRESH_TOKEN_PATTERN";
+    public static final String REFRESH_AHEAD_FIELD_NAME = "accessTokenRefreshAhead";
+    private static final String MIN_REFRESH_DELAY_FIELD_NAME = "MIN_REFRESH_DELAY";
+    private static final String REFRESH_ATTEMPTS_FIELD_NAME = "refreshAttempts";
+    private static final String REFRESH_SCHEDULER_FIELD_NAME = "refreshScheduler";
+    private static final String REFRESH_TASK_FIELD_NAME = "refreshTask";
+    private static final String REFRESH_GRANT_TYPE = "refresh_token";
+    private static final String TOKENS_CLASS_NAME = "AccessTokens";
+    private static final String TOKENS_FIELD_NAME = "tokens";
+    private static final String ACCESS_TOKEN_LOCK_FIELD_NAME = "accessTokenLock";
+    private static final String PUBLISH_TOKENS_METHOD_NAME = "publishTokens";
+    private static final String STATE_REGEX = "[?&]state=([^&]+)";
+    public static final long DEFAULT_REFRESH_AHEAD = 60000L;
+    private static final long MIN_REFRESH_DELAY = 1000L;
+
     @Override
     public boolean shouldGenerate(Type type) {
         return type.hasAnnotation(OAuth2.class);
@@ -69,31 +101,46 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
 
         expirationPatternConstant(oauthAdapter, oauth2);
 
+        refreshTokenPatternConstant(oauthAdapter, oauth2);
+
         muleContextField(oauthAdapter);
+        accessTokenStoreFields(type, oauthAdapter);
+        pendingAuthorizationFields(oauthAdapter, STATE_REGEX);
 
         authorizationCodeField(oauthAdapter);
         redirectUrlField(oauthAdapter);
         oauthCallbackField(oauthAdapter);
-        FieldVariable oauthAccessToken = accessTokenField(oauthAdapter);
+        tokensFields(oauthAdapter, oauth2);
+        Invocation oauthAccessToken = ExpressionFactory.invoke("get" + StringUtils.capitalize(ACCESS_TOKEN_FIELD_NAME));
 
         FieldVariable saveAccessTokenCallback = saveAccessTokenCallbackField(oauthAdapter);
         FieldVariable restoreAccessTokenCallback = restoreAccessTokenCallbackField(oauthAdapter);
 
-        expirationField(oauthAdapter, type.getAnnotation(OAuth2.class));
+        refreshFields(oauthAdapter, oauth2);
 
         DefinedClass messageProcessor = generateMessageProcessorInnerClass(oauthAdapter);
 
-        generateStartMethod(oauthAdapter);
-        generateStopMethod(oauthAdapter);
+        Method start = generateStartMethod(oauthAdapter);
+        Method stop = generateStopMethod(oauthAdapter);
         generateInitialiseMethod(oauthAdapter, messageProcessor, oauth2.callbackPath());
 
         FieldVariable logger = FieldBuilder.newLoggerField(oauthAdapter);
+        Method requestAccessToken = generateRequestAccessTokenMethod(oauthAdapter, oauth2);
         generateGetAuthorizationUrlMethod(oauthAdapter, type, oauth2, logger);
+        generateAddPendingAuthorizationMethod(oauthAdapter);
         generateRestoreAccessTokenMethod(oauthAdapter, restoreAccessTokenCallback, logger);
-        generateFetchAccessTokenMethod(oauthAdapter, type, oauth2, saveAccessTokenCallback, logger);
+        generateFetchAccessTokenMethod(oauthAdapter, type, oauth2, saveAccessTokenCallback, requestAccessToken, logger);
         generateHasTokenExpiredMethod(oauthAdapter, oauth2);
         generateResetMethod(oauthAdapter, oauth2);
-        generateHasBeenAuthorizedMethod(oauthAdapter, oauthAccessToken);
+        if (isRefreshSupported(oauth2)) {
+            generateRefreshMethods(oauthAdapter, type, oauth2, saveAccessTokenCallback, requestAccessToken, start, stop, logger);
+            generateHasBeenAuthorizedMethod(oauthAdapter, oauthAccessToken,
+                    ExpressionFactory.invoke(REFRESH_ACCESS_TOKEN_IF_EXPIRING_METHOD_NAME).arg(ExpressionFactory.lit(0L)));
+        } else {
+            generateHasBeenAuthorizedMethod(oauthAdapter, oauthAccessToken);
+        }
+        generateGetCurrentAccessTokenIdMethod(oauthAdapter);
+        generateAcquireStoredAccessTokenMethod(type, oauthAdapter);
         generateOverrides(type, oauthAdapter, oauthAccessToken, null);
     }
 
@@ -109,10 +156,298 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
         }
     }
 
-    private void expirationField(DefinedClass oauthAdapter, OAuth2 oauth2) {
+    /**
+     * Refreshing requires knowing both when the access token expires and which refresh token to use.
+     */
+    public static boolean isRefreshSupported(OAuth2 oauth2) {
+        return !StringUtils.isEmpty(oauth2.refreshTokenRegex()) && !StringUtils.isEmpty(oauth2.expirationRegex());
+    }
+
+    private void refreshTokenPatternConstant(DefinedClass oauthAdapter, OAuth2 oauth2) {
+        if (isRefreshSupported(oauth2)) {
+            new FieldBuilder(oauthAdapter).type(Pattern.class).name(REFRESH_TOKEN_PATTERN_FIELD_NAME).staticField().finalField().
+                    initialValue(ref(Pattern.class).staticInvoke("compile").arg(oauth2.refreshTokenRegex())).build();
+            new FieldBuilder(oauthAdapter).type(ctx().getCodeModel().LONG).name(MIN_REFRESH_DELAY_FIELD_NAME).staticField().finalField().
+                    javadoc("Minimum time in milliseconds between two background refreshes, however short lived access tokens are").
+                    initialValue(ExpressionFactory.lit(MIN_REFRESH_DELAY)).build();
+        }
+    }
+
+    private void refreshFields(DefinedClass oauthAdapter, OAuth2 oauth2) {
+        if (isRefreshSupported(oauth2)) {
+            new FieldBuilder(oauthAdapter).type(ctx().getCodeModel().LONG).name(REFRESH_AHEAD_FIELD_NAME).
+                    javadoc("Time in milliseconds before expiration at which access tokens are refreshed in the background, capped at half their lifetime").
+                    initialValue(ExpressionFactory.lit(DEFAULT_REFRESH_AHEAD)).getterAndSetter().build();
+            new FieldBuilder(oauthAdapter).type(ctx().getCodeModel().INT).name(REFRESH_ATTEMPTS_FIELD_NAME).volatileField().build();
+            new FieldBuilder(oauthAdapter).type(ScheduledExecutorService.class).name(REFRESH_SCHEDULER_FIELD_NAME).build();
+            new FieldBuilder(oauthAdapter).type(ScheduledFuture.class).name(REFRESH_TASK_FIELD_NAME).build();
+        }
+    }
+
+    /**
+     * The access token, its refresh token and its expiration are kept in one immutable holder published through a
+     * single volatile field, so a reader never pairs a token with the expiration or refresh token of another one. Every
+     * change goes through publishTokens while holding the access token lock, whether the tokens are fetched, refreshed,
+     * restored, set or reset.
+     */
+    private void tokensFields(DefinedClass oauthAdapter, OAuth2 oauth2) {
+        DefinedClass tokensClass = generateTokensClass(oauthAdapter);
+        FieldVariable tokens = oauthAdapter.field(Modifier.PRIVATE | Modifier.VOLATILE, tokensClass, TOKENS_FIELD_NAME,
+                ExpressionFactory._new(tokensClass).arg(ExpressionFactory._null()).arg(ExpressionFactory._null()).arg(ExpressionFactory._null()));
+        tokens.javadoc().add("Current access token along with its refresh token and expiration, replaced as a whole");
+        FieldVariable accessTokenLock = new FieldBuilder(oauthAdapter).type(ReentrantLock.class).name(ACCESS_TOKEN_LOCK_FIELD_NAME).finalField().
+                javadoc("Held while fetching, refreshing or changing the tokens").
+                initialValue(ExpressionFactory._new(ref(ReentrantLock.class))).build();
+
+        Method publishTokens = oauthAdapter.method(Modifier.PRIVATE, ctx().getCodeModel().VOID, PUBLISH_TOKENS_METHOD_NAME);
+        publishTokens.javadoc().add("Replaces the tokens, only called while holding the access token lock");
+        Invocation newTokens = ExpressionFactory._new(tokensClass);
+        newTokens.arg(publishTokens.param(ref(String.class), ACCESS_TOKEN_FIELD_NAME));
+        newTokens.arg(publishTokens.param(ref(String.class), REFRESH_TOKEN_FIELD_NAME));
+        newTokens.arg(publishTokens.param(ref(Date.class), EXPIRATION_FIELD_NAME));
+        publishTokens.body().assign(tokens, newTokens);
+
+        generateTokensGetter(oauthAdapter, tokens, ref(String.class), ACCESS_TOKEN_FIELD_NAME);
+        generateTokensSetter(oauthAdapter, tokens, accessTokenLock, publishTokens, ref(String.class), ACCESS_TOKEN_FIELD_NAME);
         if (!StringUtils.isEmpty(oauth2.expirationRegex())) {
-            new FieldBuilder(oauthAdapter).type(Date.class).name(EXPIRATION_FIELD_NAME).setter().build();
+            generateTokensSetter(oauthAdapter, tokens, accessTokenLock, publishTokens, ref(Date.class), EXPIRATION_FIELD_NAME);
+        }
+        if (isRefreshSupported(oauth2)) {
+            generateTokensGetter(oauthAdapter, tokens, ref(String.class), REFRESH_TOKEN_FIELD_NAME);
+            generateTokensSetter(oauthAdapter, tokens, accessTokenLock, publishTokens, ref(String.class), REFRESH_TOKEN_FIELD_NAME);
+        }
+    }
+
+    private DefinedClass generateTokensClass(DefinedClass oauthAdapter) {
+        DefinedClass tokensClass;
+        try {
+            tokensClass = oauthAdapter._class(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, TOKENS_CLASS_NAME);
+        } catch (ClassAlreadyExistsException e) {
+            return e.getExistingClass();
         }
+        tokensClass.javadoc().add("Access token, refresh token and expiration as published together");
+
+        FieldVariable accessToken = tokensClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(String.class), ACCESS_TOKEN_FIELD_NAME);
+        FieldVariable refreshToken = tokensClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(String.class), REFRESH_TOKEN_FIELD_NAME);
+        FieldVariable expiration = tokensClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(Date.class), EXPIRATION_FIELD_NAME);
+
+        Method constructor = tokensClass.constructor(Modifier.PUBLIC);
+        constructor.body().assign(ExpressionFactory._this().ref(accessToken), constructor.param(ref(String.class), ACCESS_TOKEN_FIELD_NAME));
+        constructor.body().assign(ExpressionFactory._this().ref(refreshToken), constructor.param(ref(String.class), REFRESH_TOKEN_FIELD_NAME));
+        constructor.body().assign(ExpressionFactory._this().ref(expiration), constructor.param(ref(Date.class), EXPIRATION_FIELD_NAME));
+
+        return tokensClass;
+    }
+
+    private void generateTokensGetter(DefinedClass oauthAdapter, FieldVariable tokens, TypeReference type, String name) {
+        Method getter = oauthAdapter.method(Modifier.PUBLIC, type, "get" + StringUtils.capitalize(name));
+        getter.javadoc().add("Retrieves " + name);
+        getter.body()._return(tokens.ref(name));
+    }
+
+    /**
+     * Generates a setter replacing one of the tokens and keeping the other two as they are.
+     */
+    private void generateTokensSetter(DefinedClass oauthAdapter, FieldVariable tokens, FieldVariable accessTokenLock, Method publishTokens, TypeReference type, String name) {
+        Method setter = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "set" + StringUtils.capitalize(name));
+        setter.javadoc().add("Sets " + name);
+        setter.javadoc().addParam("value Value to set");
+        Variable value = setter.param(type, "value");
+        setter.body().invoke(accessTokenLock, "lock");
+        TryStatement tryPublish = setter.body()._try();
+        Variable current = tryPublish.body().decl(tokens.type(), "current", tokens);
+        Invocation publish = tryPublish.body().invoke(publishTokens);
+        for (String token : new String[]{ACCESS_TOKEN_FIELD_NAME, REFRESH_TOKEN_FIELD_NAME, EXPIRATION_FIELD_NAME}) {
+            publish.arg(token.equals(name) ? value : current.ref(token));
+        }
+        tryPublish._finally().invoke(accessTokenLock, "unlock");
+    }
+
+    /**
+     * Generates the method posting a request to the access token endpoint. The response, or the error response when
+     * the endpoint rejects the request, is read fully and its stream closed so the underlying connection goes back to
+     * the JDK keep-alive pool and is reused by the next request.
+     */
+    private Method generateRequestAccessTokenMethod(DefinedClass oauthAdapter, OAuth2 oauth2) {
+        Method requestAccessToken = oauthAdapter.method(Modifier.PRIVATE, ref(String.class), REQUEST_ACCESS_TOKEN_METHOD_NAME);
+        requestAccessToken._throws(ref(IOException.class));
+        Variable content = requestAccessToken.param(ref(String.class), "content");
+
+        Block body = requestAccessToken.body();
+        Variable conn = body.decl(ref(HttpURLConnection.class), "conn",
+                ExpressionFactory.cast(ref(HttpURLConnection.class), ExpressionFactory._new(ref(URL.class)).arg(oauth2.accessTokenUrl()).invoke("openConnection")));
+
+        body.invoke(conn, "setRequestMethod").arg("POST");
+        body.invoke(conn, "setDoOutput").arg(ExpressionFactory.lit(true));
+
+        Variable out = body.decl(ref(OutputStreamWriter.class), "out", ExpressionFactory._new(ref(OutputStreamWriter.class)).arg(conn.invoke("getOutputStream")));
+        body.invoke(out, "write").arg(content);
+        body.invoke(out, "close");
+
+        Variable responseCode = body.decl(ctx().getCodeModel().INT, "responseCode", conn.invoke("getResponseCode"));
+        Block ifError = body._if(Op.gte(responseCode, ref(HttpURLConnection.class).staticRef("HTTP_BAD_REQUEST")))._then();
+        Variable errorStream = ifError.decl(ref(InputStream.class), "errorStream", conn.invoke("getErrorStream"));
+        Variable error = ifError.decl(ref(String.class), "error", ExpressionFactory._null());
+        TryStatement tryReadError = ifError._if(Op.ne(errorStream, ExpressionFactory._null()))._then()._try();
+        tryReadError.body().assign(error, ref(IOUtils.class).staticInvoke("toString").arg(errorStream));
+        tryReadError._finally().invoke(errorStream, "close");
+        ifError._throw(ExpressionFactory._new(ref(IOException.class)).arg(ref(String.class).staticInvoke("format").
+                arg("Access token request failed with status %d: %s").arg(responseCode).arg(error)));
+
+        Variable in = body.decl(ref(InputStream.class), "in", conn.invoke("getInputStream"));
+        TryStatement tryRead = body._try();
+        tryRead.body()._return(ref(IOUtils.class).staticInvoke("toString").arg(in));
+        tryRead._finally().invoke(in, "close");
+
+        return requestAccessToken;
+    }
+
+    /**
+     * Generates refreshAccessToken, its single-flight guard and the background task refreshing the access token a
+     * little before it expires. The task runs at most half way through the remaining lifetime of the token and never
+     * sooner than MIN_REFRESH_DELAY, so short lived tokens do not make it hammer the access token endpoint. A refresh
+     * holds the same lock as fetchAccessToken, so neither publishes tokens on top of the other.
+     */
+    private void generateRefreshMethods(DefinedClass oauthAdapter, Type type, OAuth2 oauth2, FieldVariable saveAccessTokenCallback, Method requestAccessToken, Method start, Method stop, FieldVariable logger) {
+        FieldVariable tokens = oauthAdapter.fields().get(TOKENS_FIELD_NAME);
+        FieldVariable accessTokenLock = oauthAdapter.fields().get(ACCESS_TOKEN_LOCK_FIELD_NAME);
+        FieldVariable refreshScheduler = oauthAdapter.fields().get(REFRESH_SCHEDULER_FIELD_NAME);
+        FieldVariable refreshTask = oauthAdapter.fields().get(REFRESH_TASK_FIELD_NAME);
+        FieldVariable refreshAhead = oauthAdapter.fields().get(REFRESH_AHEAD_FIELD_NAME);
+        FieldVariable minRefreshDelay = oauthAdapter.fields().get(MIN_REFRESH_DELAY_FIELD_NAME);
+        FieldVariable refreshAttempts = oauthAdapter.fields().get(REFRESH_ATTEMPTS_FIELD_NAME);
+        FieldVariable accessTokenId = oauthAdapter.fields().get(ACCESS_TOKEN_ID_FIELD_NAME);
+
+        // isAccessTokenExpiring
+        Method isAccessTokenExpiring = oauthAdapter.method(Modifier.PRIVATE, ctx().getCodeModel().BOOLEAN, "isAccessTokenExpiring");
+        Variable ahead = isAccessTokenExpiring.param(ctx().getCodeModel().LONG, "aheadMillis");
+        Variable expirationDate = isAccessTokenExpiring.body().decl(ref(Date.class), "expirationDate", tokens.ref(EXPIRATION_FIELD_NAME));
+        isAccessTokenExpiring.body()._return(Op.cand(Op.ne(expirationDate, ExpressionFactory._null()),
+                Op.lte(Op.minus(expirationDate.invoke("getTime"), ahead), ref(System.class).staticInvoke("currentTimeMillis"))));
+
+        // scheduleAccessTokenRefresh
+        Method scheduleRefresh = oauthAdapter.method(Modifier.PRIVATE | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, SCHEDULE_ACCESS_TOKEN_REFRESH_METHOD_NAME);
+        Block ifScheduled = scheduleRefresh.body()._if(Op.ne(refreshTask, ExpressionFactory._null()))._then();
+        ifScheduled.invoke(refreshTask, "cancel").arg(ExpressionFactory.FALSE);
+        ifScheduled.assign(refreshTask, ExpressionFactory._null());
+        Variable scheduledTokens = scheduleRefresh.body().decl(tokens.type(), "current", tokens);
+        Variable scheduledExpiration = scheduleRefresh.body().decl(ref(Date.class), "expirationDate", scheduledTokens.ref(EXPIRATION_FIELD_NAME));
+        scheduleRefresh.body()._if(Op.cor(isNull(refreshScheduler), Op.cor(isNull(scheduledTokens.ref(REFRESH_TOKEN_FIELD_NAME)), Op.cor(isNull(scheduledExpiration), Op.ne(accessTokenId, ExpressionFactory._null())))))._then()._return();
+        Variable remaining = scheduleRefresh.body().decl(ctx().getCodeModel().LONG, "remaining",
+                Op.minus(scheduledExpiration.invoke("getTime"), ref(System.class).staticInvoke("currentTimeMillis")));
+        Variable lead = scheduleRefresh.body().decl(Modifier.FINAL, ctx().getCodeModel().LONG, "lead", ref(Math.class).staticInvoke("max").arg(ExpressionFactory.lit(0L)).arg(
+                ref(Math.class).staticInvoke("min").arg(refreshAhead).arg(Op.div(remaining, ExpressionFactory.lit(2)))));
+        Variable delay = scheduleRefresh.body().decl(ctx().getCodeModel().LONG, "delay", ref(Math.class).staticInvoke("max").arg(minRefreshDelay).arg(
+                Op.minus(remaining, lead)));
+        DefinedClass refreshRunnable = ctx().getCodeModel().anonymousClass(Runnable.class);
+        Method run = refreshRunnable.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "run");
+        run.body().invoke(REFRESH_ACCESS_TOKEN_IF_EXPIRING_METHOD_NAME).arg(lead);
+        scheduleRefresh.body().assign(refreshTask, refreshScheduler.invoke("schedule").arg(ExpressionFactory._new(refreshRunnable)).arg(delay).arg(ref(TimeUnit.class).staticRef("MILLISECONDS")));
+
+        // refreshAccessToken
+        Method refreshAccessToken = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, REFRESH_ACCESS_TOKEN_METHOD_NAME);
+        refreshAccessToken._throws(ref(UnableToAcquireAccessTokenException.class));
+        refreshAccessToken.body().invoke(accessTokenLock, "lock");
+        TryStatement tryUnlock = refreshAccessToken.body()._try();
+        TryStatement tryRefresh = tryUnlock.body()._try();
+        tryUnlock._finally().invoke(accessTokenLock, "unlock");
+        Block body = tryRefresh.body();
+        Variable current = body.decl(tokens.type(), "current", tokens);
+
+        Conditional ifDebugEnabled = body._if(logger.invoke("isDebugEnabled"));
+        ifDebugEnabled._then().add(logger.invoke("debug").arg("Refreshing access token..."));
+
+        Invocation consumerKey = ExpressionFactory.invoke(getterMethodForFieldAnnotatedWith(type, OAuthConsumerKey.class));
+        Invocation consumerSecret = ExpressionFactory.invoke(getterMethodForFieldAnnotatedWith(type, OAuthConsumerSecret.class));
+
+        Variable builder = body.decl(ref(StringBuilder.class), "builder", ExpressionFactory._new(ref(StringBuilder.class)));
+        body.invoke(builder, "append").arg("refresh_token=");
+        body.invoke(builder, "append").arg(ref(URLEncoder.class).staticInvoke("encode").arg(current.ref(REFRESH_TOKEN_FIELD_NAME)).arg(ENCODING));
+        body.invoke(builder, "append").arg("&client_id=");
+        body.invoke(builder, "append").arg(ref(URLEncoder.class).staticInvoke("encode").arg(consumerKey).arg(ENCODING));
+        body.invoke(builder, "append").arg("&client_secret=");
+        body.invoke(builder, "append").arg(ref(URLEncoder.class).staticInvoke("encode").arg(consumerSecret).arg(ENCODING));
+        body.invoke(builder, "append").arg("&grant_type=");
+        body.invoke(builder, "append").arg(ref(URLEncoder.class).staticInvoke("encode").arg(REFRESH_GRANT_TYPE).arg(ENCODING));
+
+        Variable response = body.decl(ref(String.class), "response", ExpressionFactory.invoke(requestAccessToken).arg(builder.invoke("toString")));
+
+        Variable matcher = body.decl(ref(Matcher.class), "matcher", oauthAdapter.fields().get(ACCESS_CODE_PATTERN_FIELD_NAME).invoke("matcher").arg(response));
+        body._if(Op.not(Op.cand(matcher.invoke("find"), Op.gte(matcher.invoke("groupCount"), ExpressionFactory.lit(1)))))._then()._throw(ExpressionFactory._new(
+                ref(Exception.class)).arg(ref(String.class).staticInvoke("format").arg("OAuth access token could not be extracted from: %s").arg(response)));
+        Variable accessToken = body.decl(ref(String.class), "refreshedAccessToken",
+                ref(URLDecoder.class).staticInvoke("decode").arg(matcher.invoke("group").arg(ExpressionFactory.lit(1))).arg(ENCODING));
+
+        Variable fetchedRefreshToken = generateExtractRefreshToken(oauthAdapter, body, response);
+
+        Variable expiration = body.decl(ref(Date.class), "refreshedExpiration", ExpressionFactory._null());
+        Variable expirationMatcher = body.decl(ref(Matcher.class), "expirationMatcher", oauthAdapter.fields().get(EXPIRATION_TIME_PATTERN_FIELD_NAME).invoke("matcher").arg(response));
+        Conditional ifExpirationFound = body._if(Op.cand(expirationMatcher.invoke("find"), Op.gte(expirationMatcher.invoke("groupCount"), ExpressionFactory.lit(1))));
+        Variable seconds = ifExpirationFound._then().decl(ref(Long.class), "expirationSecsAhead",
+                ref(Long.class).staticInvoke("parseLong").arg(expirationMatcher.invoke("group").arg(ExpressionFactory.lit(1))));
+        ifExpirationFound._then().assign(expiration, ExpressionFactory._new(ref(Date.class)).arg(
+                Op.plus(ref(System.class).staticInvoke("currentTimeMillis"), Op.mul(seconds, ExpressionFactory.lit(1000)))));
+
+        body.invoke(PUBLISH_TOKENS_METHOD_NAME).arg(accessToken).arg(
+                Op.cond(Op.ne(fetchedRefreshToken, ExpressionFactory._null()), fetchedRefreshToken, current.ref(REFRESH_TOKEN_FIELD_NAME))).arg(expiration);
+
+        ifDebugEnabled = body._if(logger.invoke("isDebugEnabled"));
+        Variable messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Access token refreshed successfully "));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("[accessToken = ")));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(accessToken));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] [expiration = ")));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(expiration));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
+        ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
+
+        TryStatement tryToSave = body._if(Op.ne(saveAccessTokenCallback, ExpressionFactory._null()))._then()._try();
+        tryToSave.body().add(saveAccessTokenCallback.invoke("saveAccessToken").arg(accessToken).arg(ExpressionFactory._null()));
+        CatchBlock logIfCannotSave = tryToSave._catch(ref(Exception.class));
+        Variable saveException = logIfCannotSave.param("e");
+        logIfCannotSave.body().add(logger.invoke("error").arg("Cannot save access token, an unexpected error occurred").arg(saveException));
+
+        body.invoke(scheduleRefresh);
+        generateReThrow(tryRefresh, Exception.class, UnableToAcquireAccessTokenException.class);
+
+        // refreshAccessTokenIfExpiring
+        Method refreshIfExpiring = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, REFRESH_ACCESS_TOKEN_IF_EXPIRING_METHOD_NAME);
+        refreshIfExpiring.javadoc().add("Refresh the access token if it expires within the given time. Concurrent callers wait for a single refresh request instead of issuing their own, ");
+        refreshIfExpiring.javadoc().add("and do not retry it when it fails.");
+        Variable aheadMillis = refreshIfExpiring.param(ctx().getCodeModel().LONG, "aheadMillis");
+        refreshIfExpiring.body()._if(Op.cor(isNull(tokens.ref(REFRESH_TOKEN_FIELD_NAME)), Op.cor(Op.ne(accessTokenId, ExpressionFactory._null()), Op.not(ExpressionFactory.invoke(isAccessTokenExpiring).arg(aheadMillis)))))._then()._return();
+        Variable attempt = refreshIfExpiring.body().decl(ctx().getCodeModel().INT, "attempt", refreshAttempts);
+        refreshIfExpiring.body().invoke(accessTokenLock, "lock");
+        TryStatement tryRefreshOnce = refreshIfExpiring.body()._try();
+        Block ifNoAttemptWhileWaiting = tryRefreshOnce.body()._if(Op.cand(Op.eq(attempt, refreshAttempts), ExpressionFactory.invoke(isAccessTokenExpiring).arg(aheadMillis)))._then();
+        ifNoAttemptWhileWaiting.assign(refreshAttempts, Op.plus(refreshAttempts, ExpressionFactory.lit(1)));
+        ifNoAttemptWhileWaiting.invoke(refreshAccessToken);
+        CatchBlock logIfCannotRefresh = tryRefreshOnce._catch(ref(UnableToAcquireAccessTokenException.class));
+        Variable refreshException = logIfCannotRefresh.param("e");
+        logIfCannotRefresh.body().add(logger.invoke("warn").arg("Cannot refresh access token, an unexpected error occurred").arg(refreshException));
+        tryRefreshOnce._finally().invoke(accessTokenLock, "unlock");
+
+        // lifecycle
+        start.body().assign(refreshScheduler, ref(Executors.class).staticInvoke("newSingleThreadScheduledExecutor").arg(
+                ExpressionFactory._new(ref(NamedThreadFactory.class)).arg(oauthAdapter.name() + ".refresh")));
+        start.body().invoke(scheduleRefresh);
+
+        Block ifSchedulerStarted = stop.body()._if(Op.ne(refreshScheduler, ExpressionFactory._null()))._then();
+        ifSchedulerStarted.invoke(refreshScheduler, "shutdownNow");
+        ifSchedulerStarted.assign(refreshScheduler, ExpressionFactory._null());
+        stop.body().invoke(scheduleRefresh);
+    }
+
+    /**
+     * Declares the refresh token found in the response, null when the response does not carry one.
+     */
+    private Variable generateExtractRefreshToken(DefinedClass oauthAdapter, Block block, Variable response) {
+        Variable fetchedRefreshToken = block.decl(ref(String.class), "fetchedRefreshToken", ExpressionFactory._null());
+        Variable refreshTokenMatcher = block.decl(ref(Matcher.class), "refreshTokenMatcher", oauthAdapter.fields().get(REFRESH_TOKEN_PATTERN_FIELD_NAME).invoke("matcher").arg(response));
+        block._if(Op.cand(refreshTokenMatcher.invoke("find"), Op.gte(refreshTokenMatcher.invoke("groupCount"), ExpressionFactory.lit(1))))._then().assign(
+                fetchedRefreshToken,
+                ref(URLDecoder.class).staticInvoke("decode").arg(refreshTokenMatcher.invoke("group").arg(ExpressionFactory.lit(1))).arg(ENCODING));
+        return fetchedRefreshToken;
     }
 
     private void generateGetAuthorizationUrlMethod(DefinedClass oauthAdapter, Type type, OAuth2 oauth2, FieldVariable logger) {
@@ -135,6 +470,13 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
             ifScopeNotNull.invoke(urlBuilder, "append").arg(scope);
         }
 
+        // the state parameter comes back on the callback and tells which tenant the authorization is for
+        Variable accessTokenId = getAuthorizationUrl.body().decl(ref(String.class), "accessTokenId", ExpressionFactory.invoke(GET_CURRENT_ACCESS_TOKEN_ID_METHOD_NAME));
+        Block ifMultiTenant = getAuthorizationUrl.body()._if(Op.ne(accessTokenId, ExpressionFactory._null()))._then();
+        Variable state = ifMultiTenant.decl(ref(String.class), "state", ref(UUID.class).staticInvoke("randomUUID").invoke("toString"));
+        ifMultiTenant.invoke(ADD_PENDING_AUTHORIZATION_METHOD_NAME).arg(state).arg(accessTokenId).arg(ExpressionFactory._null()).arg(ExpressionFactory._null());
+        ifMultiTenant.invoke(urlBuilder, "append").arg("&state=");
+        ifMultiTenant.invoke(urlBuilder, "append").arg(state);
 
         getAuthorizationUrl.body().invoke(logger, "debug").arg(ExpressionFactory.direct("\"OAUth 2 authorization url: \" + urlBuilder"));
         getAuthorizationUrl.body()._return(urlBuilder.invoke("toString"));
@@ -152,7 +494,10 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
         TryStatement tryToRestore = ifRestoreCallbackNotNull._then()._try();
         tryToRestore.body().add(restoreAccessTokenCallbackField.invoke("restoreAccessToken"));
 
-        tryToRestore.body().assign(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME), restoreAccessTokenCallbackField.invoke("getAccessToken"));
+        Variable currentAccessTokenId = generateStoreAccessToken(oauthAdapter, tryToRestore.body(), restoreAccessTokenCallbackField.invoke("getAccessToken"),
+                ExpressionFactory._null(), ExpressionFactory._null());
+        tryToRestore.body()._if(isNull(currentAccessTokenId))._then().invoke("set" + StringUtils.capitalize(ACCESS_TOKEN_FIELD_NAME)).arg(
+                restoreAccessTokenCallbackField.invoke("getAccessToken"));
 
         ifDebugEnabled = tryToRestore.body()._if(logger.invoke("isDebugEnabled"));
         messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
@@ -171,13 +516,29 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
         restoreAccessTokenMethod.body()._return(ExpressionFactory.FALSE);
     }
 
-    private void generateFetchAccessTokenMethod(DefinedClass oauthAdapter, Type type, OAuth2 oauth2, FieldVariable saveAccessTokenCallback, FieldVariable logger) {
-        Method fetchAccessToken = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "fetchAccessToken");
+    /**
+     * Generates fetchAccessToken. Fetching the access token of the adapter itself holds the same lock as a refresh, while
+     * tenants fetch theirs concurrently since they only ever publish to the access token store.
+     */
+    private void generateFetchAccessTokenMethod(DefinedClass oauthAdapter, Type type, OAuth2 oauth2, FieldVariable saveAccessTokenCallback, Method requestAccessToken, FieldVariable logger) {
+        FieldVariable tokens = oauthAdapter.fields().get(TOKENS_FIELD_NAME);
+        FieldVariable accessTokenLock = oauthAdapter.fields().get(ACCESS_TOKEN_LOCK_FIELD_NAME);
+        Method fetchAccessToken = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, FETCH_ACCESS_TOKEN_METHOD_NAME);
         fetchAccessToken._throws(ref(UnableToAcquireAccessTokenException.class));
 
-        fetchAccessToken.body().invoke("restoreAccessToken");
+        Variable authorization = generateCurrentAuthorization(oauthAdapter, fetchAccessToken.body());
+        Variable verifier = fetchAccessToken.body().decl(ref(String.class), "verifier", Op.cond(Op.ne(authorization, ExpressionFactory._null()),
+                authorization.invoke("get" + StringUtils.capitalize(VERIFIER_FIELD_NAME)), oauthAdapter.fields().get(VERIFIER_FIELD_NAME)));
+
+        Variable currentAccessTokenId = generateRequireCurrentAccessTokenId(oauthAdapter, fetchAccessToken.body(), "currentAccessTokenId", true);
+        Variable singleTenant = fetchAccessToken.body().decl(ctx().getCodeModel().BOOLEAN, "singleTenant", isNull(currentAccessTokenId));
+        fetchAccessToken.body()._if(singleTenant)._then().invoke(accessTokenLock, "lock");
+        TryStatement tryUnlock = fetchAccessToken.body()._try();
+        tryUnlock._finally()._if(singleTenant)._then().invoke(accessTokenLock, "unlock");
+        tryUnlock.body()._if(singleTenant)._then().invoke("restoreAccessToken");
 
-        Conditional ifAccessTokenNull = fetchAccessToken.body()._if(Op.eq(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME), ExpressionFactory._null()));
+        Variable current = tryUnlock.body().decl(tokens.type(), "current", tokens);
+        Conditional ifAccessTokenNull = tryUnlock.body()._if(Op.cor(Op.not(singleTenant), isNull(current.ref(ACCESS_TOKEN_FIELD_NAME))));
 
         TryStatement tryStatement = ifAccessTokenNull._then()._try();
 
@@ -187,11 +548,6 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
         ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
         Block body = tryStatement.body();
-        Variable conn = body.decl(ref(HttpURLConnection.class), "conn",
-                ExpressionFactory.cast(ref(HttpURLConnection.class), ExpressionFactory._new(ref(URL.class)).arg(oauth2.accessTokenUrl()).invoke("openConnection")));
-
-        body.invoke(conn, "setRequestMethod").arg("POST");
-        body.invoke(conn, "setDoOutput").arg(ExpressionFactory.lit(true));
 
         Invocation consumerKey = ExpressionFactory.invoke(getterMethodForFieldAnnotatedWith(type, OAuthConsumerKey.class));
         Invocation consumerSecret = ExpressionFactory.invoke(getterMethodForFieldAnnotatedWith(type, OAuthConsumerSecret.class));
@@ -199,7 +555,7 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
         Variable builder = body.decl(ref(StringBuilder.class), "builder", ExpressionFactory._new(ref(StringBuilder.class)));
 
         body.invoke(builder, "append").arg("code=");
-        body.invoke(builder, "append").arg(ref(URLEncoder.class).staticInvoke("encode").arg(oauthAdapter.fields().get(VERIFIER_FIELD_NAME)).arg(ENCODING));
+        body.invoke(builder, "append").arg(ref(URLEncoder.class).staticInvoke("encode").arg(verifier).arg(ENCODING));
 
         body.invoke(builder, "append").arg("&client_id=");
         body.invoke(builder, "append").arg(ref(URLEncoder.class).staticInvoke("encode").arg(consumerKey).arg(ENCODING));
@@ -222,11 +578,7 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("]"));
         ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
-        Variable out = body.decl(ref(OutputStreamWriter.class), "out", ExpressionFactory._new(ref(OutputStreamWriter.class)).arg(conn.invoke("getOutputStream")));
-        body.invoke(out, "write").arg(builder.invoke("toString"));
-        body.invoke(out, "close");
-
-        Variable response = body.decl(ref(String.class), "response", ref(IOUtils.class).staticInvoke("toString").arg(conn.invoke("getInputStream")));
+        Variable response = body.decl(ref(String.class), "response", ExpressionFactory.invoke(requestAccessToken).arg(builder.invoke("toString")));
 
         ifDebugEnabled = tryStatement.body()._if(logger.invoke("isDebugEnabled"));
         messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
@@ -235,24 +587,28 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("]"));
         ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
+        // the access token is only published once complete, straight to the store when it belongs to a tenant
         Variable matcher = body.decl(ref(Matcher.class), "matcher", oauthAdapter.fields().get(ACCESS_CODE_PATTERN_FIELD_NAME).invoke("matcher").arg(response));
-        Conditional ifAccessTokenFound = body._if(Op.cand(matcher.invoke("find"), Op.gte(matcher.invoke("groupCount"), ExpressionFactory.lit(1))));
-        Invocation group = matcher.invoke("group").arg(ExpressionFactory.lit(1));
-        ifAccessTokenFound._then().assign(oauthAdapter.fields().get(ACCESS_TOKEN_FIELD_NAME), ref(URLDecoder.class).staticInvoke("decode").arg(group).arg(ENCODING));
+        body._if(Op.not(Op.cand(matcher.invoke("find"), Op.gte(matcher.invoke("groupCount"), ExpressionFactory.lit(1)))))._then()._throw(ExpressionFactory._new(
+                ref(Exception.class)).arg(ref(String.class).staticInvoke("format").arg("OAuth access token could not be extracted from: %s").arg(response)));
+        Variable fetchedAccessToken = body.decl(ref(String.class), "fetchedAccessToken",
+                ref(URLDecoder.class).staticInvoke("decode").arg(matcher.invoke("group").arg(ExpressionFactory.lit(1))).arg(ENCODING));
 
-        ifDebugEnabled = ifAccessTokenFound._then()._if(logger.invoke("isDebugEnabled"));
+        ifDebugEnabled = body._if(logger.invoke("isDebugEnabled"));
         messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Access token retrieved successfully "));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("[accessToken = ")));
-        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(oauthAdapter.fields().get(ACCESS_TOKEN_FIELD_NAME)));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(fetchedAccessToken));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
         ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
-        ifAccessTokenFound._else()._throw(ExpressionFactory._new(
-                ref(Exception.class)).arg(ref(String.class).staticInvoke("format").arg("OAuth access token could not be extracted from: %s").arg(response)));
+        Variable fetchedRefreshToken = null;
+        if (isRefreshSupported(oauth2)) {
+            fetchedRefreshToken = generateExtractRefreshToken(oauthAdapter, body, response);
+        }
 
-        Conditional ifSaveCallbackNotNull = ifAccessTokenFound._then()._if(Op.ne(saveAccessTokenCallback, ExpressionFactory._null()));
-        Invocation saveAccessToken = saveAccessTokenCallback.invoke("saveAccessToken").arg(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME))
+        Conditional ifSaveCallbackNotNull = body._if(Op.ne(saveAccessTokenCallback, ExpressionFactory._null()));
+        Invocation saveAccessToken = saveAccessTokenCallback.invoke("saveAccessToken").arg(fetchedAccessToken)
                 .arg(ExpressionFactory._null());
         TryStatement tryToSave = ifSaveCallbackNotNull._then()._try();
 
@@ -260,7 +616,7 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
         messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Attempting to save access token..."));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("[accessToken = ")));
-        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(oauthAdapter.fields().get(OAUTH_ACCESS_TOKEN_FIELD_NAME)));
+        ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(fetchedAccessToken));
         ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
         ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
@@ -269,8 +625,11 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
         Variable e2 = logIfCannotSave.param("e");
         logIfCannotSave.body().add(logger.invoke("error").arg("Cannot save access token, an unexpected error occurred").arg(e2));
 
+        Variable fetchedExpiration = null;
         if (!StringUtils.isEmpty(oauth2.expirationRegex())) {
-            ifDebugEnabled = ifAccessTokenFound._then()._if(logger.invoke("isDebugEnabled"));
+            fetchedExpiration = body.decl(ref(Date.class), "fetchedExpiration", ExpressionFactory._null());
+
+            ifDebugEnabled = body._if(logger.invoke("isDebugEnabled"));
             messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Attempting to extract expiration time using "));
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("[expirationPattern = ")));
@@ -278,18 +637,18 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
             ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
-            Variable expirationMatcher = ifAccessTokenFound._then().decl(ref(Matcher.class), "expirationMatcher", oauthAdapter.fields().get(EXPIRATION_TIME_PATTERN_FIELD_NAME).invoke("matcher").arg(response));
-            Conditional ifExpirationFound = ifAccessTokenFound._then()._if(Op.cand(expirationMatcher.invoke("find"), Op.gte(expirationMatcher.invoke("groupCount"), ExpressionFactory.lit(1))));
+            Variable expirationMatcher = body.decl(ref(Matcher.class), "expirationMatcher", oauthAdapter.fields().get(EXPIRATION_TIME_PATTERN_FIELD_NAME).invoke("matcher").arg(response));
+            Conditional ifExpirationFound = body._if(Op.cand(expirationMatcher.invoke("find"), Op.gte(expirationMatcher.invoke("groupCount"), ExpressionFactory.lit(1))));
             Variable seconds = ifExpirationFound._then().decl(ref(Long.class), "expirationSecsAhead",
                     ref(Long.class).staticInvoke("parseLong").arg(expirationMatcher.invoke("group").arg(ExpressionFactory.lit(1))));
-            ifExpirationFound._then().assign(oauthAdapter.fields().get(EXPIRATION_FIELD_NAME), ExpressionFactory._new(ref(Date.class)).arg(
+            ifExpirationFound._then().assign(fetchedExpiration, ExpressionFactory._new(ref(Date.class)).arg(
                     Op.plus(ref(System.class).staticInvoke("currentTimeMillis"), Op.mul(seconds, ExpressionFactory.lit(1000)))));
 
             ifDebugEnabled = ifExpirationFound._then()._if(logger.invoke("isDebugEnabled"));
             messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Token expiration extracted successfully "));
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("[expiration = ")));
-            ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(oauthAdapter.fields().get(EXPIRATION_FIELD_NAME)));
+            ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(fetchedExpiration));
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
             ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
@@ -301,13 +660,28 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg(ExpressionFactory.lit("] ")));
             ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
         }
+
+        Conditional ifTenant = body._if(Op.ne(currentAccessTokenId, ExpressionFactory._null()));
+        ifTenant._then().add(oauthAdapter.fields().get(ACCESS_TOKEN_STORE_FIELD_NAME).invoke("put").arg(currentAccessTokenId).arg(fetchedAccessToken)
+                .arg(ExpressionFactory._null()).arg(fetchedExpiration != null ? fetchedExpiration : ExpressionFactory._null()));
+        // a response without a refresh token keeps the one already known
+        Expression publishedRefreshToken = current.ref(REFRESH_TOKEN_FIELD_NAME);
+        if (fetchedRefreshToken != null) {
+            publishedRefreshToken = Op.cond(Op.ne(fetchedRefreshToken, ExpressionFactory._null()), fetchedRefreshToken, publishedRefreshToken);
+        }
+        ifTenant._else().invoke(PUBLISH_TOKENS_METHOD_NAME).arg(fetchedAccessToken).arg(publishedRefreshToken)
+                .arg(fetchedExpiration != null ? fetchedExpiration : ExpressionFactory._null());
+        if (fetchedRefreshToken != null) {
+            ifTenant._else().invoke(SCHEDULE_ACCESS_TOKEN_REFRESH_METHOD_NAME);
+        }
         generateReThrow(tryStatement, Exception.class, RuntimeException.class);
     }
 
     private void generateHasTokenExpiredMethod(DefinedClass oauthAdapter, OAuth2 oauth2) {
         Method hasTokenExpired = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().BOOLEAN, HAS_TOKEN_EXPIRED_METHOD_NAME);
         if (!StringUtils.isEmpty(oauth2.expirationRegex())) {
-            FieldVariable expirationDate = oauthAdapter.fields().get(EXPIRATION_FIELD_NAME);
+            Variable expirationDate = hasTokenExpired.body().decl(ref(Date.class), "expirationDate",
+                    oauthAdapter.fields().get(TOKENS_FIELD_NAME).ref(EXPIRATION_FIELD_NAME));
             hasTokenExpired.body()._return(Op.cand(
                     Op.ne(expirationDate, ExpressionFactory._null()),
                     expirationDate.invoke("before").arg(ExpressionFactory._new(ref(Date.class)))));
@@ -317,12 +691,16 @@ public class OAuth2AdapterGenerator extends AbstractOAuthAdapterGenerator {
     }
 
     private void generateResetMethod(DefinedClass oauthAdapter, OAuth2 oauth2) {
+        FieldVariable accessTokenLock = oauthAdapter.fields().get(ACCESS_TOKEN_LOCK_FIELD_NAME);
         Method reset = oauthAdapter.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, RESET_METHOD_NAME);
-        if (!StringUtils.isEmpty(oauth2.expirationRegex())) {
-            reset.body().assign(oauthAdapter.fields().get(EXPIRATION_FIELD_NAME), ExpressionFactory._null());
-        }
         reset.body().assign(oauthAdapter.fields().get(VERIFIER_FIELD_NAME), ExpressionFactory._null());
-        reset.body().assign(oauthAdapter.fields().get(ACCESS_TOKEN_FIELD_NAME), ExpressionFactory._null());
+        reset.body().invoke(accessTokenLock, "lock");
+        TryStatement tryReset = reset.body()._try();
+        tryReset.body().invoke(PUBLISH_TOKENS_METHOD_NAME).arg(ExpressionFactory._null()).arg(ExpressionFactory._null()).arg(ExpressionFactory._null());
+        tryReset._finally().invoke(accessTokenLock, "unlock");
+        if (isRefreshSupported(oauth2)) {
+            reset.body().invoke(SCHEDULE_ACCESS_TOKEN_REFRESH_METHOD_NAME);
+        }
     }
 
     private void generateReThrow(TryStatement tryStatement, Class<? extends Exception> exceptionToCatch, Class<? extends Exception> exceptionToThrow) {
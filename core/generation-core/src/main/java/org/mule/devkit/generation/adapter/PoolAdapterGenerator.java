@@ -62,6 +62,7 @@ public class PoolAdapterGenerator extends AbstractMessageGenerator {
             FieldVariable configField = poolAdapter.field(Modifier.PRIVATE, ref(field.asType()), field.getSimpleName().toString());
             generateSetter(poolAdapter, configField);
         }
+        generateRestHttpClientFields(type, poolAdapter);
 
         FieldVariable muleContext = generateFieldForMuleContext(poolAdapter);
         FieldVariable flowConstruct = generateFieldForFlowConstruct(poolAdapter);
@@ -100,6 +101,9 @@ public class PoolAdapterGenerator extends AbstractMessageGenerator {
         for (Field field : type.getFieldsAnnotatedWith(Configurable.class)) {
             startMethod.body().add(objectFactoryField.invoke("set" + StringUtils.capitalize(field.getSimpleName().toString())).arg(ExpressionFactory._this().ref(field.getSimpleName().toString())));
         }
+        for (String property : getRestHttpClientProperties(type)) {
+            startMethod.body().add(objectFactoryField.invoke("set" + StringUtils.capitalize(property)).arg(ExpressionFactory._this().ref(property)));
+        }
 
         Invocation defaultLifecycleEnabledObjectPool = ExpressionFactory._new(ref(DefaultLifecycleEnabledObjectPool.class));
         defaultLifecycleEnabledObjectPool.arg(objectFactoryField);
@@ -19,6 +19,7 @@ package org.mule.devkit.generation.adapter;
 
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpVersion;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.NameValuePair;
 import org.apache.commons.httpclient.URI;
 import org.apache.commons.httpclient.cookie.CookiePolicy;
@@ -29,6 +30,8 @@ import org.apache.commons.httpclient.methods.PutMethod;
 import org.apache.commons.httpclient.methods.RequestEntity;
 import org.apache.commons.httpclient.methods.StringRequestEntity;
 import org.apache.commons.httpclient.methods.TraceMethod;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
 import org.mule.api.MuleContext;
@@ -59,6 +62,7 @@ import org.mule.devkit.model.Type;
 import org.mule.devkit.model.Variable;
 import org.mule.devkit.model.code.Block;
 import org.mule.devkit.model.code.CatchBlock;
+import org.mule.devkit.model.code.ClassAlreadyExistsException;
 import org.mule.devkit.model.code.Conditional;
 import org.mule.devkit.model.code.DefinedClass;
 import org.mule.devkit.model.code.DefinedClassRoles;
@@ -70,27 +74,31 @@ import org.mule.devkit.model.code.Modifier;
 import org.mule.devkit.model.code.Op;
 import org.mule.devkit.model.code.TryStatement;
 import org.mule.devkit.model.code.TypeReference;
-import org.mule.devkit.model.code.WhileLoop;
+import org.mule.devkit.model.schema.SchemaConstants;
 import org.mule.registry.TypeBasedTransformerResolver;
 import org.mule.transformer.types.DataTypeFactory;
 import org.mule.transformer.types.MimeTypes;
+import org.mule.util.IOUtils;
 
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.type.DeclaredType;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.StringWriter;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class RestAdapterGenerator extends AbstractModuleGenerator {
 
+    private static final String CONNECTION_RELEASING_INPUT_STREAM_CLASS_NAME = "ConnectionReleasingInputStream";
+
     @Override
     public boolean shouldGenerate(Type type) {
         return type.isModuleOrConnector() && type.hasMethodsAnnotatedWith(RestCall.class);
@@ -105,6 +113,9 @@ public class RestAdapterGenerator extends AbstractModuleGenerator {
 
         FieldVariable responseTimeout = restClientAdapterClass.field(Modifier.PRIVATE, ctx().getCodeModel().INT, "responseTimeout");
         FieldVariable muleContext = restClientAdapterClass.field(Modifier.PRIVATE, ref(MuleContext.class), "muleContext");
+        FieldVariable connectionManager = restClientAdapterClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ref(MultiThreadedHttpConnectionManager.class), "httpConnectionManager");
+        FieldVariable idleConnectionTimeoutThread = restClientAdapterClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ref(IdleConnectionTimeoutThread.class), "idleConnectionTimeoutThread");
+        Map<String, FieldVariable> httpClientProperties = generateRestHttpClientFields(type, restClientAdapterClass);
 
         Expression httpClient;
         if (!type.hasFieldAnnotatedWith(RestHttpClient.class)) {
@@ -118,21 +129,52 @@ public class RestAdapterGenerator extends AbstractModuleGenerator {
         org.mule.devkit.model.code.Method initialise = restClientAdapterClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "initialise");
         initialise.annotate(ref(Override.class));
         initialise.body().add(ExpressionFactory._super().invoke("initialise"));
+        initialise.body().assign(connectionManager, ExpressionFactory._new(ref(MultiThreadedHttpConnectionManager.class)));
+        org.mule.devkit.model.code.Variable connectionManagerParams = initialise.body().decl(ref(HttpConnectionManagerParams.class), "connectionManagerParams", connectionManager.invoke("getParams"));
+        initialise.body().add(connectionManagerParams.invoke("setDefaultMaxConnectionsPerHost").arg(httpClientProperties.get(SchemaConstants.ATTRIBUTE_HTTP_MAX_CONNECTIONS_PER_HOST)));
+        initialise.body().add(connectionManagerParams.invoke("setMaxTotalConnections").arg(httpClientProperties.get(SchemaConstants.ATTRIBUTE_HTTP_MAX_TOTAL_CONNECTIONS)));
+        initialise.body().add(connectionManagerParams.invoke("setConnectionTimeout").arg(httpClientProperties.get(SchemaConstants.ATTRIBUTE_HTTP_CONNECTION_TIMEOUT)));
         if (!type.hasFieldAnnotatedWith(RestHttpClient.class)) {
-            initialise.body().assign((FieldVariable) httpClient, ExpressionFactory._new(ref(HttpClient.class)));
+            initialise.body().assign((FieldVariable) httpClient, ExpressionFactory._new(ref(HttpClient.class)).arg(connectionManager));
         } else {
-            initialise.body().invoke("set" + StringUtils.capitalize(type.getFieldsAnnotatedWith(RestHttpClient.class).get(0).getSimpleName().toString())).arg(ExpressionFactory._new(ref(HttpClient.class)));
+            initialise.body().invoke("set" + StringUtils.capitalize(type.getFieldsAnnotatedWith(RestHttpClient.class).get(0).getSimpleName().toString())).arg(ExpressionFactory._new(ref(HttpClient.class)).arg(connectionManager));
         }
         initialise.body().add(httpClient.invoke("getParams").invoke("setParameter").arg("http.protocol.version").arg(ref(HttpVersion.class).staticRef("HTTP_1_1")));
         initialise.body().add(httpClient.invoke("getParams").invoke("setParameter").arg("http.socket.timeout").arg(responseTimeout));
         initialise.body().add(httpClient.invoke("getParams").invoke("setParameter").arg("http.protocol.content-charset").arg("UTF-8"));
         initialise.body().add(httpClient.invoke("getParams").invoke("setCookiePolicy").arg(ref(CookiePolicy.class).staticRef("BROWSER_COMPATIBILITY")));
 
+        FieldVariable idleConnectionTimeout = httpClientProperties.get(SchemaConstants.ATTRIBUTE_HTTP_IDLE_CONNECTION_TIMEOUT);
+        Block ifEvictIdleConnections = initialise.body()._if(Op.gt(idleConnectionTimeout, ExpressionFactory.lit(0)))._then();
+        ifEvictIdleConnections.assign(idleConnectionTimeoutThread, ExpressionFactory._new(ref(IdleConnectionTimeoutThread.class)));
+        ifEvictIdleConnections.add(idleConnectionTimeoutThread.invoke("setName").arg(Op.plus(ExpressionFactory.lit("Idle HTTP Connection Evictor for "), restClientAdapterClass.dotclass().invoke("getSimpleName"))));
+        ifEvictIdleConnections.add(idleConnectionTimeoutThread.invoke("setConnectionTimeout").arg(idleConnectionTimeout));
+        ifEvictIdleConnections.add(idleConnectionTimeoutThread.invoke("setTimeoutInterval").arg(idleConnectionTimeout));
+        ifEvictIdleConnections.add(idleConnectionTimeoutThread.invoke("addConnectionManager").arg(connectionManager));
+        ifEvictIdleConnections.add(idleConnectionTimeoutThread.invoke("start"));
+
+        generateDispose(restClientAdapterClass, connectionManager, idleConnectionTimeoutThread);
+
         generateSetter(restClientAdapterClass, responseTimeout);
 
         generateRestCallImplementations(type, httpClient, muleContext, restClientAdapterClass);
     }
 
+    private void generateDispose(DefinedClass restClientAdapterClass, FieldVariable connectionManager, FieldVariable idleConnectionTimeoutThread) {
+        org.mule.devkit.model.code.Method dispose = restClientAdapterClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "dispose");
+        dispose.annotate(ref(Override.class));
+
+        Block ifEvictorRunning = dispose.body()._if(Op.ne(idleConnectionTimeoutThread, ExpressionFactory._null()))._then();
+        ifEvictorRunning.add(idleConnectionTimeoutThread.invoke("shutdown"));
+        ifEvictorRunning.assign(idleConnectionTimeoutThread, ExpressionFactory._null());
+
+        Block ifConnectionManager = dispose.body()._if(Op.ne(connectionManager, ExpressionFactory._null()))._then();
+        ifConnectionManager.add(connectionManager.invoke("shutdown"));
+        ifConnectionManager.assign(connectionManager, ExpressionFactory._null());
+
+        dispose.body().add(ExpressionFactory._super().invoke("dispose"));
+    }
+
     private void generateSetMuleContext(DefinedClass restClientAdapterClass, FieldVariable muleContext) {
         org.mule.devkit.model.code.Method setMuleContext = restClientAdapterClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "setMuleContext");
         setMuleContext.annotate(Override.class);
@@ -142,7 +184,17 @@ public class RestAdapterGenerator extends AbstractModuleGenerator {
 
     private void generateRestCallImplementations(Type type, Expression httpClient, org.mule.devkit.model.code.Variable muleContext, DefinedClass capabilitiesAdapter) {
         Map<String, org.mule.devkit.model.code.Variable> variables = new HashMap<String, org.mule.devkit.model.code.Variable>();
+        Map<String, Integer> cachePrefixes = new HashMap<String, Integer>();
+        org.mule.devkit.model.code.Method getTypeBasedResolver = generateGetTypeBasedResolver(capabilitiesAdapter, muleContext);
         for (Method executableElement : type.getMethodsAnnotatedWith(RestCall.class)) {
+            String cachePrefix = executableElement.getSimpleName().toString();
+            if (cachePrefixes.containsKey(cachePrefix)) {
+                cachePrefixes.put(cachePrefix, cachePrefixes.get(cachePrefix) + 1);
+                cachePrefix = cachePrefix + cachePrefixes.get(cachePrefix);
+            } else {
+                cachePrefixes.put(cachePrefix, 0);
+            }
+
             org.mule.devkit.model.code.Method override = capabilitiesAdapter.method(Modifier.PUBLIC, ref(executableElement.getReturnType()), executableElement.getSimpleName().toString());
             override._throws(ref(IOException.class));
             RestCall restCall = executableElement.getAnnotation(RestCall.class);
@@ -178,14 +230,21 @@ public class RestAdapterGenerator extends AbstractModuleGenerator {
                 }
                 if (payloadParameter != null) {
                     if (!restCall.contentType().equals(MimeTypes.ANY)) {
-                        TryStatement tryToTransform = override.body()._try();
-                        org.mule.devkit.model.code.Variable payloadInputDataType = tryToTransform.body().decl(ref(DataType.class), "payloadInputDataType", ref(DataTypeFactory.class).staticInvoke("createFromObject").arg(variables.get(payloadParameter.getSimpleName().toString())));
-                        org.mule.devkit.model.code.Variable payloadOutputDataType = tryToTransform.body().decl(ref(DataType.class), "payloadOutputDataType", ref(DataTypeFactory.class).staticInvoke("create").arg(ref(String.class).dotclass()).arg(restCall.contentType()));
-                        org.mule.devkit.model.code.Variable typeBasedResolver = tryToTransform.body().decl(ref(TransformerResolver.class), "typeBasedResolver", muleContext.invoke("getRegistry").invoke("lookupObject").arg(ref(TypeBasedTransformerResolver.class).dotclass()));
-                        org.mule.devkit.model.code.Variable payloadTransformer = tryToTransform.body().decl(ref(Transformer.class), "payloadTransformer", typeBasedResolver.invoke("resolve").arg(payloadInputDataType).arg(payloadOutputDataType));
-                        tryToTransform.body()._if(Op.eq(payloadTransformer, ExpressionFactory._null()))._then().assign(payloadTransformer, muleContext.invoke("getRegistry").invoke("lookupTransformer").arg(payloadInputDataType).arg(payloadOutputDataType));
+                        org.mule.devkit.model.code.Variable payload = variables.get(payloadParameter.getSimpleName().toString());
+                        FieldVariable payloadTransformers = capabilitiesAdapter.field(Modifier.PRIVATE | Modifier.FINAL, ref(ConcurrentMap.class).narrow(ref(Class.class)).narrow(ref(Transformer.class)), cachePrefix + "PayloadTransformers",
+                                ExpressionFactory._new(ref(ConcurrentHashMap.class).narrow(ref(Class.class)).narrow(ref(Transformer.class))));
 
-                        org.mule.devkit.model.code.Variable payloadRequestEntity = tryToTransform.body().decl(ref(RequestEntity.class), "payloadRequestEntity", ExpressionFactory._new(ref(StringRequestEntity.class)).arg(ExpressionFactory.cast(ref(String.class), payloadTransformer.invoke("transform").arg(variables.get(payloadParameter.getSimpleName().toString())))).arg(restCall.contentType()).arg(ExpressionFactory.lit("UTF-8")));
+                        TryStatement tryToTransform = override.body()._try();
+                        org.mule.devkit.model.code.Variable payloadClass = tryToTransform.body().decl(ref(Class.class), "payloadClass", Op.cond(Op.eq(payload, ExpressionFactory._null()), ref(Object.class).dotclass(), payload.invoke("getClass")));
+                        org.mule.devkit.model.code.Variable payloadTransformer = tryToTransform.body().decl(ref(Transformer.class), "payloadTransformer", payloadTransformers.invoke("get").arg(payloadClass));
+                        Block ifNotCached = tryToTransform.body()._if(Op.eq(payloadTransformer, ExpressionFactory._null()))._then();
+                        org.mule.devkit.model.code.Variable payloadInputDataType = ifNotCached.decl(ref(DataType.class), "payloadInputDataType", ref(DataTypeFactory.class).staticInvoke("createFromObject").arg(payload));
+                        org.mule.devkit.model.code.Variable payloadOutputDataType = ifNotCached.decl(ref(DataType.class), "payloadOutputDataType", ref(DataTypeFactory.class).staticInvoke("create").arg(ref(String.class).dotclass()).arg(restCall.contentType()));
+                        ifNotCached.assign(payloadTransformer, ExpressionFactory.invoke(getTypeBasedResolver).invoke("resolve").arg(payloadInputDataType).arg(payloadOutputDataType));
+                        ifNotCached._if(Op.eq(payloadTransformer, ExpressionFactory._null()))._then().assign(payloadTransformer, muleContext.invoke("getRegistry").invoke("lookupTransformer").arg(payloadInputDataType).arg(payloadOutputDataType));
+                        ifNotCached.add(payloadTransformers.invoke("putIfAbsent").arg(payloadClass).arg(payloadTransformer));
+
+                        org.mule.devkit.model.code.Variable payloadRequestEntity = tryToTransform.body().decl(ref(RequestEntity.class), "payloadRequestEntity", ExpressionFactory._new(ref(StringRequestEntity.class)).arg(ExpressionFactory.cast(ref(String.class), payloadTransformer.invoke("transform").arg(payload))).arg(restCall.contentType()).arg(ExpressionFactory.lit("UTF-8")));
                         tryToTransform.body().add(ExpressionFactory.cast(ref(PostMethod.class), method).invoke("setRequestEntity").arg(payloadRequestEntity));
 
                         CatchBlock catchResolverException = tryToTransform._catch(ref(ResolverException.class));
@@ -209,12 +268,75 @@ public class RestAdapterGenerator extends AbstractModuleGenerator {
                 }
             }
 
-            org.mule.devkit.model.code.Variable statusCode = override.body().decl(ctx().getCodeModel().INT, "statusCode", httpClient.invoke("executeMethod").arg(method));
+            // the connection goes back to the pool once the response has been read, or once the caller closes the
+            // stream when the response is handed out as one
+            org.mule.devkit.model.code.Variable releaseConnection = null;
+            if (isResponseStreamed(executableElement)) {
+                releaseConnection = override.body().decl(ctx().getCodeModel().BOOLEAN, "releaseConnection", ExpressionFactory.TRUE);
+            }
+            TryStatement tryToExecute = override.body()._try();
+            org.mule.devkit.model.code.Variable statusCode = tryToExecute.body().decl(ctx().getCodeModel().INT, "statusCode", httpClient.invoke("executeMethod").arg(method));
+
+            generateParseResponseCode(type, executableElement, tryToExecute.body(), method, statusCode, releaseConnection, muleContext, capabilitiesAdapter, getTypeBasedResolver, cachePrefix);
+
+            tryToExecute.body()._return(ExpressionFactory._null());
+            if (releaseConnection != null) {
+                tryToExecute._finally()._if(releaseConnection)._then().add(method.invoke("releaseConnection"));
+            } else {
+                tryToExecute._finally().add(method.invoke("releaseConnection"));
+            }
+        }
+    }
 
-            generateParseResponseCode(type, executableElement, override, method, statusCode, muleContext);
+    /**
+     * Whether the response body may outlive the call, either because it is returned as a stream or because it is
+     * handed to a transformer consuming streams.
+     */
+    private boolean isResponseStreamed(Method executableElement) {
+        String returnType = executableElement.getReturnType().toString();
+        if (returnType.equals(InputStream.class.getName())) {
+            return true;
+        }
+        return !returnType.equals("byte[]") && !executableElement.getAnnotation(RestCall.class).unescapeHtml();
+    }
 
-            override.body()._return(ExpressionFactory._null());
+    /**
+     * Generates the stream handed out in place of the response body, releasing the connection when closed.
+     */
+    private DefinedClass generateConnectionReleasingInputStreamClass(DefinedClass restClientAdapterClass) {
+        DefinedClass streamClass;
+        try {
+            streamClass = restClientAdapterClass._class(Modifier.PRIVATE | Modifier.STATIC, CONNECTION_RELEASING_INPUT_STREAM_CLASS_NAME);
+        } catch (ClassAlreadyExistsException e) {
+            return e.getExistingClass();
         }
+        streamClass._extends(ref(FilterInputStream.class));
+        FieldVariable streamMethod = streamClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(org.apache.commons.httpclient.HttpMethod.class), "method");
+
+        org.mule.devkit.model.code.Method constructor = streamClass.constructor(Modifier.PUBLIC);
+        org.mule.devkit.model.code.Variable in = constructor.param(ref(InputStream.class), "in");
+        org.mule.devkit.model.code.Variable method = constructor.param(ref(org.apache.commons.httpclient.HttpMethod.class), "method");
+        constructor.body().invoke("super").arg(in);
+        constructor.body().assign(ExpressionFactory._this().ref(streamMethod), method);
+
+        org.mule.devkit.model.code.Method close = streamClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "close");
+        close.annotate(ref(Override.class));
+        close._throws(ref(IOException.class));
+        TryStatement tryToClose = close.body()._try();
+        tryToClose.body().add(ExpressionFactory._super().invoke("close"));
+        tryToClose._finally().add(streamMethod.invoke("releaseConnection"));
+
+        return streamClass;
+    }
+
+    /**
+     * Wraps the response body so the connection is released once it is closed.
+     */
+    private Expression generateReleaseOnClose(Block block, org.mule.devkit.model.code.Variable method, DefinedClass restClientAdapterClass) {
+        org.mule.devkit.model.code.Variable responseBody = block.decl(ref(InputStream.class), "responseBody", method.invoke("getResponseBodyAsStream"));
+        Block ifResponseBody = block._if(Op.ne(responseBody, ExpressionFactory._null()))._then();
+        ifResponseBody.assign(responseBody, ExpressionFactory._new(generateConnectionReleasingInputStreamClass(restClientAdapterClass)).arg(responseBody).arg(method));
+        return responseBody;
     }
 
     private void generateParametersCode(Type type, Map<String, org.mule.devkit.model.code.Variable> variables, Method executableElement, org.mule.devkit.model.code.Method override, RestCall restCall, org.mule.devkit.model.code.Variable method, org.mule.devkit.model.code.Variable queryString) {
@@ -299,55 +421,78 @@ public class RestAdapterGenerator extends AbstractModuleGenerator {
         }
     }
 
-    private void generateParseResponseCode(Type type, Method executableElement, org.mule.devkit.model.code.Method override, org.mule.devkit.model.code.Variable method, org.mule.devkit.model.code.Variable statusCode, org.mule.devkit.model.code.Variable muleContext) {
-        Conditional ifMethodExecuted = override.body()._if(Op.cand(Op.ne(method, ExpressionFactory._null()), method.invoke("hasBeenUsed")));
-        org.mule.devkit.model.code.Variable bufferedReader = ifMethodExecuted._then().decl(ref(BufferedReader.class), "bufferedReader", ExpressionFactory._null());
-        org.mule.devkit.model.code.Variable stringWriter = ifMethodExecuted._then().decl(ref(StringWriter.class), "stringWriter", ExpressionFactory._new(ref(StringWriter.class)));
-        org.mule.devkit.model.code.Variable bufferedWriter = ifMethodExecuted._then().decl(ref(BufferedWriter.class), "bufferedWriter", ExpressionFactory._new(ref(BufferedWriter.class)).arg(stringWriter).arg(ExpressionFactory.lit(8192)));
+    private void generateParseResponseCode(Type type, Method executableElement, Block block, org.mule.devkit.model.code.Variable method, org.mule.devkit.model.code.Variable statusCode, org.mule.devkit.model.code.Variable releaseConnection, org.mule.devkit.model.code.Variable muleContext, DefinedClass restClientAdapterClass, org.mule.devkit.model.code.Method getTypeBasedResolver, String cachePrefix) {
+        RestCall restCall = executableElement.getAnnotation(RestCall.class);
+        Conditional ifMethodExecuted = block._if(Op.cand(Op.ne(method, ExpressionFactory._null()), method.invoke("hasBeenUsed")));
 
-        TryStatement readStream = ifMethodExecuted._then()._try();
-        org.mule.devkit.model.code.Variable line = readStream.body().decl(ref(String.class), "line", ExpressionFactory.lit(""));
-        readStream.body().assign(bufferedReader, ExpressionFactory._new(ref(BufferedReader.class)).arg(ExpressionFactory._new(ref(InputStreamReader.class)).arg(method.invoke("getResponseBodyAsStream"))));
-        WhileLoop whileLoop = readStream.body()._while(Op.ne(ExpressionFactory.assign(line, bufferedReader.invoke("readLine")), ExpressionFactory._null()));
-        whileLoop.body().add(bufferedWriter.invoke("write").arg(line));
-        whileLoop.body().add(bufferedWriter.invoke("newLine"));
+        generateExeptionOnBlock(executableElement, statusCode, ifMethodExecuted, generateReadResponseAsString(restCall, method));
 
-        readStream._finally().add(bufferedWriter.invoke("flush"));
-        readStream._finally().add(bufferedWriter.invoke("close"));
-        readStream._finally()._if(Op.ne(bufferedReader, ExpressionFactory._null()))._then().add(bufferedReader.invoke("close"));
-
-        org.mule.devkit.model.code.Variable output = ifMethodExecuted._then().decl(ref(String.class), "output", ref(StringEscapeUtils.class).staticInvoke("unescapeHtml").arg(stringWriter.invoke("toString")));
+        String returnType = executableElement.getReturnType().toString();
+        if (returnType.equals(InputStream.class.getName())) {
+            Expression responseBody = generateReleaseOnClose(ifMethodExecuted._then(), method, restClientAdapterClass);
+            ifMethodExecuted._then().assign(releaseConnection, Op.eq(responseBody, ExpressionFactory._null()));
+            ifMethodExecuted._then()._return(responseBody);
+        } else if (returnType.equals("byte[]")) {
+            ifMethodExecuted._then()._return(ref(IOUtils.class).staticInvoke("toByteArray").arg(method.invoke("getResponseBodyAsStream")));
+        } else {
+            generateTransformAndReturn(type, executableElement, muleContext, ifMethodExecuted, restCall, method, releaseConnection, restClientAdapterClass, getTypeBasedResolver, cachePrefix);
+        }
+    }
 
-        generateExeptionOnBlock(executableElement, statusCode, ifMethodExecuted, output);
+    private Expression generateReadResponseAsString(RestCall restCall, org.mule.devkit.model.code.Variable method) {
+        Expression output = ref(IOUtils.class).staticInvoke("toString").arg(method.invoke("getResponseBodyAsStream")).arg(method.invoke("getResponseCharSet"));
+        if (restCall.unescapeHtml()) {
+            output = ref(StringEscapeUtils.class).staticInvoke("unescapeHtml").arg(output);
+        }
 
-        generateTransformAndReturn(type, executableElement, muleContext, ifMethodExecuted, output);
+        return output;
     }
 
-    private void generateTransformAndReturn(Type moduleClass, Method executableElement, org.mule.devkit.model.code.Variable muleContext, Conditional block, org.mule.devkit.model.code.Variable output) {
-        Conditional shouldTransform = block._then()._if(Op.cand(
-                Op.ne(output, ExpressionFactory._null()),
+    private void generateTransformAndReturn(Type moduleClass, Method executableElement, org.mule.devkit.model.code.Variable muleContext, Conditional block, RestCall restCall, org.mule.devkit.model.code.Variable method, org.mule.devkit.model.code.Variable releaseConnection, DefinedClass restClientAdapterClass, org.mule.devkit.model.code.Method getTypeBasedResolver, String cachePrefix) {
+        FieldVariable cachedOutputDataType = restClientAdapterClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ref(DataType.class), cachePrefix + "OutputDataType");
+        FieldVariable cachedOutputTransformer = restClientAdapterClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ref(Transformer.class), cachePrefix + "OutputTransformer");
+
+        Conditional shouldTransform = block._then()._if(
                 Op.not(ref(executableElement.getReturnType()).boxify().dotclass().invoke("isAssignableFrom").arg(ref(String.class).dotclass()))
-        ));
+        );
 
-        org.mule.devkit.model.code.Variable outputDataType = shouldTransform._then().decl(ref(DataType.class), "outputDataType",
-                ExpressionFactory._null());
+        org.mule.devkit.model.code.Variable outputDataType = shouldTransform._then().decl(ref(DataType.class), "outputDataType", cachedOutputDataType);
 
         TryStatement tryToTransform = shouldTransform._then()._try();
 
+        Block ifNoOutputDataType = tryToTransform.body()._if(Op.eq(outputDataType, ExpressionFactory._null()))._then();
         Invocation getMethod = ref(moduleClass.asType()).boxify().dotclass().invoke("getMethod").arg(executableElement.getSimpleName().toString());
         for (Parameter parameter : executableElement.getParameters()) {
             getMethod.arg(ref(parameter.asType()).boxify().dotclass());
         }
+        ifNoOutputDataType.assign(outputDataType, ref(DataTypeFactory.class).staticInvoke("createFromReturnType").arg(getMethod));
+        ifNoOutputDataType.assign(cachedOutputDataType, outputDataType);
+
+        if (!restCall.unescapeHtml()) {
+            FieldVariable cachedStreamTransformer = restClientAdapterClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ref(Transformer.class), cachePrefix + "StreamTransformer");
+            FieldVariable streamTransformerResolved = restClientAdapterClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ctx().getCodeModel().BOOLEAN, cachePrefix + "StreamTransformerResolved");
+
+            // hand the response stream straight to the transformer when one can consume it
+            Block ifNotResolved = tryToTransform.body()._if(Op.not(streamTransformerResolved))._then();
+            ifNotResolved.assign(cachedStreamTransformer, ExpressionFactory.invoke(getTypeBasedResolver).invoke("resolve").arg(ref(DataTypeFactory.class).staticInvoke("create").arg(ref(InputStream.class).dotclass())).arg(outputDataType));
+            ifNotResolved.assign(streamTransformerResolved, ExpressionFactory.TRUE);
+
+            // the transformer may hand back something still reading from the stream, in which case closing it is what
+            // releases the connection
+            org.mule.devkit.model.code.Variable streamTransformer = tryToTransform.body().decl(ref(Transformer.class), "streamTransformer", cachedStreamTransformer);
+            Block ifStreamTransformer = tryToTransform.body()._if(Op.ne(streamTransformer, ExpressionFactory._null()))._then();
+            Expression responseBody = generateReleaseOnClose(ifStreamTransformer, method, restClientAdapterClass);
+            org.mule.devkit.model.code.Variable transformed = ifStreamTransformer.decl(ref(Object.class), "transformed", streamTransformer.invoke("transform").arg(responseBody));
+            ifStreamTransformer.assign(releaseConnection, Op.not(Op._instanceof(transformed, ref(Closeable.class))));
+            ifStreamTransformer._return(ExpressionFactory.cast(ref(executableElement.getReturnType()), transformed));
+        }
 
-        org.mule.devkit.model.code.Variable method = tryToTransform.body().decl(ref(java.lang.reflect.Method.class), "reflectedMethod", getMethod);
-
-        tryToTransform.body().assign(outputDataType,
-                ref(DataTypeFactory.class).staticInvoke("createFromReturnType").arg(method));
-
-        org.mule.devkit.model.code.Variable typeBasedResolver = tryToTransform.body().decl(ref(TransformerResolver.class), "typeBasedResolver", muleContext.invoke("getRegistry").invoke("lookupObject").arg(ref(TypeBasedTransformerResolver.class).dotclass()));
-
-        org.mule.devkit.model.code.Variable transformer = tryToTransform.body().decl(ref(Transformer.class), "payloadTransformer", typeBasedResolver.invoke("resolve").arg(ref(DataType.class).staticRef("STRING_DATA_TYPE")).arg(outputDataType));
-        tryToTransform.body()._if(Op.eq(transformer, ExpressionFactory._null()))._then().assign(transformer, muleContext.invoke("getRegistry").invoke("lookupTransformer").arg(ref(DataType.class).staticRef("STRING_DATA_TYPE")).arg(outputDataType));
+        org.mule.devkit.model.code.Variable output = tryToTransform.body().decl(ref(String.class), "output", generateReadResponseAsString(restCall, method));
+        org.mule.devkit.model.code.Variable transformer = tryToTransform.body().decl(ref(Transformer.class), "payloadTransformer", cachedOutputTransformer);
+        Block ifNoTransformer = tryToTransform.body()._if(Op.eq(transformer, ExpressionFactory._null()))._then();
+        ifNoTransformer.assign(transformer, ExpressionFactory.invoke(getTypeBasedResolver).invoke("resolve").arg(ref(DataType.class).staticRef("STRING_DATA_TYPE")).arg(outputDataType));
+        ifNoTransformer._if(Op.eq(transformer, ExpressionFactory._null()))._then().assign(transformer, muleContext.invoke("getRegistry").invoke("lookupTransformer").arg(ref(DataType.class).staticRef("STRING_DATA_TYPE")).arg(outputDataType));
+        ifNoTransformer.assign(cachedOutputTransformer, transformer);
 
         tryToTransform.body()._return(ExpressionFactory.cast(ref(executableElement.getReturnType()), transformer.invoke("transform").arg(output)));
 
@@ -364,17 +509,31 @@ public class RestAdapterGenerator extends AbstractModuleGenerator {
         CatchBlock catchTransformerException = tryToTransform._catch(ref(TransformerException.class));
         org.mule.devkit.model.code.Variable transformerException = catchTransformerException.param("te");
 
-        catchTransformerException.body()._throw(ExpressionFactory._new(ref(RuntimeException.class)).arg(Op.plus(ExpressionFactory.lit("Unable to transform output from String to "), outputDataType.invoke("toString"))).arg(transformerException));
+        catchTransformerException.body()._throw(ExpressionFactory._new(ref(RuntimeException.class)).arg(Op.plus(ExpressionFactory.lit("Unable to transform output to "), outputDataType.invoke("toString"))).arg(transformerException));
 
         CatchBlock catchNoSuchMethodException = tryToTransform._catch(ref(NoSuchMethodException.class));
         org.mule.devkit.model.code.Variable noSuchMethodException = catchNoSuchMethodException.param("nsme");
 
         catchNoSuchMethodException.body()._throw(ExpressionFactory._new(ref(RuntimeException.class)).arg(ExpressionFactory.lit("Unable to find method named " + executableElement.getSimpleName().toString())).arg(noSuchMethodException));
 
-        shouldTransform._else()._return(ExpressionFactory.cast(ref(executableElement.getReturnType()), ExpressionFactory.cast(ref(Object.class), output)));
+        shouldTransform._else()._return(ExpressionFactory.cast(ref(executableElement.getReturnType()), ExpressionFactory.cast(ref(Object.class), generateReadResponseAsString(restCall, method))));
+    }
+
+    private org.mule.devkit.model.code.Method generateGetTypeBasedResolver(DefinedClass restClientAdapterClass, org.mule.devkit.model.code.Variable muleContext) {
+        FieldVariable typeBasedResolver = restClientAdapterClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ref(TransformerResolver.class), "typeBasedTransformerResolver");
+
+        org.mule.devkit.model.code.Method getTypeBasedResolver = restClientAdapterClass.method(Modifier.PRIVATE, ref(TransformerResolver.class), "getTypeBasedTransformerResolver");
+        getTypeBasedResolver._throws(ref(RegistrationException.class));
+        org.mule.devkit.model.code.Variable resolver = getTypeBasedResolver.body().decl(ref(TransformerResolver.class), "resolver", typeBasedResolver);
+        Block ifNotResolved = getTypeBasedResolver.body()._if(Op.eq(resolver, ExpressionFactory._null()))._then();
+        ifNotResolved.assign(resolver, muleContext.invoke("getRegistry").invoke("lookupObject").arg(ref(TypeBasedTransformerResolver.class).dotclass()));
+        ifNotResolved.assign(typeBasedResolver, resolver);
+        getTypeBasedResolver.body()._return(resolver);
+
+        return getTypeBasedResolver;
     }
 
-    private void generateExeptionOnBlock(Method executableElement, org.mule.devkit.model.code.Variable statusCode, Conditional block, org.mule.devkit.model.code.Variable message) {
+    private void generateExeptionOnBlock(Method executableElement, org.mule.devkit.model.code.Variable statusCode, Conditional block, Expression message) {
         RestExceptionOn restExceptionOn = executableElement.getAnnotation(RestExceptionOn.class);
         final String restExceptionOnAnnotationName = RestExceptionOn.class.getName();
         DeclaredType exception = null;
@@ -17,7 +17,6 @@
 
 package org.mule.devkit.generation.callback;
 
-import org.mule.MessageExchangePattern;
 import org.mule.api.DefaultMuleException;
 import org.mule.api.MuleContext;
 import org.mule.api.MuleEvent;
@@ -25,9 +24,13 @@ import org.mule.api.MuleException;
 import org.mule.api.annotations.oauth.OAuth;
 import org.mule.api.annotations.oauth.OAuth2;
 import org.mule.api.callback.HttpCallback;
+import org.mule.api.construct.FlowConstructAware;
 import org.mule.api.construct.FlowConstructInvalidException;
-import org.mule.api.endpoint.EndpointFactory;
-import org.mule.api.endpoint.InboundEndpoint;
+import org.mule.api.context.MuleContextAware;
+import org.mule.api.lifecycle.Disposable;
+import org.mule.api.lifecycle.Initialisable;
+import org.mule.api.lifecycle.Startable;
+import org.mule.api.lifecycle.Stoppable;
 import org.mule.api.processor.MessageProcessor;
 import org.mule.api.registry.MuleRegistry;
 import org.mule.api.transport.Connector;
@@ -50,12 +53,9 @@ import org.mule.devkit.model.code.Package;
 import org.mule.devkit.model.code.TryStatement;
 import org.mule.devkit.model.code.Variable;
 import org.mule.devkit.model.code.builders.FieldBuilder;
-import org.mule.endpoint.EndpointURIEndpointBuilder;
 import org.mule.processor.strategy.AsynchronousProcessingStrategy;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.UUID;
 
 public class DefaultHttpCallbackGenerator extends AbstractModuleGenerator {
@@ -66,11 +66,16 @@ public class DefaultHttpCallbackGenerator extends AbstractModuleGenerator {
     public static final String DOMAIN_FIELD_NAME = "domain";
     public static final String ASYNC_FIELD_NAME = "async";
     public static final String CONNECTOR_FIELD_NAME = "connector";
-    private static final String INBOUND_ENDPOINT_EXCHANGE_PATTERN = "REQUEST_RESPONSE";
+    public static final String TIME_TO_LIVE_FIELD_NAME = "timeToLive";
+    public static final String WORKER_POOL_FIELD_NAME = "workerPool";
     private Method buildUrlMethod;
     private FieldVariable muleContextField;
-    private FieldVariable flowConstructVariable;
-    private Method createHttpInboundEndpointMethod;
+    private DefinedClass registryClass;
+    private FieldVariable registryField;
+    private FieldVariable registeredMessageProcessorField;
+    private FieldVariable pathField;
+    private FieldVariable timeToLiveField;
+    private FieldVariable workerPoolField;
     private FieldVariable urlField;
     private Method createConnectorMethod;
     private Method wrapMessageProcessorInAsyncChain;
@@ -98,6 +103,8 @@ public class DefaultHttpCallbackGenerator extends AbstractModuleGenerator {
 
         ctx().note("Generating HTTP callback implementation as " + callbackClass.fullName());
 
+        registryClass = ctx().getCodeModel()._class(DefinedClassRoles.HTTP_CALLBACK_REGISTRY);
+
         generateFields(callbackClass);
         generateConstructorArgSimpleFlowConstruct(callbackClass);
         generateConstructorArgMessageProcessor(callbackClass);
@@ -109,7 +116,6 @@ public class DefaultHttpCallbackGenerator extends AbstractModuleGenerator {
         createMessageProcessorInnerClass(callbackClass);
         generateWrapMessageProcessorInAsyncChain(callbackClass);
         generateCreateConnectorMethod(callbackClass);
-        generateCreateHttpInboundEndpointMethod(callbackClass);
         generateStartMethod(callbackClass);
         generateStopMethod(callbackClass);
     }
@@ -157,11 +163,37 @@ public class DefaultHttpCallbackGenerator extends AbstractModuleGenerator {
                 name("callbackFlow").
                 javadoc("The flow to be called upon the http callback").
                 build();
-        flowConstructVariable = new FieldBuilder(callbackClass).
+        registryField = new FieldBuilder(callbackClass).
                 privateVisibility().
-                type(Flow.class).
-                name("flowConstruct").
-                javadoc("The dynamically created flow").
+                type(registryClass).
+                name("registry").
+                javadoc("The shared registry this callback is registered with while started").
+                build();
+        registeredMessageProcessorField = new FieldBuilder(callbackClass).
+                privateVisibility().
+                type(MessageProcessor.class).
+                name("registeredMessageProcessor").
+                javadoc("The message processor registered for this callback, possibly wrapped in an async chain").
+                build();
+        pathField = new FieldBuilder(callbackClass).
+                privateVisibility().
+                type(String.class).
+                name("path").
+                javadoc("The path this callback is registered under").
+                build();
+        timeToLiveField = new FieldBuilder(callbackClass).
+                privateVisibility().
+                type(Long.class).
+                name(TIME_TO_LIVE_FIELD_NAME).
+                javadoc("Milliseconds after which the callback stops being routed to even if not stopped, null to never expire").
+                setter().
+                build();
+        workerPoolField = new FieldBuilder(callbackClass).
+                privateVisibility().
+                type(ctx().getCodeModel()._class(DefinedClassRoles.HTTP_CALLBACK_WORKER_POOL)).
+                name(WORKER_POOL_FIELD_NAME).
+                javadoc("Worker pool shared by the asynchronous callbacks of the same config").
+                setter().
                 build();
         callbackMessageProcessorField = new FieldBuilder(callbackClass).
                 type(MessageProcessor.class).
@@ -307,9 +339,7 @@ public class DefaultHttpCallbackGenerator extends AbstractModuleGenerator {
         body.invoke(urlBuilder, "append").arg(":");
         body.invoke(urlBuilder, "append").arg(remotePortField);
         body.invoke(urlBuilder, "append").arg("/");
-        Conditional ifCallbackPathNotNull = body._if(Op.ne(callbackPathField, ExpressionFactory._null()));
-        ifCallbackPathNotNull._then().invoke(urlBuilder, "append").arg(callbackPathField);
-        ifCallbackPathNotNull._else().invoke(urlBuilder, "append").arg(ref(UUID.class).staticInvoke("randomUUID"));
+        body.invoke(urlBuilder, "append").arg(pathField);
         body._return(urlBuilder.invoke("toString"));
     }
 
@@ -318,6 +348,7 @@ public class DefaultHttpCallbackGenerator extends AbstractModuleGenerator {
         wrapMessageProcessorInAsyncChain = callbackClass.method(Modifier.PRIVATE, ref(MessageProcessor.class), "wrapMessageProcessorInAsyncChain")._throws(ref(MuleException.class));
         Variable messageProcessorParam = wrapMessageProcessorInAsyncChain.param(ref(MessageProcessor.class), "messageProcessor");
         Block body = wrapMessageProcessorInAsyncChain.body();
+        body._if(Op.ne(workerPoolField, ExpressionFactory._null()))._then()._return(workerPoolField.invoke(HttpCallbackWorkerPoolGenerator.WRAP_METHOD_NAME).arg(messageProcessorParam));
 
         Variable asyncMessageProcessorsFactoryBean = body.decl(ref(AsyncMessageProcessorsFactoryBean.class), "asyncMessageProcessorsFactoryBean", ExpressionFactory._new(ref(AsyncMessageProcessorsFactoryBean.class)));
         body.invoke(asyncMessageProcessorsFactoryBean, "setMuleContext").arg(muleContextField);
@@ -343,25 +374,15 @@ public class DefaultHttpCallbackGenerator extends AbstractModuleGenerator {
         conditional._else().block()._throw(ExpressionFactory._new(ref(DefaultMuleException.class)).arg("Could not find connector with name 'connector.http.mule.default'"));
     }
 
-    private void generateCreateHttpInboundEndpointMethod(DefinedClass callbackClass) {
-        createHttpInboundEndpointMethod = callbackClass.method(Modifier.PRIVATE, ref(InboundEndpoint.class), "createHttpInboundEndpoint")._throws(ref(MuleException.class));
-        Block body = createHttpInboundEndpointMethod.body();
-        Variable inBuilderVariable = body.decl(ref(EndpointURIEndpointBuilder.class), "inBuilder", ExpressionFactory._new(ref(EndpointURIEndpointBuilder.class)).arg(localUrlField).arg(muleContextField));
-        body.invoke(inBuilderVariable, "setConnector").arg(ExpressionFactory.invoke(createConnectorMethod));
-        body.invoke(inBuilderVariable, "setExchangePattern").arg(ref(MessageExchangePattern.class).staticRef(INBOUND_ENDPOINT_EXCHANGE_PATTERN));
-        Variable endpointFactoryVariable = body.decl(ref(EndpointFactory.class), "endpointFactory", ExpressionFactory.invoke(muleContextField, "getEndpointFactory"));
-        body._return(ExpressionFactory.invoke(endpointFactoryVariable, "getInboundEndpoint").arg(inBuilderVariable));
-    }
-
     private void generateStartMethod(DefinedClass callbackClass) {
         Method startMethod = callbackClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "start")._throws(ref(MuleException.class));
         Block body = startMethod.body();
+        Conditional ifCallbackPathNotNull = body._if(Op.ne(callbackPathField, ExpressionFactory._null()));
+        ifCallbackPathNotNull._then().assign(ExpressionFactory._this().ref(pathField), callbackPathField);
+        ifCallbackPathNotNull._else().assign(ExpressionFactory._this().ref(pathField), ref(UUID.class).staticInvoke("randomUUID").invoke("toString"));
         body.assign(ExpressionFactory._this().ref(urlField), ExpressionFactory.invoke(buildUrlMethod));
         body.assign(ExpressionFactory._this().ref(localUrlField), urlField.invoke("replaceFirst").arg(domainField).arg("localhost"));
         body.assign(ExpressionFactory._this().ref(localUrlField), localUrlField.invoke("replaceFirst").arg(ref(String.class).staticInvoke("valueOf").arg(remotePortField)).arg(ref(String.class).staticInvoke("valueOf").arg(localPortField)));
-        Variable dynamicFlowName = body.decl(ref(String.class), "dynamicFlowName", ref(String.class).staticInvoke("format").arg("DynamicFlow-%s").arg(localUrlField));
-        body.assign(flowConstructVariable, ExpressionFactory._new(ref(Flow.class)).arg(dynamicFlowName).arg(muleContextField));
-        body.invoke(flowConstructVariable, "setMessageSource").arg(ExpressionFactory.invoke(createHttpInboundEndpointMethod));
 
         Variable messageProcessor = body.decl(ref(MessageProcessor.class), "messageProcessor");
         Conditional ifCallbackFlowNotNull = body._if(Op.ne(callbackFlowField, ExpressionFactory._null()));
@@ -370,23 +391,38 @@ public class DefaultHttpCallbackGenerator extends AbstractModuleGenerator {
 
         body._if(async)._then().assign(messageProcessor, ExpressionFactory.invoke(wrapMessageProcessorInAsyncChain).arg(messageProcessor));
 
-        Variable mps = body.decl(ref(List.class).narrow(ref(MessageProcessor.class)), "messageProcessors", ExpressionFactory._new(ref(ArrayList.class).narrow(MessageProcessor.class)));
-        body.invoke(mps, "add").arg(messageProcessor);
-
-        body.invoke(flowConstructVariable, "setMessageProcessors").arg(mps);
-
-        body.invoke(flowConstructVariable, "initialise");
-        body.invoke(flowConstructVariable, "start");
-        body.invoke(loggerField, "debug").arg(ref(String.class).staticInvoke("format").arg("Created flow with http inbound endpoint listening at: %s").arg(urlField));
+        Variable listenerUrl = body.decl(ref(String.class), "listenerUrl", localUrlField.invoke("substring").arg(ExpressionFactory.lit(0)).arg(
+                Op.minus(Op.minus(localUrlField.invoke("length"), pathField.invoke("length")), ExpressionFactory.lit(1))));
+        body.assign(registryField, registryClass.staticInvoke(HttpCallbackRegistryGenerator.GET_INSTANCE_METHOD_NAME).
+                arg(muleContextField).arg(ExpressionFactory.invoke(createConnectorMethod)).arg(listenerUrl));
+
+        body._if(Op._instanceof(messageProcessor, ref(MuleContextAware.class)))._then().add(
+                ExpressionFactory.cast(ref(MuleContextAware.class), messageProcessor).invoke("setMuleContext").arg(muleContextField));
+        body._if(Op._instanceof(messageProcessor, ref(FlowConstructAware.class)))._then().add(
+                ExpressionFactory.cast(ref(FlowConstructAware.class), messageProcessor).invoke("setFlowConstruct").arg(registryField.invoke(HttpCallbackRegistryGenerator.GET_FLOW_CONSTRUCT_METHOD_NAME)));
+        body._if(Op._instanceof(messageProcessor, ref(Initialisable.class)))._then().add(
+                ExpressionFactory.cast(ref(Initialisable.class), messageProcessor).invoke("initialise"));
+        body._if(Op._instanceof(messageProcessor, ref(Startable.class)))._then().add(
+                ExpressionFactory.cast(ref(Startable.class), messageProcessor).invoke("start"));
+        body.assign(registeredMessageProcessorField, messageProcessor);
+
+        body.invoke(registryField, HttpCallbackRegistryGenerator.REGISTER_METHOD_NAME).arg(ExpressionFactory.lit("/").plus(pathField)).arg(messageProcessor).arg(
+                Op.cond(Op.ne(timeToLiveField, ExpressionFactory._null()), timeToLiveField, ExpressionFactory.lit(0L)));
+        body.invoke(loggerField, "debug").arg(ref(String.class).staticInvoke("format").arg("Registered http callback listening at: %s").arg(urlField));
     }
 
     private void generateStopMethod(DefinedClass callbackClass) {
         Method stopMethod = callbackClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "stop")._throws(ref(MuleException.class));
         Block body = stopMethod.body();
-        Block block = body._if(Op.ne(flowConstructVariable, ExpressionFactory._null()))._then();
-        block.invoke(flowConstructVariable, "stop");
-        block.invoke(flowConstructVariable, "dispose");
-        block.invoke(loggerField, "debug").arg("Http callback flow stopped");
+        Block block = body._if(Op.ne(registryField, ExpressionFactory._null()))._then();
+        block.invoke(registryField, HttpCallbackRegistryGenerator.UNREGISTER_METHOD_NAME).arg(ExpressionFactory.lit("/").plus(pathField));
+        block.assign(registryField, ExpressionFactory._null());
+        block._if(Op._instanceof(registeredMessageProcessorField, ref(Stoppable.class)))._then().add(
+                ExpressionFactory.cast(ref(Stoppable.class), registeredMessageProcessorField).invoke("stop"));
+        block._if(Op._instanceof(registeredMessageProcessorField, ref(Disposable.class)))._then().add(
+                ExpressionFactory.cast(ref(Disposable.class), registeredMessageProcessorField).invoke("dispose"));
+        block.assign(registeredMessageProcessorField, ExpressionFactory._null());
+        block.invoke(loggerField, "debug").arg("Http callback unregistered");
     }
 
     private void createMessageProcessorInnerClass(DefinedClass callbackClass) {
@@ -0,0 +1,295 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.generation.callback;
+
+import org.mule.MessageExchangePattern;
+import org.mule.api.MuleContext;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.annotations.oauth.OAuth;
+import org.mule.api.annotations.oauth.OAuth2;
+import org.mule.api.callback.HttpCallback;
+import org.mule.api.construct.FlowConstruct;
+import org.mule.api.context.notification.MuleContextNotificationListener;
+import org.mule.api.endpoint.InboundEndpoint;
+import org.mule.api.processor.MessageProcessor;
+import org.mule.api.transport.Connector;
+import org.mule.construct.Flow;
+import org.mule.context.notification.MuleContextNotification;
+import org.mule.devkit.generation.AbstractModuleGenerator;
+import org.mule.devkit.generation.NamingConstants;
+import org.mule.devkit.model.Type;
+import org.mule.devkit.model.code.Block;
+import org.mule.devkit.model.code.CatchBlock;
+import org.mule.devkit.model.code.ClassAlreadyExistsException;
+import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.DefinedClassRoles;
+import org.mule.devkit.model.code.ExpressionFactory;
+import org.mule.devkit.model.code.FieldVariable;
+import org.mule.devkit.model.code.Method;
+import org.mule.devkit.model.code.Modifier;
+import org.mule.devkit.model.code.Op;
+import org.mule.devkit.model.code.Package;
+import org.mule.devkit.model.code.TryStatement;
+import org.mule.devkit.model.code.Variable;
+import org.mule.devkit.model.code.WhileLoop;
+import org.mule.endpoint.EndpointURIEndpointBuilder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Generates the registry multiplexing every {@link HttpCallback} listening on the same local address onto a single
+ * long-lived flow and inbound endpoint. Callbacks register under their path and requests are routed to them through a
+ * concurrent map, so starting or stopping a callback no longer creates or disposes a flow. Registries are kept per
+ * connector and local address, and the shared flow is torn down when the Mule context stops.
+ */
+public class HttpCallbackRegistryGenerator extends AbstractModuleGenerator {
+
+    public static final String REGISTRATION_CLASS_NAME = "Registration";
+    public static final String GET_INSTANCE_METHOD_NAME = "getInstance";
+    public static final String REGISTER_METHOD_NAME = "register";
+    public static final String UNREGISTER_METHOD_NAME = "unregister";
+    public static final String GET_FLOW_CONSTRUCT_METHOD_NAME = "getFlowConstruct";
+    private static final String REQUEST_PATH_PROPERTY = "http.request.path";
+    private static final String STATUS_PROPERTY = "http.status";
+    private static final String INBOUND_ENDPOINT_EXCHANGE_PATTERN = "REQUEST_RESPONSE";
+    private static final long PURGE_INTERVAL = 60000L;
+
+    @Override
+    public boolean shouldGenerate(Type type) {
+        return type.hasAnnotation(OAuth.class) ||
+                type.hasAnnotation(OAuth2.class) ||
+                type.hasProcessorMethodWithParameter(HttpCallback.class);
+    }
+
+    @Override
+    public void generate(Type type) {
+        DefinedClass registryClass = getHttpCallbackRegistryClass(type);
+
+        ctx().note("Generating HTTP callback registry as " + registryClass.fullName());
+
+        DefinedClass registrationClass = generateRegistrationClass(registryClass);
+
+        FieldVariable logger = generateLoggerField(registryClass);
+        FieldVariable registries = registryClass.field(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL,
+                ref(ConcurrentMap.class).narrow(ref(String.class), registryClass), "REGISTRIES",
+                ExpressionFactory._new(ref(ConcurrentHashMap.class).narrow(ref(String.class), registryClass)));
+        registries.javadoc().add("Registries keyed by the connector and local address they listen on");
+        FieldVariable callbacks = registryClass.field(Modifier.PRIVATE | Modifier.FINAL,
+                ref(ConcurrentMap.class).narrow(ref(String.class), registrationClass), "callbacks",
+                ExpressionFactory._new(ref(ConcurrentHashMap.class).narrow(ref(String.class), registrationClass)));
+        callbacks.javadoc().add("Registered callbacks keyed by request path");
+        FieldVariable muleContext = registryClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(MuleContext.class), "muleContext");
+        FieldVariable connector = registryClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(Connector.class), "connector");
+        FieldVariable localUrl = registryClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(String.class), "localUrl");
+        localUrl.javadoc().add("Address the shared inbound endpoint listens on");
+        FieldVariable key = registryClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(String.class), "key");
+        key.javadoc().add("Key of this registry in the registries map");
+        FieldVariable flow = registryClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ref(Flow.class), "flow");
+        flow.javadoc().add("The shared flow, null until started");
+        FieldVariable stopListener = registryClass.field(Modifier.PRIVATE, ref(MuleContextNotificationListener.class).narrow(MuleContextNotification.class), "stopListener");
+        stopListener.javadoc().add("Stops the shared flow along with the Mule context, registered while started");
+        FieldVariable nextPurge = registryClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ctx().getCodeModel().LONG, "nextPurge");
+
+        Method constructor = registryClass.constructor(Modifier.PRIVATE);
+        constructor.body().assign(ExpressionFactory._this().ref(muleContext), constructor.param(ref(MuleContext.class), "muleContext"));
+        constructor.body().assign(ExpressionFactory._this().ref(connector), constructor.param(ref(Connector.class), "connector"));
+        constructor.body().assign(ExpressionFactory._this().ref(localUrl), constructor.param(ref(String.class), "localUrl"));
+        constructor.body().assign(ExpressionFactory._this().ref(key), constructor.param(ref(String.class), "key"));
+
+        Method start = generateStartMethod(registryClass, muleContext, connector, localUrl, flow, stopListener, logger);
+        generateStopMethod(registryClass, registries, callbacks, muleContext, key, flow, stopListener, logger);
+        generateGetInstanceMethod(registryClass, registries, start);
+
+        Method getFlowConstruct = registryClass.method(Modifier.PUBLIC, ref(FlowConstruct.class), GET_FLOW_CONSTRUCT_METHOD_NAME);
+        getFlowConstruct.javadoc().add("Flow the registered callbacks are invoked from");
+        getFlowConstruct.body()._return(flow);
+
+        Method purgeExpired = generatePurgeExpiredMethod(registryClass, registrationClass, callbacks, nextPurge);
+        generateRegisterMethod(registryClass, registrationClass, callbacks, nextPurge, purgeExpired);
+
+        Method unregister = registryClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, UNREGISTER_METHOD_NAME);
+        unregister.javadoc().add("Stop routing requests for the given path");
+        Variable path = unregister.param(ref(String.class), "path");
+        unregister.body().add(callbacks.invoke("remove").arg(path));
+
+        generateProcessMethod(registryClass, registrationClass, callbacks, logger);
+    }
+
+    private DefinedClass generateRegistrationClass(DefinedClass registryClass) {
+        DefinedClass registrationClass;
+        try {
+            registrationClass = registryClass._class(Modifier.PRIVATE | Modifier.STATIC, REGISTRATION_CLASS_NAME);
+        } catch (ClassAlreadyExistsException e) {
+            return e.getExistingClass();
+        }
+
+        FieldVariable messageProcessor = registrationClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(MessageProcessor.class), "messageProcessor");
+        FieldVariable expiresAt = registrationClass.field(Modifier.PRIVATE | Modifier.FINAL, ctx().getCodeModel().LONG, "expiresAt");
+        expiresAt.javadoc().add("Time in milliseconds at which the registration expires, zero if it never does");
+
+        Method constructor = registrationClass.constructor(Modifier.PUBLIC);
+        constructor.body().assign(ExpressionFactory._this().ref(messageProcessor), constructor.param(ref(MessageProcessor.class), "messageProcessor"));
+        constructor.body().assign(ExpressionFactory._this().ref(expiresAt), constructor.param(ctx().getCodeModel().LONG, "expiresAt"));
+
+        registrationClass.method(Modifier.PUBLIC, ref(MessageProcessor.class), "getMessageProcessor").body()._return(messageProcessor);
+
+        Method hasExpired = registrationClass.method(Modifier.PUBLIC, ctx().getCodeModel().BOOLEAN, "hasExpired");
+        Variable now = hasExpired.param(ctx().getCodeModel().LONG, "now");
+        hasExpired.body()._return(Op.cand(Op.gt(expiresAt, ExpressionFactory.lit(0L)), Op.gt(now, expiresAt)));
+
+        return registrationClass;
+    }
+
+    private void generateGetInstanceMethod(DefinedClass registryClass, FieldVariable registries, Method start) {
+        Method getInstance = registryClass.method(Modifier.PUBLIC | Modifier.STATIC, registryClass, GET_INSTANCE_METHOD_NAME);
+        getInstance._throws(ref(MuleException.class));
+        getInstance.javadoc().add("Retrieve the registry listening on the given local address through the given connector, starting it if needed.");
+        getInstance.javadoc().addReturn("A started registry");
+        Variable muleContext = getInstance.param(ref(MuleContext.class), "muleContext");
+        Variable connector = getInstance.param(ref(Connector.class), "connector");
+        Variable localUrl = getInstance.param(ref(String.class), "localUrl");
+
+        Variable key = getInstance.body().decl(ref(String.class), "key", ref(String.class).staticInvoke("format").arg("%s@%s").arg(connector.invoke("getName")).arg(localUrl));
+        Variable registry = getInstance.body().decl(registryClass, "registry", registries.invoke("get").arg(key));
+        Block ifMissing = getInstance.body()._if(isNull(registry))._then();
+        Variable newRegistry = ifMissing.decl(registryClass, "newRegistry", ExpressionFactory._new(registryClass).arg(muleContext).arg(connector).arg(localUrl).arg(key));
+        ifMissing.assign(registry, registries.invoke("putIfAbsent").arg(key).arg(newRegistry));
+        ifMissing._if(isNull(registry))._then().assign(registry, newRegistry);
+        getInstance.body().invoke(registry, start);
+        getInstance.body()._return(registry);
+    }
+
+    private Method generateStartMethod(DefinedClass registryClass, FieldVariable muleContext, FieldVariable connector, FieldVariable localUrl, FieldVariable flow, FieldVariable stopListener, FieldVariable logger) {
+        Method start = registryClass.method(Modifier.PRIVATE | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, "start");
+        start._throws(ref(MuleException.class));
+        Block body = start.body();
+        body._if(Op.ne(flow, ExpressionFactory._null()))._then()._return();
+
+        Variable sharedFlow = body.decl(ref(Flow.class), "sharedFlow", ExpressionFactory._new(ref(Flow.class)).arg(
+                ref(String.class).staticInvoke("format").arg("HttpCallbackRegistry-%s").arg(localUrl)).arg(muleContext));
+        Variable inBuilder = body.decl(ref(EndpointURIEndpointBuilder.class), "inBuilder", ExpressionFactory._new(ref(EndpointURIEndpointBuilder.class)).arg(localUrl).arg(muleContext));
+        body.invoke(inBuilder, "setConnector").arg(connector);
+        body.invoke(inBuilder, "setExchangePattern").arg(ref(MessageExchangePattern.class).staticRef(INBOUND_ENDPOINT_EXCHANGE_PATTERN));
+        Variable inboundEndpoint = body.decl(ref(InboundEndpoint.class), "inboundEndpoint", muleContext.invoke("getEndpointFactory").invoke("getInboundEndpoint").arg(inBuilder));
+        body.invoke(sharedFlow, "setMessageSource").arg(inboundEndpoint);
+
+        Variable mps = body.decl(ref(List.class).narrow(ref(MessageProcessor.class)), "messageProcessors", ExpressionFactory._new(ref(ArrayList.class).narrow(MessageProcessor.class)));
+        body.invoke(mps, "add").arg(ExpressionFactory._this());
+        body.invoke(sharedFlow, "setMessageProcessors").arg(mps);
+        body.invoke(sharedFlow, "initialise");
+        body.invoke(sharedFlow, "start");
+
+        DefinedClass stopListenerClass = ctx().getCodeModel().anonymousClass(ref(MuleContextNotificationListener.class).narrow(MuleContextNotification.class));
+        Method onNotification = stopListenerClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "onNotification");
+        Variable notification = onNotification.param(ref(MuleContextNotification.class), "notification");
+        Block ifStopping = onNotification.body()._if(Op.eq(notification.invoke("getAction"), ref(MuleContextNotification.class).staticRef("CONTEXT_STOPPING")))._then();
+        TryStatement tryStop = ifStopping._try();
+        tryStop.body().invoke("stop");
+        CatchBlock catchStop = tryStop._catch(ref(MuleException.class));
+        Variable e = catchStop.param("e");
+        catchStop.body().add(logger.invoke("warn").arg("Unable to stop shared http callback flow").arg(e));
+        body.assign(stopListener, ExpressionFactory._new(stopListenerClass));
+        body.invoke(muleContext, "registerListener").arg(stopListener);
+
+        body.assign(flow, sharedFlow);
+        body.invoke(logger, "debug").arg(ref(String.class).staticInvoke("format").arg("Created shared flow with http inbound endpoint listening at: %s").arg(localUrl));
+
+        return start;
+    }
+
+    private void generateStopMethod(DefinedClass registryClass, FieldVariable registries, FieldVariable callbacks, FieldVariable muleContext, FieldVariable key, FieldVariable flow, FieldVariable stopListener, FieldVariable logger) {
+        Method stop = registryClass.method(Modifier.PRIVATE | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, "stop");
+        stop._throws(ref(MuleException.class));
+        Block body = stop.body();
+        body.add(registries.invoke("remove").arg(key).arg(ExpressionFactory._this()));
+        body.add(callbacks.invoke("clear"));
+        Block ifListening = body._if(Op.ne(stopListener, ExpressionFactory._null()))._then();
+        ifListening.invoke(muleContext, "unregisterListener").arg(stopListener);
+        ifListening.assign(stopListener, ExpressionFactory._null());
+        Block ifStarted = body._if(Op.ne(flow, ExpressionFactory._null()))._then();
+        Variable sharedFlow = ifStarted.decl(ref(Flow.class), "sharedFlow", flow);
+        ifStarted.assign(flow, ExpressionFactory._null());
+        ifStarted.invoke(sharedFlow, "stop");
+        ifStarted.invoke(sharedFlow, "dispose");
+        ifStarted.invoke(logger, "debug").arg("Shared http callback flow stopped");
+    }
+
+    private Method generatePurgeExpiredMethod(DefinedClass registryClass, DefinedClass registrationClass, FieldVariable callbacks, FieldVariable nextPurge) {
+        Method purgeExpired = registryClass.method(Modifier.PRIVATE, ctx().getCodeModel().VOID, "purgeExpired");
+        Variable now = purgeExpired.param(ctx().getCodeModel().LONG, "now");
+        purgeExpired.body().assign(nextPurge, Op.plus(now, ExpressionFactory.lit(PURGE_INTERVAL)));
+        Variable iterator = purgeExpired.body().decl(ref(Iterator.class).narrow(registrationClass), "iterator", callbacks.invoke("values").invoke("iterator"));
+        WhileLoop whileHasNext = purgeExpired.body()._while(iterator.invoke("hasNext"));
+        whileHasNext.body()._if(iterator.invoke("next").invoke("hasExpired").arg(now))._then().invoke(iterator, "remove");
+
+        return purgeExpired;
+    }
+
+    private void generateRegisterMethod(DefinedClass registryClass, DefinedClass registrationClass, FieldVariable callbacks, FieldVariable nextPurge, Method purgeExpired) {
+        Method register = registryClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, REGISTER_METHOD_NAME);
+        register.javadoc().add("Route requests for the given path to the given message processor, replacing any previous registration. " +
+                "Expired registrations are dropped on lookup and swept periodically.");
+        Variable path = register.param(ref(String.class), "path");
+        Variable messageProcessor = register.param(ref(MessageProcessor.class), "messageProcessor");
+        Variable timeToLive = register.param(ctx().getCodeModel().LONG, "timeToLive");
+        register.javadoc().addParam(timeToLive.name() + " milliseconds after which the registration expires, zero or less to never expire");
+
+        Variable now = register.body().decl(ctx().getCodeModel().LONG, "now", ref(System.class).staticInvoke("currentTimeMillis"));
+        register.body().add(callbacks.invoke("put").arg(path).arg(ExpressionFactory._new(registrationClass).arg(messageProcessor).arg(
+                Op.cond(Op.gt(timeToLive, ExpressionFactory.lit(0L)), Op.plus(now, timeToLive), ExpressionFactory.lit(0L)))));
+        register.body()._if(Op.gte(now, nextPurge))._then().invoke(purgeExpired).arg(now);
+    }
+
+    private void generateProcessMethod(DefinedClass registryClass, DefinedClass registrationClass, FieldVariable callbacks, FieldVariable logger) {
+        registryClass._implements(MessageProcessor.class);
+        Method process = registryClass.method(Modifier.PUBLIC, ref(MuleEvent.class), "process");
+        process._throws(ref(MuleException.class));
+        Variable event = process.param(ref(MuleEvent.class), "event");
+
+        Variable path = process.body().decl(ref(String.class), "path", event.invoke("getMessage").invoke("getInboundProperty").arg(REQUEST_PATH_PROPERTY));
+        Block ifHasQuery = process.body()._if(Op.cand(Op.ne(path, ExpressionFactory._null()), Op.gte(path.invoke("indexOf").arg(ExpressionFactory.lit('?')), ExpressionFactory.lit(0))))._then();
+        ifHasQuery.assign(path, path.invoke("substring").arg(ExpressionFactory.lit(0)).arg(path.invoke("indexOf").arg(ExpressionFactory.lit('?'))));
+
+        Variable registration = process.body().decl(registrationClass, "registration",
+                Op.cond(isNull(path), ExpressionFactory._null(), callbacks.invoke("get").arg(path)));
+        Block ifExpired = process.body()._if(Op.cand(Op.ne(registration, ExpressionFactory._null()),
+                registration.invoke("hasExpired").arg(ref(System.class).staticInvoke("currentTimeMillis"))))._then();
+        ifExpired.add(callbacks.invoke("remove").arg(path).arg(registration));
+        ifExpired.assign(registration, ExpressionFactory._null());
+
+        Block ifNotFound = process.body()._if(isNull(registration))._then();
+        ifNotFound.invoke(logger, "debug").arg(ref(String.class).staticInvoke("format").arg("No http callback registered for path: %s").arg(path));
+        ifNotFound.add(event.invoke("getMessage").invoke("setOutboundProperty").arg(STATUS_PROPERTY).arg(ExpressionFactory.lit(404)));
+        ifNotFound._return(event);
+
+        process.body()._return(registration.invoke("getMessageProcessor").invoke("process").arg(event));
+    }
+
+    private DefinedClass getHttpCallbackRegistryClass(Type type) {
+        Package pkg = ctx().getCodeModel()._package(type.getPackageName() + NamingConstants.CONFIG_NAMESPACE);
+        DefinedClass clazz = pkg._class(NamingConstants.HTTP_CALLBACK_REGISTRY_CLASS_NAME);
+        clazz.role(DefinedClassRoles.HTTP_CALLBACK_REGISTRY);
+
+        return clazz;
+    }
+}
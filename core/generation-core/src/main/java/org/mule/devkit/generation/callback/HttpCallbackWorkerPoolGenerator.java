@@ -0,0 +1,231 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.generation.callback;
+
+import org.mule.DefaultMuleEvent;
+import org.mule.OptimizedRequestContext;
+import org.mule.RequestContext;
+import org.mule.api.MuleContext;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.annotations.oauth.OAuth;
+import org.mule.api.annotations.oauth.OAuth2;
+import org.mule.api.callback.HttpCallback;
+import org.mule.api.construct.FlowConstruct;
+import org.mule.api.construct.FlowConstructAware;
+import org.mule.api.context.MuleContextAware;
+import org.mule.api.lifecycle.Disposable;
+import org.mule.api.lifecycle.Initialisable;
+import org.mule.api.lifecycle.InitialisationException;
+import org.mule.api.lifecycle.Startable;
+import org.mule.api.lifecycle.Stoppable;
+import org.mule.api.processor.MessageProcessor;
+import org.mule.devkit.generation.AbstractModuleGenerator;
+import org.mule.devkit.generation.NamingConstants;
+import org.mule.devkit.model.Type;
+import org.mule.devkit.model.code.Block;
+import org.mule.devkit.model.code.CatchBlock;
+import org.mule.devkit.model.code.ClassAlreadyExistsException;
+import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.DefinedClassRoles;
+import org.mule.devkit.model.code.ExpressionFactory;
+import org.mule.devkit.model.code.FieldVariable;
+import org.mule.devkit.model.code.Method;
+import org.mule.devkit.model.code.Modifier;
+import org.mule.devkit.model.code.Op;
+import org.mule.devkit.model.code.Package;
+import org.mule.devkit.model.code.TryStatement;
+import org.mule.devkit.model.code.Variable;
+import org.mule.util.concurrent.NamedThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates the worker pool shared by every asynchronous {@link HttpCallback} of a connector config. Callbacks are
+ * dispatched to a bounded, named thread pool instead of each one building its own asynchronous processing strategy.
+ * When the queue is full the callback runs on the receiving thread, pushing back on the caller. Submitted, completed
+ * and rejected counts are kept alongside the pool's own figures.
+ */
+public class HttpCallbackWorkerPoolGenerator extends AbstractModuleGenerator {
+
+    public static final String WRAP_METHOD_NAME = "wrap";
+    public static final String ASYNC_MESSAGE_PROCESSOR_CLASS_NAME = "AsyncMessageProcessor";
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    @Override
+    public boolean shouldGenerate(Type type) {
+        return type.hasAnnotation(OAuth.class) ||
+                type.hasAnnotation(OAuth2.class) ||
+                type.hasProcessorMethodWithParameter(HttpCallback.class);
+    }
+
+    @Override
+    public void generate(Type type) {
+        DefinedClass poolClass = getHttpCallbackWorkerPoolClass(type);
+
+        ctx().note("Generating HTTP callback worker pool as " + poolClass.fullName());
+
+        FieldVariable logger = generateLoggerField(poolClass);
+        FieldVariable executor = poolClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(ThreadPoolExecutor.class), "executor");
+        FieldVariable submitted = generateCounterField(poolClass, "submitted");
+        FieldVariable completed = generateCounterField(poolClass, "completed");
+        FieldVariable rejected = generateCounterField(poolClass, "rejected");
+
+        Method constructor = poolClass.constructor(Modifier.PUBLIC);
+        Variable name = constructor.param(ref(String.class), "name");
+        Variable maxThreads = constructor.param(ctx().getCodeModel().INT, "maxThreads");
+        Variable maxQueueSize = constructor.param(ctx().getCodeModel().INT, "maxQueueSize");
+        constructor.body().assign(ExpressionFactory._this().ref(executor), ExpressionFactory._new(ref(ThreadPoolExecutor.class)).
+                arg(maxThreads).arg(maxThreads).arg(ExpressionFactory.lit(KEEP_ALIVE_SECONDS)).arg(ref(TimeUnit.class).staticRef("SECONDS")).
+                arg(ExpressionFactory._new(ref(ArrayBlockingQueue.class).narrow(Runnable.class)).arg(maxQueueSize)).
+                arg(ExpressionFactory._new(ref(NamedThreadFactory.class)).arg(name)));
+        constructor.body().invoke(executor, "allowCoreThreadTimeOut").arg(ExpressionFactory.TRUE);
+
+        Method execute = generateExecuteMethod(poolClass, executor, submitted, completed, rejected, logger);
+        DefinedClass asyncMessageProcessor = generateAsyncMessageProcessorClass(poolClass, execute);
+
+        Method wrap = poolClass.method(Modifier.PUBLIC, ref(MessageProcessor.class), WRAP_METHOD_NAME);
+        wrap.javadoc().add("Wrap the given message processor so it is invoked on this pool.");
+        Variable messageProcessor = wrap.param(ref(MessageProcessor.class), "messageProcessor");
+        wrap.body()._return(ExpressionFactory._new(asyncMessageProcessor).arg(messageProcessor));
+
+        generateMetricGetter(poolClass, "getActiveCount", "Number of callbacks currently running", ctx().getCodeModel().INT, executor.invoke("getActiveCount"));
+        generateMetricGetter(poolClass, "getPoolSize", "Number of threads currently in the pool", ctx().getCodeModel().INT, executor.invoke("getPoolSize"));
+        generateMetricGetter(poolClass, "getLargestPoolSize", "Largest number of threads that have ever been in the pool", ctx().getCodeModel().INT, executor.invoke("getLargestPoolSize"));
+        generateMetricGetter(poolClass, "getQueueSize", "Number of callbacks waiting for a thread", ctx().getCodeModel().INT, executor.invoke("getQueue").invoke("size"));
+        generateMetricGetter(poolClass, "getSubmittedCount", "Number of callbacks submitted to the pool", ctx().getCodeModel().LONG, submitted.invoke("get"));
+        generateMetricGetter(poolClass, "getCompletedCount", "Number of callbacks that finished, successfully or not", ctx().getCodeModel().LONG, completed.invoke("get"));
+        generateMetricGetter(poolClass, "getRejectedCount", "Number of callbacks run on the receiving thread because the queue was full", ctx().getCodeModel().LONG, rejected.invoke("get"));
+
+        Method dispose = poolClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "dispose");
+        dispose.javadoc().add("Stop accepting callbacks. Queued ones are still processed.");
+        dispose.body().invoke(executor, "shutdown");
+    }
+
+    private FieldVariable generateCounterField(DefinedClass poolClass, String name) {
+        return poolClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(AtomicLong.class), name, ExpressionFactory._new(ref(AtomicLong.class)));
+    }
+
+    private void generateMetricGetter(DefinedClass poolClass, String name, String description, org.mule.devkit.model.code.Type type, org.mule.devkit.model.code.Expression value) {
+        Method getter = poolClass.method(Modifier.PUBLIC, type, name);
+        getter.javadoc().add(description);
+        getter.body()._return(value);
+    }
+
+    private Method generateExecuteMethod(DefinedClass poolClass, FieldVariable executor, FieldVariable submitted, FieldVariable completed, FieldVariable rejected, FieldVariable logger) {
+        Method execute = poolClass.method(Modifier.PRIVATE, ctx().getCodeModel().VOID, "execute");
+        Variable messageProcessor = execute.param(Modifier.FINAL, ref(MessageProcessor.class), "messageProcessor");
+        Variable event = execute.param(Modifier.FINAL, ref(MuleEvent.class), "event");
+
+        DefinedClass work = ctx().getCodeModel().anonymousClass(Runnable.class);
+        Method run = work.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "run");
+        // rejected work runs on the receiving thread, whose own event has to survive the callback
+        Variable previousEvent = run.body().decl(ref(MuleEvent.class), "previousEvent", ref(RequestContext.class).staticInvoke("getEvent"));
+        TryStatement tryProcess = run.body()._try();
+        tryProcess.body().add(ref(OptimizedRequestContext.class).staticInvoke("unsafeSetEvent").arg(event));
+        tryProcess.body().add(messageProcessor.invoke("process").arg(event));
+        CatchBlock catchProcess = tryProcess._catch(ref(Exception.class));
+        Variable e = catchProcess.param("e");
+        catchProcess.body().add(logger.invoke("error").arg("Asynchronous http callback failed").arg(e));
+        tryProcess._finally().add(ref(OptimizedRequestContext.class).staticInvoke("unsafeSetEvent").arg(previousEvent));
+        tryProcess._finally().add(completed.invoke("incrementAndGet"));
+
+        Variable runnable = execute.body().decl(ref(Runnable.class), "work", ExpressionFactory._new(work));
+        execute.body().add(submitted.invoke("incrementAndGet"));
+        TryStatement trySubmit = execute.body()._try();
+        trySubmit.body().invoke(executor, "execute").arg(runnable);
+        CatchBlock catchRejected = trySubmit._catch(ref(RejectedExecutionException.class));
+        catchRejected.param("e");
+        catchRejected.body().add(rejected.invoke("incrementAndGet"));
+        catchRejected.body().invoke(runnable, "run");
+
+        return execute;
+    }
+
+    private DefinedClass generateAsyncMessageProcessorClass(DefinedClass poolClass, Method execute) {
+        DefinedClass asyncMessageProcessor;
+        try {
+            asyncMessageProcessor = poolClass._class(Modifier.PRIVATE, ASYNC_MESSAGE_PROCESSOR_CLASS_NAME);
+        } catch (ClassAlreadyExistsException e) {
+            return e.getExistingClass();
+        }
+        asyncMessageProcessor._implements(MessageProcessor.class);
+        asyncMessageProcessor._implements(MuleContextAware.class);
+        asyncMessageProcessor._implements(FlowConstructAware.class);
+        asyncMessageProcessor._implements(Initialisable.class);
+        asyncMessageProcessor._implements(Startable.class);
+        asyncMessageProcessor._implements(Stoppable.class);
+        asyncMessageProcessor._implements(Disposable.class);
+        asyncMessageProcessor.javadoc().add("Hands events over to the pool and returns immediately, forwarding lifecycle to the wrapped message processor");
+
+        FieldVariable messageProcessor = asyncMessageProcessor.field(Modifier.PRIVATE | Modifier.FINAL, ref(MessageProcessor.class), "messageProcessor");
+        Method constructor = asyncMessageProcessor.constructor(Modifier.PUBLIC);
+        constructor.body().assign(ExpressionFactory._this().ref(messageProcessor), constructor.param(ref(MessageProcessor.class), "messageProcessor"));
+
+        Method process = asyncMessageProcessor.method(Modifier.PUBLIC, ref(MuleEvent.class), "process");
+        process._throws(ref(MuleException.class));
+        Variable event = process.param(ref(MuleEvent.class), "event");
+        process.body().invoke(execute).arg(messageProcessor).arg(ref(DefaultMuleEvent.class).staticInvoke("copy").arg(event));
+        process.body()._return(event);
+
+        Method setMuleContext = asyncMessageProcessor.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "setMuleContext");
+        Variable context = setMuleContext.param(ref(MuleContext.class), "context");
+        generateForward(setMuleContext.body(), messageProcessor, MuleContextAware.class, "setMuleContext", context);
+
+        Method setFlowConstruct = asyncMessageProcessor.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "setFlowConstruct");
+        Variable flowConstruct = setFlowConstruct.param(ref(FlowConstruct.class), "flowConstruct");
+        generateForward(setFlowConstruct.body(), messageProcessor, FlowConstructAware.class, "setFlowConstruct", flowConstruct);
+
+        Method initialise = asyncMessageProcessor.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "initialise");
+        initialise._throws(ref(InitialisationException.class));
+        generateForward(initialise.body(), messageProcessor, Initialisable.class, "initialise", null);
+
+        Method start = asyncMessageProcessor.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "start");
+        start._throws(ref(MuleException.class));
+        generateForward(start.body(), messageProcessor, Startable.class, "start", null);
+
+        Method stop = asyncMessageProcessor.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "stop");
+        stop._throws(ref(MuleException.class));
+        generateForward(stop.body(), messageProcessor, Stoppable.class, "stop", null);
+
+        Method dispose = asyncMessageProcessor.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "dispose");
+        generateForward(dispose.body(), messageProcessor, Disposable.class, "dispose", null);
+
+        return asyncMessageProcessor;
+    }
+
+    private void generateForward(Block block, FieldVariable messageProcessor, Class<?> lifecycleInterface, String methodName, Variable arg) {
+        org.mule.devkit.model.code.Invocation forward = ExpressionFactory.cast(ref(lifecycleInterface), messageProcessor).invoke(methodName);
+        if (arg != null) {
+            forward.arg(arg);
+        }
+        block._if(Op._instanceof(messageProcessor, ref(lifecycleInterface)))._then().add(forward);
+    }
+
+    private DefinedClass getHttpCallbackWorkerPoolClass(Type type) {
+        Package pkg = ctx().getCodeModel()._package(type.getPackageName() + NamingConstants.CONFIG_NAMESPACE);
+        DefinedClass clazz = pkg._class(NamingConstants.HTTP_CALLBACK_WORKER_POOL_CLASS_NAME);
+        clazz.role(DefinedClassRoles.HTTP_CALLBACK_WORKER_POOL);
+
+        return clazz;
+    }
+}
@@ -6,6 +6,9 @@ import org.mule.api.annotations.Connector;
 import org.mule.api.annotations.ExpressionLanguage;
 import org.mule.api.annotations.Module;
 import org.mule.api.expression.ExpressionManager;
+import org.mule.api.registry.RegistrationException;
+import org.mule.api.registry.ResolverException;
+import org.mule.api.registry.TransformerResolver;
 import org.mule.api.transformer.DataType;
 import org.mule.api.transformer.Transformer;
 import org.mule.api.transformer.TransformerException;
@@ -13,16 +16,21 @@ import org.mule.devkit.generation.AbstractMessageGenerator;
 import org.mule.devkit.generation.NamingConstants;
 import org.mule.devkit.generation.api.GenerationException;
 import org.mule.devkit.model.Type;
+import org.mule.config.i18n.MessageFactory;
 import org.mule.devkit.model.code.Block;
+import org.mule.devkit.model.code.CatchBlock;
 import org.mule.devkit.model.code.ClassAlreadyExistsException;
 import org.mule.devkit.model.code.Conditional;
 import org.mule.devkit.model.code.DefinedClass;
 import org.mule.devkit.model.code.DefinedClassRoles;
+import org.mule.devkit.model.code.Expression;
 import org.mule.devkit.model.code.ExpressionFactory;
+import org.mule.devkit.model.code.FieldVariable;
 import org.mule.devkit.model.code.ForEach;
 import org.mule.devkit.model.code.ForLoop;
 import org.mule.devkit.model.code.Modifier;
 import org.mule.devkit.model.code.Op;
+import org.mule.devkit.model.code.TryStatement;
 import org.mule.transformer.types.DataTypeFactory;
 import org.mule.util.TemplateParser;
 
@@ -46,22 +54,175 @@ public class AbstractExpressionEvaluatorGenerator extends AbstractMessageGenerat
 
     @Override
     public void generate(Type type) throws GenerationException {
+        DefinedClass transformerCacheClass = getTransformerCacheClass(type);
+        generateTransformerCache(transformerCacheClass);
+        ctx().registerAtBoot(transformerCacheClass);
+
         DefinedClass abstractExpressionEvaluatorClass = getAbstractExpressionEvaluatorClass(type);
 
+        // class hierarchies never change so their classification is shared by all evaluators, the bound keeps
+        // classes loaded by short lived class loaders from piling up
+        FieldVariable maxClassifiedClasses = abstractExpressionEvaluatorClass.field(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, ctx().getCodeModel().INT, "MAX_CLASSIFIED_CLASSES", ExpressionFactory.lit(256));
+        FieldVariable listClasses = generateClassificationCacheField(abstractExpressionEvaluatorClass, maxClassifiedClasses, "LIST_CLASSES");
+        FieldVariable mapClasses = generateClassificationCacheField(abstractExpressionEvaluatorClass, maxClassifiedClasses, "MAP_CLASSES");
+        FieldVariable patternInfo = abstractExpressionEvaluatorClass.field(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, ref(TemplateParser.PatternInfo.class), "MULE_STYLE_PATTERN",
+                ref(TemplateParser.class).staticInvoke("createMuleStyleParser").invoke("getStyle"));
+        FieldVariable transformerCache = abstractExpressionEvaluatorClass.field(Modifier.PRIVATE | Modifier.VOLATILE, transformerCacheClass, "transformerCache");
+        transformerCache.javadoc().add("Cache of the transformers resolved by this evaluator");
+
         // generate evaluate & transform methods and helpers
         generateComputeClassHierarchyMethod(abstractExpressionEvaluatorClass);
-        generateIsListClassMethod(abstractExpressionEvaluatorClass);
-        generateIsMapClassMethod(abstractExpressionEvaluatorClass);
+        generateIsListClassMethod(abstractExpressionEvaluatorClass, listClasses);
+        generateIsMapClassMethod(abstractExpressionEvaluatorClass, mapClasses);
         generateIsListMethod(abstractExpressionEvaluatorClass);
         generateIsMapMethod(abstractExpressionEvaluatorClass);
         generateIsAssignableFrom(abstractExpressionEvaluatorClass);
         generateEvaluateMethod(abstractExpressionEvaluatorClass);
-        generateEvaluateAndTransformMethod(abstractExpressionEvaluatorClass);
+        generateGetTransformerCacheMethod(abstractExpressionEvaluatorClass, transformerCacheClass, transformerCache);
+        generateEvaluateAndTransformMethod(abstractExpressionEvaluatorClass, patternInfo);
         generateTransformMethod(abstractExpressionEvaluatorClass);
 
         hasBeenGenerated = true;
     }
 
+    private DefinedClass getTransformerCacheClass(Type type) {
+        org.mule.devkit.model.code.Package pkg = ctx().getCodeModel()._package(type.getPackageName());
+        DefinedClass clazz = pkg._class(Modifier.PUBLIC, NamingConstants.TRANSFORMER_CACHE_CLASS_NAME, new Class[]{TransformerResolver.class});
+
+        clazz.role(DefinedClassRoles.TRANSFORMER_CACHE);
+
+        return clazz;
+    }
+
+    private void generateTransformerCache(DefinedClass transformerCacheClass) {
+        transformerCacheClass.javadoc().add("Bounded cache of the transformers resolved while evaluating and transforming arguments. ");
+        transformerCacheClass.javadoc().add("It is registered as a transformer resolver so that it is invalidated every time a transformer is added or removed.");
+
+        DefinedClass keyClass = generateTransformerKeyClass(transformerCacheClass);
+        FieldVariable maxSize = transformerCacheClass.field(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, ctx().getCodeModel().INT, "MAX_SIZE", ExpressionFactory.lit(1024));
+        FieldVariable transformers = transformerCacheClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(Map.class).narrow(keyClass, ref(Transformer.class)), "transformers",
+                newLeastRecentlyUsedMap(keyClass, ref(Transformer.class), maxSize));
+        transformers.javadoc().add("Resolved transformers, least recently used first");
+
+        org.mule.devkit.model.code.Method lookupTransformer = transformerCacheClass.method(Modifier.PUBLIC, ref(Transformer.class), "lookupTransformer");
+        lookupTransformer.javadoc().add("Retrieve the transformer able to convert from the source class to the expected class, looking it up in the registry only when it has not been cached yet.");
+        lookupTransformer.javadoc().addParam("muleContext Mule context whose registry holds the transformers");
+        lookupTransformer.javadoc().addParam("source Class of the object to transform");
+        lookupTransformer.javadoc().addParam("expected Class expected after the transformation");
+        lookupTransformer.javadoc().addParam("expectedMimeType Mime type expected after the transformation, it can be null");
+        lookupTransformer.javadoc().addReturn("The transformer");
+        lookupTransformer._throws(ref(TransformerException.class));
+        org.mule.devkit.model.code.Variable muleContext = lookupTransformer.param(ref(MuleContext.class), "muleContext");
+        org.mule.devkit.model.code.Variable source = lookupTransformer.param(ref(Class.class), "source");
+        org.mule.devkit.model.code.Variable expected = lookupTransformer.param(ref(Class.class), "expected");
+        org.mule.devkit.model.code.Variable expectedMimeType = lookupTransformer.param(ref(String.class), "expectedMimeType");
+
+        org.mule.devkit.model.code.Variable key = lookupTransformer.body().decl(keyClass, "key",
+                ExpressionFactory._new(keyClass).arg(source).arg(expected).arg(expectedMimeType));
+        org.mule.devkit.model.code.Variable transformer = lookupTransformer.body().decl(ref(Transformer.class), "transformer", transformers.invoke("get").arg(key));
+        lookupTransformer.body()._if(Op.ne(transformer, ExpressionFactory._null()))._then()._return(transformer);
+
+        org.mule.devkit.model.code.Variable sourceDataType = lookupTransformer.body().decl(ref(DataType.class), "sourceDataType",
+                ref(DataTypeFactory.class).staticInvoke("create").arg(source));
+        org.mule.devkit.model.code.Variable targetDataType = lookupTransformer.body().decl(ref(DataType.class), "targetDataType", ExpressionFactory._null());
+        Conditional ifExpectedMimeTypeNotNull = lookupTransformer.body()._if(Op.ne(expectedMimeType, ExpressionFactory._null()));
+        ifExpectedMimeTypeNotNull._then().assign(targetDataType, ref(DataTypeFactory.class).staticInvoke("create").arg(expected).arg(expectedMimeType));
+        ifExpectedMimeTypeNotNull._else().assign(targetDataType, ref(DataTypeFactory.class).staticInvoke("create").arg(expected));
+
+        lookupTransformer.body().assign(transformer, muleContext.invoke("getRegistry").invoke("lookupTransformer").arg(sourceDataType).arg(targetDataType));
+        lookupTransformer.body().add(transformers.invoke("put").arg(key).arg(transformer));
+        lookupTransformer.body()._return(transformer);
+
+        org.mule.devkit.model.code.Method resolve = transformerCacheClass.method(Modifier.PUBLIC, ref(Transformer.class), "resolve");
+        resolve.javadoc().add("This cache does not resolve transformers on behalf of the registry.");
+        resolve._throws(ref(ResolverException.class));
+        resolve.param(ref(DataType.class), "source");
+        resolve.param(ref(DataType.class), "result");
+        resolve.body()._return(ExpressionFactory._null());
+
+        org.mule.devkit.model.code.Method transformerChange = transformerCacheClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "transformerChange");
+        transformerChange.javadoc().add("Invalidates the cache every time a transformer is registered or unregistered.");
+        transformerChange.param(ref(Transformer.class), "transformer");
+        transformerChange.param(ref(TransformerResolver.RegistryAction.class), "registryAction");
+        transformerChange.body().add(transformers.invoke("clear"));
+    }
+
+    private DefinedClass generateTransformerKeyClass(DefinedClass transformerCacheClass) {
+        DefinedClass keyClass;
+        try {
+            keyClass = transformerCacheClass._class(Modifier.PRIVATE | Modifier.STATIC, "Key");
+        } catch (ClassAlreadyExistsException e) {
+            return e.getExistingClass();
+        }
+        keyClass.javadoc().add("Identifies a transformation by its source class, expected class and expected mime type");
+
+        FieldVariable keySource = keyClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(Class.class), "source");
+        FieldVariable keyExpected = keyClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(Class.class), "expected");
+        FieldVariable keyExpectedMimeType = keyClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(String.class), "expectedMimeType");
+        FieldVariable keyHash = keyClass.field(Modifier.PRIVATE | Modifier.FINAL, ctx().getCodeModel().INT, "hash");
+        keyHash.javadoc().add("Hash code of the key, computed once at construction");
+
+        org.mule.devkit.model.code.Method constructor = keyClass.constructor(Modifier.PUBLIC);
+        org.mule.devkit.model.code.Variable source = constructor.param(ref(Class.class), "source");
+        org.mule.devkit.model.code.Variable expected = constructor.param(ref(Class.class), "expected");
+        org.mule.devkit.model.code.Variable expectedMimeType = constructor.param(ref(String.class), "expectedMimeType");
+        constructor.body().assign(ExpressionFactory._this().ref(keySource), source);
+        constructor.body().assign(ExpressionFactory._this().ref(keyExpected), expected);
+        constructor.body().assign(ExpressionFactory._this().ref(keyExpectedMimeType), expectedMimeType);
+        Expression hash = Op.plus(Op.mul(ExpressionFactory.lit(31), source.invoke("hashCode")), expected.invoke("hashCode"));
+        hash = Op.plus(Op.mul(ExpressionFactory.lit(31), hash),
+                Op.cond(Op.eq(expectedMimeType, ExpressionFactory._null()), ExpressionFactory.lit(0), expectedMimeType.invoke("hashCode")));
+        constructor.body().assign(ExpressionFactory._this().ref(keyHash), hash);
+
+        org.mule.devkit.model.code.Method hashCode = keyClass.method(Modifier.PUBLIC, ctx().getCodeModel().INT, "hashCode");
+        hashCode.body()._return(ExpressionFactory._this().ref(keyHash));
+
+        org.mule.devkit.model.code.Method equals = keyClass.method(Modifier.PUBLIC, ctx().getCodeModel().BOOLEAN, "equals");
+        org.mule.devkit.model.code.Variable obj = equals.param(ref(Object.class), "obj");
+        equals.body()._if(Op.eq(ExpressionFactory._this(), obj))._then()._return(ExpressionFactory.TRUE);
+        equals.body()._if(Op.not(Op._instanceof(obj, keyClass)))._then()._return(ExpressionFactory.FALSE);
+        org.mule.devkit.model.code.Variable that = equals.body().decl(keyClass, "that", ExpressionFactory.cast(keyClass, obj));
+        equals.body()._return(Op.cand(Op.cand(Op.cand(
+                Op.eq(ExpressionFactory._this().ref(keyHash), that.ref(keyHash)),
+                Op.eq(ExpressionFactory._this().ref(keySource), that.ref(keySource))),
+                Op.eq(ExpressionFactory._this().ref(keyExpected), that.ref(keyExpected))),
+                Op.cond(Op.eq(ExpressionFactory._this().ref(keyExpectedMimeType), ExpressionFactory._null()),
+                        Op.eq(that.ref(keyExpectedMimeType), ExpressionFactory._null()),
+                        ExpressionFactory._this().ref(keyExpectedMimeType).invoke("equals").arg(that.ref(keyExpectedMimeType)))));
+
+        return keyClass;
+    }
+
+    private FieldVariable generateClassificationCacheField(DefinedClass abstractExpressionEvaluatorClass, FieldVariable maxClassifiedClasses, String name) {
+        return abstractExpressionEvaluatorClass.field(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, ref(Map.class).narrow(ref(Class.class), ref(Boolean.class)), name,
+                newLeastRecentlyUsedMap(ref(Class.class), ref(Boolean.class), maxClassifiedClasses));
+    }
+
+    private void generateGetTransformerCacheMethod(DefinedClass abstractExpressionEvaluatorClass, DefinedClass transformerCacheClass, FieldVariable transformerCache) {
+        org.mule.devkit.model.code.Method getTransformerCache = abstractExpressionEvaluatorClass.method(Modifier.PROTECTED, transformerCacheClass, "getTransformerCache");
+        getTransformerCache.javadoc().add("Retrieve the transformer cache from the registry, registering a new one if none has been bootstrapped.");
+        getTransformerCache.javadoc().addParam("muleContext Mule context");
+        getTransformerCache.javadoc().addReturn("The transformer cache");
+        getTransformerCache._throws(ref(TransformerException.class));
+        org.mule.devkit.model.code.Variable muleContext = getTransformerCache.param(ref(MuleContext.class), "muleContext");
+
+        org.mule.devkit.model.code.Variable cache = getTransformerCache.body().decl(transformerCacheClass, "cache", transformerCache);
+        getTransformerCache.body()._if(Op.ne(cache, ExpressionFactory._null()))._then()._return(cache);
+
+        TryStatement tryLookup = getTransformerCache.body()._try();
+        tryLookup.body().assign(cache, muleContext.invoke("getRegistry").invoke("lookupObject").arg(transformerCacheClass.dotclass()));
+        Block ifNotFound = tryLookup.body()._if(Op.eq(cache, ExpressionFactory._null()))._then();
+        ifNotFound.assign(cache, ExpressionFactory._new(transformerCacheClass));
+        ifNotFound.add(muleContext.invoke("getRegistry").invoke("registerObject").arg(transformerCacheClass.dotclass().invoke("getName")).arg(cache));
+        CatchBlock catchRegistration = tryLookup._catch(ref(RegistrationException.class));
+        org.mule.devkit.model.code.Variable e = catchRegistration.param("e");
+        catchRegistration.body()._throw(ExpressionFactory._new(ref(TransformerException.class)).
+                arg(ref(MessageFactory.class).staticInvoke("createStaticMessage").arg("Cannot register transformer cache")).arg(e));
+
+        getTransformerCache.body().assign(transformerCache, cache);
+        getTransformerCache.body()._return(cache);
+    }
+
     private DefinedClass getAbstractExpressionEvaluatorClass(Type type) {
         org.mule.devkit.model.code.Package pkg = ctx().getCodeModel()._package(type.getPackageName());
         DefinedClass clazz;
@@ -99,7 +260,7 @@ public class AbstractExpressionEvaluatorGenerator extends AbstractMessageGenerat
         iterateInterfaces.body().invoke("computeClassHierarchy").arg(iterateInterfaces.var()).arg(classes);
     }
 
-    private void generateIsListClassMethod(DefinedClass abstractExpressionEvaluatorClass) {
+    private void generateIsListClassMethod(DefinedClass abstractExpressionEvaluatorClass, FieldVariable classifiedClasses) {
         org.mule.devkit.model.code.Method isListClass = abstractExpressionEvaluatorClass.method(Modifier.PROTECTED, ctx().getCodeModel().BOOLEAN, "isListClass");
         isListClass.javadoc().add("Checks whether the specified class parameter is an instance of ");
         isListClass.javadoc().add(ref(List.class));
@@ -107,13 +268,18 @@ public class AbstractExpressionEvaluatorGenerator extends AbstractMessageGenerat
         isListClass.javadoc().addReturn("<code>true</code> is <code>clazz</code> is instance of a collection class, <code>false</code> otherwise.");
 
         org.mule.devkit.model.code.Variable clazz = isListClass.param(ref(Class.class), "clazz");
+        org.mule.devkit.model.code.Variable cached = isListClass.body().decl(ref(Boolean.class), "cached", classifiedClasses.invoke("get").arg(clazz));
+        isListClass.body()._if(Op.ne(cached, ExpressionFactory._null()))._then()._return(cached);
+
         org.mule.devkit.model.code.Variable classes = isListClass.body().decl(ref(List.class).narrow(ref(Class.class)), "classes", ExpressionFactory._new(ref(ArrayList.class).narrow(ref(Class.class))));
         isListClass.body().invoke("computeClassHierarchy").arg(clazz).arg(classes);
 
-        isListClass.body()._return(classes.invoke("contains").arg(ref(List.class).dotclass()));
+        org.mule.devkit.model.code.Variable result = isListClass.body().decl(ctx().getCodeModel().BOOLEAN, "result", classes.invoke("contains").arg(ref(List.class).dotclass()));
+        isListClass.body().add(classifiedClasses.invoke("put").arg(clazz).arg(result));
+        isListClass.body()._return(result);
     }
 
-    private void generateIsMapClassMethod(DefinedClass abstractExpressionEvaluatorClass) {
+    private void generateIsMapClassMethod(DefinedClass abstractExpressionEvaluatorClass, FieldVariable classifiedClasses) {
         org.mule.devkit.model.code.Method isMapClass = abstractExpressionEvaluatorClass.method(Modifier.PROTECTED, ctx().getCodeModel().BOOLEAN, "isMapClass");
         isMapClass.javadoc().add("Checks whether the specified class parameter is an instance of ");
         isMapClass.javadoc().add(ref(Map.class));
@@ -121,10 +287,15 @@ public class AbstractExpressionEvaluatorGenerator extends AbstractMessageGenerat
         isMapClass.javadoc().addReturn("<code>true</code> is <code>clazz</code> is instance of a collection class, <code>false</code> otherwise.");
 
         org.mule.devkit.model.code.Variable clazz = isMapClass.param(ref(Class.class), "clazz");
+        org.mule.devkit.model.code.Variable cached = isMapClass.body().decl(ref(Boolean.class), "cached", classifiedClasses.invoke("get").arg(clazz));
+        isMapClass.body()._if(Op.ne(cached, ExpressionFactory._null()))._then()._return(cached);
+
         org.mule.devkit.model.code.Variable classes = isMapClass.body().decl(ref(List.class).narrow(ref(Class.class)), "classes", ExpressionFactory._new(ref(ArrayList.class).narrow(ref(Class.class))));
         isMapClass.body().invoke("computeClassHierarchy").arg(clazz).arg(classes);
 
-        isMapClass.body()._return(classes.invoke("contains").arg(ref(Map.class).dotclass()));
+        org.mule.devkit.model.code.Variable result = isMapClass.body().decl(ctx().getCodeModel().BOOLEAN, "result", classes.invoke("contains").arg(ref(Map.class).dotclass()));
+        isMapClass.body().add(classifiedClasses.invoke("put").arg(clazz).arg(result));
+        isMapClass.body()._return(result);
     }
 
     private void generateIsListMethod(DefinedClass abstractExpressionEvaluatorClass) {
@@ -274,7 +445,7 @@ public class AbstractExpressionEvaluatorGenerator extends AbstractMessageGenerat
         evaluate.body()._return(source);
     }
 
-    private void generateEvaluateAndTransformMethod(DefinedClass abstractExpressionEvaluatorClass) {
+    private void generateEvaluateAndTransformMethod(DefinedClass abstractExpressionEvaluatorClass, FieldVariable patternInfo) {
         org.mule.devkit.model.code.Method evaluateAndTransform = abstractExpressionEvaluatorClass.method(Modifier.PROTECTED, ref(Object.class), "evaluateAndTransform");
         evaluateAndTransform._throws(ref(TransformerException.class));
         org.mule.devkit.model.code.Variable muleContext = evaluateAndTransform.param(ref(MuleContext.class), "muleContext");
@@ -342,7 +513,7 @@ public class AbstractExpressionEvaluatorGenerator extends AbstractMessageGenerat
 
         Block otherwise = isMap._else();
         otherwise.assign(target, ExpressionFactory.invoke("evaluate")
-                .arg(ref(TemplateParser.class).staticInvoke("createMuleStyleParser").invoke("getStyle"))
+                .arg(patternInfo)
                 .arg(muleContext.invoke("getExpressionManager"))
                 .arg(muleMessage).arg(source));
 
@@ -352,22 +523,12 @@ public class AbstractExpressionEvaluatorGenerator extends AbstractMessageGenerat
                 Op.not(ExpressionFactory.invoke("isAssignableFrom").arg(expectedType).arg(target.invoke("getClass")))
         ));
 
-        org.mule.devkit.model.code.Variable sourceDataType = shouldTransform._then().decl(ref(DataType.class), "sourceDataType",
-                ref(DataTypeFactory.class).staticInvoke("create").arg(target.invoke("getClass")));
-        org.mule.devkit.model.code.Variable targetDataType = shouldTransform._then().decl(ref(DataType.class), "targetDataType", ExpressionFactory._null());
-
         Conditional ifParameterizedType = shouldTransform._then()._if(Op._instanceof(expectedType, ref(ParameterizedType.class)));
         ifParameterizedType._then().assign(expectedType, ExpressionFactory.cast(ref(ParameterizedType.class), expectedType).invoke("getRawType"));
 
-        Conditional ifExpectedMimeTypeNotNull = shouldTransform._then()._if(Op.ne(expectedMimeType, ExpressionFactory._null()));
-        ifExpectedMimeTypeNotNull._then().assign(targetDataType, ref(DataTypeFactory.class).staticInvoke("create").arg(
-                ExpressionFactory.cast(ref(Class.class), expectedType)).arg(expectedMimeType));
-
-        ifExpectedMimeTypeNotNull._else().assign(targetDataType, ref(DataTypeFactory.class).staticInvoke("create").arg(
-                ExpressionFactory.cast(ref(Class.class), expectedType)));
-
         org.mule.devkit.model.code.Variable transformer = shouldTransform._then().decl(ref(Transformer.class), "t",
-                muleContext.invoke("getRegistry").invoke("lookupTransformer").arg(sourceDataType).arg(targetDataType));
+                ExpressionFactory.invoke("getTransformerCache").arg(muleContext).invoke("lookupTransformer").arg(muleContext).arg(target.invoke("getClass")).
+                        arg(ExpressionFactory.cast(ref(Class.class), expectedType)).arg(expectedMimeType));
 
         shouldTransform._then()._return(transformer.invoke("transform").arg(target));
 
@@ -444,18 +605,13 @@ public class AbstractExpressionEvaluatorGenerator extends AbstractMessageGenerat
                 Op.not(ExpressionFactory.invoke("isAssignableFrom").arg(expectedType).arg(target.invoke("getClass")))
         ));
 
-        org.mule.devkit.model.code.Variable sourceDataType = shouldTransform._then().decl(ref(DataType.class), "sourceDataType",
-                ref(DataTypeFactory.class).staticInvoke("create").arg(target.invoke("getClass")));
-
         Conditional ifParameterizedType = shouldTransform._then()._if(Op._instanceof(expectedType, ref(ParameterizedType.class)));
         ifParameterizedType._then().assign(expectedType, ExpressionFactory.cast(ref(ParameterizedType.class), expectedType).invoke("getRawType"));
 
-        org.mule.devkit.model.code.Variable targetDataType = shouldTransform._then().decl(ref(DataType.class), "targetDataType",
-                ref(DataTypeFactory.class).staticInvoke("create").arg(
-                        ExpressionFactory.cast(ref(Class.class), expectedType)));
-
+        org.mule.devkit.model.code.Variable muleContext = shouldTransform._then().decl(ref(MuleContext.class), "muleContext", muleMessage.invoke("getMuleContext"));
         org.mule.devkit.model.code.Variable transformer = shouldTransform._then().decl(ref(Transformer.class), "t",
-                muleMessage.invoke("getMuleContext").invoke("getRegistry").invoke("lookupTransformer").arg(sourceDataType).arg(targetDataType));
+                ExpressionFactory.invoke("getTransformerCache").arg(muleContext).invoke("lookupTransformer").arg(muleContext).arg(target.invoke("getClass")).
+                        arg(ExpressionFactory.cast(ref(Class.class), expectedType)).arg(ExpressionFactory._null()));
 
         shouldTransform._then()._return(transformer.invoke("transform").arg(target));
 
@@ -133,13 +133,21 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
             connectFields = generateProcessorFieldForEachParameter(messageProcessorClass, connectMethod);
         }
 
+        // add a field to hold the resolved generic type of each argument
+        Map<String, FieldVariable> genericTypes = generateGenericTypeFieldForEachParameter(messageProcessorClass, fields);
+        Map<String, FieldVariable> connectGenericTypes = null;
+        if (connectFields != null) {
+            connectGenericTypes = generateGenericTypeFieldForEachParameter(messageProcessorClass, connectFields);
+        }
+
         // add standard fields
         FieldVariable logger = generateLoggerField(messageProcessorClass);
         FieldVariable object = generateFieldForModuleObject(messageProcessorClass, type);
         FieldVariable muleContext = generateFieldForMuleContext(messageProcessorClass);
         FieldVariable flowConstruct = generateFieldForFlowConstruct(messageProcessorClass);
-        FieldVariable retryCount = generateRetryCountField(messageProcessorClass);
         FieldVariable retryMax = generateRetryMaxField(messageProcessorClass);
+        FieldVariable retryInterval = generateRetryIntervalField(messageProcessorClass);
+        FieldVariable retryBackoff = generateRetryBackoffField(messageProcessorClass);
 
         FieldVariable messageProcessorListener = null;
         if (intercepting) {
@@ -147,7 +155,11 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
         }
 
         // add initialise
-        generateInitialiseMethod(messageProcessorClass, fields, type, muleContext, object, retryCount, !type.needsConfig());
+        org.mule.devkit.model.code.Method initialise = generateInitialiseMethod(messageProcessorClass, fields, type, muleContext, object, !type.needsConfig());
+        generateGenericTypeResolution(initialise, messageProcessorClass, fields, genericTypes);
+        if (connectFields != null) {
+            generateGenericTypeResolution(initialise, messageProcessorClass, connectFields, connectGenericTypes);
+        }
 
         // add start
         generateStartMethod(messageProcessorClass, fields);
@@ -172,13 +184,18 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
             generateSourceCallbackProcessMethod(messageProcessorClass, messageProcessorListener, muleContext, flowConstruct);
             generateSourceCallbackProcessWithPropertiesMethod(messageProcessorClass, messageProcessorListener, muleContext, flowConstruct);
             generateSourceCallbackProcessMethodWithNoPayload(messageProcessorClass, messageProcessorListener, muleContext, flowConstruct);
+            generateSourceCallbackProcessBatchMethod(messageProcessorClass, messageProcessorListener, muleContext, flowConstruct);
+            generateSourceCallbackOfferMethod(messageProcessorClass, messageProcessorListener, muleContext, flowConstruct);
+            generateSourceCallbackGetInFlightEventsMethod(messageProcessorClass);
         }
 
         // add setobject
         generateSetModuleObjectMethod(messageProcessorClass, object);
 
-        // add setRetryMax
+        // add setRetryMax, setRetryInterval and setRetryBackoff
         generateSetter(messageProcessorClass, retryMax);
+        generateSetter(messageProcessorClass, retryInterval);
+        generateSetter(messageProcessorClass, retryBackoff);
 
         // generate setters for all parameters
         for (String fieldName : fields.keySet()) {
@@ -197,10 +214,10 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
             DefinedClass poolObjectClass = ctx().getCodeModel()._class(DefinedClassRoles.POOL_OBJECT, ref(type));
 
             // add process method
-            generateProcessMethod(processorMethod, messageProcessorClass, fields, connectFields, messageProcessorListener, muleContext, object, poolObjectClass, logger, retryCount, retryMax);
+            generateProcessMethod(processorMethod, messageProcessorClass, fields, connectFields, genericTypes, connectGenericTypes, messageProcessorListener, muleContext, object, poolObjectClass, logger, retryMax, retryInterval, retryBackoff);
         } else {
             // add process method
-            generateProcessMethod(processorMethod, messageProcessorClass, fields, connectFields, messageProcessorListener, muleContext, object, logger, retryCount, retryMax);
+            generateProcessMethod(processorMethod, messageProcessorClass, fields, connectFields, genericTypes, connectGenericTypes, messageProcessorListener, muleContext, object, logger, retryMax, retryInterval, retryBackoff);
         }
     }
 
@@ -223,11 +240,11 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
         messageProcessorClass.javadoc().add(" where possible to the expected argument type.");
     }
 
-    private void generateProcessMethod(Method executableElement, DefinedClass messageProcessorClass, Map<String, FieldVariableElement> fields, Map<String, FieldVariableElement> connectionFields, FieldVariable messageProcessorListener, FieldVariable muleContext, FieldVariable object, FieldVariable logger, FieldVariable retryCount, FieldVariable retryMax) {
-        generateProcessMethod(executableElement, messageProcessorClass, fields, connectionFields, messageProcessorListener, muleContext, object, null, logger, retryCount, retryMax);
+    private void generateProcessMethod(Method executableElement, DefinedClass messageProcessorClass, Map<String, FieldVariableElement> fields, Map<String, FieldVariableElement> connectionFields, Map<String, FieldVariable> genericTypes, Map<String, FieldVariable> connectionGenericTypes, FieldVariable messageProcessorListener, FieldVariable muleContext, FieldVariable object, FieldVariable logger, FieldVariable retryMax, FieldVariable retryInterval, FieldVariable retryBackoff) {
+        generateProcessMethod(executableElement, messageProcessorClass, fields, connectionFields, genericTypes, connectionGenericTypes, messageProcessorListener, muleContext, object, null, logger, retryMax, retryInterval, retryBackoff);
     }
 
-    private void generateProcessMethod(Method executableElement, DefinedClass messageProcessorClass, Map<String, FieldVariableElement> fields, Map<String, FieldVariableElement> connectionFields, FieldVariable messageProcessorListener, FieldVariable muleContext, FieldVariable object, DefinedClass poolObjectClass, FieldVariable logger, FieldVariable retryCount, FieldVariable retryMax) {
+    private void generateProcessMethod(Method executableElement, DefinedClass messageProcessorClass, Map<String, FieldVariableElement> fields, Map<String, FieldVariableElement> connectionFields, Map<String, FieldVariable> genericTypes, Map<String, FieldVariable> connectionGenericTypes, FieldVariable messageProcessorListener, FieldVariable muleContext, FieldVariable object, DefinedClass poolObjectClass, FieldVariable logger, FieldVariable retryMax, FieldVariable retryInterval, FieldVariable retryBackoff) {
         String methodName = executableElement.getSimpleName().toString();
         org.mule.devkit.model.code.Type muleEvent = ref(MuleEvent.class);
 
@@ -238,20 +255,34 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
 
         process._throws(MuleException.class);
         org.mule.devkit.model.code.Variable event = process.param(muleEvent, "event");
-        org.mule.devkit.model.code.Variable muleMessage = process.body().decl(ref(MuleMessage.class), "_muleMessage", event.invoke("getMessage"));
+
+        Method connectMethod = connectForMethod(executableElement);
+        Method connectionIdentifierMethod = connectionIdentifierForMethod(executableElement);
+        InvalidateConnectionOn invalidateConnectionOn = executableElement.getAnnotation(InvalidateConnectionOn.class);
+
+        // retries are driven by a loop whose state lives on the stack, so concurrent events never share it
+        Block body = process.body();
+        org.mule.devkit.model.code.Variable retryCount = null;
+        if (connectMethod != null &&
+                invalidateConnectionOn != null) {
+            retryCount = process.body().decl(ctx().getCodeModel().INT, "retryCount", ExpressionFactory.lit(0));
+            body = process.body()._while(ExpressionFactory.TRUE).body();
+            generateRetryDelay(body, event, methodName, retryCount, retryInterval, retryBackoff);
+        }
+
+        org.mule.devkit.model.code.Variable muleMessage = body.decl(ref(MuleMessage.class), "_muleMessage", event.invoke("getMessage"));
 
         DefinedClass moduleObjectClass = ctx().getCodeModel()._class(DefinedClassRoles.MODULE_OBJECT, ref(executableElement.parent()));
-        org.mule.devkit.model.code.Variable moduleObject = process.body().decl(moduleObjectClass, "_castedModuleObject", ExpressionFactory._null());
-        findConfig(process.body(), muleContext, object, methodName, event, moduleObjectClass, moduleObject);
+        org.mule.devkit.model.code.Variable moduleObject = body.decl(moduleObjectClass, "_castedModuleObject", ExpressionFactory._null());
+        findConfig(body, muleContext, object, methodName, event, moduleObjectClass, moduleObject);
 
-        org.mule.devkit.model.code.Variable poolObject = declarePoolObjectIfClassNotNull(poolObjectClass, process);
+        org.mule.devkit.model.code.Variable poolObject = declarePoolObjectIfClassNotNull(poolObjectClass, body);
 
-        Map<String, Expression> connectionParameters = declareConnectionParametersVariables(executableElement, connectionFields, process);
-        org.mule.devkit.model.code.Variable connection = addConnectionVariableIfNeeded(executableElement, process);
+        Map<String, Expression> connectionParameters = declareConnectionParametersVariables(executableElement, connectionFields, body);
+        org.mule.devkit.model.code.Variable connection = addConnectionVariableIfNeeded(executableElement, body);
+        org.mule.devkit.model.code.Variable connectionKey = addConnectionKeyVariableIfNeeded(executableElement, body);
 
-        Method connectMethod = connectForMethod(executableElement);
-        Method connectionIdentifierMethod = connectionIdentifierForMethod(executableElement);
-        TryStatement callProcessor = process.body()._try();
+        TryStatement callProcessor = body._try();
 
         if (connectMethod != null) {
             for (Parameter variable : connectMethod.getParameters()) {
@@ -264,10 +295,8 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
 
                 org.mule.devkit.model.code.Variable transformed = (org.mule.devkit.model.code.Variable) connectionParameters.get(fieldName);
 
-                Invocation getGenericType = messageProcessorClass.dotclass().invoke("getDeclaredField").arg(
-                        ExpressionFactory.lit(connectionFields.get(fieldName).getFieldType().name())
-                ).invoke("getGenericType");
-                Invocation evaluateAndTransform = ExpressionFactory.invoke("evaluateAndTransform").arg(muleContext).arg(muleMessage).arg(getGenericType).arg(ExpressionFactory._null());
+                FieldVariable genericType = connectionGenericTypes.get(fieldName);
+                Invocation evaluateAndTransform = ExpressionFactory.invoke("evaluateAndTransform").arg(muleContext).arg(muleMessage).arg(genericType).arg(ExpressionFactory._null());
 
                 evaluateAndTransform.arg(connectionFields.get(fieldName).getField());
 
@@ -275,7 +304,7 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
 
                 ifNotNull._then().assign(transformed, cast);
 
-                Invocation evaluateAndTransformLocal = ExpressionFactory.invoke("evaluateAndTransform").arg(muleContext).arg(muleMessage).arg(getGenericType).arg(ExpressionFactory._null());
+                Invocation evaluateAndTransformLocal = ExpressionFactory.invoke("evaluateAndTransform").arg(muleContext).arg(muleMessage).arg(genericType).arg(ExpressionFactory._null());
 
                 evaluateAndTransformLocal.arg(moduleObject.invoke("get" + StringUtils.capitalize(fieldName)));
 
@@ -319,13 +348,11 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
             } else if (variable.asType().toString().startsWith(MuleMessage.class.getName())) {
                 parameters.add(muleMessage);
             } else {
-                outboundHeadersMap = declareStandardParameter(messageProcessorClass, fields, muleMessage, callProcessor, parameters, outboundHeadersMap, variable, fieldName, muleContext);
+                outboundHeadersMap = declareStandardParameter(fields, genericTypes, muleMessage, callProcessor, parameters, outboundHeadersMap, variable, fieldName, muleContext);
             }
         }
 
         if (connectMethod != null) {
-            DefinedClass connectionKey = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTION_PARAMETERS, ref(executableElement.parent()));
-
             Conditional ifDebugEnabled = callProcessor.body()._if(logger.invoke("isDebugEnabled"));
             org.mule.devkit.model.code.Variable messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "_messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Attempting to acquire a connection using "));
@@ -336,13 +363,15 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
             }
             ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
-            Invocation newKey = ExpressionFactory._new(connectionKey);
-            Invocation createConnection = moduleObject.invoke("acquireConnection");
+            // the key is built once per attempt and reused to release or destroy the connection
+            Invocation newKey = ExpressionFactory._new(connectionKey.type());
             for (Parameter variable : connectMethod.getParameters()) {
                 String fieldName = variable.getSimpleName().toString();
                 newKey.arg(connectionParameters.get(fieldName));
             }
-            createConnection.arg(newKey);
+            callProcessor.body().assign(connectionKey, newKey);
+            Invocation createConnection = moduleObject.invoke("acquireConnection");
+            createConnection.arg(connectionKey);
             callProcessor.body().assign(connection, createConnection);
 
             Conditional ifConnectionIsNull = callProcessor.body()._if(Op.eq(connection, ExpressionFactory._null()));
@@ -372,16 +401,12 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
 
         org.mule.devkit.model.code.Type returnType = ref(executableElement.getReturnType());
 
-        callProcessor.body().add(retryCount.invoke("getAndIncrement"));
-
         if (connectMethod != null) {
             generateMethodCall(callProcessor.body(), connection, methodName, parameters, event, returnType, poolObject, interceptCallback, messageProcessorListener);
         } else {
             generateMethodCall(callProcessor.body(), moduleObject, methodName, parameters, event, returnType, poolObject, interceptCallback, messageProcessorListener);
         }
 
-        callProcessor.body().add(retryCount.invoke("set").arg(ExpressionFactory.lit(0)));
-
         for (Parameter variable : executableElement.getParameters()) {
             OutboundHeaders outboundHeaders = variable.getAnnotation(OutboundHeaders.class);
             if (outboundHeaders != null) {
@@ -402,7 +427,6 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
 
         callProcessor.body()._return(event);
 
-        InvalidateConnectionOn invalidateConnectionOn = executableElement.getAnnotation(InvalidateConnectionOn.class);
         if (connectMethod != null &&
                 invalidateConnectionOn != null) {
 
@@ -438,15 +462,8 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
 
             TryStatement innerTry = catchBlock.body()._try();
 
-            DefinedClass connectionKey = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTION_PARAMETERS, ref(executableElement.parent()));
-            Invocation newKey = ExpressionFactory._new(connectionKey);
-            for (Parameter variable : connectMethod.getParameters()) {
-                String fieldName = variable.getSimpleName().toString();
-                newKey.arg(connectionParameters.get(fieldName));
-            }
-
             Invocation destroySession = moduleObject.invoke("destroyConnection");
-            destroySession.arg(newKey);
+            destroySession.arg(connectionKey);
             destroySession.arg(connection);
 
             innerTry.body().add(destroySession);
@@ -456,7 +473,8 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
             org.mule.devkit.model.code.Variable destroyException = logException.param("e");
             logException.body().add(logger.invoke("error").arg(destroyException.invoke("getMessage")).arg(destroyException));
 
-            Conditional ifRetryMaxNotReached = catchBlock.body()._if(Op.lte(retryCount.invoke("get"), retryMax));
+            Conditional ifRetryMaxNotReached = catchBlock.body()._if(Op.lt(retryCount, retryMax));
+            ifRetryMaxNotReached._then().assignPlus(retryCount, ExpressionFactory.lit(1));
             ifDebugEnabled = ifRetryMaxNotReached._then()._if(logger.invoke("isDebugEnabled"));
             messageStringBuilder = ifDebugEnabled._then().decl(ref(StringBuilder.class), "_messageStringBuilder", ExpressionFactory._new(ref(StringBuilder.class)));
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("Forcing a retry [time="));
@@ -466,7 +484,7 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
             ifDebugEnabled._then().add(messageStringBuilder.invoke("append").arg("]."));
             ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
-            ifRetryMaxNotReached._then()._return(ExpressionFactory.invoke("process").arg(event));
+            ifRetryMaxNotReached._then()._continue();
 
             org.mule.devkit.model.code.Variable invalidConnection = catchBlock.param("invalidConnection");
             TypeReference coreMessages = ref(CoreMessages.class);
@@ -510,15 +528,8 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
             ifDebugEnabled._then().add(logger.invoke("debug").arg(messageStringBuilder.invoke("toString")));
 
 
-            DefinedClass connectionKey = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTION_PARAMETERS, ref(executableElement.parent()));
-            Invocation newKey = ExpressionFactory._new(connectionKey);
-            for (Parameter variable : connectMethod.getParameters()) {
-                String fieldName = variable.getSimpleName().toString();
-                newKey.arg(connectionParameters.get(fieldName));
-            }
-
             Invocation returnConnection = moduleObject.invoke("releaseConnection");
-            returnConnection.arg(newKey);
+            returnConnection.arg(connectionKey);
             returnConnection.arg(connection);
 
             ifConnectionNotNull._then().add(returnConnection);
@@ -529,7 +540,7 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
 
     }
 
-    private org.mule.devkit.model.code.Variable declareStandardParameter(DefinedClass messageProcessorClass, Map<String, FieldVariableElement> fields, org.mule.devkit.model.code.Variable muleMessage, TryStatement callProcessor, List<Expression> parameters, org.mule.devkit.model.code.Variable outboundHeadersMap, Variable variable, String fieldName, FieldVariable muleContext) {
+    private org.mule.devkit.model.code.Variable declareStandardParameter(Map<String, FieldVariableElement> fields, Map<String, FieldVariable> genericTypes, org.mule.devkit.model.code.Variable muleMessage, TryStatement callProcessor, List<Expression> parameters, org.mule.devkit.model.code.Variable outboundHeadersMap, Variable variable, String fieldName, FieldVariable muleContext) {
         InboundHeaders inboundHeaders = variable.getAnnotation(InboundHeaders.class);
         OutboundHeaders outboundHeaders = variable.getAnnotation(OutboundHeaders.class);
         InvocationHeaders invocationHeaders = variable.getAnnotation(InvocationHeaders.class);
@@ -545,10 +556,7 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
         if (outboundHeaders == null) {
             org.mule.devkit.model.code.Type type = ref(fields.get(fieldName).getVariable().asType()).boxify();
             String name = "_transformed" + StringUtils.capitalize(fieldName);
-            Invocation getGenericType = messageProcessorClass.dotclass().invoke("getDeclaredField").arg(
-                    ExpressionFactory.lit(fields.get(fieldName).getFieldType().name())
-            ).invoke("getGenericType");
-            Invocation evaluateAndTransform = ExpressionFactory.invoke("evaluateAndTransform").arg(muleContext).arg(muleMessage).arg(getGenericType);
+            Invocation evaluateAndTransform = ExpressionFactory.invoke("evaluateAndTransform").arg(muleContext).arg(muleMessage).arg(genericTypes.get(fieldName));
             
             Mime mime = fields.get(fieldName).getVariable().getAnnotation(Mime.class);
             if( mime != null ) {
@@ -674,7 +682,18 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
         }
     }
 
-    private Map<String, Expression> declareConnectionParametersVariables(Method executableElement, Map<String, FieldVariableElement> connectionFields, org.mule.devkit.model.code.Method process) {
+    private void generateRetryDelay(Block body, org.mule.devkit.model.code.Variable event, String methodName, org.mule.devkit.model.code.Variable retryCount, FieldVariable retryInterval, FieldVariable retryBackoff) {
+        Block ifRetrying = body._if(Op.gt(retryCount, ExpressionFactory.lit(0)))._then();
+        org.mule.devkit.model.code.Variable retryDelay = ifRetrying.decl(ctx().getCodeModel().LONG, "retryDelay",
+                retryBackoff.invoke("getDelay").arg(retryInterval).arg(retryCount));
+        TryStatement trySleep = ifRetrying._if(Op.gt(retryDelay, ExpressionFactory.lit(0)))._then()._try();
+        trySleep.body().add(ref(Thread.class).staticInvoke("sleep").arg(retryDelay));
+        CatchBlock catchInterrupted = trySleep._catch(ref(InterruptedException.class));
+        catchInterrupted.body().add(ref(Thread.class).staticInvoke("currentThread").invoke("interrupt"));
+        generateThrow("failedToInvoke", MessagingException.class, catchInterrupted, event, methodName);
+    }
+
+    private Map<String, Expression> declareConnectionParametersVariables(Method executableElement, Map<String, FieldVariableElement> connectionFields, Block body) {
         Map<String, Expression> connectionParameters = new HashMap<String, Expression>();
         Method connectMethod = connectForMethod(executableElement);
         if (connectMethod != null) {
@@ -684,25 +703,34 @@ public class MessageProcessorGenerator extends AbstractMessageGenerator {
                 org.mule.devkit.model.code.Type type = ref(connectionFields.get(fieldName).getVariable().asType()).boxify();
                 String name = "_transformed" + StringUtils.capitalize(fieldName);
 
-                org.mule.devkit.model.code.Variable transformed = process.body().decl(type, name, ExpressionFactory._null());
+                org.mule.devkit.model.code.Variable transformed = body.decl(type, name, ExpressionFactory._null());
                 connectionParameters.put(fieldName, transformed);
             }
         }
         return connectionParameters;
     }
 
-    private org.mule.devkit.model.code.Variable addConnectionVariableIfNeeded(Method executableElement, org.mule.devkit.model.code.Method process) {
+    private org.mule.devkit.model.code.Variable addConnectionKeyVariableIfNeeded(Method executableElement, Block body) {
+        Method connectMethod = connectForMethod(executableElement);
+        if (connectMethod != null) {
+            DefinedClass connectionKeyClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTION_PARAMETERS, ref(connectMethod.parent()));
+            return body.decl(connectionKeyClass, "connectionKey", ExpressionFactory._null());
+        }
+        return null;
+    }
+
+    private org.mule.devkit.model.code.Variable addConnectionVariableIfNeeded(Method executableElement, Block body) {
         Method connectMethod = connectForMethod(executableElement);
         if (connectForMethod(executableElement) != null) {
             DefinedClass connectionClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTOR_OBJECT, ref(connectMethod.parent()));
-            return process.body().decl(connectionClass, "connection", ExpressionFactory._null());
+            return body.decl(connectionClass, "connection", ExpressionFactory._null());
         }
         return null;
     }
 
-    private org.mule.devkit.model.code.Variable declarePoolObjectIfClassNotNull(DefinedClass poolObjectClass, org.mule.devkit.model.code.Method process) {
+    private org.mule.devkit.model.code.Variable declarePoolObjectIfClassNotNull(DefinedClass poolObjectClass, Block body) {
         if (poolObjectClass != null) {
-            return process.body().decl(poolObjectClass, "_poolObject", ExpressionFactory._null());
+            return body.decl(poolObjectClass, "_poolObject", ExpressionFactory._null());
         }
         return null;
     }
@@ -48,21 +48,40 @@ import org.mule.devkit.model.code.DefinedClassRoles;
 import org.mule.devkit.model.code.Expression;
 import org.mule.devkit.model.code.ExpressionFactory;
 import org.mule.devkit.model.code.FieldVariable;
+import org.mule.devkit.model.code.ForLoop;
 import org.mule.devkit.model.code.Invocation;
 import org.mule.devkit.model.code.Modifier;
 import org.mule.devkit.model.code.Op;
 import org.mule.devkit.model.code.TryStatement;
 import org.mule.devkit.model.code.TypeReference;
 import org.mule.devkit.model.code.Variable;
+import org.mule.devkit.model.code.builders.FieldBuilder;
 import org.mule.devkit.model.schema.SchemaTypeConversion;
+import org.mule.util.concurrent.NamedThreadFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class MessageSourceGenerator extends AbstractMessageGenerator {
 
+    private static final String THREADS_FIELD_NAME = "THREADS";
+    private static final String STOP_TIMEOUT_FIELD_NAME = "STOP_TIMEOUT";
+    private static final String BATCH_SIZE_FIELD_NAME = "BATCH_SIZE";
+    private static final String BATCH_TIMEOUT_FIELD_NAME = "BATCH_TIMEOUT";
+    private static final String MAX_IN_FLIGHT_FIELD_NAME = "MAX_IN_FLIGHT";
+
     @Override
     public boolean shouldGenerate(Type type) {
         return type.isModuleOrConnector() &&
@@ -117,14 +136,88 @@ public class MessageSourceGenerator extends AbstractMessageGenerator {
             stopSourceCallback = messageSourceClass.field(Modifier.PRIVATE, ref(StopSourceCallback.class), "stopSourceCallback");
         }
 
+        SourceThreadingModel threadingModel = sourceMethod.getThreadingModel();
+
+        FieldVariable stopTimeout = null;
+        if (threadingModel != SourceThreadingModel.NONE) {
+            stopTimeout = FieldBuilder.newConstantFieldBuilder(messageSourceClass).
+                    type(ctx().getCodeModel().LONG).name(STOP_TIMEOUT_FIELD_NAME).
+                    initialValue(ExpressionFactory.lit(sourceMethod.getStopTimeout())).
+                    javadoc("Milliseconds to wait for running threads when this message source is stopped").
+                    build();
+        }
+
+        FieldVariable threads = null;
+        if (usesThreadPool(threadingModel)) {
+            threads = FieldBuilder.newConstantFieldBuilder(messageSourceClass).
+                    type(ctx().getCodeModel().INT).name(THREADS_FIELD_NAME).
+                    initialValue(sourceMethod.getThreads()).
+                    javadoc("Number of threads used by this message source").
+                    build();
+        }
+
         FieldVariable thread = null;
-        if (sourceMethod.getThreadingModel() == SourceThreadingModel.SINGLE_THREAD) {
+        if (usesReceivingThread(threadingModel)) {
             thread = messageSourceClass.field(Modifier.PRIVATE, ref(Thread.class), "thread");
             thread.javadoc().add("Thread under which this message source will execute");
         }
 
+        FieldVariable workerPool = null;
+        if (threadingModel == SourceThreadingModel.WORKER_POOL) {
+            workerPool = messageSourceClass.field(Modifier.PRIVATE, ref(ExecutorService.class), "workerPool");
+            workerPool.javadoc().add("Workers processing the events generated by the receiving thread");
+        }
+
+        FieldVariable consumers = null;
+        if (usesConsumerPool(threadingModel)) {
+            consumers = messageSourceClass.field(Modifier.PRIVATE, ref(ExecutorService.class), "consumers");
+            consumers.javadoc().add("Threads under which this message source will execute");
+        }
+
+        FieldVariable batchSize = null;
+        FieldVariable batch = null;
+        if (sourceMethod.getBatchSize() > 1) {
+            batchSize = FieldBuilder.newConstantFieldBuilder(messageSourceClass).
+                    type(ctx().getCodeModel().INT).name(BATCH_SIZE_FIELD_NAME).
+                    initialValue(sourceMethod.getBatchSize()).
+                    javadoc("Number of payloads dispatched together").
+                    build();
+            batch = new FieldBuilder(messageSourceClass).privateVisibility().finalField().
+                    type(ref(BlockingQueue.class).narrow(Object.class)).name("batch").
+                    initialValue(ExpressionFactory._new(ref(LinkedBlockingQueue.class).narrow(Object.class))).
+                    javadoc("Payloads waiting to be dispatched").
+                    build();
+        }
+
+        FieldVariable batchTimeout = null;
+        FieldVariable batchFlusher = null;
+        if (batch != null && sourceMethod.getBatchTimeout() > 0) {
+            batchTimeout = FieldBuilder.newConstantFieldBuilder(messageSourceClass).
+                    type(ctx().getCodeModel().LONG).name(BATCH_TIMEOUT_FIELD_NAME).
+                    initialValue(ExpressionFactory.lit(sourceMethod.getBatchTimeout())).
+                    javadoc("Milliseconds after which a partial batch is dispatched").
+                    build();
+            batchFlusher = messageSourceClass.field(Modifier.PRIVATE, ref(ScheduledExecutorService.class), "batchFlusher");
+            batchFlusher.javadoc().add("Dispatches partial batches periodically");
+        }
+
+        FieldVariable maxInFlight = null;
+        FieldVariable inFlight = null;
+        if (sourceMethod.getMaxInFlight() > 0) {
+            maxInFlight = FieldBuilder.newConstantFieldBuilder(messageSourceClass).
+                    type(ctx().getCodeModel().INT).name(MAX_IN_FLIGHT_FIELD_NAME).
+                    initialValue(ExpressionFactory.lit(sourceMethod.getMaxInFlight())).
+                    javadoc("Maximum number of events dispatched and not completed yet").
+                    build();
+            inFlight = new FieldBuilder(messageSourceClass).privateVisibility().finalField().
+                    type(Semaphore.class).name("inFlight").
+                    initialValue(ExpressionFactory._new(ref(Semaphore.class)).arg(maxInFlight)).
+                    javadoc("Permits for events dispatched and not completed yet").
+                    build();
+        }
+
         // add initialise
-        generateInitialiseMethod(messageSourceClass, fields, type, muleContext, object, null, !type.needsConfig());
+        generateInitialiseMethod(messageSourceClass, fields, type, muleContext, object, !type.needsConfig());
 
         // add setmulecontext
         generateSetMuleContextMethod(messageSourceClass, muleContext);
@@ -151,31 +244,55 @@ public class MessageSourceGenerator extends AbstractMessageGenerator {
         }
 
         // add process method
-        generateSourceCallbackProcessMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct);
-        generateSourceCallbackProcessWithPropertiesMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct);
-        generateSourceCallbackProcessMethodWithNoPayload(messageSourceClass, messageProcessor, muleContext, flowConstruct);
+        org.mule.devkit.model.code.Method processBatch = generateSourceCallbackProcessBatchMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct, workerPool, inFlight);
+        org.mule.devkit.model.code.Method startBatchFlusher = null;
+        org.mule.devkit.model.code.Method flushPendingBatches = null;
+        if (batch != null) {
+            org.mule.devkit.model.code.Method flushBatch = generateFlushBatchMethod(messageSourceClass, batch, processBatch);
+            org.mule.devkit.model.code.Method process = generateBatchingProcessMethod(messageSourceClass, batch, batchSize, flushBatch);
+            generateBatchingOfferMethod(messageSourceClass, inFlight, process);
+            if (batchFlusher != null) {
+                startBatchFlusher = generateStartBatchFlusherMethod(messageSourceClass, batchFlusher, batchSize, batchTimeout, flushBatch, muleContext);
+            }
+            flushPendingBatches = generateFlushPendingBatchesMethod(messageSourceClass, batch, batchSize, batchFlusher, flushBatch, muleContext);
+        } else {
+            generateSourceCallbackProcessMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct, workerPool, inFlight);
+            generateSourceCallbackOfferMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct, workerPool, inFlight);
+        }
+        generateSourceCallbackProcessWithPropertiesMethod(messageSourceClass, messageProcessor, muleContext, flowConstruct, workerPool, inFlight);
+        generateSourceCallbackProcessMethodWithNoPayload(messageSourceClass, messageProcessor, muleContext, flowConstruct, workerPool, inFlight);
+        generateSourceCallbackGetInFlightEventsMethod(messageSourceClass, inFlight, maxInFlight);
 
-        if (sourceMethod.getThreadingModel() == SourceThreadingModel.SINGLE_THREAD) {
+        if (usesReceivingThread(threadingModel)) {
             // add start method
-            generateSingleThreadStartMethod(messageSourceClass, thread);
+            generateSingleThreadStartMethod(messageSourceClass, thread, workerPool, threads, startBatchFlusher);
             // add stop method
-            generateSingleThreadStopMethod(messageSourceClass, thread);
+            generateSingleThreadStopMethod(messageSourceClass, thread, workerPool, stopTimeout, flushPendingBatches);
+        } else if (usesConsumerPool(threadingModel)) {
+            org.mule.devkit.model.code.Method newThreadFactory = null;
+            if (threadingModel == SourceThreadingModel.VIRTUAL_THREAD) {
+                newThreadFactory = generateNewVirtualThreadFactoryMethod(messageSourceClass);
+            }
+            // add start method
+            generateMultiThreadStartMethod(messageSourceClass, consumers, threads, newThreadFactory, startBatchFlusher);
+            // add stop method
+            generateMultiThreadStopMethod(messageSourceClass, consumers, stopTimeout, flushPendingBatches);
         } else {
             // get pool object if poolable
             if (type.isPoolable()) {
                 DefinedClass poolObjectClass = ctx().getCodeModel()._class(DefinedClassRoles.POOL_OBJECT, ref(type));
 
                 // add start method method
-                generateNoThreadStartMethod(messageSourceClass, sourceMethod, fields, connectFields, object, muleContext, poolObjectClass, flowConstruct, stopSourceCallback);
+                generateNoThreadStartMethod(messageSourceClass, sourceMethod, fields, connectFields, object, muleContext, poolObjectClass, flowConstruct, stopSourceCallback, startBatchFlusher);
             } else {
                 // add start method method
-                generateNoThreadStartMethod(messageSourceClass, sourceMethod, fields, connectFields, object, muleContext, flowConstruct, stopSourceCallback);
+                generateNoThreadStartMethod(messageSourceClass, sourceMethod, fields, connectFields, object, muleContext, flowConstruct, stopSourceCallback, startBatchFlusher);
             }
             // add stop method
-            generateNoThreadStopMethod(messageSourceClass, stopSourceCallback, sourceMethod);
+            generateNoThreadStopMethod(messageSourceClass, stopSourceCallback, sourceMethod, flushPendingBatches);
         }
 
-        if (sourceMethod.getThreadingModel() == SourceThreadingModel.SINGLE_THREAD) {
+        if (threadingModel != SourceThreadingModel.NONE) {
             // get pool object if poolable
             if (type.isPoolable()) {
                 DefinedClass poolObjectClass = ctx().getCodeModel()._class(DefinedClassRoles.POOL_OBJECT, ref(type));
@@ -215,9 +332,12 @@ public class MessageSourceGenerator extends AbstractMessageGenerator {
         Map<String, Expression> connectionParameters = new HashMap<String, Expression>();
         Method connectMethod = connectForMethod(sourceMethod);
         Variable connection = null;
+        Variable connectionKey = null;
         if (connectMethod != null) {
             DefinedClass connectionClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTOR_OBJECT, ref(connectMethod.parent()));
             connection = body.decl(connectionClass, "connection", ExpressionFactory._null());
+            DefinedClass connectionKeyClass = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTION_PARAMETERS, ref(connectMethod.parent()));
+            connectionKey = body.decl(connectionKeyClass, "connectionKey", ExpressionFactory._null());
 
             for (Parameter variable : connectMethod.getParameters()) {
                 String fieldName = variable.getSimpleName().toString();
@@ -294,15 +414,15 @@ public class MessageSourceGenerator extends AbstractMessageGenerator {
             callSource.body().assign(poolObject, ExpressionFactory.cast(poolObject.type(), moduleObject.invoke("getLifecyleEnabledObjectPool").invoke("borrowObject")));
             methodCall = poolObject.invoke(methodName);
         } else if (connectMethod != null) {
-            DefinedClass connectionKey = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTION_PARAMETERS, ref(sourceMethod.parent()));
-
-            Invocation newKey = ExpressionFactory._new(connectionKey);
-            Invocation createConnection = moduleObject.invoke("acquireConnection");
+            // the key is built once and reused to release the connection
+            Invocation newKey = ExpressionFactory._new(connectionKey.type());
             for (Parameter variable : connectMethod.getParameters()) {
                 String fieldName = variable.getSimpleName().toString();
                 newKey.arg(connectionParameters.get(fieldName));
             }
-            createConnection.arg(newKey);
+            callSource.body().assign(connectionKey, newKey);
+            Invocation createConnection = moduleObject.invoke("acquireConnection");
+            createConnection.arg(connectionKey);
             callSource.body().assign(connection, createConnection);
 
             Conditional ifConnectionIsNull = callSource.body()._if(Op.eq(connection, ExpressionFactory._null()));
@@ -352,14 +472,8 @@ public class MessageSourceGenerator extends AbstractMessageGenerator {
 
             TryStatement tryToReleaseSession = connectionNotNull._try();
 
-            DefinedClass connectionKey = ctx().getCodeModel()._class(DefinedClassRoles.CONNECTION_PARAMETERS, ref(sourceMethod.parent()));
-            Invocation newKey = ExpressionFactory._new(connectionKey);
-            for (String field : connectionParameters.keySet()) {
-                newKey.arg(connectionParameters.get(field));
-            }
-
             Invocation returnConnection = moduleObject.invoke("releaseConnection");
-            returnConnection.arg(newKey);
+            returnConnection.arg(connectionKey);
             returnConnection.arg(connection);
 
             tryToReleaseSession.body().add(returnConnection);
@@ -368,10 +482,29 @@ public class MessageSourceGenerator extends AbstractMessageGenerator {
         }
     }
 
-    private void generateSingleThreadStartMethod(DefinedClass messageSourceClass, FieldVariable thread) {
+    private void generateSingleThreadStartMethod(DefinedClass messageSourceClass, FieldVariable thread, FieldVariable workerPool, FieldVariable threads, org.mule.devkit.model.code.Method startBatchFlusher) {
         org.mule.devkit.model.code.Method start = messageSourceClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "start");
         start.javadoc().add("Method to be called when Mule instance gets started.");
         start._throws(ref(MuleException.class));
+
+        if (workerPool != null) {
+            // bounded queue, once full the receiving thread processes the event itself
+            Conditional ifNoWorkerPool = start.body()._if(Op.eq(workerPool, ExpressionFactory._null()));
+            Invocation newWorkerPool = ExpressionFactory._new(ref(ThreadPoolExecutor.class));
+            newWorkerPool.arg(threads);
+            newWorkerPool.arg(threads);
+            newWorkerPool.arg(ExpressionFactory.lit(0L));
+            newWorkerPool.arg(ref(TimeUnit.class).staticRef("MILLISECONDS"));
+            newWorkerPool.arg(ExpressionFactory._new(ref(ArrayBlockingQueue.class).narrow(Runnable.class)).arg(threads));
+            newWorkerPool.arg(ExpressionFactory._new(ref(NamedThreadFactory.class)).arg(threadNamePrefix(messageSourceClass, "worker")));
+            newWorkerPool.arg(ExpressionFactory._new(ref(ThreadPoolExecutor.CallerRunsPolicy.class)));
+            ifNoWorkerPool._then().assign(workerPool, newWorkerPool);
+        }
+
+        if (startBatchFlusher != null) {
+            start.body().invoke(startBatchFlusher);
+        }
+
         Conditional ifNoThread = start.body()._if(Op.eq(thread, ExpressionFactory._null()));
         Invocation newThread = ExpressionFactory._new(ref(Thread.class));
         newThread.arg(ExpressionFactory._this());
@@ -382,29 +515,144 @@ public class MessageSourceGenerator extends AbstractMessageGenerator {
     }
 
 
-    private void generateSingleThreadStopMethod(DefinedClass messageSourceClass, FieldVariable thread) {
+    private void generateSingleThreadStopMethod(DefinedClass messageSourceClass, FieldVariable thread, FieldVariable workerPool, FieldVariable stopTimeout, org.mule.devkit.model.code.Method flushPendingBatches) {
         org.mule.devkit.model.code.Method stop = messageSourceClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "stop");
         stop.javadoc().add("Method to be called when Mule instance gets stopped.");
         stop._throws(ref(MuleException.class));
 
-        stop.body().add(thread.invoke("interrupt"));
+        Block ifThread = stop.body()._if(Op.ne(thread, ExpressionFactory._null()))._then();
+        ifThread.add(thread.invoke("interrupt"));
+        TryStatement tryToJoin = ifThread._try();
+        tryToJoin.body().add(thread.invoke("join").arg(stopTimeout));
+        CatchBlock catchInterrupted = tryToJoin._catch(ref(InterruptedException.class));
+        catchInterrupted.param("e");
+        catchInterrupted.body().add(ref(Thread.class).staticInvoke("currentThread").invoke("interrupt"));
+        ifThread.assign(thread, ExpressionFactory._null());
+
+        if (flushPendingBatches != null) {
+            stop.body().invoke(flushPendingBatches);
+        }
+
+        if (workerPool != null) {
+            // let the workers drain already received events
+            Block ifWorkerPool = stop.body()._if(Op.ne(workerPool, ExpressionFactory._null()))._then();
+            ifWorkerPool.add(workerPool.invoke("shutdown"));
+            generateAwaitTermination(ifWorkerPool, workerPool, stopTimeout);
+            ifWorkerPool.assign(workerPool, ExpressionFactory._null());
+        }
     }
 
-    private void generateNoThreadStartMethod(DefinedClass messageSourceClass, SourceMethod sourceMethod, Map<String, FieldVariableElement> fields, Map<String, FieldVariableElement> connectFields, FieldVariable object, FieldVariable muleContext, FieldVariable flowConstruct, FieldVariable stopSourceCallback) {
-        generateNoThreadStartMethod(messageSourceClass, sourceMethod, fields, connectFields, object, muleContext, null, flowConstruct, stopSourceCallback);
+    private void generateMultiThreadStartMethod(DefinedClass messageSourceClass, FieldVariable consumers, FieldVariable threads, org.mule.devkit.model.code.Method newThreadFactory, org.mule.devkit.model.code.Method startBatchFlusher) {
+        org.mule.devkit.model.code.Method start = messageSourceClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "start");
+        start.javadoc().add("Method to be called when Mule instance gets started.");
+        start._throws(ref(MuleException.class));
+
+        if (startBatchFlusher != null) {
+            start.body().invoke(startBatchFlusher);
+        }
+
+        Expression threadNamePrefix = threadNamePrefix(messageSourceClass, "consumer");
+        Expression threadFactory;
+        if (newThreadFactory != null) {
+            threadFactory = ExpressionFactory.invoke(newThreadFactory).arg(threadNamePrefix);
+        } else {
+            threadFactory = ExpressionFactory._new(ref(NamedThreadFactory.class)).arg(threadNamePrefix);
+        }
+        Conditional ifNoConsumers = start.body()._if(Op.eq(consumers, ExpressionFactory._null()));
+        ifNoConsumers._then().assign(consumers, ref(Executors.class).staticInvoke("newFixedThreadPool").arg(threads).arg(threadFactory));
+
+        ForLoop startConsumers = start.body()._for();
+        Variable i = startConsumers.init(ctx().getCodeModel().INT, "i", ExpressionFactory.lit(0));
+        startConsumers.test(Op.lt(i, threads));
+        startConsumers.update(Op.incr(i));
+        startConsumers.body().add(consumers.invoke("execute").arg(ExpressionFactory._this()));
     }
 
-    private void generateNoThreadStartMethod(DefinedClass messageSourceClass, SourceMethod sourceMethod, Map<String, FieldVariableElement> fields, Map<String, FieldVariableElement> connectFields, FieldVariable object, FieldVariable muleContext, DefinedClass poolObjectClass, FieldVariable flowConstruct, FieldVariable stopSourceCallback) {
+    private void generateMultiThreadStopMethod(DefinedClass messageSourceClass, FieldVariable consumers, FieldVariable stopTimeout, org.mule.devkit.model.code.Method flushPendingBatches) {
+        org.mule.devkit.model.code.Method stop = messageSourceClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "stop");
+        stop.javadoc().add("Method to be called when Mule instance gets stopped.");
+        stop._throws(ref(MuleException.class));
+
+        // running consumers get the stop timeout to return on their own before being interrupted
+        Block ifConsumers = stop.body()._if(Op.ne(consumers, ExpressionFactory._null()))._then();
+        ifConsumers.add(consumers.invoke("shutdown"));
+        generateAwaitTermination(ifConsumers, consumers, stopTimeout);
+        ifConsumers.assign(consumers, ExpressionFactory._null());
+
+        if (flushPendingBatches != null) {
+            stop.body().invoke(flushPendingBatches);
+        }
+    }
+
+    private void generateAwaitTermination(Block block, FieldVariable executor, FieldVariable stopTimeout) {
+        TryStatement tryToAwait = block._try();
+        Conditional ifNotTerminated = tryToAwait.body()._if(Op.not(executor.invoke("awaitTermination").arg(stopTimeout).arg(ref(TimeUnit.class).staticRef("MILLISECONDS"))));
+        ifNotTerminated._then().add(executor.invoke("shutdownNow"));
+        CatchBlock catchInterrupted = tryToAwait._catch(ref(InterruptedException.class));
+        catchInterrupted.param("e");
+        catchInterrupted.body().add(executor.invoke("shutdownNow"));
+        catchInterrupted.body().add(ref(Thread.class).staticInvoke("currentThread").invoke("interrupt"));
+    }
+
+    /**
+     * Virtual threads are only reachable through reflection as generated code must still run on older JVMs.
+     */
+    private org.mule.devkit.model.code.Method generateNewVirtualThreadFactoryMethod(DefinedClass messageSourceClass) {
+        org.mule.devkit.model.code.Method newThreadFactory = messageSourceClass.method(Modifier.PRIVATE | Modifier.STATIC, ref(ThreadFactory.class), "newVirtualThreadFactory");
+        newThreadFactory.javadoc().add("Creates a factory of virtual threads if supported by this JVM, of platform threads otherwise.");
+        Variable name = newThreadFactory.param(ref(String.class), "name");
+
+        TryStatement tryVirtual = newThreadFactory.body()._try();
+        Variable builder = tryVirtual.body().decl(ref(Object.class), "builder",
+                ref(Thread.class).dotclass().invoke("getMethod").arg("ofVirtual").invoke("invoke").arg(ExpressionFactory._null()));
+        Variable builderClass = tryVirtual.body().decl(ref(Class.class).narrow(ref(Object.class).wildcard()), "builderClass",
+                ref(Class.class).staticInvoke("forName").arg("java.lang.Thread$Builder"));
+        tryVirtual.body().assign(builder, builderClass.invoke("getMethod").arg("name").arg(ref(String.class).dotclass()).arg(ref(Long.class).staticRef("TYPE")).
+                invoke("invoke").arg(builder).arg(Op.plus(name, ExpressionFactory.lit("."))).arg(ExpressionFactory.lit(1L)));
+        tryVirtual.body()._return(ExpressionFactory.cast(ref(ThreadFactory.class), builderClass.invoke("getMethod").arg("factory").invoke("invoke").arg(builder)));
+
+        CatchBlock catchException = tryVirtual._catch(ref(Exception.class));
+        catchException.param("e");
+        catchException.body()._return(ExpressionFactory._new(ref(NamedThreadFactory.class)).arg(name));
+
+        return newThreadFactory;
+    }
+
+    private Expression threadNamePrefix(DefinedClass messageSourceClass, String role) {
+        return ExpressionFactory.lit(messageSourceClass.name() + "." + role);
+    }
+
+    private boolean usesReceivingThread(SourceThreadingModel threadingModel) {
+        return threadingModel == SourceThreadingModel.SINGLE_THREAD || threadingModel == SourceThreadingModel.WORKER_POOL;
+    }
+
+    private boolean usesConsumerPool(SourceThreadingModel threadingModel) {
+        return threadingModel == SourceThreadingModel.MULTI_THREAD || threadingModel == SourceThreadingModel.VIRTUAL_THREAD;
+    }
+
+    private boolean usesThreadPool(SourceThreadingModel threadingModel) {
+        return threadingModel == SourceThreadingModel.WORKER_POOL || usesConsumerPool(threadingModel);
+    }
+
+    private void generateNoThreadStartMethod(DefinedClass messageSourceClass, SourceMethod sourceMethod, Map<String, FieldVariableElement> fields, Map<String, FieldVariableElement> connectFields, FieldVariable object, FieldVariable muleContext, FieldVariable flowConstruct, FieldVariable stopSourceCallback, org.mule.devkit.model.code.Method startBatchFlusher) {
+        generateNoThreadStartMethod(messageSourceClass, sourceMethod, fields, connectFields, object, muleContext, null, flowConstruct, stopSourceCallback, startBatchFlusher);
+    }
+
+    private void generateNoThreadStartMethod(DefinedClass messageSourceClass, SourceMethod sourceMethod, Map<String, FieldVariableElement> fields, Map<String, FieldVariableElement> connectFields, FieldVariable object, FieldVariable muleContext, DefinedClass poolObjectClass, FieldVariable flowConstruct, FieldVariable stopSourceCallback, org.mule.devkit.model.code.Method startBatchFlusher) {
         String methodName = sourceMethod.getSimpleName().toString();
         org.mule.devkit.model.code.Method start = messageSourceClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "start");
         start.javadoc().add("Method to be called when Mule instance gets started.");
         start._throws(ref(MuleException.class));
 
+        if (startBatchFlusher != null) {
+            start.body().invoke(startBatchFlusher);
+        }
+
         generateSourceExecution(start.body(), sourceMethod, fields, connectFields, object, muleContext, poolObjectClass, flowConstruct, methodName, stopSourceCallback);
     }
 
 
-    private void generateNoThreadStopMethod(DefinedClass messageSourceClass, FieldVariable stopSourceCallback, SourceMethod sourceMethod) {
+    private void generateNoThreadStopMethod(DefinedClass messageSourceClass, FieldVariable stopSourceCallback, SourceMethod sourceMethod, org.mule.devkit.model.code.Method flushPendingBatches) {
         String methodName = sourceMethod.getSimpleName().toString();
         org.mule.devkit.model.code.Method stop = messageSourceClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "stop");
         stop.javadoc().add("Method to be called when Mule instance gets stopped.");
@@ -424,6 +672,92 @@ public class MessageSourceGenerator extends AbstractMessageGenerator {
 
             catchException.body()._throw(messagingException);
         }
+
+        if (flushPendingBatches != null) {
+            stop.body().invoke(flushPendingBatches);
+        }
+    }
+
+    private org.mule.devkit.model.code.Method generateFlushBatchMethod(DefinedClass messageSourceClass, FieldVariable batch, org.mule.devkit.model.code.Method processBatch) {
+        org.mule.devkit.model.code.Method flushBatch = messageSourceClass.method(Modifier.PRIVATE, ref(Object.class), "flushBatch");
+        flushBatch.javadoc().add("Dispatches up to maxPayloads of the accumulated payloads as a single event.");
+        flushBatch._throws(ref(Exception.class));
+        Variable maxPayloads = flushBatch.param(ctx().getCodeModel().INT, "maxPayloads");
+
+        Variable payloads = flushBatch.body().decl(ref(List.class).narrow(Object.class), "payloads", ExpressionFactory._new(ref(ArrayList.class).narrow(Object.class)));
+        flushBatch.body().add(batch.invoke("drainTo").arg(payloads).arg(maxPayloads));
+        flushBatch.body()._if(payloads.invoke("isEmpty"))._then()._return(ExpressionFactory._null());
+        flushBatch.body()._return(ExpressionFactory.invoke(processBatch).arg(payloads));
+
+        return flushBatch;
+    }
+
+    private org.mule.devkit.model.code.Method generateBatchingProcessMethod(DefinedClass messageSourceClass, FieldVariable batch, FieldVariable batchSize, org.mule.devkit.model.code.Method flushBatch) {
+        org.mule.devkit.model.code.Method process = messageSourceClass.method(Modifier.PUBLIC, ref(Object.class), "process");
+        process.javadoc().add("Implements {@link SourceCallback#process(Object)}. Payloads are accumulated and dispatched in batches, ");
+        process.javadoc().add("the response of the flow is only returned to the call completing a batch.");
+        process._throws(ref(Exception.class));
+        Variable message = process.param(ref(Object.class), "message");
+
+        process.body().add(batch.invoke("add").arg(message));
+        process.body()._if(Op.gte(batch.invoke("size"), batchSize))._then()._return(ExpressionFactory.invoke(flushBatch).arg(batchSize));
+        process.body()._return(ExpressionFactory._null());
+
+        return process;
+    }
+
+    private void generateBatchingOfferMethod(DefinedClass messageSourceClass, FieldVariable inFlight, org.mule.devkit.model.code.Method process) {
+        org.mule.devkit.model.code.Method offer = messageSourceClass.method(Modifier.PUBLIC, ctx().getCodeModel().BOOLEAN, "offer");
+        offer.javadoc().add("Implements {@link SourceCallback#offer(Object)}. The payload is only accumulated while in-flight permits ");
+        offer.javadoc().add("are available, a batch completed concurrently may still wait briefly for one.");
+        offer._throws(ref(Exception.class));
+        Variable message = offer.param(ref(Object.class), "message");
+
+        if (inFlight != null) {
+            offer.body()._if(Op.eq(inFlight.invoke("availablePermits"), ExpressionFactory.lit(0)))._then()._return(ExpressionFactory.FALSE);
+        }
+        offer.body().invoke(process).arg(message);
+        offer.body()._return(ExpressionFactory.TRUE);
+    }
+
+    private org.mule.devkit.model.code.Method generateStartBatchFlusherMethod(DefinedClass messageSourceClass, FieldVariable batchFlusher, FieldVariable batchSize, FieldVariable batchTimeout, org.mule.devkit.model.code.Method flushBatch, FieldVariable muleContext) {
+        org.mule.devkit.model.code.Method startBatchFlusher = messageSourceClass.method(Modifier.PRIVATE, ctx().getCodeModel().VOID, "startBatchFlusher");
+        startBatchFlusher.javadoc().add("Periodically dispatches partial batches so that no payload waits much longer than the batch timeout.");
+
+        DefinedClass flusher = ctx().getCodeModel().anonymousClass(Runnable.class);
+        org.mule.devkit.model.code.Method run = flusher.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "run");
+        TryStatement tryToFlush = run.body()._try();
+        tryToFlush.body().invoke(flushBatch).arg(batchSize);
+        CatchBlock catchException = tryToFlush._catch(ref(Exception.class));
+        Variable e = catchException.param("e");
+        catchException.body().add(muleContext.invoke("getExceptionListener").invoke("handleException").arg(e));
+
+        Block ifNoFlusher = startBatchFlusher.body()._if(Op.eq(batchFlusher, ExpressionFactory._null()))._then();
+        ifNoFlusher.assign(batchFlusher, ref(Executors.class).staticInvoke("newSingleThreadScheduledExecutor").
+                arg(ExpressionFactory._new(ref(NamedThreadFactory.class)).arg(threadNamePrefix(messageSourceClass, "batchFlusher"))));
+        ifNoFlusher.add(batchFlusher.invoke("scheduleWithFixedDelay").arg(ExpressionFactory._new(flusher)).
+                arg(batchTimeout).arg(batchTimeout).arg(ref(TimeUnit.class).staticRef("MILLISECONDS")));
+
+        return startBatchFlusher;
+    }
+
+    private org.mule.devkit.model.code.Method generateFlushPendingBatchesMethod(DefinedClass messageSourceClass, FieldVariable batch, FieldVariable batchSize, FieldVariable batchFlusher, org.mule.devkit.model.code.Method flushBatch, FieldVariable muleContext) {
+        org.mule.devkit.model.code.Method flushPendingBatches = messageSourceClass.method(Modifier.PRIVATE, ctx().getCodeModel().VOID, "flushPendingBatches");
+        flushPendingBatches.javadoc().add("Dispatches every payload still waiting in a partial batch.");
+
+        if (batchFlusher != null) {
+            Block ifFlusher = flushPendingBatches.body()._if(Op.ne(batchFlusher, ExpressionFactory._null()))._then();
+            ifFlusher.add(batchFlusher.invoke("shutdown"));
+            ifFlusher.assign(batchFlusher, ExpressionFactory._null());
+        }
+
+        TryStatement tryToFlush = flushPendingBatches.body()._try();
+        tryToFlush.body()._while(Op.not(batch.invoke("isEmpty"))).body().invoke(flushBatch).arg(batchSize);
+        CatchBlock catchException = tryToFlush._catch(ref(Exception.class));
+        Variable e = catchException.param("e");
+        catchException.body().add(muleContext.invoke("getExceptionListener").invoke("handleException").arg(e));
+
+        return flushPendingBatches;
     }
 
     private DefinedClass getMessageSourceClass(SourceMethod sourceMethod) {
@@ -436,7 +770,7 @@ public class MessageSourceGenerator extends AbstractMessageGenerator {
         inherits.add(SourceCallback.class);
         inherits.add(FlowConstructAware.class);
 
-        if (sourceMethod.getAnnotation(Source.class).threadingModel() == SourceThreadingModel.SINGLE_THREAD) {
+        if (sourceMethod.getThreadingModel() != SourceThreadingModel.NONE) {
             inherits.add(Runnable.class);
         }
 
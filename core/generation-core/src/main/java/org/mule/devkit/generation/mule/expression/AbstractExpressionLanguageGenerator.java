@@ -0,0 +1,136 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.generation.mule.expression;
+
+import org.mule.api.annotations.ExpressionCompiler;
+import org.mule.api.lifecycle.InitialisationException;
+import org.mule.devkit.generation.AbstractMessageGenerator;
+import org.mule.devkit.model.Method;
+import org.mule.devkit.model.Parameter;
+import org.mule.devkit.model.Type;
+import org.mule.devkit.model.code.CatchBlock;
+import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.ExpressionFactory;
+import org.mule.devkit.model.code.FieldVariable;
+import org.mule.devkit.model.code.Invocation;
+import org.mule.devkit.model.code.Modifier;
+import org.mule.devkit.model.code.Op;
+import org.mule.devkit.model.code.TryStatement;
+import org.mule.devkit.model.code.TypeReference;
+import org.mule.devkit.model.code.Variable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Common code for the generators of expression evaluators and enrichers. The reflective lookups needed to transform
+ * message values into the argument types of the module method are done once, when the generated class is
+ * initialised, and expressions are compiled at most once through the optional {@link ExpressionCompiler}.
+ */
+public abstract class AbstractExpressionLanguageGenerator extends AbstractMessageGenerator {
+
+    private static final String COMPILE_METHOD_NAME = "compile";
+
+    /**
+     * Generate a field holding the generic type of each parameter of the given module method, resolved at the
+     * beginning of the initialise method.
+     *
+     * @return The fields in the same order as the parameters
+     */
+    protected List<Variable> generateParameterTypeFields(DefinedClass clazz, Method executableElement, FieldVariable module, org.mule.devkit.model.code.Method initialise) {
+        Invocation newArray = ExpressionFactory._new(ref(Class.class).array());
+        for (Parameter parameter : executableElement.getParameters()) {
+            if (parameter.asType().getKind().isPrimitive()) {
+                newArray.arg(ref(parameter.asType()).boxify().staticRef("TYPE"));
+            } else {
+                newArray.arg(ref(parameter.asType()).boxify().dotclass());
+            }
+        }
+
+        TryStatement tryStatement = initialise.body()._try();
+        Variable parameterClasses = tryStatement.body().decl(ref(Class.class).array(), "parameterClasses", newArray);
+        Invocation getMethod = module.invoke("getClass").invoke("getMethod").arg(executableElement.getSimpleName().toString()).arg(parameterClasses);
+        Variable moduleMethod = tryStatement.body().decl(ref(java.lang.reflect.Method.class), "moduleMethod", getMethod);
+        Variable genericParameterTypes = tryStatement.body().decl(ref(java.lang.reflect.Type.class).array(), "genericParameterTypes", moduleMethod.invoke("getGenericParameterTypes"));
+
+        List<Variable> types = new ArrayList<Variable>();
+        for (Parameter parameter : executableElement.getParameters()) {
+            FieldVariable field = clazz.field(Modifier.PRIVATE, ref(java.lang.reflect.Type.class), parameter.getSimpleName().toString() + "Type");
+            tryStatement.body().assign(field, genericParameterTypes.component(ExpressionFactory.lit(types.size())));
+            types.add(field);
+        }
+
+        CatchBlock catchBlock = tryStatement._catch(ref(NoSuchMethodException.class));
+        Variable e = catchBlock.param("e");
+        catchBlock.body()._throw(ExpressionFactory._new(ref(InitialisationException.class)).arg(e).arg(ExpressionFactory._this()));
+
+        return types;
+    }
+
+    /**
+     * Generate a method that compiles an expression through the module's {@link ExpressionCompiler} and keeps the
+     * result in a bounded least recently used cache.
+     *
+     * @return The generated method or null if the module does not compile its expressions
+     */
+    protected org.mule.devkit.model.code.Method generateCompileMethod(Type type, DefinedClass clazz, FieldVariable module) {
+        Method compiler = getExpressionCompiler(type);
+        if (compiler == null) {
+            return null;
+        }
+
+        TypeReference compiledType = ref(compiler.getReturnType()).boxify();
+        FieldVariable compiledExpressions = clazz.field(Modifier.PRIVATE | Modifier.FINAL, ref(Map.class).narrow(ref(String.class), compiledType), "compiledExpressions",
+                newLeastRecentlyUsedMap(ref(String.class), compiledType, ExpressionFactory.lit(compiler.getAnnotation(ExpressionCompiler.class).maxEntries())));
+        compiledExpressions.javadoc().add("Compiled expressions, least recently used first");
+
+        org.mule.devkit.model.code.Method compile = clazz.method(Modifier.PRIVATE, compiledType, COMPILE_METHOD_NAME);
+        Variable expression = compile.param(ref(String.class), "expression");
+        Variable compiled = compile.body().decl(compiledType, "compiled", compiledExpressions.invoke("get").arg(expression));
+        org.mule.devkit.model.code.Block ifNotCompiled = compile.body()._if(Op.eq(compiled, ExpressionFactory._null()))._then();
+        Invocation compileInvoke = module.invoke(compiler.getSimpleName().toString()).arg(expression);
+        if (compiler.getThrownTypes().isEmpty()) {
+            ifNotCompiled.assign(compiled, compileInvoke);
+        } else {
+            TryStatement tryCompile = ifNotCompiled._try();
+            tryCompile.body().assign(compiled, compileInvoke);
+            CatchBlock catchRuntime = tryCompile._catch(ref(RuntimeException.class));
+            catchRuntime.body()._throw(catchRuntime.param("e"));
+            CatchBlock catchCompile = tryCompile._catch(ref(Exception.class));
+            catchCompile.body()._throw(ExpressionFactory._new(ref(RuntimeException.class)).arg(catchCompile.param("e")));
+        }
+        ifNotCompiled.add(compiledExpressions.invoke("put").arg(expression).arg(compiled));
+        compile.body()._return(compiled);
+
+        return compile;
+    }
+
+    /**
+     * Whether the given parameter receives the compiled expression rather than the expression String
+     */
+    protected boolean isCompiledExpressionParameter(Type type, Parameter parameter) {
+        Method compiler = getExpressionCompiler(type);
+        return compiler != null && parameter.asType().toString().equals(compiler.getReturnType().toString());
+    }
+
+    private Method getExpressionCompiler(Type type) {
+        List<Method> compilers = type.getMethodsAnnotatedWith(ExpressionCompiler.class);
+        return compilers.isEmpty() ? null : compilers.get(0);
+    }
+}
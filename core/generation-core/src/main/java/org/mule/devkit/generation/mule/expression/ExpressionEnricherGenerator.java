@@ -41,7 +41,6 @@ import org.mule.api.lifecycle.Startable;
 import org.mule.api.lifecycle.Stoppable;
 import org.mule.api.transformer.TransformerException;
 import org.mule.api.transport.PropertyScope;
-import org.mule.devkit.generation.AbstractMessageGenerator;
 import org.mule.devkit.generation.NamingConstants;
 import org.mule.devkit.generation.utils.NameUtils;
 import org.mule.devkit.model.Method;
@@ -64,15 +63,13 @@ import org.mule.devkit.model.code.TypeVariable;
 import org.mule.devkit.model.code.Variable;
 import org.mule.expression.ExpressionUtils;
 
-import javax.lang.model.type.TypeKind;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public class ExpressionEnricherGenerator extends AbstractMessageGenerator {
+public class ExpressionEnricherGenerator extends AbstractExpressionLanguageGenerator {
 
     @Override
     public boolean shouldGenerate(Type type) {
@@ -137,6 +134,7 @@ public class ExpressionEnricherGenerator extends AbstractMessageGenerator {
 
         org.mule.devkit.model.code.Method init = enricherClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "initialise");
         init._throws(ref(InitialisationException.class));
+        List<Variable> types = generateParameterTypeFields(enricherClass, executableElement, module, init);
         Conditional ifModuleIsInitialisable = init.body()._if(Op._instanceof(module, ref(Initialisable.class)));
         ifModuleIsInitialisable._then().add(ExpressionFactory.cast(ref(Initialisable.class), module).invoke("initialise"));
 
@@ -150,6 +148,8 @@ public class ExpressionEnricherGenerator extends AbstractMessageGenerator {
 
         generateSetName(enricherClass);
 
+        org.mule.devkit.model.code.Method compile = generateCompileMethod(type, enricherClass, module);
+
         org.mule.devkit.model.code.Method enrich = enricherClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "enrich");
         Variable expression = enrich.param(ref(String.class), "expression");
         Variable message = enrich.param(ref(MuleMessage.class), "message");
@@ -157,32 +157,7 @@ public class ExpressionEnricherGenerator extends AbstractMessageGenerator {
 
         TryStatement tryStatement = enrich.body()._try();
 
-        Invocation newArray = ExpressionFactory._new(ref(Class.class).array());
-        for (Parameter parameter : executableElement.getParameters()) {
-            if (parameter.asType().getKind() == TypeKind.BOOLEAN ||
-                    parameter.asType().getKind() == TypeKind.BYTE ||
-                    parameter.asType().getKind() == TypeKind.SHORT ||
-                    parameter.asType().getKind() == TypeKind.CHAR ||
-                    parameter.asType().getKind() == TypeKind.INT ||
-                    parameter.asType().getKind() == TypeKind.FLOAT ||
-                    parameter.asType().getKind() == TypeKind.LONG ||
-                    parameter.asType().getKind() == TypeKind.DOUBLE) {
-                newArray.arg(ref(parameter.asType()).boxify().staticRef("TYPE"));
-            } else {
-                newArray.arg(ref(parameter.asType()).boxify().dotclass());
-            }
-        }
-        Variable parameterClasses = tryStatement.body().decl(ref(Class.class).array(), "parameterClasses", newArray);
-        int argCount;
-        Invocation getMethod = module.invoke("getClass").invoke("getMethod").arg(executableElement.getSimpleName().toString()).arg(parameterClasses);
-        Variable moduleEvaluate = tryStatement.body().decl(ref(java.lang.reflect.Method.class), "evaluateMethod", getMethod);
-        List<Variable> types = new ArrayList<Variable>();
-        for (Parameter parameter : executableElement.getParameters()) {
-            Variable var = tryStatement.body().decl(ref(java.lang.reflect.Type.class), parameter.getSimpleName().toString() + "Type", moduleEvaluate.invoke("getGenericParameterTypes").component(ExpressionFactory.lit(types.size())));
-            types.add(var);
-        }
-
-        argCount = 0;
+        int argCount = 0;
         Variable invocationHeadersVar = null;
         Variable inboundHeadersVar = null;
         Variable outboundHeadersVar = null;
@@ -273,7 +248,9 @@ public class ExpressionEnricherGenerator extends AbstractMessageGenerator {
                 }
                 evaluateInvoke.arg(invocationHeadersVar);
             } else {
-                if (parameter.asType().toString().contains("String")) {
+                if (compile != null && isCompiledExpressionParameter(type, parameter)) {
+                    evaluateInvoke.arg(ExpressionFactory.invoke(compile).arg(expression));
+                } else if (parameter.asType().toString().contains("String")) {
                     evaluateInvoke.arg(expression);
                 } else if (parameter.asType().toString().contains("Object")) {
                     evaluateInvoke.arg(object);
@@ -309,7 +286,6 @@ public class ExpressionEnricherGenerator extends AbstractMessageGenerator {
             forEach.body().add(message.invoke("setProperty").arg(forEach.var()).arg(invocationHeadersVar.invoke("get").arg(forEach.var())).arg(ref(PropertyScope.class).staticRef("INVOCATION")));
         }
 
-        catchAndRethrowAsRuntimeException(tryStatement, NoSuchMethodException.class);
         catchAndRethrowAsRuntimeException(tryStatement, TransformerException.class);
 
         ctx().registerAtBoot(enricherClass);
@@ -40,7 +40,6 @@ import org.mule.api.lifecycle.InitialisationException;
 import org.mule.api.lifecycle.Startable;
 import org.mule.api.lifecycle.Stoppable;
 import org.mule.api.transformer.TransformerException;
-import org.mule.devkit.generation.AbstractMessageGenerator;
 import org.mule.devkit.generation.NamingConstants;
 import org.mule.devkit.generation.utils.NameUtils;
 import org.mule.devkit.model.Method;
@@ -60,12 +59,10 @@ import org.mule.devkit.model.code.TypeReference;
 import org.mule.devkit.model.code.Variable;
 import org.mule.expression.ExpressionUtils;
 
-import javax.lang.model.type.TypeKind;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-public class ExpressionEvaluatorGenerator extends AbstractMessageGenerator {
+public class ExpressionEvaluatorGenerator extends AbstractExpressionLanguageGenerator {
 
     @Override
     public boolean shouldGenerate(Type type) {
@@ -101,6 +98,7 @@ public class ExpressionEvaluatorGenerator extends AbstractMessageGenerator {
 
         org.mule.devkit.model.code.Method init = evaluatorClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "initialise");
         init._throws(ref(InitialisationException.class));
+        List<Variable> types = generateParameterTypeFields(evaluatorClass, executableElement, module, init);
         Conditional ifModuleIsInitialisable = init.body()._if(Op._instanceof(module, ref(Initialisable.class)));
         ifModuleIsInitialisable._then().add(ExpressionFactory.cast(ref(Initialisable.class), module).invoke("initialise"));
 
@@ -114,40 +112,15 @@ public class ExpressionEvaluatorGenerator extends AbstractMessageGenerator {
 
         generateSetName(evaluatorClass);
 
+        org.mule.devkit.model.code.Method compile = generateCompileMethod(type, evaluatorClass, module);
+
         org.mule.devkit.model.code.Method evaluate = evaluatorClass.method(Modifier.PUBLIC, ref(Object.class), "evaluate");
         Variable expression = evaluate.param(ref(String.class), "expression");
         Variable message = evaluate.param(ref(MuleMessage.class), "message");
 
         TryStatement tryStatement = evaluate.body()._try();
 
-        Invocation newArray = ExpressionFactory._new(ref(Class.class).array());
-        for (Parameter parameter : executableElement.getParameters()) {
-            //tryStatement.body().assign(parameterClasses.component(ExpressionFactory.lit(argCount)), ref(parameter.asType()).boxify().dotclass());
-            if (parameter.asType().getKind() == TypeKind.BOOLEAN ||
-                    parameter.asType().getKind() == TypeKind.BYTE ||
-                    parameter.asType().getKind() == TypeKind.SHORT ||
-                    parameter.asType().getKind() == TypeKind.CHAR ||
-                    parameter.asType().getKind() == TypeKind.INT ||
-                    parameter.asType().getKind() == TypeKind.FLOAT ||
-                    parameter.asType().getKind() == TypeKind.LONG ||
-                    parameter.asType().getKind() == TypeKind.DOUBLE) {
-                newArray.arg(ref(parameter.asType()).boxify().staticRef("TYPE"));
-            } else {
-                newArray.arg(ref(parameter.asType()).boxify().dotclass());
-            }
-            //argCount++;
-        }
-        Variable parameterClasses = tryStatement.body().decl(ref(Class.class).array(), "parameterClasses", newArray);
-        int argCount;
-        Invocation getMethod = module.invoke("getClass").invoke("getMethod").arg(executableElement.getSimpleName().toString()).arg(parameterClasses);
-        Variable moduleEvaluate = tryStatement.body().decl(ref(java.lang.reflect.Method.class), "evaluateMethod", getMethod);
-        List<Variable> types = new ArrayList<Variable>();
-        for (Parameter parameter : executableElement.getParameters()) {
-            Variable var = tryStatement.body().decl(ref(java.lang.reflect.Type.class), parameter.getSimpleName().toString() + "Type", moduleEvaluate.invoke("getGenericParameterTypes").component(ExpressionFactory.lit(types.size())));
-            types.add(var);
-        }
-
-        argCount = 0;
+        int argCount = 0;
         Invocation evaluateInvoke = module.invoke(executableElement.getSimpleName().toString());
         for (Parameter parameter : executableElement.getParameters()) {
             if (parameter.getAnnotation(Payload.class) != null) {
@@ -226,7 +199,9 @@ public class ExpressionEvaluatorGenerator extends AbstractMessageGenerator {
                             )));
                 }
             } else {
-                if (parameter.asType().toString().contains("String")) {
+                if (compile != null && isCompiledExpressionParameter(type, parameter)) {
+                    evaluateInvoke.arg(ExpressionFactory.invoke(compile).arg(expression));
+                } else if (parameter.asType().toString().contains("String")) {
                     evaluateInvoke.arg(expression);
                 }
             }
@@ -235,7 +210,6 @@ public class ExpressionEvaluatorGenerator extends AbstractMessageGenerator {
 
         tryStatement.body()._return(evaluateInvoke);
 
-        catchAndRethrowAsRuntimeException(tryStatement, NoSuchMethodException.class);
         catchAndRethrowAsRuntimeException(tryStatement, TransformerException.class);
 
         ctx().registerAtBoot(evaluatorClass);
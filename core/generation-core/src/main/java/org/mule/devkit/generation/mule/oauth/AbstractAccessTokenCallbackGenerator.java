@@ -0,0 +1,150 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.generation.mule.oauth;
+
+import org.mule.api.MuleContext;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.annotations.oauth.OAuth;
+import org.mule.api.annotations.oauth.OAuth2;
+import org.mule.api.construct.FlowConstructAware;
+import org.mule.api.context.MuleContextAware;
+import org.mule.api.lifecycle.Initialisable;
+import org.mule.api.lifecycle.InitialisationException;
+import org.mule.api.lifecycle.Startable;
+import org.mule.api.lifecycle.Stoppable;
+import org.mule.construct.Flow;
+import org.mule.devkit.generation.AbstractMessageGenerator;
+import org.mule.devkit.model.Type;
+import org.mule.devkit.model.code.Block;
+import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.ExpressionFactory;
+import org.mule.devkit.model.code.FieldVariable;
+import org.mule.devkit.model.code.Method;
+import org.mule.devkit.model.code.Modifier;
+import org.mule.devkit.model.code.Op;
+import org.mule.devkit.model.code.Variable;
+
+/**
+ * Base class for generators of the default access token callbacks. The message processor chain of a callback is wired
+ * and started once, either by the owning OAuth adapter or by the first event reaching the callback, instead of on every
+ * invocation. A chain that needs a flow construct gets a flow of its own, created along with the chain, since the
+ * callback is shared by every flow using the adapter.
+ */
+public abstract class AbstractAccessTokenCallbackGenerator extends AbstractMessageGenerator {
+
+    @Override
+    public boolean shouldGenerate(Type type) {
+        if (type.hasAnnotation(OAuth.class) || type.hasAnnotation(OAuth2.class)) {
+            return true;
+        }
+
+        return false;
+    }
+
+    protected Class<?>[] getLifecycleInterfaces() {
+        return new Class<?>[]{MuleContextAware.class, Initialisable.class, Startable.class, Stoppable.class};
+    }
+
+    /**
+     * Generates setMuleContext, initialise, start and stop, each forwarding to the message processor at most once. The
+     * flow handed to a flow construct aware chain is created on initialise and follows the chain through start and stop.
+     *
+     * @return start method
+     */
+    protected Method generateLifecycleMethods(DefinedClass callbackClass, FieldVariable messageProcessor, FieldVariable muleContext, FieldVariable hasBeenInitialized, FieldVariable hasBeenStarted) {
+        FieldVariable flowConstruct = callbackClass.field(Modifier.PRIVATE, ref(Flow.class), "flowConstruct");
+        flowConstruct.javadoc().add("Flow of the message processor, null unless it is flow construct aware");
+
+        Method setMuleContext = callbackClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "setMuleContext");
+        Variable context = setMuleContext.param(ref(MuleContext.class), "context");
+        setMuleContext.body().assign(ExpressionFactory._this().ref(muleContext), context);
+        setMuleContext.body()._if(Op._instanceof(messageProcessor, ref(MuleContextAware.class)))._then().add(
+                ExpressionFactory.cast(ref(MuleContextAware.class), messageProcessor).invoke("setMuleContext").arg(context)
+        );
+
+        Method initialise = callbackClass.method(Modifier.PUBLIC | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, "initialise");
+        initialise._throws(ref(InitialisationException.class));
+        Block ifNotInitialized = initialise.body()._if(Op.not(hasBeenInitialized))._then();
+        Block ifFlowConstructAware = ifNotInitialized._if(Op._instanceof(messageProcessor, ref(FlowConstructAware.class)))._then();
+        ifFlowConstructAware.assign(flowConstruct, ExpressionFactory._new(ref(Flow.class)).arg(callbackClass.name()).arg(muleContext));
+        ifFlowConstructAware.invoke(flowConstruct, "initialise");
+        ifFlowConstructAware.add(
+                ExpressionFactory.cast(ref(FlowConstructAware.class), messageProcessor).invoke("setFlowConstruct").arg(flowConstruct)
+        );
+        ifNotInitialized._if(Op._instanceof(messageProcessor, ref(Initialisable.class)))._then().add(
+                ExpressionFactory.cast(ref(Initialisable.class), messageProcessor).invoke("initialise")
+        );
+        ifNotInitialized.assign(hasBeenInitialized, ExpressionFactory.TRUE);
+
+        Method start = callbackClass.method(Modifier.PUBLIC | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, "start");
+        start._throws(ref(MuleException.class));
+        Block ifNotStarted = start.body()._if(Op.not(hasBeenStarted))._then();
+        ifNotStarted.invoke(initialise);
+        ifNotStarted._if(Op.ne(flowConstruct, ExpressionFactory._null()))._then().invoke(flowConstruct, "start");
+        ifNotStarted._if(Op._instanceof(messageProcessor, ref(Startable.class)))._then().add(
+                ExpressionFactory.cast(ref(Startable.class), messageProcessor).invoke("start")
+        );
+        // only reached once the chain started without throwing
+        ifNotStarted.assign(hasBeenStarted, ExpressionFactory.TRUE);
+
+        Method stop = callbackClass.method(Modifier.PUBLIC | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, "stop");
+        stop._throws(ref(MuleException.class));
+        Block ifStarted = stop.body()._if(hasBeenStarted)._then();
+        ifStarted._if(Op._instanceof(messageProcessor, ref(Stoppable.class)))._then().add(
+                ExpressionFactory.cast(ref(Stoppable.class), messageProcessor).invoke("stop")
+        );
+        ifStarted._if(Op.ne(flowConstruct, ExpressionFactory._null()))._then().invoke(flowConstruct, "stop");
+        ifStarted.assign(hasBeenStarted, ExpressionFactory.FALSE);
+
+        return start;
+    }
+
+    /**
+     * Generates the fallback used when nobody started the callback before its first use. The chain is then wired with
+     * the context of that first event. A failed start is rethrown and attempted again by the next event.
+     */
+    protected Method generateStartWithEventMethod(DefinedClass callbackClass, FieldVariable muleContext, FieldVariable hasBeenStarted, Method start) {
+        Method startWithEvent = callbackClass.method(Modifier.PRIVATE | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, "startWithEvent");
+        startWithEvent._throws(ref(MuleException.class));
+        Variable event = startWithEvent.param(ref(MuleEvent.class), "event");
+
+        startWithEvent.body()._if(hasBeenStarted)._then()._return();
+        startWithEvent.body()._if(Op.eq(muleContext, ExpressionFactory._null()))._then().invoke("setMuleContext").arg(event.invoke("getMuleContext"));
+        startWithEvent.body().invoke(start);
+
+        return startWithEvent;
+    }
+
+    /**
+     * Adds the code starting the callback on its first use. The chain itself is never touched per event.
+     */
+    protected void generateEnsureStarted(Block block, Variable event, FieldVariable hasBeenStarted, Method startWithEvent) {
+        block._if(Op.not(hasBeenStarted))._then().invoke(startWithEvent).arg(event);
+    }
+
+    protected FieldVariable generateVolatileFieldForBoolean(DefinedClass callbackClass, String name) {
+        return callbackClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ctx().getCodeModel().BOOLEAN, name);
+    }
+
+    protected FieldVariable generateFieldForMuleContext(DefinedClass callbackClass, String name) {
+        FieldVariable muleContext = callbackClass.field(Modifier.PRIVATE, ref(MuleContext.class), name);
+        muleContext.javadoc().add("Mule Context");
+        return muleContext;
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mule.devkit.generation.mule.oauth;
+
+import org.mule.api.annotations.oauth.OAuth;
+import org.mule.api.annotations.oauth.OAuth2;
+import org.mule.api.store.ListableObjectStore;
+import org.mule.api.store.ObjectAlreadyExistsException;
+import org.mule.api.store.ObjectDoesNotExistException;
+import org.mule.api.store.ObjectStore;
+import org.mule.api.store.ObjectStoreException;
+import org.mule.devkit.generation.AbstractModuleGenerator;
+import org.mule.devkit.generation.NamingConstants;
+import org.mule.devkit.generation.api.GenerationException;
+import org.mule.devkit.model.Type;
+import org.mule.devkit.model.code.Block;
+import org.mule.devkit.model.code.CatchBlock;
+import org.mule.devkit.model.code.ClassAlreadyExistsException;
+import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.DefinedClassRoles;
+import org.mule.devkit.model.code.ExpressionFactory;
+import org.mule.devkit.model.code.FieldVariable;
+import org.mule.devkit.model.code.ForEach;
+import org.mule.devkit.model.code.Method;
+import org.mule.devkit.model.code.Modifier;
+import org.mule.devkit.model.code.Op;
+import org.mule.devkit.model.code.TryStatement;
+import org.mule.devkit.model.code.Variable;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Generates the keyed access token store used by OAuth adapters running in multi-tenant mode. Tokens are kept in an
+ * access ordered LRU map bounded by a maximum number of entries and, optionally, written through to an
+ * {@link ObjectStore} so they survive eviction and restarts. Expired tokens are dropped when read, and at most once
+ * every {@link #PURGE_INTERVAL} milliseconds a put also drops every expired token held in memory or, when listable,
+ * in the backing store.
+ */
+public class AccessTokenStoreGenerator extends AbstractModuleGenerator {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final String ENTRY_CLASS_NAME = "Entry";
+    public static final long PURGE_INTERVAL = 60000L;
+
+    @Override
+    public boolean shouldGenerate(Type type) {
+        if (type.hasAnnotation(OAuth.class) || type.hasAnnotation(OAuth2.class)) {
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public void generate(Type type) throws GenerationException {
+        DefinedClass storeClass = getAccessTokenStoreClass(type);
+        DefinedClass entryClass = generateEntryClass(storeClass);
+
+        FieldVariable logger = generateLoggerField(storeClass);
+        FieldVariable cache = storeClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(Map.class).narrow(ref(String.class), entryClass), "cache");
+        cache.javadoc().add("Most recently used access tokens, keyed by access token id");
+        FieldVariable objectStore = storeClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(ObjectStore.class).narrow(ref(Serializable.class)), "objectStore");
+        objectStore.javadoc().add("Backing store, may be null");
+        FieldVariable purgeInterval = storeClass.field(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, ctx().getCodeModel().LONG, "PURGE_INTERVAL", ExpressionFactory.lit(PURGE_INTERVAL));
+        purgeInterval.javadoc().add("Minimum time in milliseconds between two purges of expired access tokens");
+        FieldVariable nextPurge = storeClass.field(Modifier.PRIVATE | Modifier.VOLATILE, ctx().getCodeModel().LONG, "nextPurge");
+
+        generateConstructor(storeClass, entryClass, cache, objectStore);
+        Method discard = generateDiscardMethod(storeClass, objectStore);
+        Method writeThrough = generateWriteThroughMethod(storeClass, objectStore, discard);
+        Method discardIfExpired = generateDiscardIfExpiredMethod(storeClass, entryClass, objectStore, discard);
+        Method purgeExpired = generatePurgeExpiredMethod(storeClass, entryClass, cache, objectStore, purgeInterval, nextPurge, discardIfExpired, logger);
+        Method remove = generateRemoveMethod(storeClass, cache, objectStore, logger, discard);
+        generateGetMethod(storeClass, entryClass, cache, objectStore, logger, remove);
+        generatePutMethod(storeClass, entryClass, cache, objectStore, logger, writeThrough, purgeExpired);
+
+        Method size = storeClass.method(Modifier.PUBLIC, ctx().getCodeModel().INT, "size");
+        size.javadoc().add("Number of access tokens currently held in memory");
+        size.body()._return(cache.invoke("size"));
+    }
+
+    private void generateConstructor(DefinedClass storeClass, DefinedClass entryClass, FieldVariable cache, FieldVariable objectStore) {
+        Method constructor = storeClass.constructor(Modifier.PUBLIC);
+        Variable maxEntries = constructor.param(Modifier.FINAL, ctx().getCodeModel().INT, "maxEntries");
+        Variable objectStoreParam = constructor.param(ref(ObjectStore.class).narrow(ref(Serializable.class)), "objectStore");
+
+        constructor.body().assign(ExpressionFactory._this().ref(cache), newLeastRecentlyUsedMap(ref(String.class), entryClass, maxEntries));
+        constructor.body().assign(ExpressionFactory._this().ref(objectStore), objectStoreParam);
+    }
+
+    private void generateGetMethod(DefinedClass storeClass, DefinedClass entryClass, FieldVariable cache, FieldVariable objectStore, FieldVariable logger, Method remove) {
+        Method get = storeClass.method(Modifier.PUBLIC, entryClass, "get");
+        get.javadoc().add("Retrieve the access token stored under the given id, looking it up in the backing store on a cache miss.");
+        get.javadoc().addReturn("The access token or null if none is stored or it has already expired");
+        Variable id = get.param(ref(String.class), "id");
+
+        Variable entry = get.body().decl(entryClass, "entry", cache.invoke("get").arg(id));
+        Block ifMiss = get.body()._if(Op.cand(isNull(entry), Op.ne(objectStore, ExpressionFactory._null())))._then();
+        TryStatement tryRetrieve = ifMiss._try();
+        Block ifContains = tryRetrieve.body()._if(objectStore.invoke("contains").arg(id))._then();
+        ifContains.assign(entry, ExpressionFactory.cast(entryClass, objectStore.invoke("retrieve").arg(id)));
+        ifContains._if(Op.ne(entry, ExpressionFactory._null()))._then().add(cache.invoke("put").arg(id).arg(entry));
+        CatchBlock catchRetrieve = tryRetrieve._catch(ref(Exception.class));
+        Variable e = catchRetrieve.param("e");
+        catchRetrieve.body().add(logger.invoke("warn").arg(ExpressionFactory.lit("Cannot retrieve access token for ").plus(id)).arg(e));
+
+        Block ifExpired = get.body()._if(Op.cand(Op.ne(entry, ExpressionFactory._null()), entry.invoke("hasExpired")))._then();
+        ifExpired.invoke(remove).arg(id);
+        ifExpired._return(ExpressionFactory._null());
+
+        get.body()._return(entry);
+    }
+
+    private void generatePutMethod(DefinedClass storeClass, DefinedClass entryClass, FieldVariable cache, FieldVariable objectStore, FieldVariable logger, Method writeThrough, Method purgeExpired) {
+        Method put = storeClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "put");
+        put.javadoc().add("Store an access token under the given id, replacing any previous one.");
+        Variable id = put.param(ref(String.class), "id");
+        Variable accessToken = put.param(ref(String.class), "accessToken");
+        Variable accessTokenSecret = put.param(ref(String.class), "accessTokenSecret");
+        Variable expiration = put.param(ref(Date.class), "expiration");
+
+        put.body().invoke(purgeExpired);
+
+        Variable entry = put.body().decl(entryClass, "entry", ExpressionFactory._new(entryClass).arg(accessToken).arg(accessTokenSecret).arg(expiration));
+        put.body().add(cache.invoke("put").arg(id).arg(entry));
+
+        TryStatement tryStore = put.body()._if(Op.ne(objectStore, ExpressionFactory._null()))._then()._try();
+        tryStore.body().invoke(writeThrough).arg(id).arg(entry);
+        CatchBlock catchStore = tryStore._catch(ref(Exception.class));
+        Variable e = catchStore.param("e");
+        catchStore.body().add(logger.invoke("warn").arg(ExpressionFactory.lit("Cannot store access token for ").plus(id)).arg(e));
+    }
+
+    /**
+     * Generates the method replacing the entry of the backing store. Puts for the same id are serialized so one does
+     * not remove what the other just stored, and a concurrent write from elsewhere is overwritten instead of failing.
+     */
+    private Method generateWriteThroughMethod(DefinedClass storeClass, FieldVariable objectStore, Method discard) {
+        Method writeThrough = storeClass.method(Modifier.PRIVATE | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, "writeThrough");
+        writeThrough._throws(ref(ObjectStoreException.class));
+        Variable id = writeThrough.param(ref(String.class), "id");
+        Variable entry = writeThrough.param(ref(Serializable.class), "entry");
+
+        writeThrough.body().invoke(discard).arg(id);
+        TryStatement tryStore = writeThrough.body()._try();
+        tryStore.body().add(objectStore.invoke("store").arg(id).arg(entry));
+        CatchBlock catchAlreadyExists = tryStore._catch(ref(ObjectAlreadyExistsException.class));
+        catchAlreadyExists.param("e");
+        catchAlreadyExists.body().invoke(discard).arg(id);
+        catchAlreadyExists.body().add(objectStore.invoke("store").arg(id).arg(entry));
+
+        return writeThrough;
+    }
+
+    /**
+     * Generates the method removing an id from the backing store, doing nothing if it is not there.
+     */
+    private Method generateDiscardMethod(DefinedClass storeClass, FieldVariable objectStore) {
+        Method discard = storeClass.method(Modifier.PRIVATE, ctx().getCodeModel().VOID, "discard");
+        discard._throws(ref(ObjectStoreException.class));
+        Variable id = discard.param(ref(Serializable.class), "id");
+
+        TryStatement tryRemove = discard.body()._try();
+        tryRemove.body().add(objectStore.invoke("remove").arg(id));
+        // already gone, whether never stored, evicted by the store or removed concurrently
+        tryRemove._catch(ref(ObjectDoesNotExistException.class)).param("e");
+
+        return discard;
+    }
+
+    private Method generateDiscardIfExpiredMethod(DefinedClass storeClass, DefinedClass entryClass, FieldVariable objectStore, Method discard) {
+        Method discardIfExpired = storeClass.method(Modifier.PRIVATE | Modifier.SYNCHRONIZED, ctx().getCodeModel().VOID, "discardIfExpired");
+        discardIfExpired._throws(ref(ObjectStoreException.class));
+        Variable id = discardIfExpired.param(ref(Serializable.class), "id");
+
+        Variable stored = discardIfExpired.body().decl(ref(Object.class), "stored", ExpressionFactory._null());
+        TryStatement tryRetrieve = discardIfExpired.body()._try();
+        tryRetrieve.body().assign(stored, objectStore.invoke("retrieve").arg(id));
+        CatchBlock catchDoesNotExist = tryRetrieve._catch(ref(ObjectDoesNotExistException.class));
+        catchDoesNotExist.param("e");
+        catchDoesNotExist.body()._return();
+        discardIfExpired.body()._if(Op.cand(Op._instanceof(stored, entryClass), ExpressionFactory.cast(entryClass, stored).invoke("hasExpired")))._then().invoke(discard).arg(id);
+
+        return discardIfExpired;
+    }
+
+    private Method generatePurgeExpiredMethod(DefinedClass storeClass, DefinedClass entryClass, FieldVariable cache, FieldVariable objectStore, FieldVariable purgeInterval,
+                                              FieldVariable nextPurge, Method discardIfExpired, FieldVariable logger) {
+        Method purgeExpired = storeClass.method(Modifier.PRIVATE, ctx().getCodeModel().VOID, "purgeExpired");
+        purgeExpired.javadoc().add("Drop the expired access tokens, unless they were already purged less than PURGE_INTERVAL milliseconds ago.");
+
+        Variable now = purgeExpired.body().decl(ctx().getCodeModel().LONG, "now", ref(System.class).staticInvoke("currentTimeMillis"));
+        purgeExpired.body()._if(Op.lt(now, nextPurge))._then()._return();
+        purgeExpired.body().assign(nextPurge, Op.plus(now, purgeInterval));
+
+        // the values of a synchronized map are copied and removed under its lock, and are only removed if still
+        // current, so a token put meanwhile under the same id survives
+        ForEach forEachEntry = purgeExpired.body().forEach(ref(Object.class), "value", cache.invoke("values").invoke("toArray"));
+        forEachEntry.body()._if(ExpressionFactory.cast(entryClass, forEachEntry.var()).invoke("hasExpired"))._then().add(
+                cache.invoke("values").invoke("remove").arg(forEachEntry.var()));
+
+        Block ifListable = purgeExpired.body()._if(Op._instanceof(objectStore, ref(ListableObjectStore.class)))._then();
+        TryStatement tryPurge = ifListable._try();
+        ForEach forEachId = tryPurge.body().forEach(ref(Serializable.class), "id",
+                ExpressionFactory.cast(ref(ListableObjectStore.class).narrow(ref(Serializable.class)), objectStore).invoke("allKeys"));
+        forEachId.body().invoke(discardIfExpired).arg(forEachId.var());
+        CatchBlock catchPurge = tryPurge._catch(ref(Exception.class));
+        Variable e = catchPurge.param("e");
+        catchPurge.body().add(logger.invoke("warn").arg("Cannot purge expired access tokens").arg(e));
+
+        return purgeExpired;
+    }
+
+    private Method generateRemoveMethod(DefinedClass storeClass, FieldVariable cache, FieldVariable objectStore, FieldVariable logger, Method discard) {
+        Method remove = storeClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "remove");
+        remove.javadoc().add("Discard the access token stored under the given id.");
+        Variable id = remove.param(ref(String.class), "id");
+
+        remove.body().add(cache.invoke("remove").arg(id));
+
+        TryStatement tryRemove = remove.body()._if(Op.ne(objectStore, ExpressionFactory._null()))._then()._try();
+        tryRemove.body().invoke(discard).arg(id);
+        CatchBlock catchRemove = tryRemove._catch(ref(Exception.class));
+        Variable e = catchRemove.param("e");
+        catchRemove.body().add(logger.invoke("warn").arg(ExpressionFactory.lit("Cannot remove access token for ").plus(id)).arg(e));
+
+        return remove;
+    }
+
+    private DefinedClass generateEntryClass(DefinedClass storeClass) {
+        DefinedClass entryClass;
+        try {
+            entryClass = storeClass._class(Modifier.PUBLIC | Modifier.STATIC, ENTRY_CLASS_NAME);
+        } catch (ClassAlreadyExistsException e) {
+            return e.getExistingClass();
+        }
+        entryClass._implements(Serializable.class);
+        entryClass.javadoc().add("Access token, secret and expiration as stored for a single id");
+
+        FieldVariable accessToken = entryClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(String.class), "accessToken");
+        FieldVariable accessTokenSecret = entryClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(String.class), "accessTokenSecret");
+        FieldVariable expiration = entryClass.field(Modifier.PRIVATE | Modifier.FINAL, ref(Date.class), "expiration");
+
+        Method constructor = entryClass.constructor(Modifier.PUBLIC);
+        constructor.body().assign(ExpressionFactory._this().ref(accessToken), constructor.param(ref(String.class), "accessToken"));
+        constructor.body().assign(ExpressionFactory._this().ref(accessTokenSecret), constructor.param(ref(String.class), "accessTokenSecret"));
+        constructor.body().assign(ExpressionFactory._this().ref(expiration), constructor.param(ref(Date.class), "expiration"));
+
+        entryClass.method(Modifier.PUBLIC, ref(String.class), "getAccessToken").body()._return(accessToken);
+        entryClass.method(Modifier.PUBLIC, ref(String.class), "getAccessTokenSecret").body()._return(accessTokenSecret);
+        entryClass.method(Modifier.PUBLIC, ref(Date.class), "getExpiration").body()._return(expiration);
+
+        Method hasExpired = entryClass.method(Modifier.PUBLIC, ctx().getCodeModel().BOOLEAN, "hasExpired");
+        hasExpired.body()._return(Op.cand(
+                Op.ne(expiration, ExpressionFactory._null()),
+                expiration.invoke("before").arg(ExpressionFactory._new(ref(Date.class)))));
+
+        return entryClass;
+    }
+
+    private DefinedClass getAccessTokenStoreClass(Type type) {
+        org.mule.devkit.model.code.Package pkg = ctx().getCodeModel()._package(type.getPackageName() + NamingConstants.CONFIG_NAMESPACE);
+        DefinedClass clazz = pkg._class(NamingConstants.OAUTH_ACCESS_TOKEN_STORE_CLASS_NAME);
+        clazz.role(DefinedClassRoles.OAUTH_ACCESS_TOKEN_STORE, ref(type));
+        clazz.javadoc().add("Access tokens of a multi-tenant OAuth adapter keyed by access token id.");
+
+        return clazz;
+    }
+}
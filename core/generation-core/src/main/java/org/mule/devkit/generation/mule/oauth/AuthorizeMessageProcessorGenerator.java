@@ -47,6 +47,7 @@ import org.mule.devkit.model.code.FieldVariable;
 import org.mule.devkit.model.code.Invocation;
 import org.mule.devkit.model.code.Method;
 import org.mule.devkit.model.code.Modifier;
+import org.mule.devkit.model.code.Op;
 import org.mule.devkit.model.code.Package;
 import org.mule.devkit.model.code.TryStatement;
 import org.mule.devkit.model.code.TypeReference;
@@ -80,7 +81,7 @@ public class AuthorizeMessageProcessorGenerator extends AbstractMessageGenerator
         FieldVariable flowConstruct = generateFieldForFlowConstruct(messageProcessorClass);
 
         // add initialise
-        generateInitialiseMethod(messageProcessorClass, null, type, muleContext, object, null, true);
+        generateInitialiseMethod(messageProcessorClass, null, type, muleContext, object, true);
 
         // add start
         generateStartMethod(messageProcessorClass, null);
@@ -124,7 +125,9 @@ public class AuthorizeMessageProcessorGenerator extends AbstractMessageGenerator
         TryStatement tryToAuthorize = process.body()._try();
 
         Invocation oauthVerifier = moduleObject.invoke("get" + StringUtils.capitalize(OAuth1AdapterGenerator.OAUTH_VERIFIER_FIELD_NAME));
-        Block ifOauthVerifierIsNull = tryToAuthorize.body()._if(isNull(oauthVerifier))._then();
+        // when running multi-tenant every tenant goes through its own authorization, the verifier of the adapter is not theirs
+        Invocation currentAccessTokenId = moduleObject.invoke(OAuth1AdapterGenerator.GET_CURRENT_ACCESS_TOKEN_ID_METHOD_NAME);
+        Block ifOauthVerifierIsNull = tryToAuthorize.body()._if(Op.cor(isNull(oauthVerifier), Op.ne(currentAccessTokenId, ExpressionFactory._null())))._then();
         Variable authorizationUrl = ifOauthVerifierIsNull.decl(ref(String.class), "authorizationUrl", ExpressionFactory.invoke(moduleObject, OAuth1AdapterGenerator.GET_AUTHORIZATION_URL_METHOD_NAME));
         ifOauthVerifierIsNull.invoke(event.invoke("getMessage"), "setOutboundProperty").arg(HTTP_STATUS_PROPERTY).arg(REDIRECT_HTTP_STATUS);
         ifOauthVerifierIsNull.invoke(event.invoke("getMessage"), "setOutboundProperty").arg(LOCATION_PROPERTY).arg(authorizationUrl);
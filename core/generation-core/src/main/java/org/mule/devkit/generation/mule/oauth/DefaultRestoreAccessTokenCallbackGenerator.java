@@ -18,40 +18,23 @@ package org.mule.devkit.generation.mule.oauth;
 
 import org.mule.RequestContext;
 import org.mule.api.MuleEvent;
-import org.mule.api.annotations.oauth.OAuth;
-import org.mule.api.annotations.oauth.OAuth2;
-import org.mule.api.construct.FlowConstructAware;
-import org.mule.api.context.MuleContextAware;
-import org.mule.api.lifecycle.Initialisable;
-import org.mule.api.lifecycle.Startable;
 import org.mule.api.oauth.RestoreAccessTokenCallback;
-import org.mule.devkit.generation.AbstractMessageGenerator;
 import org.mule.devkit.generation.NamingConstants;
 import org.mule.devkit.generation.api.GenerationException;
 import org.mule.devkit.model.Type;
 import org.mule.devkit.model.code.CatchBlock;
-import org.mule.devkit.model.code.Conditional;
 import org.mule.devkit.model.code.DefinedClass;
 import org.mule.devkit.model.code.DefinedClassRoles;
 import org.mule.devkit.model.code.ExpressionFactory;
 import org.mule.devkit.model.code.FieldVariable;
 import org.mule.devkit.model.code.Method;
 import org.mule.devkit.model.code.Modifier;
-import org.mule.devkit.model.code.Op;
 import org.mule.devkit.model.code.Package;
 import org.mule.devkit.model.code.TryStatement;
+import org.mule.devkit.model.code.TypeReference;
 import org.mule.devkit.model.code.Variable;
 
-public class DefaultRestoreAccessTokenCallbackGenerator extends AbstractMessageGenerator {
-
-    @Override
-    public boolean shouldGenerate(Type type) {
-        if (type.hasAnnotation(OAuth.class) || type.hasAnnotation(OAuth2.class)) {
-            return true;
-        }
-
-        return false;
-    }
+public class DefaultRestoreAccessTokenCallbackGenerator extends AbstractAccessTokenCallbackGenerator {
 
     @Override
     public void generate(Type type) throws GenerationException {
@@ -59,82 +42,36 @@ public class DefaultRestoreAccessTokenCallbackGenerator extends AbstractMessageG
 
         FieldVariable messageProcessor = generateFieldForMessageProcessor(callbackClass, "messageProcessor");
         FieldVariable logger = generateLoggerField(callbackClass);
-        FieldVariable hasBeenStarted = generateFieldForBoolean(callbackClass, "hasBeenStarted");
-        FieldVariable hasBeenInitialized = generateFieldForBoolean(callbackClass, "hasBeenInitialized");
-        FieldVariable accessToken = generateFieldForString(callbackClass, "restoredAccessToken");
-        FieldVariable accessTokenSecret = generateFieldForString(callbackClass, "restoredAccessTokenSecret");
-
-        Method constructor = callbackClass.constructor(Modifier.PUBLIC);
-        constructor.body().assign(hasBeenStarted, ExpressionFactory.FALSE);
-        constructor.body().assign(hasBeenInitialized, ExpressionFactory.FALSE);
+        FieldVariable muleContext = generateFieldForMuleContext(callbackClass, "muleContext");
+        FieldVariable hasBeenStarted = generateVolatileFieldForBoolean(callbackClass, "hasBeenStarted");
+        FieldVariable hasBeenInitialized = generateVolatileFieldForBoolean(callbackClass, "hasBeenInitialized");
+        FieldVariable accessToken = generateThreadLocalFieldForString(callbackClass, "restoredAccessToken");
+        FieldVariable accessTokenSecret = generateThreadLocalFieldForString(callbackClass, "restoredAccessTokenSecret");
 
         generateGetter(callbackClass, messageProcessor);
         generateSetter(callbackClass, messageProcessor);
 
+        Method start = generateLifecycleMethods(callbackClass, messageProcessor, muleContext, hasBeenInitialized, hasBeenStarted);
+        Method startWithEvent = generateStartWithEventMethod(callbackClass, muleContext, hasBeenStarted, start);
+
         Method restoreAccessTokenMethod = callbackClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "restoreAccessToken");
+        restoreAccessTokenMethod.body().add(accessToken.invoke("remove"));
+        restoreAccessTokenMethod.body().add(accessTokenSecret.invoke("remove"));
         Variable event = restoreAccessTokenMethod.body().decl(ref(MuleEvent.class), "event", ref(RequestContext.class).staticInvoke("getEvent"));
 
-        Conditional ifMuleContextAware = restoreAccessTokenMethod.body()._if(Op._instanceof(messageProcessor, ref(MuleContextAware.class)));
-        ifMuleContextAware._then().add(
-                ExpressionFactory.cast(ref(MuleContextAware.class), messageProcessor).invoke("setMuleContext").arg(
-                        ref(RequestContext.class).staticInvoke("getEventContext").invoke("getMuleContext")
-                )
-        );
-
-        Conditional ifFlowConstructAware = restoreAccessTokenMethod.body()._if(Op._instanceof(messageProcessor, ref(FlowConstructAware.class)));
-        ifFlowConstructAware._then().add(
-                ExpressionFactory.cast(ref(FlowConstructAware.class), messageProcessor).invoke("setFlowConstruct").arg(
-                        ref(RequestContext.class).staticInvoke("getEventContext").invoke("getFlowConstruct")
-                )
-        );
-
-        Conditional ifNotInitialized = restoreAccessTokenMethod.body()._if(Op.not(hasBeenInitialized));
-        Conditional ifInitialisable = ifNotInitialized._then()._if(Op._instanceof(messageProcessor, ref(Initialisable.class)));
-        TryStatement tryToInitialize = ifInitialisable._then()._try();
-        tryToInitialize.body().add(
-                ExpressionFactory.cast(ref(Initialisable.class), messageProcessor).invoke("initialise")
-        );
-        CatchBlock catchInitlize = tryToInitialize._catch(ref(Exception.class));
-        Variable exception = catchInitlize.param("e");
-        catchInitlize.body().add(
-                logger.invoke("error").arg(
-                        exception.invoke("getMessage")
-                ).arg(
-                        exception
-                )
-        );
-        ifNotInitialized._then().assign(hasBeenInitialized, ExpressionFactory.TRUE);
-
-        Conditional ifNotStarted = restoreAccessTokenMethod.body()._if(Op.not(hasBeenStarted));
-        Conditional ifStartable = ifNotStarted._then()._if(Op._instanceof(messageProcessor, ref(Startable.class)));
-        TryStatement tryToStart = ifStartable._then()._try();
-        tryToStart.body().add(
-                ExpressionFactory.cast(ref(Startable.class), messageProcessor).invoke("start")
-        );
-        CatchBlock catchStart = tryToStart._catch(ref(Exception.class));
-        exception = catchStart.param("e");
-        catchStart.body().add(
-                logger.invoke("error").arg(
-                        exception.invoke("getMessage")
-                ).arg(
-                        exception
-                )
-        );
-
-        ifNotStarted._then().assign(hasBeenStarted, ExpressionFactory.TRUE);
-
         TryStatement tryProcess = restoreAccessTokenMethod.body()._try();
+        generateEnsureStarted(tryProcess.body(), event, hasBeenStarted, startWithEvent);
         tryProcess.body().assign(event,
                 messageProcessor.invoke("process").arg(event)
         );
-        tryProcess.body().assign(accessToken,
+        tryProcess.body().add(accessToken.invoke("set").arg(
                 event.invoke("getMessage").invoke("getInvocationProperty").arg("OAuthAccessToken")
-        );
-        tryProcess.body().assign(accessTokenSecret,
+        ));
+        tryProcess.body().add(accessTokenSecret.invoke("set").arg(
                 event.invoke("getMessage").invoke("getInvocationProperty").arg("OAuthAccessTokenSecret")
-        );
+        ));
         CatchBlock catchProcess = tryProcess._catch(ref(Exception.class));
-        exception = catchProcess.param("e");
+        Variable exception = catchProcess.param("e");
         catchProcess.body().add(
                 logger.invoke("error").arg(
                         exception.invoke("getMessage")
@@ -144,15 +81,27 @@ public class DefaultRestoreAccessTokenCallbackGenerator extends AbstractMessageG
         );
 
         Method getAccessTokenMethod = callbackClass.method(Modifier.PUBLIC, ref(String.class), "getAccessToken");
-        getAccessTokenMethod.body()._return(accessToken);
+        getAccessTokenMethod.body()._return(accessToken.invoke("get"));
         Method getAccessTokenSecretMethod = callbackClass.method(Modifier.PUBLIC, ref(String.class), "getAccessTokenSecret");
-        getAccessTokenSecretMethod.body()._return(accessTokenSecret);
+        getAccessTokenSecretMethod.body()._return(accessTokenSecret.invoke("get"));
+    }
+
+    /**
+     * Restored tokens are kept per thread since the callback is shared by every event of the adapter. They are cleared
+     * on every restore so a failed one never hands out the tokens of an earlier event on a pooled thread.
+     */
+    private FieldVariable generateThreadLocalFieldForString(DefinedClass callbackClass, String name) {
+        TypeReference threadLocalType = ref(ThreadLocal.class).narrow(ref(String.class));
+        return callbackClass.field(Modifier.PRIVATE | Modifier.FINAL, threadLocalType, name, ExpressionFactory._new(threadLocalType));
     }
 
     private DefinedClass getDefaultRestoreAccessTokenCallbackClass(Type type) {
         Package pkg = ctx().getCodeModel()._package(type.getPackageName() + NamingConstants.CONFIG_NAMESPACE);
         DefinedClass clazz = pkg._class(NamingConstants.DEFAULT_RESTORE_ACCESS_TOKEN_CALLBACK_CLASS_NAME, new Class[]{
                 RestoreAccessTokenCallback.class});
+        for (Class<?> lifecycleInterface : getLifecycleInterfaces()) {
+            clazz._implements(lifecycleInterface);
+        }
 
         clazz.role(DefinedClassRoles.DEFAULT_RESTORE_ACCESS_TOKEN_CALLBACK);
 
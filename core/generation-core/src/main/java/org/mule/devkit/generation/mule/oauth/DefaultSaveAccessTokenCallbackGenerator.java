@@ -18,14 +18,7 @@ package org.mule.devkit.generation.mule.oauth;
 
 import org.mule.RequestContext;
 import org.mule.api.MuleEvent;
-import org.mule.api.annotations.oauth.OAuth;
-import org.mule.api.annotations.oauth.OAuth2;
-import org.mule.api.construct.FlowConstructAware;
-import org.mule.api.context.MuleContextAware;
-import org.mule.api.lifecycle.Initialisable;
-import org.mule.api.lifecycle.Startable;
 import org.mule.api.oauth.SaveAccessTokenCallback;
-import org.mule.devkit.generation.AbstractMessageGenerator;
 import org.mule.devkit.generation.NamingConstants;
 import org.mule.devkit.generation.api.GenerationException;
 import org.mule.devkit.model.Type;
@@ -41,35 +34,26 @@ import org.mule.devkit.model.code.Op;
 import org.mule.devkit.model.code.TryStatement;
 import org.mule.devkit.model.code.Variable;
 
-public class DefaultSaveAccessTokenCallbackGenerator extends AbstractMessageGenerator {
+public class DefaultSaveAccessTokenCallbackGenerator extends AbstractAccessTokenCallbackGenerator {
 
     public static final String ROLE = "DefaultSaveAccessTokenCallback";
 
-    @Override
-    public boolean shouldGenerate(Type type) {
-        if (type.hasAnnotation(OAuth.class) || type.hasAnnotation(OAuth2.class)) {
-            return true;
-        }
-
-        return false;
-    }
-
     @Override
     public void generate(Type type) throws GenerationException {
         DefinedClass callbackClass = getDefaultSaveAccessTokenCallbackClass(type);
 
         FieldVariable messageProcessor = generateFieldForMessageProcessor(callbackClass, "messageProcessor");
         FieldVariable logger = generateLoggerField(callbackClass);
-        FieldVariable hasBeenStarted = generateFieldForBoolean(callbackClass, "hasBeenStarted");
-        FieldVariable hasBeenInitialized = generateFieldForBoolean(callbackClass, "hasBeenInitialized");
-
-        Method constructor = callbackClass.constructor(Modifier.PUBLIC);
-        constructor.body().assign(hasBeenStarted, ExpressionFactory.FALSE);
-        constructor.body().assign(hasBeenInitialized, ExpressionFactory.FALSE);
+        FieldVariable muleContext = generateFieldForMuleContext(callbackClass, "muleContext");
+        FieldVariable hasBeenStarted = generateVolatileFieldForBoolean(callbackClass, "hasBeenStarted");
+        FieldVariable hasBeenInitialized = generateVolatileFieldForBoolean(callbackClass, "hasBeenInitialized");
 
         generateGetter(callbackClass, messageProcessor);
         generateSetter(callbackClass, messageProcessor);
 
+        Method start = generateLifecycleMethods(callbackClass, messageProcessor, muleContext, hasBeenInitialized, hasBeenStarted);
+        Method startWithEvent = generateStartWithEventMethod(callbackClass, muleContext, hasBeenStarted, start);
+
         Method saveAccessTokenMethod = callbackClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "saveAccessToken");
         Variable accessToken = saveAccessTokenMethod.param(ref(String.class), "accessToken");
         Variable accessTokenSecret = saveAccessTokenMethod.param(ref(String.class), "accessTokenSecret");
@@ -84,61 +68,13 @@ public class DefaultSaveAccessTokenCallbackGenerator extends AbstractMessageGene
                 event.invoke("getMessage").invoke("setInvocationProperty").arg("OAuthAccessTokenSecret").arg(accessTokenSecret)
         );
 
-        Conditional ifMuleContextAware = saveAccessTokenMethod.body()._if(Op._instanceof(messageProcessor, ref(MuleContextAware.class)));
-        ifMuleContextAware._then().add(
-                ExpressionFactory.cast(ref(MuleContextAware.class), messageProcessor).invoke("setMuleContext").arg(
-                        ref(RequestContext.class).staticInvoke("getEventContext").invoke("getMuleContext")
-                )
-        );
-
-        Conditional ifFlowConstructAware = saveAccessTokenMethod.body()._if(Op._instanceof(messageProcessor, ref(FlowConstructAware.class)));
-        ifFlowConstructAware._then().add(
-                ExpressionFactory.cast(ref(FlowConstructAware.class), messageProcessor).invoke("setFlowConstruct").arg(
-                        ref(RequestContext.class).staticInvoke("getEventContext").invoke("getFlowConstruct")
-                )
-        );
-
-        Conditional ifNotInitialized = saveAccessTokenMethod.body()._if(Op.not(hasBeenInitialized));
-        Conditional ifInitialisable = ifNotInitialized._then()._if(Op._instanceof(messageProcessor, ref(Initialisable.class)));
-        TryStatement tryToInitialize = ifInitialisable._then()._try();
-        tryToInitialize.body().add(
-                ExpressionFactory.cast(ref(Initialisable.class), messageProcessor).invoke("initialise")
-        );
-        CatchBlock catchInitlize = tryToInitialize._catch(ref(Exception.class));
-        Variable exception = catchInitlize.param("e");
-        catchInitlize.body().add(
-                logger.invoke("error").arg(
-                        exception.invoke("getMessage")
-                ).arg(
-                        exception
-                )
-        );
-        ifNotInitialized._then().assign(hasBeenInitialized, ExpressionFactory.TRUE);
-
-        Conditional ifNotStarted = saveAccessTokenMethod.body()._if(Op.not(hasBeenStarted));
-        Conditional ifStartable = ifNotStarted._then()._if(Op._instanceof(messageProcessor, ref(Startable.class)));
-        TryStatement tryToStart = ifStartable._then()._try();
-        tryToStart.body().add(
-                ExpressionFactory.cast(ref(Startable.class), messageProcessor).invoke("start")
-        );
-        CatchBlock catchStart = tryToStart._catch(ref(Exception.class));
-        exception = catchStart.param("e");
-        catchStart.body().add(
-                logger.invoke("error").arg(
-                        exception.invoke("getMessage")
-                ).arg(
-                        exception
-                )
-        );
-
-        ifNotStarted._then().assign(hasBeenStarted, ExpressionFactory.TRUE);
-
         TryStatement tryProcess = saveAccessTokenMethod.body()._try();
+        generateEnsureStarted(tryProcess.body(), event, hasBeenStarted, startWithEvent);
         tryProcess.body().add(
                 messageProcessor.invoke("process").arg(event)
         );
         CatchBlock catchProcess = tryProcess._catch(ref(Exception.class));
-        exception = catchProcess.param("e");
+        Variable exception = catchProcess.param("e");
         catchProcess.body().add(
                 logger.invoke("error").arg(
                         exception.invoke("getMessage")
@@ -152,6 +88,9 @@ public class DefaultSaveAccessTokenCallbackGenerator extends AbstractMessageGene
         org.mule.devkit.model.code.Package pkg = ctx().getCodeModel()._package(type.getPackageName() + NamingConstants.CONFIG_NAMESPACE);
         DefinedClass clazz = pkg._class(NamingConstants.DEFAULT_SAVE_ACCESS_TOKEN_CALLBACK_CLASS_NAME, new Class[]{
                 SaveAccessTokenCallback.class});
+        for (Class<?> lifecycleInterface : getLifecycleInterfaces()) {
+            clazz._implements(lifecycleInterface);
+        }
         clazz.role(DefinedClassRoles.DEFAULT_SAVE_ACCESS_TOKEN_CALLBACK);
 
         return clazz;
@@ -31,6 +31,7 @@ import org.mule.devkit.model.Parameter;
 import org.mule.devkit.model.Type;
 import org.mule.devkit.model.Variable;
 import org.mule.devkit.model.code.CatchBlock;
+import org.mule.devkit.model.code.Conditional;
 import org.mule.devkit.model.code.DefinedClass;
 import org.mule.devkit.model.code.ExpressionFactory;
 import org.mule.devkit.model.code.FieldVariable;
@@ -50,10 +51,15 @@ import javax.xml.bind.annotation.XmlType;
 import javax.xml.transform.stream.StreamSource;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class JaxbTransformerGenerator extends AbstractModuleGenerator {
 
+    private static final int UNMARSHALLER_POOL_SIZE = 16;
+
     @Override
     public boolean shouldGenerate(Type type) {
         return type.hasAnnotation(Module.class) || type.hasAnnotation(Connector.class);
@@ -76,11 +82,15 @@ public class JaxbTransformerGenerator extends AbstractModuleGenerator {
                     // declare JAXB context
                     FieldVariable jaxbContext = jaxbTransformerClass.field(Modifier.PRIVATE | Modifier.STATIC, JAXBContext.class, "JAXB_CONTEXT", ExpressionFactory.invoke(loadJaxbContext).arg(ref(variable.asType()).boxify().dotclass()));
 
+                    // declare pool of idle unmarshallers, they are not thread-safe but are expensive to create
+                    FieldVariable unmarshallers = jaxbTransformerClass.field(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, ref(BlockingQueue.class).narrow(ref(Unmarshaller.class)), "UNMARSHALLERS",
+                            ExpressionFactory._new(ref(ArrayBlockingQueue.class).narrow(ref(Unmarshaller.class))).arg(ExpressionFactory.lit(UNMARSHALLER_POOL_SIZE)));
+
                     //generate constructor
                     generateConstructor(jaxbTransformerClass, variable);
 
                     // doTransform
-                    generateDoTransform(jaxbTransformerClass, jaxbContext, variable);
+                    generateDoTransform(jaxbTransformerClass, jaxbContext, unmarshallers, variable);
 
                     // set and get weight
                     generateGetPriorityWeighting(jaxbTransformerClass, weighting);
@@ -105,32 +115,35 @@ public class JaxbTransformerGenerator extends AbstractModuleGenerator {
         getPriorityWeighting.body()._return(weighting);
     }
 
-    private void generateDoTransform(DefinedClass jaxbTransformerClass, FieldVariable jaxbContext, Variable variable) {
+    private void generateDoTransform(DefinedClass jaxbTransformerClass, FieldVariable jaxbContext, FieldVariable unmarshallers, Variable variable) {
         org.mule.devkit.model.code.Method doTransform = jaxbTransformerClass.method(Modifier.PROTECTED, Object.class, "doTransform");
         doTransform._throws(TransformerException.class);
         org.mule.devkit.model.code.Variable src = doTransform.param(Object.class, "src");
-        org.mule.devkit.model.code.Variable encoding = doTransform.param(String.class, "encoding");
+        doTransform.param(String.class, "encoding");
 
         org.mule.devkit.model.code.Variable result = doTransform.body().decl(ref(variable.asType()).boxify(), "result", ExpressionFactory._null());
 
         TryStatement tryBlock = doTransform.body()._try();
-        org.mule.devkit.model.code.Variable unmarshaller = tryBlock.body().decl(ref(Unmarshaller.class), "unmarshaller");
-        tryBlock.body().assign(unmarshaller, jaxbContext.invoke("createUnmarshaller"));
-        org.mule.devkit.model.code.Variable inputStream = tryBlock.body().decl(ref(InputStream.class), "is", ExpressionFactory._new(ref(ByteArrayInputStream.class)).arg(
-                ExpressionFactory.invoke(ExpressionFactory.cast(ref(String.class), src), "getBytes").arg(encoding)
-        ));
+        org.mule.devkit.model.code.Variable unmarshaller = tryBlock.body().decl(ref(Unmarshaller.class), "unmarshaller", unmarshallers.invoke("poll"));
+        tryBlock.body()._if(Op.eq(unmarshaller, ExpressionFactory._null()))._then().assign(unmarshaller, jaxbContext.invoke("createUnmarshaller"));
+
+        org.mule.devkit.model.code.Variable streamSource = tryBlock.body().decl(ref(StreamSource.class), "ss");
+        Conditional ifInputStream = tryBlock.body()._if(Op._instanceof(src, ref(InputStream.class)));
+        ifInputStream._then().assign(streamSource, ExpressionFactory._new(ref(StreamSource.class)).arg(ExpressionFactory.cast(ref(InputStream.class), src)));
+        Conditional ifReader = ifInputStream._elseif(Op._instanceof(src, ref(Reader.class)));
+        ifReader._then().assign(streamSource, ExpressionFactory._new(ref(StreamSource.class)).arg(ExpressionFactory.cast(ref(Reader.class), src)));
+        Conditional ifByteArray = ifReader._elseif(Op._instanceof(src, ctx().getCodeModel().BYTE.array()));
+        ifByteArray._then().assign(streamSource, ExpressionFactory._new(ref(StreamSource.class)).arg(
+                ExpressionFactory._new(ref(ByteArrayInputStream.class)).arg(ExpressionFactory.cast(ctx().getCodeModel().BYTE.array(), src))));
+        ifByteArray._else().assign(streamSource, ExpressionFactory._new(ref(StreamSource.class)).arg(
+                ExpressionFactory._new(ref(StringReader.class)).arg(ExpressionFactory.cast(ref(String.class), src))));
 
-        org.mule.devkit.model.code.Variable streamSource = tryBlock.body().decl(ref(StreamSource.class), "ss", ExpressionFactory._new(ref(StreamSource.class)).arg(inputStream));
         Invocation unmarshal = unmarshaller.invoke("unmarshal");
         unmarshal.arg(streamSource);
         unmarshal.arg(ExpressionFactory.dotclass(ref(variable.asType()).boxify()));
 
         tryBlock.body().assign(result, unmarshal.invoke("getValue"));
-
-        CatchBlock unsupportedEncodingCatch = tryBlock._catch(ref(UnsupportedEncodingException.class));
-        org.mule.devkit.model.code.Variable unsupportedEncoding = unsupportedEncodingCatch.param("unsupportedEncoding");
-
-        generateThrowTransformFailedException(unsupportedEncodingCatch, unsupportedEncoding, variable);
+        tryBlock.body().add(unmarshallers.invoke("offer").arg(unmarshaller));
 
         CatchBlock jaxbExceptionCatch = tryBlock._catch(ref(JAXBException.class));
         org.mule.devkit.model.code.Variable jaxbException = jaxbExceptionCatch.param("jaxbException");
@@ -190,8 +203,10 @@ public class JaxbTransformerGenerator extends AbstractModuleGenerator {
     }
 
     private void registerSourceType(org.mule.devkit.model.code.Method constructor) {
-        Invocation registerSourceType = constructor.body().invoke("registerSourceType");
-        registerSourceType.arg(ref(DataTypeFactory.class).staticRef("STRING"));
+        constructor.body().invoke("registerSourceType").arg(ref(DataTypeFactory.class).staticRef("STRING"));
+        constructor.body().invoke("registerSourceType").arg(ref(DataTypeFactory.class).staticInvoke("create").arg(ref(InputStream.class).dotclass()));
+        constructor.body().invoke("registerSourceType").arg(ref(DataTypeFactory.class).staticInvoke("create").arg(ref(Reader.class).dotclass()));
+        constructor.body().invoke("registerSourceType").arg(ref(DataTypeFactory.class).staticInvoke("create").arg(ctx().getCodeModel().BYTE.array().dotclass()));
     }
 
     private DefinedClass getJaxbTransformerClass(Method executableElement, Variable variable) {
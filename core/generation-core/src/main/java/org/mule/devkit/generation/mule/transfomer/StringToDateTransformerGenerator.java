@@ -24,13 +24,17 @@ import org.mule.config.i18n.MessageFactory;
 import org.mule.devkit.generation.AbstractMessageGenerator;
 import org.mule.devkit.generation.NamingConstants;
 import org.mule.devkit.model.Type;
+import org.mule.devkit.model.code.Block;
 import org.mule.devkit.model.code.CatchBlock;
 import org.mule.devkit.model.code.DefinedClass;
+import org.mule.devkit.model.code.Expression;
 import org.mule.devkit.model.code.ExpressionFactory;
 import org.mule.devkit.model.code.FieldVariable;
+import org.mule.devkit.model.code.ForLoop;
 import org.mule.devkit.model.code.Invocation;
 import org.mule.devkit.model.code.Method;
 import org.mule.devkit.model.code.Modifier;
+import org.mule.devkit.model.code.Op;
 import org.mule.devkit.model.code.Package;
 import org.mule.devkit.model.code.TryStatement;
 import org.mule.devkit.model.code.TypeReference;
@@ -41,12 +45,14 @@ import org.mule.transformer.types.DataTypeFactory;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.Date;
 
 public class StringToDateTransformerGenerator extends AbstractMessageGenerator {
 
-    private static final String PATTERN = "yyyy-MM-dd'T'hh:mm:ss";
+    private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
     private static final String SIMPLE_DATE_FORMAT_FIELD_NAME = "SIMPLE_DATE_FORMAT";
+    private static final String PATTERN_FIELD_NAME = "PATTERN";
 
     @Override
     public boolean shouldGenerate(Type type) {
@@ -60,24 +66,96 @@ public class StringToDateTransformerGenerator extends AbstractMessageGenerator {
         ctx().note("Generating String to Date transformer as " + transformerClass.fullName());
 
         FieldVariable muleContext = generateFieldForMuleContext(transformerClass);
-        FieldVariable simpleDateFormat = generateSimpleDateFormatField(transformerClass);
+        FieldVariable pattern = generatePatternField(transformerClass);
+        FieldVariable simpleDateFormat = generateSimpleDateFormatField(transformerClass, pattern);
         FieldVariable weighting = transformerClass.field(Modifier.PRIVATE, ctx().getCodeModel().INT, "weighting", ref(DiscoverableTransformer.class).staticRef("DEFAULT_PRIORITY_WEIGHTING"));
         generateConstructor(transformerClass);
         generateSetMuleContextMethod(transformerClass, muleContext);
-        generateDoTransform(transformerClass, simpleDateFormat);
+        Method parseDigits = generateParseDigits(transformerClass);
+        Method parseIsoDate = generateParseIsoDate(transformerClass, parseDigits);
+        generateDoTransform(transformerClass, simpleDateFormat, pattern, parseIsoDate);
         generateGetPriorityWeighting(transformerClass, weighting);
         generateSetPriorityWeighting(transformerClass, weighting);
 
         ctx().registerAtBoot(transformerClass);
     }
 
-    private FieldVariable generateSimpleDateFormatField(DefinedClass transformerClass) {
+    private FieldVariable generatePatternField(DefinedClass transformerClass) {
         return FieldBuilder.newConstantFieldBuilder(transformerClass).
-                type(SimpleDateFormat.class).name(SIMPLE_DATE_FORMAT_FIELD_NAME).
-                initialValue(ExpressionFactory._new(ref(SimpleDateFormat.class)).arg(PATTERN)).
+                type(String.class).name(PATTERN_FIELD_NAME).
+                initialValue(ExpressionFactory.lit(PATTERN)).
                 build();
     }
 
+    private FieldVariable generateSimpleDateFormatField(DefinedClass transformerClass, FieldVariable pattern) {
+        // SimpleDateFormat is not thread-safe so every thread gets its own instance
+        DefinedClass threadLocal = ctx().getCodeModel().anonymousClass(ref(ThreadLocal.class).narrow(ref(SimpleDateFormat.class)));
+        Method initialValue = threadLocal.method(Modifier.PROTECTED, ref(SimpleDateFormat.class), "initialValue");
+        initialValue.annotate(ref(Override.class));
+        initialValue.body()._return(ExpressionFactory._new(ref(SimpleDateFormat.class)).arg(pattern));
+
+        return FieldBuilder.newConstantFieldBuilder(transformerClass).
+                type(ref(ThreadLocal.class).narrow(ref(SimpleDateFormat.class))).name(SIMPLE_DATE_FORMAT_FIELD_NAME).
+                initialValue(ExpressionFactory._new(threadLocal)).
+                build();
+    }
+
+    private Method generateParseDigits(DefinedClass transformerClass) {
+        Method parseDigits = transformerClass.method(Modifier.PRIVATE | Modifier.STATIC, ctx().getCodeModel().INT, "parseDigits");
+        Variable value = parseDigits.param(ref(String.class), "value");
+        Variable begin = parseDigits.param(ctx().getCodeModel().INT, "begin");
+        Variable end = parseDigits.param(ctx().getCodeModel().INT, "end");
+
+        Variable result = parseDigits.body().decl(ctx().getCodeModel().INT, "result", ExpressionFactory.lit(0));
+        ForLoop forEachDigit = parseDigits.body()._for();
+        Variable i = forEachDigit.init(ctx().getCodeModel().INT, "i", begin);
+        forEachDigit.test(Op.lt(i, end));
+        forEachDigit.update(Op.incr(i));
+
+        Variable c = forEachDigit.body().decl(ctx().getCodeModel().CHAR, "c", value.invoke("charAt").arg(i));
+        forEachDigit.body()._if(Op.cor(Op.lt(c, ExpressionFactory.lit('0')), Op.gt(c, ExpressionFactory.lit('9'))))._then()._return(ExpressionFactory.lit(-1));
+        forEachDigit.body().assign(result, Op.plus(Op.mul(result, ExpressionFactory.lit(10)), Op.minus(c, ExpressionFactory.lit('0'))));
+
+        parseDigits.body()._return(result);
+
+        return parseDigits;
+    }
+
+    private Method generateParseIsoDate(DefinedClass transformerClass, Method parseDigits) {
+        Method parseIsoDate = transformerClass.method(Modifier.PRIVATE | Modifier.STATIC, ref(Date.class), "parseIsoDate");
+        parseIsoDate.javadoc().add("Parses dates in the form yyyy-MM-ddTHH:mm:ss without going through SimpleDateFormat. Anything after the seconds is ignored.");
+        parseIsoDate.javadoc().addReturn("the parsed date or null if the value is not in that form");
+        Variable value = parseIsoDate.param(ref(String.class), "value");
+
+        Expression notIso = Op.lt(value.invoke("length"), ExpressionFactory.lit(19));
+        notIso = Op.cor(notIso, Op.ne(value.invoke("charAt").arg(ExpressionFactory.lit(4)), ExpressionFactory.lit('-')));
+        notIso = Op.cor(notIso, Op.ne(value.invoke("charAt").arg(ExpressionFactory.lit(7)), ExpressionFactory.lit('-')));
+        notIso = Op.cor(notIso, Op.ne(value.invoke("charAt").arg(ExpressionFactory.lit(10)), ExpressionFactory.lit('T')));
+        notIso = Op.cor(notIso, Op.ne(value.invoke("charAt").arg(ExpressionFactory.lit(13)), ExpressionFactory.lit(':')));
+        notIso = Op.cor(notIso, Op.ne(value.invoke("charAt").arg(ExpressionFactory.lit(16)), ExpressionFactory.lit(':')));
+        parseIsoDate.body()._if(notIso)._then()._return(ExpressionFactory._null());
+
+        Variable year = parseIsoDate.body().decl(ctx().getCodeModel().INT, "year", ExpressionFactory.invoke(parseDigits).arg(value).arg(ExpressionFactory.lit(0)).arg(ExpressionFactory.lit(4)));
+        Variable month = parseIsoDate.body().decl(ctx().getCodeModel().INT, "month", ExpressionFactory.invoke(parseDigits).arg(value).arg(ExpressionFactory.lit(5)).arg(ExpressionFactory.lit(7)));
+        Variable day = parseIsoDate.body().decl(ctx().getCodeModel().INT, "day", ExpressionFactory.invoke(parseDigits).arg(value).arg(ExpressionFactory.lit(8)).arg(ExpressionFactory.lit(10)));
+        Variable hour = parseIsoDate.body().decl(ctx().getCodeModel().INT, "hour", ExpressionFactory.invoke(parseDigits).arg(value).arg(ExpressionFactory.lit(11)).arg(ExpressionFactory.lit(13)));
+        Variable minute = parseIsoDate.body().decl(ctx().getCodeModel().INT, "minute", ExpressionFactory.invoke(parseDigits).arg(value).arg(ExpressionFactory.lit(14)).arg(ExpressionFactory.lit(16)));
+        Variable second = parseIsoDate.body().decl(ctx().getCodeModel().INT, "second", ExpressionFactory.invoke(parseDigits).arg(value).arg(ExpressionFactory.lit(17)).arg(ExpressionFactory.lit(19)));
+
+        Expression anyInvalid = Op.lt(year, ExpressionFactory.lit(0));
+        for (Variable field : new Variable[]{month, day, hour, minute, second}) {
+            anyInvalid = Op.cor(anyInvalid, Op.lt(field, ExpressionFactory.lit(0)));
+        }
+        parseIsoDate.body()._if(anyInvalid)._then()._return(ExpressionFactory._null());
+
+        Variable calendar = parseIsoDate.body().decl(ref(Calendar.class), "calendar", ref(Calendar.class).staticInvoke("getInstance"));
+        parseIsoDate.body().add(calendar.invoke("clear"));
+        parseIsoDate.body().add(calendar.invoke("set").arg(year).arg(Op.minus(month, ExpressionFactory.lit(1))).arg(day).arg(hour).arg(minute).arg(second));
+        parseIsoDate.body()._return(calendar.invoke("getTime"));
+
+        return parseIsoDate;
+    }
+
     private void generateSetPriorityWeighting(DefinedClass transformerClass, FieldVariable weighting) {
         Method setPriorityWeighting = transformerClass.method(Modifier.PUBLIC, ctx().getCodeModel().VOID, "setPriorityWeighting");
         Variable localWeighting = setPriorityWeighting.param(ctx().getCodeModel().INT, "weighting");
@@ -89,18 +167,23 @@ public class StringToDateTransformerGenerator extends AbstractMessageGenerator {
         getPriorityWeighting.body()._return(weighting);
     }
 
-    private void generateDoTransform(DefinedClass definedClass, FieldVariable simpleDateFormat) {
+    private void generateDoTransform(DefinedClass definedClass, FieldVariable simpleDateFormat, FieldVariable pattern, Method parseIsoDate) {
         Method doTransform = definedClass.method(Modifier.PROTECTED, ref(Object.class), "doTransform");
         doTransform._throws(TransformerException.class);
         Variable src = doTransform.param(ref(Object.class), "src");
         doTransform.param(ref(String.class), "encoding");
 
+        Variable value = doTransform.body().decl(ref(String.class), "value", src.invoke("toString"));
+        Variable isoDate = doTransform.body().decl(ref(Date.class), "isoDate", ExpressionFactory.invoke(parseIsoDate).arg(value));
+        Block ifIsoDate = doTransform.body()._if(Op.ne(isoDate, ExpressionFactory._null()))._then();
+        ifIsoDate._return(isoDate);
+
         TryStatement tryStatement = doTransform.body()._try();
-        tryStatement.body()._return(simpleDateFormat.invoke("parse").arg(src.invoke("toString")));
+        tryStatement.body()._return(simpleDateFormat.invoke("get").invoke("parse").arg(value));
         CatchBlock catchBlock = tryStatement._catch(ref(ParseException.class));
         Variable exceptionCaught = catchBlock.param("e");
         Invocation errorMessage = ref(MessageFactory.class).staticInvoke("createStaticMessage").
-                arg(ref(String.class).staticInvoke("format").arg("Could not parse %s using the format %s").arg(src).arg(simpleDateFormat.invoke("toPattern")));
+                arg(ref(String.class).staticInvoke("format").arg("Could not parse %s using the format %s").arg(src).arg(pattern));
         catchBlock.body()._throw(ExpressionFactory._new(
                 ref(TransformerException.class)).
                 arg(errorMessage).
@@ -30,8 +30,11 @@ import org.mule.api.callback.SourceCallback;
 import org.mule.config.PoolingProfile;
 import org.mule.config.spring.factories.MessageProcessorChainFactoryBean;
 import org.mule.devkit.generation.AbstractMessageGenerator;
+import org.mule.devkit.generation.AbstractOAuthAdapterGenerator;
 import org.mule.devkit.generation.NamingConstants;
+import org.mule.devkit.generation.adapter.ConnectionManagerGenerator;
 import org.mule.devkit.generation.adapter.HttpCallbackAdapterGenerator;
+import org.mule.devkit.generation.adapter.OAuth2AdapterGenerator;
 import org.mule.devkit.generation.utils.NameUtils;
 import org.mule.devkit.model.Field;
 import org.mule.devkit.model.Identifiable;
@@ -141,6 +144,10 @@ public class BeanDefinitionParserGenerator extends AbstractMessageGenerator {
             }
         }
 
+        for (String property : getRestHttpClientProperties(type)) {
+            generateParseProperty(parse.body(), element, builder, property);
+        }
+
         Method connect = connectMethodForClass(type);
         if (connect != null) {
             for (Parameter variable : connect.getParameters()) {
@@ -165,6 +172,16 @@ public class BeanDefinitionParserGenerator extends AbstractMessageGenerator {
             DefinedClass restoreAccessTokenCallbackFactory = ctx().getCodeModel()._class(DefinedClassRoles.DEFAULT_RESTORE_ACCESS_TOKEN_CALLBACK);
             generateParseNestedProcessor(parse.body(), element, parserContext, builder, "oauthSaveAccessToken", false, false, false, saveAccessTokenCallbackFactory);
             generateParseNestedProcessor(parse.body(), element, parserContext, builder, "oauthRestoreAccessToken", false, false, false, restoreAccessTokenCallbackFactory);
+
+            generateParseProperty(parse.body(), element, builder, AbstractOAuthAdapterGenerator.ACCESS_TOKEN_ID_FIELD_NAME);
+            generateParseProperty(parse.body(), element, builder, AbstractOAuthAdapterGenerator.ACCESS_TOKEN_STORE_MAX_ENTRIES_FIELD_NAME);
+            Conditional ifObjectStoreRef = parse.body()._if(ExpressionFactory.invoke("hasAttribute").arg(element).arg(SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_OBJECT_STORE_REF));
+            ifObjectStoreRef._then().add(builder.invoke("addPropertyValue").arg(AbstractOAuthAdapterGenerator.ACCESS_TOKEN_OBJECT_STORE_FIELD_NAME).arg(
+                    ExpressionFactory._new(ref(RuntimeBeanReference.class)).arg(element.invoke("getAttribute").arg(SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_OBJECT_STORE_REF))
+            ));
+        }
+        if (type.hasAnnotation(OAuth2.class) && OAuth2AdapterGenerator.isRefreshSupported(type.getAnnotation(OAuth2.class))) {
+            generateParseProperty(parse.body(), element, builder, OAuth2AdapterGenerator.REFRESH_AHEAD_FIELD_NAME);
         }
         if (type.hasProcessorMethodWithParameter(HttpCallback.class)) {
             generateParseHttpCallback(SchemaConstants.HTTP_CALLBACK_CONFIG_ELEMENT_NAME, parse, element, builder);
@@ -172,6 +189,11 @@ public class BeanDefinitionParserGenerator extends AbstractMessageGenerator {
 
         if (connect != null) {
             generateParsePoolingProfile("connection-pooling-profile", "connectionPoolingProfile", parse, element, builder);
+            generateParseProperty(parse.body(), element, builder, ConnectionManagerGenerator.MIN_IDLE_FIELD_NAME);
+            generateParseProperty(parse.body(), element, builder, ConnectionManagerGenerator.TIME_BETWEEN_EVICTION_RUNS_FIELD_NAME);
+            generateParseProperty(parse.body(), element, builder, ConnectionManagerGenerator.MIN_EVICTABLE_IDLE_TIME_FIELD_NAME);
+            generateParseProperty(parse.body(), element, builder, ConnectionManagerGenerator.TEST_WHILE_IDLE_FIELD_NAME);
+            generateParseProperty(parse.body(), element, builder, ConnectionManagerGenerator.TEST_ON_BORROW_FIELD_NAME);
         }
 
         if (type.isPoolable()) {
@@ -194,6 +216,9 @@ public class BeanDefinitionParserGenerator extends AbstractMessageGenerator {
         generateParseProperty(ifHttpCallbackConfigPresent, httpCallbackConfigElement, builder, HttpCallbackAdapterGenerator.LOCAL_PORT_FIELD_NAME);
         generateParseProperty(ifHttpCallbackConfigPresent, httpCallbackConfigElement, builder, HttpCallbackAdapterGenerator.REMOTE_PORT_FIELD_NAME);
         generateParseProperty(ifHttpCallbackConfigPresent, httpCallbackConfigElement, builder, HttpCallbackAdapterGenerator.ASYNC_FIELD_NAME);
+        generateParseProperty(ifHttpCallbackConfigPresent, httpCallbackConfigElement, builder, HttpCallbackAdapterGenerator.ASYNC_MAX_THREADS_FIELD_NAME);
+        generateParseProperty(ifHttpCallbackConfigPresent, httpCallbackConfigElement, builder, HttpCallbackAdapterGenerator.ASYNC_MAX_QUEUE_SIZE_FIELD_NAME);
+        generateParseProperty(ifHttpCallbackConfigPresent, httpCallbackConfigElement, builder, HttpCallbackAdapterGenerator.CALLBACK_TIME_TO_LIVE_FIELD_NAME);
 
         Conditional ifNotNull = ifHttpCallbackConfigPresent._if(ExpressionFactory.invoke("hasAttribute").arg(element).arg(HttpCallbackAdapterGenerator.CONNECTOR_FIELD_NAME + "-ref"));
         ifNotNull._then().add(builder.invoke("addPropertyValue").arg(HttpCallbackAdapterGenerator.CONNECTOR_FIELD_NAME).arg(
@@ -325,6 +350,8 @@ public class BeanDefinitionParserGenerator extends AbstractMessageGenerator {
         Method connectMethod = connectForMethod(method);
         if (connectMethod != null) {
             generateParseProperty(parse.body(), element, builder, "retryMax");
+            generateParseProperty(parse.body(), element, builder, "retryInterval");
+            generateParseProperty(parse.body(), element, builder, "retryBackoff");
 
             for (Parameter variable : connectMethod.getParameters()) {
                 String fieldName = variable.getSimpleName().toString();
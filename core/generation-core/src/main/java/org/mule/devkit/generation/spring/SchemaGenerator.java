@@ -25,10 +25,12 @@ import org.mule.api.annotations.Source;
 import org.mule.api.annotations.Transformer;
 import org.mule.api.annotations.oauth.OAuth;
 import org.mule.api.annotations.oauth.OAuth2;
+import org.mule.api.annotations.rest.RestCall;
 import org.mule.api.annotations.param.Default;
 import org.mule.api.annotations.param.Optional;
 import org.mule.api.callback.HttpCallback;
 import org.mule.devkit.generation.AbstractModuleGenerator;
+import org.mule.devkit.generation.adapter.OAuth2AdapterGenerator;
 import org.mule.devkit.generation.api.GenerationException;
 import org.mule.devkit.generation.utils.NameUtils;
 import org.mule.devkit.model.Field;
@@ -420,6 +422,14 @@ public class SchemaGenerator extends AbstractModuleGenerator {
                     Attribute retryMaxAttr = createAttribute(SchemaConstants.ATTRIBUTE_RETRY_MAX, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_RETRY_MAX_DESCRIPTION);
                     retryMaxAttr.setDefault("1");
                     complexContentExtension.getAttributeOrAttributeGroup().add(retryMaxAttr);
+
+                    Attribute retryIntervalAttr = createAttribute(SchemaConstants.ATTRIBUTE_RETRY_INTERVAL, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_RETRY_INTERVAL_DESCRIPTION);
+                    retryIntervalAttr.setDefault("0");
+                    complexContentExtension.getAttributeOrAttributeGroup().add(retryIntervalAttr);
+
+                    Attribute retryBackoffAttr = createAttribute(SchemaConstants.ATTRIBUTE_RETRY_BACKOFF, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_RETRY_BACKOFF_DESCRIPTION);
+                    retryBackoffAttr.setDefault("FIXED");
+                    complexContentExtension.getAttributeOrAttributeGroup().add(retryBackoffAttr);
                 }
 
                 for (Parameter connectVariable : connectExecutableElement.getParameters()) {
@@ -748,6 +758,10 @@ public class SchemaGenerator extends AbstractModuleGenerator {
             }
         }
 
+        if (type.hasMethodsAnnotatedWith(RestCall.class)) {
+            generateRestHttpClientAttributes(config);
+        }
+
         // get the executable type for create connectivity
         Method connectMethod = connectMethodForClass(type);
 
@@ -774,6 +788,8 @@ public class SchemaGenerator extends AbstractModuleGenerator {
             poolingProfile.setAnnotation(annotation);
 
             all.getParticle().add(objectFactory.createElement(poolingProfile));
+
+            generateConnectionPoolAttributes(config);
         }
 
         // add oauth callback configuration
@@ -782,6 +798,12 @@ public class SchemaGenerator extends AbstractModuleGenerator {
 
             generateOAuthSaveAccessTokenElement(all);
             generateOAuthRestoreAccessTokenElement(all);
+            generateOAuthAccessTokenStoreAttributes(config);
+        }
+        if (type.hasAnnotation(OAuth2.class) && OAuth2AdapterGenerator.isRefreshSupported(type.getAnnotation(OAuth2.class))) {
+            Attribute refreshAhead = createAttribute(SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_REFRESH_AHEAD, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_REFRESH_AHEAD_DESCRIPTION);
+            refreshAhead.setDefault(SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_REFRESH_AHEAD_DEFAULT);
+            config.getAttributeOrAttributeGroup().add(refreshAhead);
         }
         if (type.hasProcessorMethodWithParameter(HttpCallback.class)) {
             generateHttpCallbackElement(SchemaConstants.HTTP_CALLBACK_CONFIG_ELEMENT_NAME, all);
@@ -816,6 +838,56 @@ public class SchemaGenerator extends AbstractModuleGenerator {
         }
     }
 
+    private void generateRestHttpClientAttributes(ExtensionType config) {
+        Attribute maxConnectionsPerHost = createAttribute(SchemaConstants.ATTRIBUTE_HTTP_MAX_CONNECTIONS_PER_HOST, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_HTTP_MAX_CONNECTIONS_PER_HOST_DESCRIPTION);
+        maxConnectionsPerHost.setDefault(SchemaConstants.ATTRIBUTE_HTTP_MAX_CONNECTIONS_PER_HOST_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(maxConnectionsPerHost);
+
+        Attribute maxTotalConnections = createAttribute(SchemaConstants.ATTRIBUTE_HTTP_MAX_TOTAL_CONNECTIONS, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_HTTP_MAX_TOTAL_CONNECTIONS_DESCRIPTION);
+        maxTotalConnections.setDefault(SchemaConstants.ATTRIBUTE_HTTP_MAX_TOTAL_CONNECTIONS_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(maxTotalConnections);
+
+        Attribute connectionTimeout = createAttribute(SchemaConstants.ATTRIBUTE_HTTP_CONNECTION_TIMEOUT, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_HTTP_CONNECTION_TIMEOUT_DESCRIPTION);
+        connectionTimeout.setDefault(SchemaConstants.ATTRIBUTE_HTTP_CONNECTION_TIMEOUT_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(connectionTimeout);
+
+        Attribute idleConnectionTimeout = createAttribute(SchemaConstants.ATTRIBUTE_HTTP_IDLE_CONNECTION_TIMEOUT, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_HTTP_IDLE_CONNECTION_TIMEOUT_DESCRIPTION);
+        idleConnectionTimeout.setDefault(SchemaConstants.ATTRIBUTE_HTTP_IDLE_CONNECTION_TIMEOUT_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(idleConnectionTimeout);
+    }
+
+    private void generateOAuthAccessTokenStoreAttributes(ExtensionType config) {
+        config.getAttributeOrAttributeGroup().add(createAttribute(SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_ID, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_ID_DESCRIPTION));
+
+        Attribute maxEntries = createAttribute(SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_STORE_MAX_ENTRIES, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_STORE_MAX_ENTRIES_DESCRIPTION);
+        maxEntries.setDefault(SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_STORE_MAX_ENTRIES_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(maxEntries);
+
+        config.getAttributeOrAttributeGroup().add(createAttribute(SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_OBJECT_STORE_REF, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_OAUTH_ACCESS_TOKEN_OBJECT_STORE_REF_DESCRIPTION));
+    }
+
+    private void generateConnectionPoolAttributes(ExtensionType config) {
+        Attribute minIdle = createAttribute(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_MIN_IDLE, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_CONNECTION_POOL_MIN_IDLE_DESCRIPTION);
+        minIdle.setDefault(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_MIN_IDLE_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(minIdle);
+
+        Attribute timeBetweenEvictionRuns = createAttribute(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_TIME_BETWEEN_EVICTION_RUNS, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_CONNECTION_POOL_TIME_BETWEEN_EVICTION_RUNS_DESCRIPTION);
+        timeBetweenEvictionRuns.setDefault(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_TIME_BETWEEN_EVICTION_RUNS_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(timeBetweenEvictionRuns);
+
+        Attribute minEvictableIdleTime = createAttribute(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME, true, SchemaConstants.STRING, SchemaConstants.ATTRIBUTE_CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME_DESCRIPTION);
+        minEvictableIdleTime.setDefault(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(minEvictableIdleTime);
+
+        Attribute testWhileIdle = createAttribute(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_TEST_WHILE_IDLE, true, SchemaConstants.BOOLEAN, SchemaConstants.ATTRIBUTE_CONNECTION_POOL_TEST_WHILE_IDLE_DESCRIPTION);
+        testWhileIdle.setDefault(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_TEST_WHILE_IDLE_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(testWhileIdle);
+
+        Attribute testOnBorrow = createAttribute(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_TEST_ON_BORROW, true, SchemaConstants.BOOLEAN, SchemaConstants.ATTRIBUTE_CONNECTION_POOL_TEST_ON_BORROW_DESCRIPTION);
+        testOnBorrow.setDefault(SchemaConstants.ATTRIBUTE_CONNECTION_POOL_TEST_ON_BORROW_DEFAULT);
+        config.getAttributeOrAttributeGroup().add(testOnBorrow);
+    }
+
     private void generateOAuthSaveAccessTokenElement(ExplicitGroup all) {
         TopLevelElement collectionElement = new TopLevelElement();
         all.getParticle().add(objectFactory.createElement(collectionElement));
@@ -887,6 +959,23 @@ public class SchemaGenerator extends AbstractModuleGenerator {
         asyncAttribute.setType(SchemaConstants.BOOLEAN);
         asyncAttribute.setDefault(SchemaConstants.ASYNC_DEFAULT_VALUE);
 
+        Attribute asyncMaxThreadsAttribute = new Attribute();
+        asyncMaxThreadsAttribute.setUse(SchemaConstants.USE_OPTIONAL);
+        asyncMaxThreadsAttribute.setName(SchemaConstants.ASYNC_MAX_THREADS_ATTRIBUTE_NAME);
+        asyncMaxThreadsAttribute.setType(SchemaConstants.STRING);
+        asyncMaxThreadsAttribute.setDefault(SchemaConstants.ASYNC_MAX_THREADS_DEFAULT_VALUE);
+
+        Attribute asyncMaxQueueSizeAttribute = new Attribute();
+        asyncMaxQueueSizeAttribute.setUse(SchemaConstants.USE_OPTIONAL);
+        asyncMaxQueueSizeAttribute.setName(SchemaConstants.ASYNC_MAX_QUEUE_SIZE_ATTRIBUTE_NAME);
+        asyncMaxQueueSizeAttribute.setType(SchemaConstants.STRING);
+        asyncMaxQueueSizeAttribute.setDefault(SchemaConstants.ASYNC_MAX_QUEUE_SIZE_DEFAULT_VALUE);
+
+        Attribute callbackTimeToLiveAttribute = new Attribute();
+        callbackTimeToLiveAttribute.setUse(SchemaConstants.USE_OPTIONAL);
+        callbackTimeToLiveAttribute.setName(SchemaConstants.CALLBACK_TIME_TO_LIVE_ATTRIBUTE_NAME);
+        callbackTimeToLiveAttribute.setType(SchemaConstants.STRING);
+
         Attribute connectorRefAttribute = new Attribute();
         connectorRefAttribute.setUse(SchemaConstants.USE_OPTIONAL);
         connectorRefAttribute.setName("connector-ref");
@@ -909,6 +998,9 @@ public class SchemaGenerator extends AbstractModuleGenerator {
         extensionType.getAttributeOrAttributeGroup().add(remotePortAttribute);
         extensionType.getAttributeOrAttributeGroup().add(domainAttribute);
         extensionType.getAttributeOrAttributeGroup().add(asyncAttribute);
+        extensionType.getAttributeOrAttributeGroup().add(asyncMaxThreadsAttribute);
+        extensionType.getAttributeOrAttributeGroup().add(asyncMaxQueueSizeAttribute);
+        extensionType.getAttributeOrAttributeGroup().add(callbackTimeToLiveAttribute);
         extensionType.getAttributeOrAttributeGroup().add(connectorRefAttribute);
 
         ComplexContent complextContent = new ComplexContent();
@@ -61,6 +61,9 @@ public final class SchemaConstants {
     public static final String LOCAL_PORT_ATTRIBUTE_NAME = "localPort";
     public static final String REMOTE_PORT_ATTRIBUTE_NAME = "remotePort";
     public static final String ASYNC_ATTRIBUTE_NAME = "async";
+    public static final String ASYNC_MAX_THREADS_ATTRIBUTE_NAME = "asyncMaxThreads";
+    public static final String ASYNC_MAX_QUEUE_SIZE_ATTRIBUTE_NAME = "asyncMaxQueueSize";
+    public static final String CALLBACK_TIME_TO_LIVE_ATTRIBUTE_NAME = "callbackTimeToLive";
     public static final String HTTP_CALLBACK_CONFIG_ELEMENT_NAME = "http-callback-config";
     public static final String OAUTH_CALLBACK_CONFIG_ELEMENT_NAME = "oauth-callback-config";
     public static final String REF_SUFFIX = "-ref";
@@ -72,6 +75,16 @@ public final class SchemaConstants {
     public static final String ATTRIBUTE_NAME_VALUE_REF = "value-ref";
     public static final String ATTRIBUTE_NAME_KEY_REF = "key-ref";
     public static final String ATTRIBUTE_RETRY_MAX = "retryMax";
+    public static final String ATTRIBUTE_RETRY_INTERVAL = "retryInterval";
+    public static final String ATTRIBUTE_RETRY_BACKOFF = "retryBackoff";
+    public static final String ATTRIBUTE_HTTP_MAX_CONNECTIONS_PER_HOST = "httpMaxConnectionsPerHost";
+    public static final String ATTRIBUTE_HTTP_MAX_TOTAL_CONNECTIONS = "httpMaxTotalConnections";
+    public static final String ATTRIBUTE_HTTP_CONNECTION_TIMEOUT = "httpConnectionTimeout";
+    public static final String ATTRIBUTE_HTTP_IDLE_CONNECTION_TIMEOUT = "httpIdleConnectionTimeout";
+    public static final String ATTRIBUTE_HTTP_MAX_CONNECTIONS_PER_HOST_DEFAULT = "20";
+    public static final String ATTRIBUTE_HTTP_MAX_TOTAL_CONNECTIONS_DEFAULT = "100";
+    public static final String ATTRIBUTE_HTTP_CONNECTION_TIMEOUT_DEFAULT = "0";
+    public static final String ATTRIBUTE_HTTP_IDLE_CONNECTION_TIMEOUT_DEFAULT = "60000";
     public static final String XSD_EXTENSION = ".xsd";
     public static final String ENUM_TYPE_SUFFIX = "EnumType";
     public static final String OBJECT_TYPE_SUFFIX = "ObjectType";
@@ -83,7 +96,15 @@ public final class SchemaConstants {
     public static final String DOMAIN_DEFAULT_VALUE = "${fullDomain}";
     public static final String PORT_DEFAULT_VALUE = "${http.port}";
     public static final String ASYNC_DEFAULT_VALUE = "true";
+    public static final String ASYNC_MAX_THREADS_DEFAULT_VALUE = "16";
+    public static final String ASYNC_MAX_QUEUE_SIZE_DEFAULT_VALUE = "1000";
     public static final String ATTRIBUTE_RETRY_MAX_DESCRIPTION = "Specify how many times this operation can be retried automatically.";
+    public static final String ATTRIBUTE_RETRY_INTERVAL_DESCRIPTION = "Base interval in milliseconds to wait before retrying this operation.";
+    public static final String ATTRIBUTE_RETRY_BACKOFF_DESCRIPTION = "Strategy used to space out retries: FIXED, EXPONENTIAL or JITTERED.";
+    public static final String ATTRIBUTE_HTTP_MAX_CONNECTIONS_PER_HOST_DESCRIPTION = "Maximum number of simultaneous HTTP connections to a single host.";
+    public static final String ATTRIBUTE_HTTP_MAX_TOTAL_CONNECTIONS_DESCRIPTION = "Maximum number of simultaneous HTTP connections across all hosts.";
+    public static final String ATTRIBUTE_HTTP_CONNECTION_TIMEOUT_DESCRIPTION = "Time in milliseconds to wait while establishing an HTTP connection. Zero means no timeout.";
+    public static final String ATTRIBUTE_HTTP_IDLE_CONNECTION_TIMEOUT_DESCRIPTION = "Time in milliseconds after which idle HTTP connections are closed. Zero disables idle connection eviction.";
     public static final String ATTRIBUTE_NAME_REF_DESCRIPTION = "The reference object for this parameter";
     public static final String ATTRIBUTE_NAME_NAME_DESCRIPTION = "Give a name to this configuration so it can be later referenced by config-ref.";
     public static final String CONNECTION_POOLING_PROFILE = "connection-pooling-profile";
@@ -94,4 +115,29 @@ public final class SchemaConstants {
     public static final String OAUTH_RESTORE_ACCESS_TOKEN_ELEMENT = "oauth-restore-access-token";
     public static final String OAUTH_SAVE_ACCESS_TOKEN_ELEMENT_DESCRIPTION = "A chain of message processors processed synchronously that can be used to save OAuth state. They will be executed once the connector acquires an OAuth access token.";
     public static final String OAUTH_RESTORE_ACCESS_TOKEN_ELEMENT_DESCRIPTION = "A chain of message processors processed synchronously that can be used to restore OAuth state. They will be executed whenever access to a protected resource is requested and the connector is not authorized yet.";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_ID = "accessTokenId";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_STORE_MAX_ENTRIES = "accessTokenStoreMaxEntries";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_OBJECT_STORE_REF = "accessTokenObjectStore-ref";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_STORE_MAX_ENTRIES_DEFAULT = "1000";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_ID_DESCRIPTION = "Identifier of the user or resource owner on whose behalf the connector acts, usually an expression evaluated against the current message. When set, access tokens are kept per identifier so a single configuration can serve many users.";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_STORE_MAX_ENTRIES_DESCRIPTION = "Maximum number of access tokens kept in memory when an access token id is set. The least recently used ones are evicted first.";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_OBJECT_STORE_REF_DESCRIPTION = "Reference to an object store in which access tokens are kept when an access token id is set, so they survive eviction from memory and restarts.";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_REFRESH_AHEAD = "accessTokenRefreshAhead";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_REFRESH_AHEAD_DEFAULT = "60000";
+    public static final String ATTRIBUTE_OAUTH_ACCESS_TOKEN_REFRESH_AHEAD_DESCRIPTION = "Time in milliseconds before expiration at which the access token is refreshed in the background. It is capped at half the remaining lifetime of the access token.";
+    public static final String ATTRIBUTE_CONNECTION_POOL_MIN_IDLE = "connectionPoolMinIdle";
+    public static final String ATTRIBUTE_CONNECTION_POOL_TIME_BETWEEN_EVICTION_RUNS = "connectionPoolTimeBetweenEvictionRunsMillis";
+    public static final String ATTRIBUTE_CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME = "connectionPoolMinEvictableIdleTimeMillis";
+    public static final String ATTRIBUTE_CONNECTION_POOL_TEST_WHILE_IDLE = "connectionPoolTestWhileIdle";
+    public static final String ATTRIBUTE_CONNECTION_POOL_TEST_ON_BORROW = "connectionPoolTestOnBorrow";
+    public static final String ATTRIBUTE_CONNECTION_POOL_MIN_IDLE_DEFAULT = "0";
+    public static final String ATTRIBUTE_CONNECTION_POOL_TIME_BETWEEN_EVICTION_RUNS_DEFAULT = "60000";
+    public static final String ATTRIBUTE_CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME_DEFAULT = "1800000";
+    public static final String ATTRIBUTE_CONNECTION_POOL_TEST_WHILE_IDLE_DEFAULT = "true";
+    public static final String ATTRIBUTE_CONNECTION_POOL_TEST_ON_BORROW_DEFAULT = "false";
+    public static final String ATTRIBUTE_CONNECTION_POOL_MIN_IDLE_DESCRIPTION = "Minimum number of idle connections kept per connection key. When all connection parameters are set at the config level, that many connections are opened when the config is initialised.";
+    public static final String ATTRIBUTE_CONNECTION_POOL_TIME_BETWEEN_EVICTION_RUNS_DESCRIPTION = "Milliseconds between runs of the background task that evicts and validates idle connections. Zero or less disables it.";
+    public static final String ATTRIBUTE_CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME_DESCRIPTION = "Milliseconds a connection may sit idle in the pool before it is evicted.";
+    public static final String ATTRIBUTE_CONNECTION_POOL_TEST_WHILE_IDLE_DESCRIPTION = "Whether idle connections are validated by the background eviction task. Invalid ones are destroyed.";
+    public static final String ATTRIBUTE_CONNECTION_POOL_TEST_ON_BORROW_DESCRIPTION = "Whether connections are also validated every time they are taken from the pool. This costs a call to the validation method on each operation.";
 }
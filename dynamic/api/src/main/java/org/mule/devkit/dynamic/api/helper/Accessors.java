@@ -0,0 +1,274 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mule.devkit.dynamic.api.helper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cached accessors for a single {@link Class}.
+ * <br />
+ * Offers the same operations as {@link Reflections} but resolves each {@link Method} or {@link Field} once per
+ * (property, argument type) and reuses it on subsequent calls. Instances are meant to be held by whoever owns the
+ * accessed objects so that resolved members are released together with their {@link ClassLoader}.
+ */
+public final class Accessors {
+
+    private interface Setter {
+
+        void set(Object object, Object value) throws IllegalAccessException, InvocationTargetException;
+
+    }
+
+    private static final class MethodSetter implements Setter {
+
+        private final Method method;
+
+        private MethodSetter(final Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public void set(final Object object, final Object value) throws IllegalAccessException, InvocationTargetException {
+            this.method.invoke(object, value);
+        }
+
+    }
+
+    private static final class FieldSetter implements Setter {
+
+        private final Field field;
+
+        private FieldSetter(final Field field) {
+            this.field = field;
+        }
+
+        @Override
+        public void set(final Object object, final Object value) throws IllegalAccessException {
+            this.field.set(object, value);
+        }
+
+    }
+
+    private static final class Key {
+
+        private final String name;
+        private final Class<?> argumentType;
+        private final int hashCode;
+
+        private Key(final String name, final Class<?> argumentType) {
+            this.name = name;
+            this.argumentType = argumentType;
+            this.hashCode = 31 * name.hashCode() + (argumentType != null ? argumentType.hashCode() : 0);
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) object;
+            return this.name.equals(other.name) && this.argumentType == other.argumentType;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+    }
+
+    private final Class<?> type;
+    private final ConcurrentMap<String, Method> parameterSetters = new ConcurrentHashMap<String, Method>();
+    private final ConcurrentMap<Key, Setter> propertySetters = new ConcurrentHashMap<Key, Setter>();
+    private final ConcurrentMap<Key, Method> methods = new ConcurrentHashMap<Key, Method>();
+
+    public Accessors(final Class<?> type) {
+        if (type == null) {
+            throw new IllegalArgumentException("null type");
+        }
+
+        this.type = type;
+    }
+
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    private void ensureAccessible(final Object object) {
+        if (!this.type.isInstance(object)) {
+            throw new IllegalArgumentException("<"+object+"> is not an instance of <"+this.type.getCanonicalName()+">");
+        }
+    }
+
+    /**
+     * Sets property to value for specified object.
+     * @param object
+     * @param propertyName
+     * @param value
+     * @see Reflections#set(java.lang.Object, java.lang.String, java.lang.Object)
+     */
+    public void set(final Object object, final String propertyName, final Object value) {
+        ensureAccessible(object);
+
+        final Key key = new Key(propertyName, value != null ? value.getClass() : null);
+        Setter setter = this.propertySetters.get(key);
+        if (setter == null) {
+            setter = resolvePropertySetter(propertyName, key.argumentType);
+            this.propertySetters.putIfAbsent(key, setter);
+        }
+        try {
+            setter.set(object, value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to set <"+propertyName+"> to <"+value+"> on <"+object+">", e);
+        }
+    }
+
+    private Setter resolvePropertySetter(final String propertyName, final Class<?> valueType) {
+        if (valueType != null) {
+            final Method setter = findMethod(Reflections.setterMethodName(propertyName), valueType);
+            if (setter != null) {
+                return new MethodSetter(setter);
+            }
+        }
+
+        try {
+            final Field field = this.type.getDeclaredField(propertyName);
+            field.setAccessible(true);
+            return new FieldSetter(field);
+        } catch (NoSuchFieldException e) {
+            throw new RuntimeException("Failed to make <"+propertyName+"> accessible", e);
+        }
+    }
+
+    /**
+     * Sets parameters for specified object using their `Object` typed setters.
+     * @param object
+     * @param parameters
+     * @see Reflections#set(java.lang.Object, java.util.Map)
+     */
+    public void set(final Object object, final Map<String, Object> parameters) {
+        ensureAccessible(object);
+
+        for (final Map.Entry<String, Object> entry : parameters.entrySet()) {
+            setParameter(object, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Resets parameters of specified object to null using their `Object` typed setters.
+     * @param object
+     * @param parameterNames
+     */
+    public void unset(final Object object, final Iterable<String> parameterNames) {
+        ensureAccessible(object);
+
+        for (final String parameterName : parameterNames) {
+            setParameter(object, parameterName, null);
+        }
+    }
+
+    private void setParameter(final Object object, final String parameterName, final Object value) {
+        try {
+            Method setter = this.parameterSetters.get(parameterName);
+            if (setter == null) {
+                setter = this.type.getMethod(Reflections.setterMethodName(parameterName), Object.class);
+                this.parameterSetters.putIfAbsent(parameterName, setter);
+            }
+            setter.invoke(object, value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to set parameter <"+parameterName+">", e);
+        }
+    }
+
+    /**
+     * @param <T>
+     * @param object
+     * @param method
+     * @param argument
+     * @return result of dynamic invocation of `method` on `object` with `argument`.
+     * @see Reflections#invoke(java.lang.Object, java.lang.String, java.lang.Object)
+     */
+    public <T> T invoke(final Object object, final String method, final Object argument) {
+        ensureAccessible(object);
+
+        final Key key = new Key(method, argument.getClass());
+        Method resolvedMethod = this.methods.get(key);
+        if (resolvedMethod == null) {
+            resolvedMethod = findMethod(method, argument.getClass());
+            if (resolvedMethod == null) {
+                throw new RuntimeException("Failed to invoke <"+method+"> with arguments <"+argument+"> on <"+object+">", new NoSuchMethodException(method));
+            }
+            this.methods.putIfAbsent(key, resolvedMethod);
+        }
+        try {
+            return (T) resolvedMethod.invoke(object, argument);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to invoke <"+method+"> with arguments <"+argument+"> on <"+object+">", e);
+        }
+    }
+
+    /**
+     * @param <T>
+     * @param object
+     * @param method
+     * @return result of dynamic invocation of `method` on `object` with no argument.
+     * @see Reflections#invoke(java.lang.Object, java.lang.String)
+     */
+    public <T> T invoke(final Object object, final String method) {
+        ensureAccessible(object);
+
+        final Key key = new Key(method, null);
+        Method resolvedMethod = this.methods.get(key);
+        try {
+            if (resolvedMethod == null) {
+                resolvedMethod = this.type.getMethod(method);
+                this.methods.putIfAbsent(key, resolvedMethod);
+            }
+            return (T) resolvedMethod.invoke(object);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to invoke <"+method+"> on <"+object+">", e);
+        }
+    }
+
+    /**
+     * @param name
+     * @param argumentType
+     * @return public method accepting `argumentType` or its primitive counterpart, null if none exists
+     */
+    private Method findMethod(final String name, final Class<?> argumentType) {
+        try {
+            return this.type.getMethod(name, argumentType);
+        } catch (NoSuchMethodException e) {
+            try {
+                return this.type.getMethod(name, Reflections.toPrimitive(argumentType));
+            } catch (IllegalArgumentException ee) {
+                return null;
+            } catch (NoSuchMethodException ee) {
+                return null;
+            }
+        }
+    }
+
+}
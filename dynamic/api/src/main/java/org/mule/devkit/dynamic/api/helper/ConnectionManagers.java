@@ -34,12 +34,29 @@ public final class ConnectionManagers {
         Reflections.invoke(connectionManager, ConnectionManagers.SET_USERNAME_METHOD_NAME, username);
     }
 
+    /**
+     * @param accessors {@link Accessors} for `connectionManager` class, reused across calls
+     * @param connectionManager
+     * @param username
+     */
+    public static void setUsername(final Accessors accessors, final ConnectionManager<?, ?> connectionManager, final String username) {
+        accessors.invoke(connectionManager, ConnectionManagers.SET_USERNAME_METHOD_NAME, username);
+    }
+
     public static void setPassword(final ConnectionManager<?, ?> connectionManager, final String password) {
         Reflections.invoke(connectionManager, ConnectionManagers.SET_PASSWORD_METHOD_NAME, password);
     }
 
+    public static void setPassword(final Accessors accessors, final ConnectionManager<?, ?> connectionManager, final String password) {
+        accessors.invoke(connectionManager, ConnectionManagers.SET_PASSWORD_METHOD_NAME, password);
+    }
+
     public static void setSecurityToken(final ConnectionManager<?, ?> connectionManager, final String securityToken) {
         Reflections.invoke(connectionManager, ConnectionManagers.SET_SECURITY_TOKEN_METHOD_NAME, securityToken);
     }
 
+    public static void setSecurityToken(final Accessors accessors, final ConnectionManager<?, ?> connectionManager, final String securityToken) {
+        accessors.invoke(connectionManager, ConnectionManagers.SET_SECURITY_TOKEN_METHOD_NAME, securityToken);
+    }
+
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import org.mule.api.source.MessageSource;
 import org.mule.api.transformer.DataType;
 import org.mule.api.transformer.Transformer;
 import org.mule.api.transformer.TransformerException;
+import org.mule.devkit.dynamic.api.helper.Accessors;
 import org.mule.devkit.dynamic.api.helper.LifeCycles;
 import org.mule.devkit.dynamic.api.helper.MuleContexts;
 import org.mule.devkit.dynamic.api.helper.Parameters;
@@ -42,6 +43,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -69,8 +72,8 @@ public class DynamicModule implements Disposable {
     private final int retryMax;
     protected static final int DEFAULT_RETRY_MAX = 5;
     private final Map<String, Object> parameters;
-    private final Map<Class<?>, Invoker> invokerCache = new HashMap<Class<?>, Invoker>();
-    private final Map<Class<?>, Registrar> registrarCache = new HashMap<Class<?>, Registrar>();
+    private final ConcurrentMap<Class<?>, Invoker> invokerCache = new ConcurrentHashMap<Class<?>, Invoker>();
+    private final ConcurrentMap<Class<?>, Registrar> registrarCache = new ConcurrentHashMap<Class<?>, Registrar>();
 
     public DynamicModule(final Module module) {
         this(module, Collections.<String, Object>emptyMap());
@@ -126,8 +129,9 @@ public class DynamicModule implements Disposable {
 
         //Apply parameters to the ModuleObject.
         final Object moduleObject = this.module.getModuleObject();
+        final Accessors accessors = new Accessors(moduleObject.getClass());
         for (final Map.Entry<String, Object> entry : this.parameters.entrySet()) {
-            Reflections.set(moduleObject, entry.getKey(), entry.getValue());
+            accessors.set(moduleObject, entry.getKey(), entry.getValue());
         }
 
         this.context.getRegistry().registerObject(DynamicModule.MODULE_OBJECT_REGISTRY_KEY, moduleObject);
@@ -229,15 +233,23 @@ public class DynamicModule implements Disposable {
      * @throws MuleException
      * @see #createInvoker(org.mule.api.processor.MessageProcessor) 
      */
-    protected synchronized final Invoker getInvoker(final MessageProcessor messageProcessor) throws InitialisationException, MuleException {
+    protected final Invoker getInvoker(final MessageProcessor messageProcessor) throws InitialisationException, MuleException {
         final Class<?> key = messageProcessor.getClass();
-        if (this.invokerCache.containsKey(key)) {
-            return this.invokerCache.get(key);
+        final Invoker cachedInvoker = this.invokerCache.get(key);
+        if (cachedInvoker != null) {
+            return cachedInvoker;
         }
 
-        final Invoker invoker = new Invoker(this.context, messageProcessor, this.retryMax);
-        this.invokerCache.put(key, invoker);
-        return invoker;
+        //Creating an Invoker initialises the MessageProcessor so make sure only one is ever created per class.
+        synchronized (this.invokerCache) {
+            if (this.invokerCache.containsKey(key)) {
+                return this.invokerCache.get(key);
+            }
+
+            final Invoker invoker = new Invoker(this.context, messageProcessor, this.retryMax);
+            this.invokerCache.put(key, invoker);
+            return invoker;
+        }
     }
 
     /**
@@ -292,7 +304,7 @@ public class DynamicModule implements Disposable {
      * @throws MuleException
      * @see #createInvoker(org.mule.api.processor.MessageProcessor) 
      */
-    protected synchronized final Registrar getRegistrar(final MessageSource messageSource) throws InitialisationException, MuleException {
+    protected final Registrar getRegistrar(final MessageSource messageSource) throws InitialisationException, MuleException {
         final Class<?> key = messageSource.getClass();
         return this.registrarCache.get(key);
     }
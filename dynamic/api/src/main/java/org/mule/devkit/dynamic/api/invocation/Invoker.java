@@ -23,44 +23,133 @@ import org.mule.api.context.MuleContextAware;
 import org.mule.api.lifecycle.Disposable;
 import org.mule.api.lifecycle.InitialisationException;
 import org.mule.api.processor.MessageProcessor;
+import org.mule.devkit.dynamic.api.helper.Accessors;
+import org.mule.devkit.dynamic.api.helper.Classes;
 import org.mule.devkit.dynamic.api.helper.LifeCycles;
 import org.mule.devkit.dynamic.api.helper.MuleEvents;
-import org.mule.devkit.dynamic.api.helper.Reflections;
 
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+/**
+ * Invokes a generated {@link MessageProcessor}.
+ * Generated processors hold their parameters as fields so an instance cannot serve two calls at once. Each call borrows an
+ * initialised instance from a pool, creating a new one when all are busy, so concurrent invocations never share parameters.
+ * Returned instances have their parameters reset. At most maxIdleMessageProcessors of them are kept, the others are disposed.
+ * Disposing the invoker disposes idle instances right away and borrowed ones once they are returned.
+ */
 public class Invoker implements Disposable {
 
+    private static final Logger LOGGER = Logger.getLogger(Invoker.class.getPackage().getName());
+
     private final MuleContext context;
     private final MessageProcessor messageProcessor;
     private final int retryMax;
+    private final Accessors accessors;
     private static final String RETRY_MAX_FIELD_NAME = "retryMax";
+    private static final int DEFAULT_MAX_IDLE_MESSAGE_PROCESSORS = 2*Runtime.getRuntime().availableProcessors();
+    private final BlockingQueue<MessageProcessor> idleMessageProcessors;
+    private volatile boolean disposed;
 
     public Invoker(final MuleContext context, final MessageProcessor messageProcessor, final int retryMax) {
+        this(context, messageProcessor, retryMax, Invoker.DEFAULT_MAX_IDLE_MESSAGE_PROCESSORS);
+    }
+
+    public Invoker(final MuleContext context, final MessageProcessor messageProcessor, final int retryMax, final int maxIdleMessageProcessors) {
         if (context == null) {
             throw new IllegalArgumentException("null context");
         }
         if (messageProcessor == null) {
             throw new IllegalArgumentException("null messageProcessor");
         }
+        if (maxIdleMessageProcessors < 1) {
+            throw new IllegalArgumentException("maxIdleMessageProcessors must be at least 1");
+        }
 
         this.context = context;
         this.messageProcessor = messageProcessor;
         this.retryMax = retryMax;
+        this.accessors = new Accessors(messageProcessor.getClass());
+        this.idleMessageProcessors = new LinkedBlockingQueue<MessageProcessor>(maxIdleMessageProcessors);
 
         try {
-            initialise();
+            initialise(this.messageProcessor);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        this.idleMessageProcessors.add(this.messageProcessor);
+    }
+
+    private void initialise(final MessageProcessor messageProcessor) throws InitialisationException, MuleException {
+        this.accessors.set(messageProcessor, Invoker.RETRY_MAX_FIELD_NAME, this.retryMax);
+
+        MuleContextAware.class.cast(messageProcessor).setMuleContext(this.context);
+        LifeCycles.initialise(messageProcessor);
+        LifeCycles.start(messageProcessor);
+    }
+
+    /**
+     * @return an idle initialised {@link MessageProcessor}, a new one if none is available
+     * @throws MuleException
+     */
+    protected final MessageProcessor borrowMessageProcessor() throws MuleException {
+        final MessageProcessor idleMessageProcessor = this.idleMessageProcessors.poll();
+        if (idleMessageProcessor != null) {
+            return idleMessageProcessor;
+        }
+
+        final MessageProcessor messageProcessor = Classes.newInstance(this.messageProcessor.getClass());
+        if (messageProcessor == null) {
+            throw new IllegalStateException("Failed to instantiate MessageProcessor class <"+this.messageProcessor.getClass().getCanonicalName()+">");
+        }
+        initialise(messageProcessor);
+        return messageProcessor;
     }
 
-    private void initialise() throws InitialisationException, MuleException {
-        Reflections.set(this.messageProcessor, Invoker.RETRY_MAX_FIELD_NAME, this.retryMax);
+    /**
+     * Resets parameters of a borrowed {@link MessageProcessor} and makes it available again, disposing it if enough are idle
+     * or this invoker has been disposed.
+     * @param messageProcessor
+     * @param parameterNames names of the parameters set on messageProcessor
+     */
+    protected final void returnMessageProcessor(final MessageProcessor messageProcessor, final Iterable<String> parameterNames) {
+        boolean idle = false;
+        try {
+            //Do not keep the last call's values reachable from an idle instance.
+            this.accessors.unset(messageProcessor, parameterNames);
+            idle = !this.disposed && this.idleMessageProcessors.offer(messageProcessor);
+            //dispose() may have drained idle instances in between, whoever removes this one destroys it.
+            if (idle && this.disposed && this.idleMessageProcessors.remove(messageProcessor)) {
+                idle = false;
+            }
+        } finally {
+            if (!idle) {
+                destroy(messageProcessor);
+            }
+        }
+    }
 
-        MuleContextAware.class.cast(this.messageProcessor).setMuleContext(this.context);
-        LifeCycles.initialise(this.messageProcessor);
-        LifeCycles.start(this.messageProcessor);
+    /**
+     * Stops and disposes a {@link MessageProcessor}. Failures are logged so they never hide the outcome of the invocation.
+     */
+    private void destroy(final MessageProcessor messageProcessor) {
+        try {
+            LifeCycles.stop(messageProcessor);
+        } catch (Exception e) {
+            if (Invoker.LOGGER.isLoggable(Level.WARNING)) {
+                Invoker.LOGGER.log(Level.WARNING, "Got exception while stopping <"+messageProcessor+">", e);
+            }
+        }
+        try {
+            LifeCycles.dispose(messageProcessor);
+        } catch (RuntimeException e) {
+            if (Invoker.LOGGER.isLoggable(Level.WARNING)) {
+                Invoker.LOGGER.log(Level.WARNING, "Got exception while disposing <"+messageProcessor+">", e);
+            }
+        }
     }
 
     public final <T> T invoke(final Map<String, Object> processorParameters) throws MuleException {
@@ -68,21 +157,25 @@ public class Invoker implements Disposable {
             throw new IllegalArgumentException("null processorParameters");
         }
 
-        //Set all parameter values on the MessageProcessor.
-        Reflections.set(this.messageProcessor, processorParameters);
+        final MessageProcessor messageProcessor = borrowMessageProcessor();
+        try {
+            //Set all parameter values on the MessageProcessor.
+            this.accessors.set(messageProcessor, processorParameters);
 
-        final MuleEvent muleEvent = MuleEvents.defaultMuleEvent(processorParameters, this.context);
-        return (T) this.messageProcessor.process(muleEvent).getMessage().getPayload();
+            final MuleEvent muleEvent = MuleEvents.defaultMuleEvent(processorParameters, this.context);
+            return (T) messageProcessor.process(muleEvent).getMessage().getPayload();
+        } finally {
+            returnMessageProcessor(messageProcessor, processorParameters.keySet());
+        }
     }
 
     @Override
     public final void dispose() {
-        try {
-            LifeCycles.stop(this.messageProcessor);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        this.disposed = true;
+        MessageProcessor messageProcessor;
+        while ((messageProcessor = this.idleMessageProcessors.poll()) != null) {
+            destroy(messageProcessor);
         }
-        LifeCycles.dispose(this.messageProcessor);
     }
 
-}
\ No newline at end of file
+}
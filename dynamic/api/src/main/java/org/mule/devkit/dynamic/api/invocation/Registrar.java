@@ -23,9 +23,9 @@ import org.mule.api.lifecycle.InitialisationException;
 import org.mule.api.lifecycle.Stoppable;
 import org.mule.api.processor.MessageProcessor;
 import org.mule.api.source.MessageSource;
+import org.mule.devkit.dynamic.api.helper.Accessors;
 import org.mule.devkit.dynamic.api.helper.LifeCycles;
 import org.mule.devkit.dynamic.api.helper.MuleContexts;
-import org.mule.devkit.dynamic.api.helper.Reflections;
 
 import java.util.Map;
 
@@ -53,6 +53,7 @@ public class Registrar implements Stoppable {
 
     private final MuleContext context;
     private final MessageSource messageSource;
+    private final Accessors accessors;
 
     public Registrar(final MuleContext context, final MessageSource messageSource) {
         if (context == null) {
@@ -64,6 +65,7 @@ public class Registrar implements Stoppable {
 
         this.context = context;
         this.messageSource = messageSource;
+        this.accessors = new Accessors(messageSource.getClass());
 
         try {
             initialise();
@@ -79,7 +81,7 @@ public class Registrar implements Stoppable {
     }
 
     public final void start(final Map<String, Object> sourceParameters, final DynamicModule.Listener<?> listener) throws MuleException {
-        Reflections.set(this.messageSource, sourceParameters);
+        this.accessors.set(this.messageSource, sourceParameters);
 
         this.messageSource.setListener(new ListenerWrapper(listener));
 
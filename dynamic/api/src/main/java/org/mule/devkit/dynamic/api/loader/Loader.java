@@ -27,8 +27,8 @@ import org.mule.api.annotations.param.Optional;
 import org.mule.api.callback.SourceCallback;
 import org.mule.api.processor.MessageProcessor;
 import org.mule.api.source.MessageSource;
+import org.mule.devkit.dynamic.api.helper.Accessors;
 import org.mule.devkit.dynamic.api.helper.Classes;
-import org.mule.devkit.dynamic.api.helper.Reflections;
 import org.mule.devkit.dynamic.api.model.Module;
 import org.mule.util.StringUtils;
 
@@ -38,6 +38,8 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class Loader {
 
@@ -46,6 +48,7 @@ public class Loader {
     private static final String TRANSFORMER_CLASS_SUFFIX = "Transformer";
     private static final String PARAMETER_TYPE_FIELD_PREFIX = "_";
     private static final String PARAMETER_TYPE_FIELD_SUFFIX = "Type";
+    private final ConcurrentMap<Class<?>, Accessors> annotationAccessors = new ConcurrentHashMap<Class<?>, Accessors>();
 
     protected final Class<?> findMessageProcessorClass(final Package modulePackage, final String processorName, final ClassLoader classLoader) {
         final String messageProcessorClassName = modulePackage.getName()+"."+StringUtils.capitalize(processorName)+Loader.MESSAGE_PROCESSOR_CLASS_SUFFIX;
@@ -101,12 +104,29 @@ public class Loader {
         return strippedClassName.replace('/', '.');
     }
 
+    /**
+     * @param annotation
+     * @return {@link Accessors} shared by all annotations of the same type
+     */
+    protected final Accessors getAnnotationAccessors(final Object annotation) {
+        final Class<?> annotationClass = annotation.getClass();
+        Accessors accessors = this.annotationAccessors.get(annotationClass);
+        if (accessors == null) {
+            accessors = new Accessors(annotationClass);
+            final Accessors existingAccessors = this.annotationAccessors.putIfAbsent(annotationClass, accessors);
+            if (existingAccessors != null) {
+                accessors = existingAccessors;
+            }
+        }
+        return accessors;
+    }
+
     protected final String extractAnnotationName(final Object annotation) {
-        return Reflections.invoke(annotation, "name");
+        return getAnnotationAccessors(annotation).invoke(annotation, "name");
     }
 
     protected final String extractMinMuleVersion(final Object annotation) {
-        return Reflections.invoke(annotation, "minMuleVersion");
+        return getAnnotationAccessors(annotation).invoke(annotation, "minMuleVersion");
     }
     
     protected final List<Module.Parameter> listParameters(final Class<?> moduleClass) {
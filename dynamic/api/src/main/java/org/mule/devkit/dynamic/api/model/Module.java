@@ -21,6 +21,7 @@ import org.mule.api.Capability;
 import org.mule.api.ConnectionManager;
 import org.mule.api.processor.MessageProcessor;
 import org.mule.api.source.MessageSource;
+import org.mule.devkit.dynamic.api.helper.Accessors;
 import org.mule.devkit.dynamic.api.helper.ConnectionManagers;
 
 import java.util.ArrayList;
@@ -232,6 +233,7 @@ public class Module {
     private final List<Transformer> transformers;
     private final ClassLoader classLoader;
     private final ConnectionManager<?, ?> connectionManager;
+    private final Accessors connectionManagerAccessors;
 
     public Module(final String name, final String minMuleVersion, final Capabilities module, final List<Parameter> parameters, final List<Processor> processors, final List<Source> sources, final List<Transformer> transformers, final ConnectionManager<?, ?> connectionManager, final ClassLoader classLoader) {
         if (name == null) {
@@ -268,6 +270,7 @@ public class Module {
         this.transformers = Collections.unmodifiableList(new ArrayList<Transformer>(transformers));
         this.classLoader = classLoader;
         this.connectionManager = connectionManager;
+        this.connectionManagerAccessors = connectionManager != null ? new Accessors(connectionManager.getClass()) : null;
 
         if (connectionManager != null) {
             ensureConnectionManagementCapability();
@@ -330,19 +333,19 @@ public class Module {
     public final void setUsername(final String username) {
         ensureConnectionManagementCapability();
 
-        ConnectionManagers.setUsername(this.connectionManager, username);
+        ConnectionManagers.setUsername(this.connectionManagerAccessors, this.connectionManager, username);
     }
 
     public final void setPassword(final String password) {
         ensureConnectionManagementCapability();
 
-        ConnectionManagers.setPassword(this.connectionManager, password);
+        ConnectionManagers.setPassword(this.connectionManagerAccessors, this.connectionManager, password);
     }
 
     public final void setSecurityToken(final String securityToken) {
         ensureConnectionManagementCapability();
 
-        ConnectionManagers.setSecurityToken(this.connectionManager, securityToken);
+        ConnectionManagers.setSecurityToken(this.connectionManagerAccessors, this.connectionManager, securityToken);
     }
 
 }
\ No newline at end of file
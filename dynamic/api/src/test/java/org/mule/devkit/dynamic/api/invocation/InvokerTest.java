@@ -0,0 +1,183 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.dynamic.api.invocation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mule.api.MuleContext;
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.context.MuleContextAware;
+import org.mule.api.lifecycle.Disposable;
+import org.mule.api.processor.MessageProcessor;
+import org.mule.devkit.dynamic.api.helper.MuleContexts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InvokerTest {
+
+    /**
+     * Mimics a generated MessageProcessor: parameters are bound through setters and read back while processing.
+     */
+    public static class EchoMessageProcessor implements MessageProcessor, MuleContextAware, Disposable {
+
+        static final Queue<EchoMessageProcessor> INSTANCES = new ConcurrentLinkedQueue<EchoMessageProcessor>();
+
+        private int retryMax;
+        private Object value;
+        private volatile boolean disposed;
+
+        public EchoMessageProcessor() {
+            EchoMessageProcessor.INSTANCES.add(this);
+        }
+
+        public void setValue(final Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public void setMuleContext(final MuleContext context) {
+        }
+
+        @Override
+        public MuleEvent process(final MuleEvent event) throws MuleException {
+            //Give concurrent callers a chance to overwrite the parameter if the instance is shared.
+            Thread.yield();
+            event.getMessage().setPayload(this.value);
+            return event;
+        }
+
+        @Override
+        public void dispose() {
+            this.disposed = true;
+        }
+
+    }
+
+    private MuleContext context;
+
+    @Before
+    public void createMuleContext() throws Exception {
+        this.context = MuleContexts.defaultMuleContext();
+        EchoMessageProcessor.INSTANCES.clear();
+    }
+
+    @After
+    public void disposeMuleContext() {
+        this.context.dispose();
+    }
+
+    @Test
+    public void concurrentInvocationsDoNotShareParameters() throws Exception {
+        final Invoker invoker = new Invoker(this.context, new EchoMessageProcessor(), 1);
+        try {
+            invokeConcurrently(invoker, 8, 500);
+        } finally {
+            invoker.dispose();
+        }
+    }
+
+    @Test
+    public void idleMessageProcessorsAreBounded() throws Exception {
+        final int maxIdle = 2;
+        final Invoker invoker = new Invoker(this.context, new EchoMessageProcessor(), 1, maxIdle);
+        try {
+            invokeConcurrently(invoker, 8, 500);
+
+            int live = 0;
+            for (final EchoMessageProcessor messageProcessor : EchoMessageProcessor.INSTANCES) {
+                if (!messageProcessor.disposed) {
+                    live++;
+                }
+            }
+            assertTrue("<"+live+"> idle instances kept", live <= maxIdle);
+        } finally {
+            invoker.dispose();
+        }
+    }
+
+    @Test
+    public void returnedMessageProcessorsDoNotKeepParameters() throws Exception {
+        final Invoker invoker = new Invoker(this.context, new EchoMessageProcessor(), 1);
+        try {
+            assertEquals("value", invoker.<Object>invoke(Collections.<String, Object>singletonMap("value", "value")));
+
+            for (final EchoMessageProcessor messageProcessor : EchoMessageProcessor.INSTANCES) {
+                assertNull(messageProcessor.value);
+            }
+        } finally {
+            invoker.dispose();
+        }
+    }
+
+    @Test
+    public void borrowedMessageProcessorsAreDisposedOnceReturned() throws Exception {
+        final Invoker invoker = new Invoker(this.context, new EchoMessageProcessor(), 1);
+        final EchoMessageProcessor borrowed = EchoMessageProcessor.class.cast(invoker.borrowMessageProcessor());
+        invoker.dispose();
+        assertFalse(borrowed.disposed);
+
+        invoker.returnMessageProcessor(borrowed, Collections.<String>emptySet());
+        assertTrue(borrowed.disposed);
+    }
+
+    private void invokeConcurrently(final Invoker invoker, final int threads, final int iterations) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Object>> results = new ArrayList<Future<Object>>();
+            for (int i = 0; i < threads; i++) {
+                final int thread = i;
+                results.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < iterations; j++) {
+                            final String value = thread+"-"+j;
+                            assertEquals(value, invoker.<Object>invoke(Collections.<String, Object>singletonMap("value", value)));
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            start.countDown();
+            for (final Future<Object> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -20,8 +20,12 @@ package org.mule.devkit.it;
 import org.mule.api.Capabilities;
 import org.mule.api.Capability;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class ConnectorModuleTest extends AbstractModuleTest {
 
@@ -95,4 +99,29 @@ public class ConnectorModuleTest extends AbstractModuleTest {
         assertNotSame(sessionIdA, sessionIdB);
     }
 
-}
\ No newline at end of file
+    public void testConnectionPoolMetricsAreRegisteredOncePerConfig() throws Exception {
+        assertEquals(1, connectionPoolNames("configA").size());
+        assertEquals(1, connectionPoolNames("configB").size());
+    }
+
+    public void testConnectionPoolMetricsCountConnections() throws Exception {
+        ObjectName name = connectionPoolNames("configB").iterator().next();
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        runFlow("testGetSessionId");
+        assertTrue((Long) mBeanServer.getAttribute(name, "CreatedCount") >= 1);
+        assertEquals(0, mBeanServer.getAttribute(name, "NumActive"));
+        assertTrue((Integer) mBeanServer.getAttribute(name, "NumIdle") >= 1);
+
+        try {
+            runFlow("testInvalidateSessionOnException");
+        } catch (Exception e) {
+        }
+        assertTrue((Long) mBeanServer.getAttribute(name, "DestroyedCount") >= 1);
+    }
+
+    private Set<ObjectName> connectionPoolNames(String configName) throws Exception {
+        return ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("Mule." + muleContext.getConfiguration().getId() +
+                ":type=ConnectionPool,name=" + ObjectName.quote(configName) + ",*"), null);
+    }
+}
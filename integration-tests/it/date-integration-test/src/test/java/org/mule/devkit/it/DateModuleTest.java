@@ -19,11 +19,19 @@ package org.mule.devkit.it;
 
 import org.mule.api.MuleEvent;
 import org.mule.construct.Flow;
+import org.mule.devkit.it.transformers.StringToDateTransformer;
 import org.mule.tck.AbstractMuleTestCase;
 import org.mule.tck.FunctionalTestCase;
 import org.mule.transport.NullPayload;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DateModuleTest extends FunctionalTestCase {
 
@@ -44,6 +52,46 @@ public class DateModuleTest extends FunctionalTestCase {
         assertEquals(NullPayload.class, responsePayload.getClass());
     }
 
+    public void testTransformConcurrently() throws Exception {
+        final StringToDateTransformer transformer = new StringToDateTransformer();
+        transformer.setMuleContext(AbstractMuleTestCase.muleContext);
+
+        final int threads = 16;
+        final int iterations = 500;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Object>> results = new ArrayList<Future<Object>>();
+            for (int i = 0; i < threads; i++) {
+                final int day = i + 1;
+                results.add(executor.submit(new Callable<Object>() {
+                    public Object call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < iterations; j++) {
+                            int hour = j % 24;
+                            int minute = j % 60;
+                            Date expected = new Date(2011 - 1900, 8 - 1, day, hour, minute, 59);
+
+                            String isoDate = String.format("2011-08-%02dT%02d:%02d:59", day, hour, minute);
+                            assertEquals(isoDate, expected, transformer.transform(isoDate));
+
+                            String unpaddedDate = String.format("2011-8-%dT%d:%d:59", day, hour, minute);
+                            assertEquals(unpaddedDate, expected, transformer.transform(unpaddedDate));
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            start.countDown();
+            for (Future<Object> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private Flow lookupFlowConstruct(String name) {
         return (Flow) AbstractMuleTestCase.muleContext.getRegistry().lookupFlowConstruct(name);
     }
@@ -0,0 +1,51 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.it;
+
+import org.mule.api.annotations.ExpressionCompiler;
+import org.mule.api.annotations.ExpressionEvaluator;
+import org.mule.api.annotations.ExpressionLanguage;
+import org.mule.api.annotations.param.Payload;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ExpressionLanguage(name = "compiled")
+public class CompiledExpressionLanguage {
+
+    public static final int MAX_COMPILED_EXPRESSIONS = 2;
+    private static final AtomicInteger compilations = new AtomicInteger();
+
+    @ExpressionCompiler(maxEntries = MAX_COMPILED_EXPRESSIONS)
+    public CompiledExpression compile(String expression) {
+        compilations.incrementAndGet();
+        return new CompiledExpression(expression);
+    }
+
+    @ExpressionEvaluator
+    public Object evaluate(CompiledExpression expression, @Payload Object payload) {
+        return expression.getExpression();
+    }
+
+    public static int getCompilations() {
+        return compilations.get();
+    }
+
+    public static void reset() {
+        compilations.set(0);
+    }
+}
@@ -17,6 +17,9 @@
 
 package org.mule.devkit.it;
 
+import org.mule.api.MuleMessage;
+import org.mule.tck.AbstractMuleTestCase;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -37,4 +40,33 @@ public class MyExpressionLanguageModuleTest extends AbstractModuleTest {
         
         assertEquals("world", payload.get("hello"));
     }
+
+    public void testCompiledExpressionIsReused() throws Exception {
+        CompiledExpressionLanguage.reset();
+
+        assertEquals("a", evaluate("#[compiled:a]"));
+        assertEquals("a", evaluate("#[compiled:a]"));
+        assertEquals(1, CompiledExpressionLanguage.getCompilations());
+    }
+
+    public void testLeastRecentlyUsedCompiledExpressionIsEvicted() throws Exception {
+        CompiledExpressionLanguage.reset();
+
+        evaluate("#[compiled:a]");
+        evaluate("#[compiled:b]");
+        evaluate("#[compiled:a]");
+        evaluate("#[compiled:c]");
+        assertEquals(3, CompiledExpressionLanguage.getCompilations());
+
+        // b was the least recently used one when c went over the limit
+        assertEquals("a", evaluate("#[compiled:a]"));
+        assertEquals(3, CompiledExpressionLanguage.getCompilations());
+        assertEquals("b", evaluate("#[compiled:b]"));
+        assertEquals(4, CompiledExpressionLanguage.getCompilations());
+    }
+
+    private Object evaluate(String expression) throws Exception {
+        MuleMessage message = AbstractMuleTestCase.getTestEvent("").getMessage();
+        return muleContext.getExpressionManager().evaluate(expression, message);
+    }
 }
\ No newline at end of file
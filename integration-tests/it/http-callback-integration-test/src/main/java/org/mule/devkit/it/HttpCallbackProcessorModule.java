@@ -49,6 +49,11 @@ public class HttpCallbackProcessorModule {
         }
     }
 
+    @Processor
+    public String listen(HttpCallback onEventX) {
+        return onEventX.getUrl();
+    }
+
     private void simulateCallback(String callbackUrl) throws IOException {
         new URL(callbackUrl).openConnection().getContent();
     }
@@ -24,6 +24,10 @@ import org.mule.tck.AbstractMuleTestCase;
 import org.mule.tck.FunctionalTestCase;
 import org.mule.transport.http.HttpConnector;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
 public class HttpCallbackProcessorModuleTest extends FunctionalTestCase {
 
     @Override
@@ -60,6 +64,37 @@ public class HttpCallbackProcessorModuleTest extends FunctionalTestCase {
         assertFalse(ComponentX.wasExecuted());
     }
 
+    public void testRegisteredPathIsRouted() throws Exception {
+        String url = (String) runFlow("listen").getMessage().getPayload();
+        assertEquals(200, responseCode(url));
+        Thread.sleep(2000);
+        assertTrue(ComponentX.wasExecuted());
+    }
+
+    public void testUnknownPathIsNotFound() throws Exception {
+        String url = (String) runFlow("listen").getMessage().getPayload();
+        assertEquals(404, responseCode(url.substring(0, url.lastIndexOf('/') + 1) + "unknown"));
+        Thread.sleep(2000);
+        assertFalse(ComponentX.wasExecuted());
+    }
+
+    public void testExpiredCallbackIsNotRouted() throws Exception {
+        String url = (String) runFlow("listenExpiring").getMessage().getPayload();
+        Thread.sleep(1000);
+        assertEquals(404, responseCode(url));
+        Thread.sleep(2000);
+        assertFalse(ComponentX.wasExecuted());
+    }
+
+    private int responseCode(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
     private MuleEvent runFlow(String flowName) throws Exception {
         Flow flow = (Flow) AbstractMuleTestCase.muleContext.getRegistry().lookupFlowConstruct(flowName);
         MuleEvent event = AbstractMuleTestCase.getTestEvent("");
@@ -19,20 +19,38 @@ package org.mule.devkit.it;
 import org.mule.api.MuleEventContext;
 import org.mule.api.lifecycle.Callable;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class AccessTokenComponent implements Callable {
 
-    public static int timesCalled;
-    private static final String RESPONSE = "{" +
-            "       \"access_token\":\"" + Constants.ACCESS_TOKEN + "\"," +
-            "       \"token_type\":\"example\"," +
-            "       \"expires_in\":" + Constants.EXPIRES_IN + "," +
-            "       \"refresh_token\":\"tGzv3JOkF0XG5Qx2TlKWIA\"," +
-            "       \"example_parameter\":\"example_value\"" +
-            "     }";
+    public static final AtomicInteger timesCalled = new AtomicInteger();
+    public static volatile int expiresIn = Constants.EXPIRES_IN;
+    public static volatile boolean failing;
+    public static volatile long responseDelay;
+
+    public static void reset() {
+        timesCalled.set(0);
+        expiresIn = Constants.EXPIRES_IN;
+        failing = false;
+        responseDelay = 0;
+    }
 
     @Override
     public Object onCall(MuleEventContext eventContext) throws Exception {
-        timesCalled++;
-        return RESPONSE;
+        timesCalled.incrementAndGet();
+        if (responseDelay > 0) {
+            Thread.sleep(responseDelay);
+        }
+        if (failing) {
+            eventContext.getMessage().setOutboundProperty("http.status", 500);
+            return "{\"error\":\"server_error\"}";
+        }
+        return "{" +
+                "       \"access_token\":\"" + Constants.ACCESS_TOKEN + "\"," +
+                "       \"token_type\":\"example\"," +
+                "       \"expires_in\":" + expiresIn + "," +
+                "       \"refresh_token\":\"" + Constants.REFRESH_TOKEN + "\"," +
+                "       \"example_parameter\":\"example_value\"" +
+                "     }";
     }
-}
\ No newline at end of file
+}
@@ -20,6 +20,7 @@ public class Constants {
 
     public static final String OAUTH_VERIFIER = "3333";
     public static final String ACCESS_TOKEN = "444";
+    public static final String REFRESH_TOKEN = "tGzv3JOkF0XG5Qx2TlKWIA";
     public static final int OAUTH_ENDPOINTS_PORT = @http.port@;
     public static final int EXPIRES_IN = 3600;
 }
\ No newline at end of file
@@ -26,7 +26,8 @@ import org.mule.api.annotations.oauth.OAuthConsumerSecret;
 
 @Module(name = "oauth")
 @OAuth2(authorizationUrl = OAuthModule.AUTHORIZATION_URL,
-        accessTokenUrl = OAuthModule.ACCESS_TOKEN_URL)
+        accessTokenUrl = OAuthModule.ACCESS_TOKEN_URL,
+        refreshTokenRegex = "\"refresh_token\":\"([^&]+?)\"")
 public class OAuthModule {
 
     public static final int PORT = Constants.OAUTH_ENDPOINTS_PORT;
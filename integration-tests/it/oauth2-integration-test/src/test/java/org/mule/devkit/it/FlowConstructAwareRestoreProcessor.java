@@ -0,0 +1,44 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mule.devkit.it;
+
+import org.mule.api.MuleEvent;
+import org.mule.api.MuleException;
+import org.mule.api.construct.FlowConstruct;
+import org.mule.api.construct.FlowConstructAware;
+import org.mule.api.processor.MessageProcessor;
+
+public class FlowConstructAwareRestoreProcessor implements MessageProcessor, FlowConstructAware {
+    private static volatile String flowConstructName;
+    private FlowConstruct flowConstruct;
+
+    public void setFlowConstruct(FlowConstruct flowConstruct) {
+        this.flowConstruct = flowConstruct;
+    }
+
+    public MuleEvent process(MuleEvent event) throws MuleException {
+        if (flowConstruct != null) {
+            flowConstructName = flowConstruct.getName();
+            event.getMessage().setInvocationProperty("OAuthAccessToken", Constants.ACCESS_TOKEN);
+        }
+        return event;
+    }
+
+    public static String getFlowConstructName() {
+        return flowConstructName;
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.mule.devkit.it;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.mule.api.Capabilities;
 import org.mule.api.Capability;
@@ -30,10 +31,18 @@ import org.mule.tck.junit4.FunctionalTestCase;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class OAuthModuleTest extends FunctionalTestCase {
@@ -43,6 +52,11 @@ public class OAuthModuleTest extends FunctionalTestCase {
         return "oauth.xml";
     }
 
+    @Before
+    public void resetAccessTokenEndpoint() {
+        AccessTokenComponent.reset();
+    }
+
     @Test
     public void testEnsureCapability() throws Exception {
         Capabilities capabilities = (Capabilities) muleContext.getRegistry().lookupObject("default-oauth");
@@ -87,6 +101,13 @@ public class OAuthModuleTest extends FunctionalTestCase {
         verifiyProtectedResourceWasAccessed(responseEvent);
     }
     
+    @Test
+    public void testProtectedResourceWithFlowConstructAwareRestore() throws Exception {
+        MuleEvent responseEvent = runFlow("protectedResourceWithFlowConstructAwareRestore");
+        verifiyProtectedResourceWasAccessed(responseEvent);
+        assertEquals("DefaultRestoreAccessTokenCallback", FlowConstructAwareRestoreProcessor.getFlowConstructName());
+    }
+
     @Test
     public void testProtectedResourceAccessTokenExpired() throws Exception {
         MuleEvent responseEvent = runFlow("authorize");
@@ -104,6 +125,128 @@ public class OAuthModuleTest extends FunctionalTestCase {
         verifiyProtectedResourceWasAccessed(responseEvent);
     }
 
+    @Test
+    public void testProtectedResourceMultiTenant() throws Exception {
+        OAuthModuleOAuth2Adapter oauthAdapter = muleContext.getRegistry().lookupObject("oauth-multi-tenant");
+
+        verifiyProtectedResourceWasAccessed(runFlow("protectedResourceMultiTenant", "alice"));
+        assertNotNull(oauthAdapter.getAccessTokenStore().get("alice"));
+
+        verifiyProtectedResourceWasAccessed(runFlow("protectedResourceMultiTenant", "bob"));
+        assertNotNull(oauthAdapter.getAccessTokenStore().get("bob"));
+        assertNull(oauthAdapter.getAccessTokenStore().get("alice"));
+        assertEquals(1, oauthAdapter.getAccessTokenStore().size());
+    }
+
+    @Test
+    public void testMultiTenantAuthorizationsCompleteForTheTenantWhichStartedThem() throws Exception {
+        String aliceUrl = verifyUserIsRedirectedToAuthorizationUrl(runFlow("authorizeMultiTenant", "alice"));
+        String bobUrl = verifyUserIsRedirectedToAuthorizationUrl(runFlow("authorizeMultiTenant", "bob"));
+        assertNotNull(extractParameter(aliceUrl, "state"));
+        assertNotNull(extractParameter(bobUrl, "state"));
+
+        simulateCallbackUponUserAuthorizingConsumer(bobUrl);
+        simulateCallbackUponUserAuthorizingConsumer(aliceUrl);
+
+        OAuthModuleOAuth2Adapter oauthAdapter = muleContext.getRegistry().lookupObject("oauth-multi-tenant-authorize");
+        assertNotNull(oauthAdapter.getAccessTokenStore().get("alice"));
+        assertNotNull(oauthAdapter.getAccessTokenStore().get("bob"));
+        verifiyProtectedResourceWasAccessed(runFlow("protectedResourceMultiTenantAuthorized", "alice"));
+        verifiyProtectedResourceWasAccessed(runFlow("protectedResourceMultiTenantAuthorized", "bob"));
+    }
+
+    @Test(expected = MessagingException.class)
+    public void testMultiTenantAuthorizationIsNotSharedWithOtherTenants() throws Exception {
+        String aliceUrl = verifyUserIsRedirectedToAuthorizationUrl(runFlow("authorizeMultiTenant", "alice"));
+        simulateCallbackUponUserAuthorizingConsumer(aliceUrl);
+
+        verifyUserIsRedirectedToAuthorizationUrl(runFlow("authorizeMultiTenant", "bob"));
+        runFlow("protectedResourceMultiTenantAuthorized", "bob");
+    }
+
+    @Test(expected = MessagingException.class)
+    public void testMultiTenantRequiresAnAccessTokenId() throws Exception {
+        String aliceUrl = verifyUserIsRedirectedToAuthorizationUrl(runFlow("authorizeMultiTenant", "alice"));
+        simulateCallbackUponUserAuthorizingConsumer(aliceUrl);
+
+        runFlow("protectedResourceMultiTenantAuthorized");
+    }
+
+    @Test
+    public void testRefreshAheadIsConfigurable() throws Exception {
+        OAuthModuleOAuth2Adapter oauthAdapter = muleContext.getRegistry().lookupObject("oauth-refresh");
+        assertEquals(30000L, oauthAdapter.getAccessTokenRefreshAhead());
+    }
+
+    @Test
+    public void testExpiredAccessTokenIsRefreshed() throws Exception {
+        OAuthModuleOAuth2Adapter oauthAdapter = authorizeRefresh();
+        assertEquals(Constants.REFRESH_TOKEN, oauthAdapter.getRefreshToken());
+        int timesCalled = AccessTokenComponent.timesCalled.get();
+
+        oauthAdapter.setExpiration(new Date(System.currentTimeMillis() - 1000));
+        verifiyProtectedResourceWasAccessed(runFlow("protectedResourceRefresh"));
+        assertEquals(timesCalled + 1, AccessTokenComponent.timesCalled.get());
+
+        verifiyProtectedResourceWasAccessed(runFlow("protectedResourceRefresh"));
+        assertEquals(timesCalled + 1, AccessTokenComponent.timesCalled.get());
+    }
+
+    @Test
+    public void testFailedRefreshIsNotRetriedByWaitingCallers() throws Exception {
+        OAuthModuleOAuth2Adapter oauthAdapter = authorizeRefresh();
+        int timesCalled = AccessTokenComponent.timesCalled.get();
+
+        AccessTokenComponent.failing = true;
+        AccessTokenComponent.responseDelay = 500;
+        oauthAdapter.setExpiration(new Date(System.currentTimeMillis() - 1000));
+
+        int callers = 5;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<MuleEvent>> responses = new ArrayList<Future<MuleEvent>>();
+            for (int i = 0; i < callers; i++) {
+                responses.add(executor.submit(new Callable<MuleEvent>() {
+                    @Override
+                    public MuleEvent call() throws Exception {
+                        start.await();
+                        return runFlow("protectedResourceRefresh");
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<MuleEvent> response : responses) {
+                verifiyProtectedResourceWasAccessed(response.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(timesCalled + 1, AccessTokenComponent.timesCalled.get());
+    }
+
+    @Test
+    public void testShortLivedAccessTokenIsNotRefreshedInALoop() throws Exception {
+        AccessTokenComponent.expiresIn = 1;
+        authorizeRefresh();
+        int timesCalled = AccessTokenComponent.timesCalled.get();
+
+        Thread.sleep(3000);
+
+        int refreshes = AccessTokenComponent.timesCalled.get() - timesCalled;
+        assertTrue("Access token was not refreshed in the background", refreshes >= 1);
+        assertTrue("Access token was refreshed " + refreshes + " times in 3 seconds", refreshes <= 3);
+    }
+
+    private OAuthModuleOAuth2Adapter authorizeRefresh() throws Exception {
+        MuleEvent responseEvent = runFlow("authorizeRefresh");
+        String url = verifyUserIsRedirectedToAuthorizationUrl(responseEvent);
+        simulateCallbackUponUserAuthorizingConsumer(url);
+        verifiyProtectedResourceWasAccessed(runFlow("protectedResourceRefresh"));
+        return muleContext.getRegistry().lookupObject("oauth-refresh");
+    }
+
     private void overrideTokenExpiration() throws RegistrationException {
         OAuthModuleOAuth2Adapter oauthAdapter = muleContext.getRegistry().lookupObject("default-oauth");
         oauthAdapter.setExpiration(new Date(System.currentTimeMillis() - 1000));
@@ -114,13 +257,27 @@ public class OAuthModuleTest extends FunctionalTestCase {
     }
 
     private void simulateCallbackUponUserAuthorizingConsumer(String url) throws IOException {
-        String callbackUrl = url.substring(url.indexOf("redirect_uri=") + "redirect_uri=".length()).replaceAll("%3A", ":").replaceAll("%2F", "/");
+        String callbackUrl = extractParameter(url, "redirect_uri").replaceAll("%3A", ":").replaceAll("%2F", "/");
         callbackUrl += "?code=" + Constants.OAUTH_VERIFIER;
+        String state = extractParameter(url, "state");
+        if (state != null) {
+            callbackUrl += "&state=" + state;
+        }
         HttpURLConnection httpURLConnection = (HttpURLConnection) new URL(callbackUrl).openConnection();
         httpURLConnection.setRequestMethod("GET");
         httpURLConnection.getInputStream();
     }
 
+    private String extractParameter(String url, String name) {
+        int start = url.indexOf("&" + name + "=");
+        if (start == -1) {
+            return null;
+        }
+        start += name.length() + 2;
+        int end = url.indexOf('&', start);
+        return end == -1 ? url.substring(start) : url.substring(start, end);
+    }
+
     private String verifyUserIsRedirectedToAuthorizationUrl(MuleEvent responseEvent) {
         assertEquals("302", responseEvent.getMessage().getOutboundProperty("http.status"));
         String url = responseEvent.getMessage().getOutboundProperty("Location");
@@ -137,4 +294,11 @@ public class OAuthModuleTest extends FunctionalTestCase {
         MuleEvent event = getTestEvent("");
         return flow.process(event);
     }
+
+    private MuleEvent runFlow(String flowName, String userId) throws Exception {
+        Flow flow = lookupFlowConstruct(flowName);
+        MuleEvent event = getTestEvent("");
+        event.getMessage().setInvocationProperty("userId", userId);
+        return flow.process(event);
+    }
 }
\ No newline at end of file
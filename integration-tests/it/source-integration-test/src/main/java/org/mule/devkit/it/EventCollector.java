@@ -0,0 +1,118 @@
+/**
+ * Mule Development Kit
+ * Copyright 2010-2011 (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mule.devkit.it;
+
+import org.mule.api.MuleEventContext;
+import org.mule.api.lifecycle.Callable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This component is just for test usage. It records, per flow, the payloads it receives, the threads it receives
+ * them on and how many events it was processing at once.
+ */
+public class EventCollector implements Callable {
+
+    private static final ConcurrentMap<String, Queue<Object>> payloads = new ConcurrentHashMap<String, Queue<Object>>();
+    private static final ConcurrentMap<String, Set<String>> threads = new ConcurrentHashMap<String, Set<String>>();
+    private static final ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<String, AtomicInteger>();
+    private static final ConcurrentMap<String, AtomicInteger> maxInFlight = new ConcurrentHashMap<String, AtomicInteger>();
+
+    private long processingTime;
+
+    public Object onCall(MuleEventContext eventContext) throws Exception {
+        String flowName = eventContext.getFlowConstruct().getName();
+        int current = counter(inFlight, flowName).incrementAndGet();
+        try {
+            AtomicInteger max = counter(maxInFlight, flowName);
+            int previousMax = max.get();
+            while (current > previousMax && !max.compareAndSet(previousMax, current)) {
+                previousMax = max.get();
+            }
+
+            if (processingTime > 0) {
+                Thread.sleep(processingTime);
+            }
+
+            threadsOf(flowName).add(Thread.currentThread().getName());
+            payloadsOf(flowName).add(eventContext.getMessage().getPayload());
+        } finally {
+            counter(inFlight, flowName).decrementAndGet();
+        }
+        return eventContext.getMessage().getPayload();
+    }
+
+    public void setProcessingTime(long processingTime) {
+        this.processingTime = processingTime;
+    }
+
+    public static List<Object> getPayloads(String flowName) {
+        return new ArrayList<Object>(payloadsOf(flowName));
+    }
+
+    public static Set<String> getThreads(String flowName) {
+        return new HashSet<String>(threadsOf(flowName));
+    }
+
+    public static int getMaxInFlight(String flowName) {
+        return counter(maxInFlight, flowName).get();
+    }
+
+    public static void reset() {
+        payloads.clear();
+        threads.clear();
+        inFlight.clear();
+        maxInFlight.clear();
+    }
+
+    private static Queue<Object> payloadsOf(String flowName) {
+        Queue<Object> flowPayloads = payloads.get(flowName);
+        if (flowPayloads == null) {
+            payloads.putIfAbsent(flowName, new ConcurrentLinkedQueue<Object>());
+            flowPayloads = payloads.get(flowName);
+        }
+        return flowPayloads;
+    }
+
+    private static Set<String> threadsOf(String flowName) {
+        Set<String> flowThreads = threads.get(flowName);
+        if (flowThreads == null) {
+            threads.putIfAbsent(flowName, Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>()));
+            flowThreads = threads.get(flowName);
+        }
+        return flowThreads;
+    }
+
+    private static AtomicInteger counter(ConcurrentMap<String, AtomicInteger> counters, String flowName) {
+        AtomicInteger counter = counters.get(flowName);
+        if (counter == null) {
+            counters.putIfAbsent(flowName, new AtomicInteger());
+            counter = counters.get(flowName);
+        }
+        return counter;
+    }
+}
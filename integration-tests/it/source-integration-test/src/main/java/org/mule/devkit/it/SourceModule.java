@@ -32,57 +32,80 @@ public class SourceModule {
 
     @Source(threadingModel = SourceThreadingModel.NONE)
     public void countNoThread(int startAt, int endAt, int step, SourceCallback callback) throws Exception {
-        int count = startAt;
-        while (true) {
-            if (Thread.interrupted() || count == endAt) {
-                throw new InterruptedException();
-            }
-
-            callback.process(count);
-
-            count += step;
-        }
+        emit(startAt, endAt, step, callback, false);
     }
 
     @Source(primaryNodeOnly=true)
     public void countPrimaryNodeOnly(int startAt, int endAt, int step, SourceCallback callback) throws Exception {
-        int count = startAt;
-        while (true) {
-            if (Thread.interrupted() || count == endAt) {
-                throw new InterruptedException();
-            }
+        emit(startAt, endAt, step, callback, false);
+    }
 
-            callback.process(count);
+    @Source
+    public void count(int startAt, int endAt, int step, SourceCallback callback) throws Exception {
+        emit(startAt, endAt, step, callback, false);
+    }
 
-            count += step;
-        }
+    @Source(threadingModel = SourceThreadingModel.MULTI_THREAD, threads = 2)
+    public void countMultiThread(int startAt, int endAt, int step, SourceCallback callback) throws Exception {
+        emit(startAt, endAt, step, callback, false);
+    }
+
+    @Source(threadingModel = SourceThreadingModel.WORKER_POOL, threads = 2)
+    public void countWorkerPool(int startAt, int endAt, int step, SourceCallback callback) throws Exception {
+        emit(startAt, endAt, step, callback, false);
+    }
+
+    @Source(threadingModel = SourceThreadingModel.VIRTUAL_THREAD, threads = 2)
+    public void countVirtualThread(int startAt, int endAt, int step, SourceCallback callback) throws Exception {
+        emit(startAt, endAt, step, callback, false);
+    }
+
+    @Source(batchSize = 10, batchTimeout = 100)
+    public void countBatched(int startAt, int endAt, int step, SourceCallback callback) throws Exception {
+        emit(startAt, endAt, step, callback, false);
+    }
+
+    @Source(threadingModel = SourceThreadingModel.WORKER_POOL, threads = 8, maxInFlight = 4)
+    public void countWithBackpressure(int startAt, int endAt, int step, SourceCallback callback) throws Exception {
+        emit(startAt, endAt, step, callback, true);
     }
 
     @Source
-    public void count(int startAt, int endAt, int step, SourceCallback callback) throws Exception {
+    public void countWithProperty(int startAt, int endAt, int step, String key, String value, SourceCallback callback) throws Exception {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(key, value);
         int count = startAt;
         while (true) {
             if (Thread.interrupted() || count == endAt) {
                 throw new InterruptedException();
             }
 
-            callback.process(count);
+            callback.process(count, properties);
 
             count += step;
         }
     }
 
-    @Source
-    public void countWithProperty(int startAt, int endAt, int step, String key, String value, SourceCallback callback) throws Exception {
-        Map<String, Object> properties = new HashMap<String, Object>();
-        properties.put(key, value);
+    /**
+     * Emits the numbers from startAt up to endAt, excluding it, and then stops the source by failing
+     *
+     * @param offer whether the numbers are offered, retrying while the source pushes back, instead of processed
+     */
+    private void emit(int startAt, int endAt, int step, SourceCallback callback, boolean offer) throws Exception {
         int count = startAt;
         while (true) {
             if (Thread.interrupted() || count == endAt) {
                 throw new InterruptedException();
             }
 
-            callback.process(count, properties);
+            if (offer) {
+                if (!callback.offer(count)) {
+                    Thread.sleep(1);
+                    continue;
+                }
+            } else {
+                callback.process(count);
+            }
 
             count += step;
         }
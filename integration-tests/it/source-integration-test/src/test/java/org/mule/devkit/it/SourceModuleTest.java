@@ -17,27 +17,119 @@
 
 package org.mule.devkit.it;
 
+import org.mule.api.MuleContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
 public class SourceModuleTest extends AbstractModuleTest {
 
+    private static final int COUNT = 99;
+    private static final long TIMEOUT = 10000;
+
+    @Override
+    protected MuleContext createMuleContext() throws Exception {
+        // sources start emitting along with the context
+        EventCollector.reset();
+        return super.createMuleContext();
+    }
+
     @Override
     protected String getConfigResources() {
         return "source.xml";
     }
 
     public void testSource() throws Exception {
-        runFlow("source");
+        assertEquals(sequence(), waitForPayloads("source", COUNT));
+        assertEquals(1, EventCollector.getThreads("source").size());
     }
 
     public void testNoThreadSource() throws Exception {
-        runFlow("sourceNoThread");
+        assertEquals(sequence(), waitForPayloads("sourceNoThread", COUNT));
+        assertEquals(1, EventCollector.getThreads("sourceNoThread").size());
     }
 
     public void testPrimaryNodeOnlySource() throws Exception {
-        runFlow("sourcePrimaryNodeOnly");
+        assertEquals(sequence(), waitForPayloads("sourcePrimaryNodeOnly", COUNT));
+    }
+
+    public void testMultiThreadSource() throws Exception {
+        List<Object> payloads = waitForPayloads("sourceMultiThread", 2 * COUNT);
+        assertEquals(2 * COUNT, payloads.size());
+        assertEquals(new HashSet<Object>(sequence()), new HashSet<Object>(payloads));
+        assertEquals(2, EventCollector.getThreads("sourceMultiThread").size());
+    }
+
+    public void testWorkerPoolSource() throws Exception {
+        List<Object> payloads = waitForPayloads("sourceWorkerPool", COUNT);
+        assertEquals(COUNT, payloads.size());
+        assertEquals(new HashSet<Object>(sequence()), new HashSet<Object>(payloads));
+        // two workers, plus the receiving thread when both are busy
+        assertTrue(EventCollector.getThreads("sourceWorkerPool").size() <= 3);
+    }
+
+    public void testVirtualThreadSource() throws Exception {
+        List<Object> payloads = waitForPayloads("sourceVirtualThread", 2 * COUNT);
+        assertEquals(2 * COUNT, payloads.size());
+        assertEquals(new HashSet<Object>(sequence()), new HashSet<Object>(payloads));
+        assertEquals(2, EventCollector.getThreads("sourceVirtualThread").size());
+    }
+
+    public void testBatchedSource() throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        List<Object> payloads = flatten(EventCollector.getPayloads("sourceBatched"));
+        while (payloads.size() < COUNT && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            payloads = flatten(EventCollector.getPayloads("sourceBatched"));
+        }
+
+        // 99 is not a multiple of the batch size, so the last numbers only arrive through the batch timeout
+        assertEquals(sequence(), payloads);
+        boolean fullBatch = false;
+        for (Object batch : EventCollector.getPayloads("sourceBatched")) {
+            assertTrue(((List<?>) batch).size() <= 10);
+            fullBatch |= ((List<?>) batch).size() == 10;
+        }
+        assertTrue(fullBatch);
+    }
+
+    public void testBackpressureSource() throws Exception {
+        List<Object> payloads = waitForPayloads("sourceWithBackpressure", COUNT);
+        assertEquals(COUNT, payloads.size());
+        assertEquals(new HashSet<Object>(sequence()), new HashSet<Object>(payloads));
+        // eight workers are available but only four events may be in flight
+        assertTrue(EventCollector.getMaxInFlight("sourceWithBackpressure") <= 4);
+        assertTrue(EventCollector.getMaxInFlight("sourceWithBackpressure") > 1);
     }
 
     public void testSourceWithProperties() throws Exception {
-        runFlow("sourceWithProperties");
+        // the flow fails before reaching the collector unless the property is present
+        assertEquals(sequence(), waitForPayloads("sourceWithProperties", COUNT));
     }
 
-}
\ No newline at end of file
+    private List<Object> waitForPayloads(String flowName, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (EventCollector.getPayloads(flowName).size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        return EventCollector.getPayloads(flowName);
+    }
+
+    private List<Object> flatten(List<Object> batches) {
+        List<Object> payloads = new ArrayList<Object>();
+        for (Object batch : batches) {
+            assertTrue(batch instanceof List);
+            payloads.addAll((List<?>) batch);
+        }
+        return payloads;
+    }
+
+    private List<Object> sequence() {
+        List<Object> sequence = new ArrayList<Object>();
+        for (int i = 1; i <= COUNT; i++) {
+            sequence.add(i);
+        }
+        return sequence;
+    }
+}
@@ -51,6 +51,12 @@ public class AnnotationProcessorMojo extends AbstractAnnotationProcessorMojo {
     @MojoParameter(required = false, expression = "${devkit.javadoc.check.skip}", description = "Skip JavaDoc validation", defaultValue = "false")
     private boolean skipJavaDocValidation;
 
+    @MojoParameter(required = false, expression = "${devkit.generation.parallel}", description = "Build the generated code, schema and studio models concurrently", defaultValue = "false")
+    private boolean parallelGeneration;
+
+    @MojoParameter(required = false, expression = "${devkit.generation.incremental}", description = "Skip generation when the annotated classes did not change and do not rewrite identical files", defaultValue = "false")
+    private boolean incrementalGeneration;
+
     @Override
     protected File getOutputClassDirectory() {
         return outputClassDirectory;
@@ -99,6 +105,16 @@ public class AnnotationProcessorMojo extends AbstractAnnotationProcessorMojo {
         } else {
             options.add("-AenabledStudioPluginPackage=true");
         }
+        if (parallelGeneration) {
+            options.add("-AenableParallelGeneration=true");
+        } else {
+            options.add("-AenableParallelGeneration=false");
+        }
+        if (incrementalGeneration) {
+            options.add("-AenableIncrementalGeneration=true");
+        } else {
+            options.add("-AenableIncrementalGeneration=false");
+        }
 
         super.addCompilerArguments(options);
     }